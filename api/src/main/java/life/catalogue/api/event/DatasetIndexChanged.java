@@ -0,0 +1,29 @@
+package life.catalogue.api.event;
+
+/**
+ * Indicates that the search index documents of an entire dataset have been rebuilt or removed.
+ * A missing dataset key means the whole index has been replaced.
+ */
+public class DatasetIndexChanged {
+  private final Integer datasetKey;
+
+  public static DatasetIndexChanged all() {
+    return new DatasetIndexChanged(null);
+  }
+
+  public static DatasetIndexChanged dataset(int datasetKey) {
+    return new DatasetIndexChanged(datasetKey);
+  }
+
+  private DatasetIndexChanged(Integer datasetKey) {
+    this.datasetKey = datasetKey;
+  }
+
+  public Integer getDatasetKey() {
+    return datasetKey;
+  }
+
+  public boolean isAll() {
+    return datasetKey == null;
+  }
+}
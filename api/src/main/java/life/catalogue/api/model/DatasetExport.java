@@ -11,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -31,6 +32,7 @@ public class DatasetExport extends DataEntity<UUID> {
   // result metrics
   private String md5; // md5 for file
   private long size; // filesize in bytes
+  private long bytesWritten; // uncompressed size of all exported files in bytes
   private Integer synonymCount;
   private Integer taxonCount;
   private Map<Rank, Integer> taxaByRankCount = Maps.newHashMap();
@@ -168,6 +170,30 @@ public class DatasetExport extends DataEntity<UUID> {
     this.size = size;
   }
 
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  public void setBytesWritten(long bytesWritten) {
+    this.bytesWritten = bytesWritten;
+  }
+
+  /**
+   * @return uncompressed bytes written per second over the entire export or null if the export is not finished
+   */
+  public Long getThroughput() {
+    if (started == null || finished == null) {
+      return null;
+    }
+    long millis = Math.max(1, Duration.between(started, finished).toMillis());
+    return bytesWritten * 1000 / millis;
+  }
+
+  public String getThroughputWithUnit() {
+    Long throughput = getThroughput();
+    return throughput == null ? null : StringUtils.byteWithUnitSI(throughput) + "/s";
+  }
+
   public Integer getSynonymCount() {
     return synonymCount;
   }
@@ -214,11 +240,11 @@ public class DatasetExport extends DataEntity<UUID> {
     if (!(o instanceof DatasetExport)) return false;
     if (!super.equals(o)) return false;
     DatasetExport that = (DatasetExport) o;
-    return size == that.size && Objects.equals(key, that.key) && Objects.equals(request, that.request) && Objects.equals(classification, that.classification) && Objects.equals(attempt, that.attempt) && Objects.equals(started, that.started) && Objects.equals(finished, that.finished) && Objects.equals(deleted, that.deleted) && status == that.status && Objects.equals(error, that.error) && Objects.equals(truncated, that.truncated) && Objects.equals(md5, that.md5) && Objects.equals(synonymCount, that.synonymCount) && Objects.equals(taxonCount, that.taxonCount) && Objects.equals(taxaByRankCount, that.taxaByRankCount);
+    return size == that.size && bytesWritten == that.bytesWritten && Objects.equals(key, that.key) && Objects.equals(request, that.request) && Objects.equals(classification, that.classification) && Objects.equals(attempt, that.attempt) && Objects.equals(started, that.started) && Objects.equals(finished, that.finished) && Objects.equals(deleted, that.deleted) && status == that.status && Objects.equals(error, that.error) && Objects.equals(truncated, that.truncated) && Objects.equals(md5, that.md5) && Objects.equals(synonymCount, that.synonymCount) && Objects.equals(taxonCount, that.taxonCount) && Objects.equals(taxaByRankCount, that.taxaByRankCount);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), key, request, classification, attempt, started, finished, deleted, status, error, truncated, md5, size, synonymCount, taxonCount, taxaByRankCount);
+    return Objects.hash(super.hashCode(), key, request, classification, attempt, started, finished, deleted, status, error, truncated, md5, size, bytesWritten, synonymCount, taxonCount, taxaByRankCount);
   }
 }
@@ -70,6 +70,7 @@ public class ImportMetrics implements ImportAttempt {
   private Map<Rank, Integer> namesByRankCount = new HashMap<>();
   private Map<NomStatus, Integer> namesByStatusCount = new HashMap<>();
   private Map<NameType, Integer> namesByTypeCount = new HashMap<>();
+  private Map<MatchType, Integer> namesByMatchTypeCount = new HashMap<>();
   private Map<NomRelType, Integer> nameRelationsByTypeCount = new HashMap<>();
   private Map<SpeciesInteractionType, Integer> speciesInteractionsByTypeCount = new HashMap<>();
   private Map<Rank, Integer> synonymsByRankCount = new HashMap<>();
@@ -79,6 +80,10 @@ public class ImportMetrics implements ImportAttempt {
   private Map<TaxonomicStatus, Integer> usagesByStatusCount = new HashMap<>();
   private Map<Origin, Integer> usagesByOriginCount = new HashMap<>();
   private Map<String, Integer> vernacularsByLanguageCount = new HashMap<>();
+  /**
+   * Duration in milliseconds of the individual import stages
+   */
+  private Map<String, Integer> timings = new HashMap<>();
 
   public Integer getDatasetKey() {
     return datasetKey;
@@ -255,6 +260,14 @@ public class ImportMetrics implements ImportAttempt {
   public void setNamesByTypeCount(Map<NameType, Integer> namesByTypeCount) {
     this.namesByTypeCount = namesByTypeCount;
   }
+
+  public Map<MatchType, Integer> getNamesByMatchTypeCount() {
+    return namesByMatchTypeCount;
+  }
+
+  public void setNamesByMatchTypeCount(Map<MatchType, Integer> namesByMatchTypeCount) {
+    this.namesByMatchTypeCount = namesByMatchTypeCount;
+  }
   
   public Map<NomStatus, Integer> getNamesByStatusCount() {
     return namesByStatusCount;
@@ -325,6 +338,14 @@ public class ImportMetrics implements ImportAttempt {
   public void setVernacularsByLanguageCount(Map<String, Integer> vernacularsByLanguageCount) {
     this.vernacularsByLanguageCount = vernacularsByLanguageCount;
   }
+
+  public Map<String, Integer> getTimings() {
+    return timings;
+  }
+
+  public void setTimings(Map<String, Integer> timings) {
+    this.timings = timings;
+  }
   
   public Map<MediaType, Integer> getMediaByTypeCount() {
     return mediaByTypeCount;
@@ -462,6 +483,7 @@ public class ImportMetrics implements ImportAttempt {
       namesByRankCount = sum(namesByRankCount, m.namesByRankCount);
       namesByStatusCount = sum(namesByStatusCount, m.namesByStatusCount);
       namesByTypeCount = sum(namesByTypeCount, m.namesByTypeCount);
+      namesByMatchTypeCount = sum(namesByMatchTypeCount, m.namesByMatchTypeCount);
       synonymsByRankCount = sum(synonymsByRankCount, m.synonymsByRankCount);
       taxaByRankCount = sum(taxaByRankCount, m.taxaByRankCount);
       taxonConceptRelationsByTypeCount = sum(taxonConceptRelationsByTypeCount, m.taxonConceptRelationsByTypeCount);
@@ -470,6 +492,7 @@ public class ImportMetrics implements ImportAttempt {
       usagesByOriginCount = sum(usagesByOriginCount, m.usagesByOriginCount);
       usagesByStatusCount = sum(usagesByStatusCount, m.usagesByStatusCount);
       vernacularsByLanguageCount = sum(vernacularsByLanguageCount, m.vernacularsByLanguageCount);
+      timings = sum(timings, m.timings);
     }
   }
 
@@ -532,6 +555,7 @@ public class ImportMetrics implements ImportAttempt {
       Objects.equals(namesByRankCount, that.namesByRankCount) &&
       Objects.equals(namesByStatusCount, that.namesByStatusCount) &&
       Objects.equals(namesByTypeCount, that.namesByTypeCount) &&
+      Objects.equals(namesByMatchTypeCount, that.namesByMatchTypeCount) &&
       Objects.equals(synonymsByRankCount, that.synonymsByRankCount) &&
       Objects.equals(taxaByRankCount, that.taxaByRankCount) &&
       Objects.equals(taxonConceptRelationsByTypeCount, that.taxonConceptRelationsByTypeCount) &&
@@ -540,7 +564,8 @@ public class ImportMetrics implements ImportAttempt {
       Objects.equals(usagesByOriginCount, that.usagesByOriginCount) &&
       Objects.equals(usagesByStatusCount, that.usagesByStatusCount) &&
       Objects.equals(vernacularCount, that.vernacularCount) &&
-      Objects.equals(vernacularsByLanguageCount, that.vernacularsByLanguageCount);
+      Objects.equals(vernacularsByLanguageCount, that.vernacularsByLanguageCount) &&
+      Objects.equals(timings, that.timings);
   }
 
   @Override
@@ -551,7 +576,8 @@ public class ImportMetrics implements ImportAttempt {
       sectorCount, ignoredByReasonCount, appliedDecisionCount,
       namesByTypeCount, namesByStatusCount, namesByCodeCount, namesByRankCount, nameRelationsByTypeCount, typeMaterialByStatusCount, distributionsByGazetteerCount,
       vernacularsByLanguageCount, mediaByTypeCount, usagesByOriginCount, usagesByStatusCount,
-      taxaByRankCount, extinctTaxaByRankCount, synonymsByRankCount, taxonConceptRelationsByTypeCount, speciesInteractionsByTypeCount, issuesCount);
+      taxaByRankCount, extinctTaxaByRankCount, synonymsByRankCount, taxonConceptRelationsByTypeCount, speciesInteractionsByTypeCount, issuesCount,
+      namesByMatchTypeCount, timings);
   }
 
   @Override
@@ -13,6 +13,19 @@ public class NameUsageSuggestRequest extends NameUsageRequest {
   @QueryParam("limit")
   private Integer limit; // Desired number of suggestions
 
+  public NameUsageSuggestRequest() {
+  }
+
+  public NameUsageSuggestRequest(NameUsageSuggestRequest other) {
+    super(other);
+    this.accepted = other.accepted;
+    this.limit = other.limit;
+  }
+
+  public NameUsageSuggestRequest copy() {
+    return new NameUsageSuggestRequest(this);
+  }
+
   @Override
   @JsonProperty(access = JsonProperty.Access.READ_ONLY)
   public SearchType getSearchType() {
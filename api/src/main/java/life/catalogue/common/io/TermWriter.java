@@ -6,6 +6,7 @@ import org.gbif.dwc.terms.Term;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -25,6 +26,10 @@ public abstract class TermWriter implements AutoCloseable {
       super(setupWriter(dir, rowType), rowType, idTerm, cols);
     }
 
+    public TSV(OutputStream out, Term rowType, Term idTerm, List<Term> cols) throws IOException {
+      super(TabWriter.fromStream(out), rowType, idTerm, cols);
+    }
+
     static RowWriter setupWriter(File dir, Term rowType) {
       File f = new File(dir, filename(rowType));
       return TabWriter.fromFile(f);
@@ -0,0 +1,257 @@
+package life.catalogue.common.io;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Builds a zip archive from streamed entries without writing the uncompressed data to disk first.
+ *
+ * Every entry is split into chunks which are deflated independently on the given executor,
+ * primed with the tail of the previous chunk as the dictionary, in the same way pigz does it.
+ * The compressed chunks are appended in order to a raw deflate file per entry,
+ * so several entries can be written concurrently.
+ * {@link #write(File, File)} finally merges the raw entries into a zip file without compressing them again.
+ */
+public class ZipBuilder implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(ZipBuilder.class);
+  private static final int CHUNK_SIZE = 256 * 1024;
+  private static final int DICT_SIZE = 32 * 1024;
+  // max number of chunks per entry being compressed at the same time
+  private static final int MAX_IN_FLIGHT = 4;
+
+  private final File tmpDir;
+  private final ExecutorService exec;
+  private final int level;
+  private final List<Entry> entries = new ArrayList<>();
+
+  private static class Entry {
+    final String name;
+    final File file;
+    final CRC32 crc = new CRC32();
+    long size;
+    long compressedSize;
+    boolean closed;
+
+    Entry(String name, File file) {
+      this.name = name;
+      this.file = file;
+    }
+  }
+
+  /**
+   * @param tmpDir directory to keep the compressed entries in until the final zip is written
+   * @param exec executor to deflate chunks with
+   */
+  public ZipBuilder(File tmpDir, ExecutorService exec) throws IOException {
+    this(tmpDir, exec, Deflater.DEFAULT_COMPRESSION);
+  }
+
+  public ZipBuilder(File tmpDir, ExecutorService exec, int level) throws IOException {
+    this.tmpDir = tmpDir;
+    this.exec = exec;
+    this.level = level;
+    FileUtils.forceMkdir(tmpDir);
+  }
+
+  /**
+   * Opens a new zip entry. The returned stream must be closed when done, but can be used from any thread.
+   * @param name path of the entry within the zip archive
+   */
+  public synchronized OutputStream newEntry(String name) throws IOException {
+    for (Entry e : entries) {
+      Preconditions.checkArgument(!e.name.equals(name), "Duplicate zip entry %s", name);
+    }
+    Entry e = new Entry(name, new File(tmpDir, entries.size() + ".deflate"));
+    entries.add(e);
+    return new EntryStream(e);
+  }
+
+  /**
+   * @return total number of uncompressed bytes written to all closed entries so far
+   */
+  public synchronized long getBytesWritten() {
+    return entries.stream().filter(e -> e.closed).mapToLong(e -> e.size).sum();
+  }
+
+  /**
+   * @return total number of compressed bytes written to all closed entries so far
+   */
+  public synchronized long getCompressedBytes() {
+    return entries.stream().filter(e -> e.closed).mapToLong(e -> e.compressedSize).sum();
+  }
+
+  /**
+   * Writes all streamed entries to a new zip file, followed by all files found in the given directory which
+   * are compressed as usual.
+   *
+   * @param zip the zip file to be created
+   * @param dir optional directory with additional files, added recursively with their relative path
+   * @return number of uncompressed bytes in the zip archive
+   */
+  public synchronized long write(File zip, File dir) throws IOException {
+    long bytes = 0;
+    try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(zip)) {
+      for (Entry e : entries) {
+        Preconditions.checkState(e.closed, "Zip entry %s was not closed", e.name);
+        LOG.debug("Adding raw entry {} to archive", e.name);
+        ZipArchiveEntry ze = new ZipArchiveEntry(e.name);
+        ze.setMethod(ZipEntry.DEFLATED);
+        ze.setCrc(e.crc.getValue());
+        ze.setSize(e.size);
+        ze.setCompressedSize(e.compressedSize);
+        try (InputStream in = new BufferedInputStream(new FileInputStream(e.file))) {
+          out.addRawArchiveEntry(ze, in);
+        }
+        bytes += e.size;
+      }
+      if (dir != null && dir.exists()) {
+        for (File f : FileUtils.listFiles(dir, null, true)) {
+          String path = StringUtils.removeStart(f.getAbsolutePath(), dir.getAbsolutePath() + File.separator);
+          LOG.debug("Adding file {} to archive", path);
+          out.putArchiveEntry(new ZipArchiveEntry(f, path));
+          FileUtils.copyFile(f, out);
+          out.closeArchiveEntry();
+          bytes += f.length();
+        }
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Removes all temporary files.
+   */
+  @Override
+  public void close() throws IOException {
+    FileUtils.deleteDirectory(tmpDir);
+  }
+
+  private class EntryStream extends OutputStream {
+    private final Entry entry;
+    private final OutputStream out;
+    private final Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+    private byte[] buf = new byte[CHUNK_SIZE];
+    private int len;
+    private byte[] dict;
+    private boolean closed;
+
+    EntryStream(Entry entry) throws IOException {
+      this.entry = entry;
+      this.out = new BufferedOutputStream(new FileOutputStream(entry.file));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (len == buf.length) {
+        submit(false);
+      }
+      buf[len++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int length) throws IOException {
+      while (length > 0) {
+        if (len == buf.length) {
+          submit(false);
+        }
+        int n = Math.min(length, buf.length - len);
+        System.arraycopy(b, off, buf, len, n);
+        len += n;
+        off += n;
+        length -= n;
+      }
+    }
+
+    private void submit(boolean last) throws IOException {
+      final byte[] data = buf;
+      final int dataLen = len;
+      final byte[] dictionary = dict;
+      entry.crc.update(data, 0, dataLen);
+      entry.size += dataLen;
+      inFlight.add(exec.submit(() -> deflate(data, dataLen, dictionary, last)));
+      // the tail of this chunk primes the next one
+      if (!last) {
+        int dictLen = Math.min(DICT_SIZE, dataLen);
+        dict = Arrays.copyOfRange(data, dataLen - dictLen, dataLen);
+        buf = new byte[CHUNK_SIZE];
+        len = 0;
+      }
+      while (inFlight.size() > (last ? 0 : MAX_IN_FLIGHT)) {
+        writeNext();
+      }
+    }
+
+    private void writeNext() throws IOException {
+      try {
+        byte[] compressed = inFlight.poll().get();
+        out.write(compressed);
+        entry.compressedSize += compressed.length;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while compressing zip entry " + entry.name);
+      } catch (ExecutionException e) {
+        throw new IOException("Failed to compress zip entry " + entry.name, e.getCause());
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        closed = true;
+        try {
+          submit(true);
+        } finally {
+          inFlight.forEach(f -> f.cancel(true));
+          out.close();
+        }
+        synchronized (ZipBuilder.this) {
+          entry.closed = true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Deflates a single chunk into raw deflate data. All but the last chunk end with a sync flush
+   * so the compressed chunks can simply be concatenated.
+   */
+  private byte[] deflate(byte[] data, int len, byte[] dictionary, boolean last) {
+    Deflater deflater = new Deflater(level, true);
+    try {
+      if (dictionary != null) {
+        deflater.setDictionary(dictionary);
+      }
+      deflater.setInput(data, 0, len);
+      if (last) {
+        deflater.finish();
+      }
+      ByteArrayOutputStream bos = new ByteArrayOutputStream(len / 2 + 64);
+      byte[] out = new byte[64 * 1024];
+      int mode = last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH;
+      while (true) {
+        int n = deflater.deflate(out, 0, out.length, mode);
+        bos.write(out, 0, n);
+        if (last ? deflater.finished() : n < out.length && deflater.needsInput()) {
+          break;
+        }
+      }
+      return bos.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+}
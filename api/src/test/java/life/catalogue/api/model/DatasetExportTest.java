@@ -3,9 +3,11 @@ package life.catalogue.api.model;
 import org.junit.Test;
 
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class DatasetExportTest {
   @Test
@@ -22,4 +24,15 @@ public class DatasetExportTest {
     DatasetExport.setDownloadBaseURI(URI.create("http://gbif.org/nonono/"));
     assertEquals(URI.create("http://gbif.org/nonono/7c/" + key + ".zip"), DatasetExport.downloadURI(key));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void throughput() {
+    DatasetExport e = new DatasetExport();
+    assertNull(e.getThroughput());
+    e.setStarted(LocalDateTime.of(2021, 6, 14, 12, 0, 0));
+    e.setFinished(LocalDateTime.of(2021, 6, 14, 12, 0, 4));
+    e.setBytesWritten(8000);
+    assertEquals(2000, (long) e.getThroughput());
+    assertEquals("2.0 kB/s", e.getThroughputWithUnit());
+  }
+}
@@ -0,0 +1,93 @@
+package life.catalogue.common.io;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.*;
+
+public class ZipBuilderTest {
+  File dir;
+  ExecutorService exec;
+
+  @Before
+  public void init() throws Exception {
+    dir = Files.createTempDirectory("zipbuilder").toFile();
+    exec = Executors.newFixedThreadPool(3);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    exec.shutdown();
+    FileUtils.deleteDirectory(dir);
+  }
+
+  @Test
+  public void write() throws Exception {
+    // large text spanning many chunks
+    StringBuilder sb = new StringBuilder();
+    Random rnd = new Random(17);
+    for (int i = 0; i < 100000; i++) {
+      sb.append(i).append('\t').append(Long.toHexString(rnd.nextLong())).append("\tAbies alba Mill.\n");
+    }
+    final String text = sb.toString();
+    final byte[] binary = new byte[1000000];
+    rnd.nextBytes(binary);
+
+    File extra = new File(dir, "files");
+    FileUtils.write(new File(extra, "meta.xml"), "<meta/>", StandardCharsets.UTF_8);
+    FileUtils.write(new File(extra, "dataset/1.xml"), "<eml/>", StandardCharsets.UTF_8);
+
+    File zip = new File(dir, "test.zip");
+    try (ZipBuilder zb = new ZipBuilder(new File(dir, "tmp"), exec)) {
+      try (Writer w = UTF8IoUtils.writerFromStream(zb.newEntry("NameUsage.tsv"))) {
+        w.write(text);
+      }
+      try (OutputStream out = zb.newEntry("binary.bin")) {
+        // write with odd sized arrays and single bytes
+        out.write(binary, 0, 1000);
+        out.write(binary[1000]);
+        out.write(binary, 1001, binary.length - 1001);
+      }
+      zb.newEntry("empty.tsv").close();
+      assertEquals(text.length() + binary.length, zb.getBytesWritten());
+      assertTrue(zb.getCompressedBytes() < zb.getBytesWritten());
+
+      long bytes = zb.write(zip, extra);
+      assertEquals(text.length() + binary.length + 13, bytes);
+    }
+    assertFalse(new File(dir, "tmp").exists());
+
+    try (ZipFile zf = new ZipFile(zip)) {
+      assertEquals(5, zf.size());
+      assertEquals(text, IOUtils.toString(zf.getInputStream(zf.getEntry("NameUsage.tsv")), StandardCharsets.UTF_8));
+      assertArrayEquals(binary, IOUtils.toByteArray(zf.getInputStream(zf.getEntry("binary.bin"))));
+      ZipEntry empty = zf.getEntry("empty.tsv");
+      assertEquals(0, empty.getSize());
+      assertEquals(0, IOUtils.toByteArray(zf.getInputStream(empty)).length);
+      assertEquals("<meta/>", IOUtils.toString(zf.getInputStream(zf.getEntry("meta.xml")), StandardCharsets.UTF_8));
+      assertEquals("<eml/>", IOUtils.toString(zf.getInputStream(zf.getEntry("dataset/1.xml")), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void duplicate() throws Exception {
+    try (ZipBuilder zb = new ZipBuilder(new File(dir, "tmp"), exec)) {
+      zb.newEntry("a.tsv").close();
+      zb.newEntry("a.tsv");
+    }
+  }
+}
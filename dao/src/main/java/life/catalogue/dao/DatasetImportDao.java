@@ -6,12 +6,12 @@ import life.catalogue.api.model.ResultPage;
 import life.catalogue.api.vocab.*;
 import life.catalogue.db.mapper.DatasetImportMapper;
 import life.catalogue.db.mapper.DatasetMapper;
+import life.catalogue.db.mapper.DatasetPartitionMapper;
 import life.catalogue.db.type2.StringCount;
+import life.catalogue.db.type2.TermCount;
 
 import org.gbif.dwc.terms.Term;
 import org.gbif.dwc.terms.TermFactory;
-import org.gbif.nameparser.api.NameType;
-import org.gbif.nameparser.api.NomCode;
 import org.gbif.nameparser.api.Rank;
 
 import java.io.File;
@@ -121,6 +121,8 @@ public class DatasetImportDao {
    * The key is given explicitly because it might deviate from the datasetKey of the DatasetImport
    * in case of releases, where we store the release metrics in the mother project (which is the DatasetImport.datasetKey).
    *
+   * For all but managed datasets this also (re)builds the child summary used by the tree browser.
+   *
    * @param di import to update
    * @param key the dataset key to analyze the data from. Should be the release datasetKey for releases
    */
@@ -128,7 +130,12 @@ public class DatasetImportDao {
     try (SqlSession session = factory.openSession(true)) {
       DatasetImportMapper mapper = session.getMapper(DatasetImportMapper.class);
       updateMetrics(mapper, di, key);
-  
+      // managed projects are edited directly and always count their children live
+      if (DatasetInfoCache.CACHE.info(key).origin != DatasetOrigin.MANAGED) {
+        LOG.info("Build child summary for dataset {}", key);
+        session.getMapper(DatasetPartitionMapper.class).buildChildSummary(key);
+      }
+
       fileMetricsDao.updateTree(key, di.getDatasetKey(), di.getAttempt());
       fileMetricsDao.updateNames(key, di.getDatasetKey(), di.getAttempt());
       
@@ -142,43 +149,49 @@ public class DatasetImportDao {
    * @param key the dataset key to analyze the data from
    */
   private void updateMetrics(DatasetImportMapper mapper, DatasetImport di, int key) {
-    di.setBareNameCount(mapper.countBareName(key));
-    di.setDistributionCount(mapper.countDistribution(key));
+    // names and usages are aggregated from a single grouped scan each
+    ImportMetricsCollector collector = new ImportMetricsCollector();
+    collector.addNames(mapper.countNameMetrics(key));
+    collector.addUsages(mapper.countUsageMetrics(key));
+    collector.apply(di);
+
     di.setEstimateCount(mapper.countEstimate(key));
-    di.setMediaCount(mapper.countMedia(key));
-    di.setNameCount(mapper.countName(key));
     di.setReferenceCount(mapper.countReference(key));
-    di.setSynonymCount(mapper.countSynonym(key));
-    di.setTaxonCount(mapper.countTaxon(key));
     di.setTreatmentCount(mapper.countTreatment(key));
-    di.setTypeMaterialCount(mapper.countTypeMaterial(key));
-    di.setVerbatimCount(mapper.countVerbatim(key));
-    di.setVernacularCount(mapper.countVernacular(key));
 
-    di.setDistributionsByGazetteerCount(countMap(Gazetteer.class, mapper.countDistributionsByGazetteer(key)));
-    di.setExtinctTaxaByRankCount(countMap(DatasetImportDao::parseRank, mapper.countExtinctTaxaByRank(key)));
+    // totals are derived from the grouped counts incl null keys
+    List<StringCount> distributions = mapper.countDistributionsByGazetteer(key);
+    di.setDistributionCount(ImportMetricsCollector.sum(distributions));
+    di.setDistributionsByGazetteerCount(countMap(Gazetteer.class, distributions));
+    List<StringCount> media = mapper.countMediaByType(key);
+    di.setMediaCount(ImportMetricsCollector.sum(media));
+    di.setMediaByTypeCount(countMap(MediaType.class, media));
+    List<StringCount> typeMaterial = mapper.countTypeMaterialByStatus(key);
+    di.setTypeMaterialCount(ImportMetricsCollector.sum(typeMaterial));
+    di.setTypeMaterialByStatusCount(countMap(TypeStatus.class, typeMaterial));
+    List<StringCount> vernaculars = mapper.countVernacularsByLanguage(key);
+    di.setVernacularCount(ImportMetricsCollector.sum(vernaculars));
+    di.setVernacularsByLanguageCount(countMap(vernaculars));
+    List<StringCount> verbatim = mapper.countVerbatimByType(key);
+    di.setVerbatimCount(ImportMetricsCollector.sum(verbatim));
+    di.setVerbatimByTermCount(countMap(DatasetImportDao::parseRowType, verbatim));
+
     di.setIssuesCount(countMap(Issue.class, mapper.countIssues(key)));
-    di.setMediaByTypeCount(countMap(MediaType.class, mapper.countMediaByType(key)));
     di.setNameRelationsByTypeCount(countMap(NomRelType.class, mapper.countNameRelationsByType(key)));
-    di.setNamesByCodeCount(countMap(NomCode.class, mapper.countNamesByCode(key)));
-    di.setNamesByRankCount(countMap(DatasetImportDao::parseRank, mapper.countNamesByRank(key)));
-    di.setNamesByStatusCount(countMap(NomStatus.class, mapper.countNamesByStatus(key)));
-    di.setNamesByTypeCount(countMap(NameType.class, mapper.countNamesByType(key)));
     di.setSpeciesInteractionsByTypeCount(countMap(SpeciesInteractionType.class, mapper.countSpeciesInteractionsByType(key)));
-    di.setSynonymsByRankCount(countMap(DatasetImportDao::parseRank, mapper.countSynonymsByRank(key)));
-    di.setTaxaByRankCount(countMap(DatasetImportDao::parseRank, mapper.countTaxaByRank(key)));
     di.setTaxonConceptRelationsByTypeCount(countMap(TaxonConceptRelType.class, mapper.countTaxonConceptRelationsByType(key)));
-    di.setTypeMaterialByStatusCount(countMap(TypeStatus.class, mapper.countTypeMaterialByStatus(key)));
-    di.setUsagesByOriginCount(countMap(Origin.class, mapper.countUsagesByOrigin(key)));
-    di.setUsagesByStatusCount(countMap(TaxonomicStatus.class, mapper.countUsagesByStatus(key)));
-    di.setVerbatimByTermCount(countMap(DatasetImportDao::parseRowType, mapper.countVerbatimByType(key)));
-    di.setVernacularsByLanguageCount(countMap(mapper.countVernacularsByLanguage(key)));
 
-    // verbatim term metrics for each row type
-    for (Term rowType : di.getVerbatimByTermCount().keySet()) {
-      Map<Term, Integer> terms = countMap(DatasetImportDao::parseTerm, mapper.countVerbatimTerms(key, rowType));
+    // verbatim term metrics for all row types in one scan
+    Map<String, List<StringCount>> termsByRowType = new HashMap<>();
+    for (TermCount tc : mapper.countVerbatimTermsByType(key)) {
+      if (!Strings.isNullOrEmpty(tc.getRowType())) {
+        termsByRowType.computeIfAbsent(tc.getRowType(), k -> new ArrayList<>()).add(new StringCount(tc.getTerm(), tc.getCount()));
+      }
+    }
+    for (Map.Entry<String, List<StringCount>> e : termsByRowType.entrySet()) {
+      Map<Term, Integer> terms = countMap(DatasetImportDao::parseTerm, e.getValue());
       if (!terms.isEmpty()) {
-        di.getVerbatimByRowTypeCount().put(rowType, terms);
+        parseRowType(e.getKey()).ifPresent(rowType -> di.getVerbatimByRowTypeCount().put(rowType, terms));
       }
     }
   }
@@ -259,6 +272,16 @@ public class DatasetImportDao {
     mapper.update(di);
   }
   
+  /**
+   * Removes the child summary of a dataset whose data is about to be replaced,
+   * so the tree browser counts children live until the summary is rebuilt with the next metrics update.
+   */
+  public void deleteChildSummary(int datasetKey) {
+    try (SqlSession session = factory.openSession(true)) {
+      session.getMapper(DatasetPartitionMapper.class).deleteChildSummary(datasetKey);
+    }
+  }
+
   public void removeMetrics(int datasetKey) {
     try (SqlSession session = factory.openSession(true)) {
       DatasetImportMapper mapper = session.getMapper(DatasetImportMapper.class);
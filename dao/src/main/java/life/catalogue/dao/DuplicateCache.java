@@ -0,0 +1,152 @@
+package life.catalogue.dao;
+
+import life.catalogue.api.event.DatasetChanged;
+import life.catalogue.api.model.Duplicate;
+import life.catalogue.api.model.Page;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Cache for the complete, ordered list of duplicate groups of a dataset for a given combination of filters.
+ * Detecting duplicates requires grouping all names of a dataset, so instead of doing this for every requested page
+ * the groups are detected once and kept in a compact form from which any page can be served directly.
+ *
+ * Entries are bound to the data version of a dataset, so a modified dataset results in a new cache key
+ * and the duplicates are detected again. Outdated entries simply expire, entries of deleted datasets are evicted via the bus.
+ * Concurrent requests for the same key wait for a single detection to finish.
+ *
+ * The memory budget is enforced by weighing entries with a rough estimate of their size in bytes.
+ */
+public class DuplicateCache {
+  private static final Logger LOG = LoggerFactory.getLogger(DuplicateCache.class);
+  // estimated bytes of a string object without its characters, incl the array header and reference
+  private static final int STRING_BYTES = 56;
+
+  // keyed on the dataset key followed by the data version and all filters
+  private final Cache<List<Object>, Groups> groups;
+
+  /**
+   * @param maxMB maximum memory in megabytes to use for cached duplicates. Zero disables caching
+   */
+  public DuplicateCache(int maxMB) {
+    groups = CacheBuilder.newBuilder()
+      .maximumWeight(maxMB * 1024L * 1024L)
+      .weigher((List<Object> k, Groups g) -> g.bytes)
+      .expireAfterAccess(1, TimeUnit.HOURS)
+      .build();
+  }
+
+  /**
+   * All duplicate groups, keeping their keys and member ids in flat arrays.
+   */
+  static class Groups {
+    final String[] keys;
+    // start of each group in ids, with an additional last entry marking the end
+    final int[] offsets;
+    final String[] ids;
+    // estimated memory footprint
+    final int bytes;
+
+    Groups(List<Duplicate.Mybatis> dups) {
+      keys = new String[dups.size()];
+      offsets = new int[dups.size() + 1];
+      ids = new String[dups.stream().mapToInt(d -> d.getUsages().size()).sum()];
+      int idx = 0;
+      int pos = 0;
+      for (Duplicate.Mybatis d : dups) {
+        keys[idx] = d.getKey();
+        offsets[idx++] = pos;
+        for (String id : d.getUsages()) {
+          ids[pos++] = id;
+        }
+      }
+      offsets[idx] = pos;
+      long size = 4L * offsets.length;
+      for (String k : keys) {
+        size += STRING_BYTES + (k == null ? 0 : k.length());
+      }
+      for (String id : ids) {
+        size += STRING_BYTES + id.length();
+      }
+      bytes = (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    int size() {
+      return keys.length;
+    }
+
+    List<Duplicate.Mybatis> page(Page page) {
+      final int start = Math.min(page.getOffset(), size());
+      final int end = Math.min(start + page.getLimit(), size());
+      List<Duplicate.Mybatis> dups = new ArrayList<>(end - start);
+      for (int idx = start; idx < end; idx++) {
+        Duplicate.Mybatis d = new Duplicate.Mybatis();
+        d.setKey(keys[idx]);
+        d.setUsages(Arrays.asList(Arrays.copyOfRange(ids, offsets[idx], offsets[idx + 1])));
+        dups.add(d);
+      }
+      return dups;
+    }
+  }
+
+  /**
+   * Returns a page of duplicate groups, detecting all of them first if they are not cached yet.
+   *
+   * @param datasetKey the dataset the duplicates were detected in
+   * @param filters the data version and all filters the duplicates were detected with
+   * @param page page to return
+   * @param detector loads all duplicate groups for the given key ordered by their group key
+   */
+  public List<Duplicate.Mybatis> page(int datasetKey, List<Object> filters, Page page, Callable<List<Duplicate.Mybatis>> detector) {
+    List<Object> key = new ArrayList<>(filters.size() + 1);
+    key.add(datasetKey);
+    key.addAll(filters);
+    try {
+      return groups.get(key, () -> {
+        LOG.info("Detect all duplicates for {}", key);
+        Groups g = new Groups(detector.call());
+        LOG.info("Detected {} duplicate groups with {} ids for {}", g.size(), g.ids.length, key);
+        return g;
+      }).page(page);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /**
+   * Removes all cached duplicates of a dataset.
+   */
+  public void invalidate(int datasetKey) {
+    groups.asMap().keySet().removeIf(k -> k.get(0).equals(datasetKey));
+  }
+
+  /**
+   * Removes all cached duplicates.
+   */
+  public void clear() {
+    groups.invalidateAll();
+  }
+
+  @Subscribe
+  public void datasetChanged(DatasetChanged event){
+    if (event.isDeletion()) {
+      LOG.info("Invalidate cached duplicates for deleted dataset {}", event.key);
+      invalidate(event.key);
+    }
+  }
+}
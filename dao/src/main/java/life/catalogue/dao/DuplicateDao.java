@@ -27,9 +27,11 @@ public class DuplicateDao {
   
   private final SqlSession session;
   private final DuplicateMapper mapper;
+  private final DuplicateCache cache;
   
-  public DuplicateDao(SqlSession sqlSession) {
+  public DuplicateDao(SqlSession sqlSession, DuplicateCache cache) {
     this.session = sqlSession;
+    this.cache = cache;
     mapper = session.getMapper(DuplicateMapper.class);
   }
   
@@ -80,14 +82,17 @@ public class DuplicateDao {
       Preconditions.checkArgument(info.origin.isManagedOrRelease(), "datasetKey must be a project or release if parameter sectorKey is used");
     }
     page = ObjectUtils.defaultIfNull(page, new Page());
-    // load all duplicate usages or names
-    List<Duplicate.Mybatis> dupsTmp;
-    if (compareNames) {
-      dupsTmp = mapper.duplicateNames(mode, minSize, datasetKey, category, ranks, authorshipDifferent, rankDifferent, codeDifferent, page);
-    } else {
-      dupsTmp = mapper.duplicates(mode, minSize, datasetKey, sourceDatasetKey, sectorKey, category, ranks, status,
-        authorshipDifferent, acceptedDifferent, rankDifferent, codeDifferent, withDecision, projectKey, page);
-    }
+    // load a page of duplicate usages or names from all groups detected for the current data version
+    final String version = mapper.dataVersion(datasetKey, withDecision == null ? null : projectKey);
+    final List<Object> key = Arrays.asList(compareNames, mode, minSize, version, sourceDatasetKey, sectorKey, category,
+      emptyToNull(ranks), emptyToNull(status), authorshipDifferent, acceptedDifferent, rankDifferent, codeDifferent, withDecision, projectKey);
+    final MatchingMode m = mode;
+    final int min = minSize;
+    List<Duplicate.Mybatis> dupsTmp = cache.page(datasetKey, key, page, () -> compareNames ?
+      mapper.duplicateNames(m, min, datasetKey, category, ranks, authorshipDifferent, rankDifferent, codeDifferent, null) :
+      mapper.duplicates(m, min, datasetKey, sourceDatasetKey, sectorKey, category, ranks, status,
+        authorshipDifferent, acceptedDifferent, rankDifferent, codeDifferent, withDecision, projectKey, null)
+    );
     if (dupsTmp.isEmpty()) {
       return Collections.EMPTY_LIST;
     }
@@ -112,10 +117,15 @@ public class DuplicateDao {
       d.setKey(dm.getKey());
       d.setUsages(dm.getUsages().stream()
           .map(usages::get)
+          .filter(Objects::nonNull)
           .collect(Collectors.toList())
       );
       dups.add(d);
     }
     return dups;
   }
+
+  private static <T> Set<T> emptyToNull(Set<T> set) {
+    return set == null || set.isEmpty() ? null : set;
+  }
 }
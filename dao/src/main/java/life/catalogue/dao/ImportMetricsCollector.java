@@ -0,0 +1,112 @@
+package life.catalogue.dao;
+
+import life.catalogue.api.model.ImportMetrics;
+import life.catalogue.api.vocab.NomStatus;
+import life.catalogue.api.vocab.Origin;
+import life.catalogue.api.vocab.TaxonomicStatus;
+import life.catalogue.db.type2.NameCount;
+import life.catalogue.db.type2.StringCount;
+import life.catalogue.db.type2.UsageCount;
+
+import org.gbif.nameparser.api.NameType;
+import org.gbif.nameparser.api.NomCode;
+
+import java.util.*;
+
+/**
+ * Aggregates the name and usage metrics of an import from a single grouped scan of each table.
+ * The scans group by all dimensions at once, so the rather few resulting rows can be summed up in memory
+ * into the individual totals and breakdowns, which were formerly queried one by one.
+ * Null keys are included in the totals, but removed from the breakdowns just as with individual count queries.
+ */
+public class ImportMetricsCollector {
+  private int names;
+  private int bareNames;
+  private int taxa;
+  private int synonyms;
+  private final Map<String, Integer> namesByRank = new HashMap<>();
+  private final Map<String, Integer> namesByCode = new HashMap<>();
+  private final Map<String, Integer> namesByStatus = new HashMap<>();
+  private final Map<String, Integer> namesByType = new HashMap<>();
+  private final Map<String, Integer> usagesByStatus = new HashMap<>();
+  private final Map<String, Integer> usagesByOrigin = new HashMap<>();
+  private final Map<String, Integer> taxaByRank = new HashMap<>();
+  private final Map<String, Integer> extinctTaxaByRank = new HashMap<>();
+  private final Map<String, Integer> synonymsByRank = new HashMap<>();
+
+  public void addNames(Collection<NameCount> counts) {
+    for (NameCount c : counts) {
+      final int cnt = c.getCount();
+      names += cnt;
+      if (c.isBare()) {
+        bareNames += cnt;
+      }
+      inc(namesByRank, c.getRank(), cnt);
+      inc(namesByCode, c.getCode(), cnt);
+      inc(namesByStatus, c.getStatus(), cnt);
+      inc(namesByType, c.getType(), cnt);
+    }
+  }
+
+  public void addUsages(Collection<UsageCount> counts) {
+    for (UsageCount c : counts) {
+      final int cnt = c.getCount();
+      inc(usagesByStatus, c.getStatus(), cnt);
+      inc(usagesByOrigin, c.getOrigin(), cnt);
+      if (c.isSynonym()) {
+        synonyms += cnt;
+        inc(synonymsByRank, c.getRank(), cnt);
+      } else {
+        taxa += cnt;
+        inc(taxaByRank, c.getRank(), cnt);
+        if (c.isExtinct()) {
+          inc(extinctTaxaByRank, c.getRank(), cnt);
+        }
+      }
+    }
+  }
+
+  private static void inc(Map<String, Integer> map, String key, int cnt) {
+    if (key != null) {
+      map.merge(key, cnt, Integer::sum);
+    }
+  }
+
+  /**
+   * Sets all name and usage metrics collected so far.
+   */
+  public void apply(ImportMetrics m) {
+    m.setNameCount(names);
+    m.setBareNameCount(bareNames);
+    m.setTaxonCount(taxa);
+    m.setSynonymCount(synonyms);
+    m.setNamesByRankCount(DatasetImportDao.countMap(DatasetImportDao::parseRank, counts(namesByRank)));
+    m.setNamesByCodeCount(DatasetImportDao.countMap(NomCode.class, counts(namesByCode)));
+    m.setNamesByStatusCount(DatasetImportDao.countMap(NomStatus.class, counts(namesByStatus)));
+    m.setNamesByTypeCount(DatasetImportDao.countMap(NameType.class, counts(namesByType)));
+    m.setUsagesByStatusCount(DatasetImportDao.countMap(TaxonomicStatus.class, counts(usagesByStatus)));
+    m.setUsagesByOriginCount(DatasetImportDao.countMap(Origin.class, counts(usagesByOrigin)));
+    m.setTaxaByRankCount(DatasetImportDao.countMap(DatasetImportDao::parseRank, counts(taxaByRank)));
+    m.setExtinctTaxaByRankCount(DatasetImportDao.countMap(DatasetImportDao::parseRank, counts(extinctTaxaByRank)));
+    m.setSynonymsByRankCount(DatasetImportDao.countMap(DatasetImportDao::parseRank, counts(synonymsByRank)));
+  }
+
+  private static List<StringCount> counts(Map<String, Integer> map) {
+    List<StringCount> counts = new ArrayList<>(map.size());
+    map.forEach((k, v) -> counts.add(new StringCount(k, v)));
+    return counts;
+  }
+
+  /**
+   * @return the total of all counts including the ones with a null key
+   */
+  public static int sum(Collection<StringCount> counts) {
+    int total = 0;
+    for (StringCount c : counts) {
+      if (c.getCount() != null) {
+        total += c.getCount();
+      }
+    }
+    return total;
+  }
+}
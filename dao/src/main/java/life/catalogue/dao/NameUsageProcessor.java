@@ -1,36 +1,87 @@
 package life.catalogue.dao;
 
 import life.catalogue.api.model.Sector;
+import life.catalogue.api.model.SimpleName;
 import life.catalogue.api.model.SimpleNameClassification;
 import life.catalogue.api.search.NameUsageWrapper;
+import life.catalogue.db.mapper.NameUsageMapper;
 import life.catalogue.db.mapper.NameUsageWrapperMapper;
 import life.catalogue.db.mapper.TaxonMapper;
 
+import org.gbif.nameparser.api.Rank;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
+import org.apache.commons.lang3.time.StopWatch;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
 public class NameUsageProcessor {
   private static final Logger LOG = LoggerFactory.getLogger(NameUsageProcessor.class);
+  /**
+   * Default number of usages above which a dataset is processed with its classification held in memory
+   */
+  public static final int DEFAULT_MEMORY_THRESHOLD = 250_000;
+  // number of wrapper objects to load with a single query when the classification is held in memory
+  private static final int RANGE_SIZE = 10_000;
+  // number of wrapper objects to load with a single query when processing a part of a split dataset
+  private static final int ID_BATCH_SIZE = 1000;
+  // protect against cycles in the parent relations
+  private static final int MAX_DEPTH = 1000;
 
   private final SqlSessionFactory factory;
-  
+  private final int memoryThreshold;
+  // plain metrics until registered
+  private Timer treeTimer = new Timer();
+  private Timer memoryTimer = new Timer();
+  private Meter usagesMeter = new Meter();
+
   public NameUsageProcessor(SqlSessionFactory factory) {
+    this(factory, DEFAULT_MEMORY_THRESHOLD);
+  }
+
+  /**
+   * @param memoryThreshold number of usages above which a dataset is processed with its classification held in memory.
+   *                        Zero or negative values disable the in memory mode.
+   */
+  public NameUsageProcessor(SqlSessionFactory factory, int memoryThreshold) {
     this.factory = factory;
+    this.memoryThreshold = memoryThreshold;
   }
-  
+
+  /**
+   * Optionally register processing time and throughput metrics
+   */
+  public void register(MetricRegistry registry) {
+    final String prefix = MetricRegistry.name("life.catalogue", "usage", "processor");
+    treeTimer = registry.timer(MetricRegistry.name(prefix, "tree"));
+    memoryTimer = registry.timer(MetricRegistry.name(prefix, "memory"));
+    usagesMeter = registry.meter(MetricRegistry.name(prefix, "usages"));
+  }
+
   /**
    * to avoid large in memory or even external pg temp files dissect the problem into the following steps:
    *
@@ -38,24 +89,44 @@ public class NameUsageProcessor {
    *  2. call the SimpleName tree processor that iterates over all usages in taxonomic order and generates the classification
    *  3. call getWrapperDetail for each id to get the full object without classification and stream results
    *
-   *  Alternatively one could hold the entire classification in memory (10 million only need ~500MB)
-   *  and select the wrapper objects in batch id ranges.
-   *  But that would require traversing the entire tree so we are sure we have processed all ids, not just children of the root node.
-   *  ID ranges must make sure the java sorting is exactly the same as the postgres (C-collation) sorting.
+   *  For large datasets this results in too many small queries, so we hold the entire classification in memory instead
+   *  (10 million only need ~500MB) and select the wrapper objects in large id ranges.
+   *  As the ranges are defined by postgres itself we process all ids, not just children of the root nodes.
    *
    * @param consumer
    */
   public void processDataset(int datasetKey, Consumer<NameUsageWrapper> consumer) {
-    List<String> rootIds;
+    final StopWatch watch = StopWatch.createStarted();
+    final boolean memory;
+    int counter = 0;
     try (SqlSession s = factory.openSession(true)) {
-      rootIds = s.getMapper(TaxonMapper.class).listRootIds(datasetKey);
+      memory = memoryThreshold > 0 && s.getMapper(NameUsageMapper.class).count(datasetKey) > memoryThreshold;
     }
-    LOG.info("Process dataset {} with {} root taxa", datasetKey, rootIds.size());
-    for (String id : rootIds) {
-      processTree(datasetKey, null, id, consumer);
+    if (memory) {
+      counter = processDatasetInMemory(datasetKey, consumer);
+
+    } else {
+      List<String> rootIds;
+      try (SqlSession s = factory.openSession(true)) {
+        rootIds = s.getMapper(TaxonMapper.class).listRootIds(datasetKey);
+      }
+      LOG.info("Process dataset {} with {} root taxa", datasetKey, rootIds.size());
+      for (String id : rootIds) {
+        counter += processTree(datasetKey, null, id, consumer);
+      }
     }
+    watch.stop();
+    (memory ? memoryTimer : treeTimer).update(watch.getTime(), TimeUnit.MILLISECONDS);
+    usagesMeter.mark(counter);
+    logThroughput(memory ? "memory" : "tree", datasetKey, counter, watch);
   }
-  
+
+  private static void logThroughput(String mode, int datasetKey, int counter, StopWatch watch) {
+    long millis = Math.max(1, watch.getTime());
+    LOG.info("Processed {} usages of dataset {} in {} mode in {}: {} usages/s",
+      counter, datasetKey, mode, watch, counter * 1000L / millis);
+  }
+
   /**
    * Process all catalogue usages from a given sector
    * @param s the sector to process
@@ -68,9 +139,10 @@ public class NameUsageProcessor {
     LOG.info("Process sector{} of dataset {} with target {}", s.getKey(), s.getDatasetKey(), s.getTarget());
     processTree(s.getDatasetKey(), s.getId(), s.getTarget().getId(), consumer);
   }
-  
-  private void processTree(int datasetKey, @Nullable Integer sectorKey, String id, Consumer<NameUsageWrapper> consumer) {
+
+  private int processTree(int datasetKey, @Nullable Integer sectorKey, String id, Consumer<NameUsageWrapper> consumer) {
     LOG.debug("Process dataset {} tree with root taxon {}", datasetKey, id);
+    int counter = 0;
     try (SqlSession s = factory.openSession()) {
       final NameUsageWrapperMapper nuwm = s.getMapper(NameUsageWrapperMapper.class);
       Cursor<SimpleNameClassification> c = nuwm.processTree(datasetKey, sectorKey, id);
@@ -83,8 +155,178 @@ public class NameUsageProcessor {
           NameUsageWrapper obj = objs.get(cl.getId());
           obj.setClassification(cl.getClassification());
           consumer.accept(obj);
+          counter++;
+        }
+      }
+    }
+    return counter;
+  }
+
+  /**
+   * Loads the parent relations of the entire dataset into memory once
+   * and then pages through all wrapper objects in large ranges ordered by their id.
+   */
+  private int processDatasetInMemory(int datasetKey, Consumer<NameUsageWrapper> consumer) {
+    final Classifications cl = loadClassifications(datasetKey);
+    int counter = 0;
+    try (SqlSession s = factory.openSession()) {
+      final NameUsageWrapperMapper nuwm = s.getMapper(NameUsageWrapperMapper.class);
+      String afterId = null;
+      List<NameUsageWrapper> objs;
+      do {
+        objs = nuwm.listWithoutClassification(datasetKey, afterId, RANGE_SIZE);
+        for (NameUsageWrapper obj : objs) {
+          obj.setClassification(cl.classification(obj.getUsage().getId()));
+          consumer.accept(obj);
+          counter++;
+        }
+        if (!objs.isEmpty()) {
+          afterId = objs.get(objs.size() - 1).getUsage().getId();
+        }
+      } while (objs.size() == RANGE_SIZE);
+    }
+    return counter;
+  }
+
+  private Classifications loadClassifications(int datasetKey) {
+    StopWatch watch = StopWatch.createStarted();
+    final Classifications cl;
+    try (SqlSession s = factory.openSession()) {
+      cl = new Classifications(s.getMapper(NameUsageWrapperMapper.class).processClassificationNodes(datasetKey));
+    }
+    watch.stop();
+    LOG.info("Loaded classification of dataset {} with {} usages into memory in {}", datasetKey, cl.size(), watch);
+    return cl;
+  }
+
+  /**
+   * Loads the classification of the entire dataset into memory and splits all its usages into parts of at most the given size.
+   * The parts share the classification and can be processed concurrently, each with its own consumer.
+   * Bare names are not included in any part.
+   */
+  public List<DatasetPart> splitDataset(int datasetKey, int partSize) {
+    Preconditions.checkArgument(partSize > 0, "Part size must be positive");
+    final Classifications cl = loadClassifications(datasetKey);
+    List<DatasetPart> parts = new ArrayList<>();
+    for (int from = 0; from < cl.size(); from += partSize) {
+      parts.add(new DatasetPart(datasetKey, cl, from, Math.min(cl.size(), from + partSize)));
+    }
+    LOG.info("Split dataset {} with {} usages into {} parts", datasetKey, cl.size(), parts.size());
+    return parts;
+  }
+
+  /**
+   * A slice of all usages of a dataset with their classification held in memory.
+   */
+  public class DatasetPart {
+    private final int datasetKey;
+    private final Classifications cl;
+    private final int from;
+    private final int to;
+
+    private DatasetPart(int datasetKey, Classifications cl, int from, int to) {
+      this.datasetKey = datasetKey;
+      this.cl = cl;
+      this.from = from;
+      this.to = to;
+    }
+
+    public int getDatasetKey() {
+      return datasetKey;
+    }
+
+    /**
+     * @return number of usages in this part
+     */
+    public int size() {
+      return to - from;
+    }
+
+    /**
+     * @return number of processed usages
+     */
+    public int process(Consumer<NameUsageWrapper> consumer) {
+      int counter = 0;
+      try (SqlSession s = factory.openSession()) {
+        final NameUsageWrapperMapper nuwm = s.getMapper(NameUsageWrapperMapper.class);
+        for (int start = from; start < to; start += ID_BATCH_SIZE) {
+          for (NameUsageWrapper obj : nuwm.getSomeWithoutClassification(datasetKey, cl.ids(start, Math.min(to, start + ID_BATCH_SIZE)))) {
+            obj.setClassification(cl.classification(obj.getUsage().getId()));
+            consumer.accept(obj);
+            counter++;
+          }
         }
       }
+      return counter;
+    }
+  }
+
+  /**
+   * Compact in memory representation of all parent relations of a dataset
+   * which generates the classification of any usage in the same form as the recursive postgres tree processor does.
+   */
+  static class Classifications {
+    private static final Rank[] RANKS = Rank.values();
+    private final Object2IntOpenHashMap<String> index = new Object2IntOpenHashMap<>();
+    private final String[] ids;
+    private final String[] names;
+    private final String[] authorships;
+    private final short[] ranks;
+    private final int[] parents;
+
+    Classifications(Iterable<SimpleName> nodes) {
+      index.defaultReturnValue(-1);
+      ObjectArrayList<String> ids = new ObjectArrayList<>();
+      ObjectArrayList<String> names = new ObjectArrayList<>();
+      ObjectArrayList<String> authorships = new ObjectArrayList<>();
+      IntArrayList ranks = new IntArrayList();
+      // parent ids are only resolved once all nodes are known
+      ObjectArrayList<String> parentIds = new ObjectArrayList<>();
+      for (SimpleName sn : nodes) {
+        index.put(sn.getId(), ids.size());
+        ids.add(sn.getId());
+        names.add(sn.getName());
+        authorships.add(sn.getAuthorship());
+        ranks.add(sn.getRank() == null ? -1 : sn.getRank().ordinal());
+        parentIds.add(sn.getParent());
+      }
+      this.ids = ids.toArray(new String[0]);
+      this.names = names.toArray(new String[0]);
+      this.authorships = authorships.toArray(new String[0]);
+      this.ranks = new short[ranks.size()];
+      this.parents = new int[parentIds.size()];
+      for (int idx = 0; idx < this.ids.length; idx++) {
+        this.ranks[idx] = (short) ranks.getInt(idx);
+        this.parents[idx] = parentIds.get(idx) == null ? -1 : index.getInt(parentIds.get(idx));
+      }
+    }
+
+    int size() {
+      return ids.length;
+    }
+
+    /**
+     * @return the usage ids stored at the given index range
+     */
+    List<String> ids(int from, int to) {
+      return Arrays.asList(ids).subList(from, to);
+    }
+
+    /**
+     * @return the classification starting with the highest root and including the usage itself as the last entry
+     */
+    List<SimpleName> classification(String id) {
+      List<SimpleName> classification = new ArrayList<>();
+      int idx = index.getInt(id);
+      while (idx >= 0 && classification.size() < MAX_DEPTH) {
+        classification.add(new SimpleName(ids[idx], names[idx], authorships[idx], ranks[idx] < 0 ? null : RANKS[ranks[idx]]));
+        idx = parents[idx];
+      }
+      if (idx >= 0) {
+        LOG.warn("Classification of usage {} exceeds the maximum depth of {}. Cycle in parent relations?", id, MAX_DEPTH);
+      }
+      Collections.reverse(classification);
+      return classification;
     }
   }
 
@@ -40,7 +40,7 @@ public class Partitioner {
   }
 
   /**
-   * Creates all dataset partitions needed, removing any previous partition and data for the given datasetKey.
+   * Creates all dataset partitions needed, removing any previous partition, data and child summary for the given datasetKey.
    * To avoid table deadlocks we synchronize this method!
    * See https://github.com/Sp2000/colplus-backend/issues/127
    */
@@ -4,12 +4,11 @@ import life.catalogue.api.model.DSID;
 import life.catalogue.api.model.SectorImport;
 import life.catalogue.api.vocab.*;
 import life.catalogue.db.mapper.SectorImportMapper;
-
-import org.gbif.nameparser.api.NameType;
-import org.gbif.nameparser.api.NomCode;
+import life.catalogue.db.type2.StringCount;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -56,35 +55,34 @@ public class SectorImportDao {
   private void populateCounts(SectorImportMapper mapper, SectorImport si, int datasetKey) {
     final int key = si.getSectorKey();
 
-    si.setBareNameCount(mapper.countBareName(datasetKey, key));
-    si.setDistributionCount(mapper.countDistribution(datasetKey, key));
+    // names and usages are aggregated from a single grouped scan each
+    ImportMetricsCollector collector = new ImportMetricsCollector();
+    collector.addNames(mapper.countNameMetrics(datasetKey, key));
+    collector.addUsages(mapper.countUsageMetrics(datasetKey, key));
+    collector.apply(si);
+
     si.setEstimateCount(mapper.countEstimate(datasetKey, key));
-    si.setMediaCount(mapper.countMedia(datasetKey, key));
-    si.setNameCount(mapper.countName(datasetKey, key));
     si.setReferenceCount(mapper.countReference(datasetKey, key));
-    si.setSynonymCount(mapper.countSynonym(datasetKey, key));
-    si.setTaxonCount(mapper.countTaxon(datasetKey, key));
     si.setTreatmentCount(mapper.countTreatment(datasetKey, key));
-    si.setTypeMaterialCount(mapper.countTypeMaterial(datasetKey, key));
-    si.setVernacularCount(mapper.countVernacular(datasetKey, key));
 
-    si.setDistributionsByGazetteerCount(countMap(Gazetteer.class, mapper.countDistributionsByGazetteer(datasetKey, key)));
-    si.setExtinctTaxaByRankCount(countMap(DatasetImportDao::parseRank, mapper.countExtinctTaxaByRank(datasetKey, key)));
+    // totals are derived from the grouped counts incl null keys
+    List<StringCount> distributions = mapper.countDistributionsByGazetteer(datasetKey, key);
+    si.setDistributionCount(ImportMetricsCollector.sum(distributions));
+    si.setDistributionsByGazetteerCount(countMap(Gazetteer.class, distributions));
+    List<StringCount> media = mapper.countMediaByType(datasetKey, key);
+    si.setMediaCount(ImportMetricsCollector.sum(media));
+    si.setMediaByTypeCount(countMap(MediaType.class, media));
+    List<StringCount> typeMaterial = mapper.countTypeMaterialByStatus(datasetKey, key);
+    si.setTypeMaterialCount(ImportMetricsCollector.sum(typeMaterial));
+    si.setTypeMaterialByStatusCount(countMap(TypeStatus.class, typeMaterial));
+    List<StringCount> vernaculars = mapper.countVernacularsByLanguage(datasetKey, key);
+    si.setVernacularCount(ImportMetricsCollector.sum(vernaculars));
+    si.setVernacularsByLanguageCount(countMap(vernaculars));
+
     si.setIssuesCount(countMap(Issue.class, mapper.countIssues(datasetKey, key)));
-    si.setMediaByTypeCount(countMap(MediaType.class, mapper.countMediaByType(datasetKey, key)));
     si.setNameRelationsByTypeCount(countMap(NomRelType.class, mapper.countNameRelationsByType(datasetKey, key)));
-    si.setNamesByCodeCount(countMap(NomCode.class, mapper.countNamesByCode(datasetKey, key)));
-    si.setNamesByRankCount(countMap(DatasetImportDao::parseRank, mapper.countNamesByRank(datasetKey, key)));
-    si.setNamesByStatusCount(countMap(NomStatus.class, mapper.countNamesByStatus(datasetKey, key)));
-    si.setNamesByTypeCount(countMap(NameType.class, mapper.countNamesByType(datasetKey, key)));
     si.setSpeciesInteractionsByTypeCount(countMap(SpeciesInteractionType.class, mapper.countSpeciesInteractionsByType(datasetKey, key)));
-    si.setSynonymsByRankCount(countMap(DatasetImportDao::parseRank, mapper.countSynonymsByRank(datasetKey, key)));
-    si.setTaxaByRankCount(countMap(DatasetImportDao::parseRank, mapper.countTaxaByRank(datasetKey, key)));
     si.setTaxonConceptRelationsByTypeCount(countMap(TaxonConceptRelType.class, mapper.countTaxonConceptRelationsByType(datasetKey, key)));
-    si.setTypeMaterialByStatusCount(countMap(TypeStatus.class, mapper.countTypeMaterialByStatus(datasetKey, key)));
-    si.setUsagesByOriginCount(countMap(Origin.class, mapper.countUsagesByOrigin(datasetKey, key)));
-    si.setUsagesByStatusCount(countMap(TaxonomicStatus.class, mapper.countUsagesByStatus(datasetKey, key)));
-    si.setVernacularsByLanguageCount(countMap(mapper.countVernacularsByLanguage(datasetKey, key)));
   }
 
   public void deleteAll(DSID<Integer> sectorKey) throws IOException {
@@ -110,10 +110,65 @@ public class TreeDao {
     }
   }
 
+  /**
+   * The precomputed child counts of a single parent by rank and extinct flag.
+   * Answers all count and rank questions of the tree browser from memory, see DatasetPartitionMapper.buildChildSummary
+   */
+  static class ChildSummary {
+    private final List<TreeMapper.ChildCount> counts;
+    private final boolean inclExtinct;
+
+    ChildSummary(List<TreeMapper.ChildCount> counts, boolean inclExtinct) {
+      this.counts = counts;
+      this.inclExtinct = inclExtinct;
+    }
+
+    /**
+     * @return the summary for the given parent or null if no summary exists for its dataset
+     */
+    static ChildSummary load(TreeMapper trm, DSID<String> parent, boolean inclExtinct) {
+      if (trm.hasChildSummary(parent.getDatasetKey())) {
+        return new ChildSummary(trm.childCounts(parent), inclExtinct);
+      }
+      return null;
+    }
+
+    private boolean include(TreeMapper.ChildCount c) {
+      return inclExtinct || !c.isExtinct();
+    }
+
+    int count() {
+      return counts.stream().filter(this::include).mapToInt(TreeMapper.ChildCount::getCount).sum();
+    }
+
+    int countWithRank(Rank rank) {
+      return counts.stream().filter(c -> include(c) && c.getRank() == rank).mapToInt(TreeMapper.ChildCount::getCount).sum();
+    }
+
+    int countBelowRank(Rank rank) {
+      return counts.stream().filter(c -> include(c) && c.getRank().compareTo(rank) > 0).mapToInt(TreeMapper.ChildCount::getCount).sum();
+    }
+
+    /**
+     * @return distinct ranks of all children ordered from kingdom to lower, optionally restricted to the given rank or higher ones
+     */
+    List<Rank> ranks(@Nullable Rank rank) {
+      List<Rank> ranks = new ArrayList<>();
+      for (TreeMapper.ChildCount c : counts) {
+        if (include(c) && (rank == null || c.getRank().compareTo(rank) <= 0) && !ranks.contains(c.getRank())) {
+          ranks.add(c.getRank());
+        }
+      }
+      Collections.sort(ranks);
+      return ranks;
+    }
+  }
+
   private static List<TreeNode> parentPlaceholder(TreeMapper trm, TreeNode tn, @Nullable Rank exclRank, boolean inclExtinct){
     List<TreeNode> nodes = new ArrayList<>();
     // ranks ordered from kingdom to lower
-    List<Rank> ranks = trm.childrenRanks(tn, exclRank, inclExtinct);
+    ChildSummary summary = ChildSummary.load(trm, tn, inclExtinct);
+    List<Rank> ranks = summary == null ? trm.childrenRanks(tn, exclRank, inclExtinct) : summary.ranks(exclRank);
     if (ranks.size() > 1) {
       Collections.reverse(ranks);
       // we dont want no placeholder for the lowest rank
@@ -141,20 +196,27 @@ public class TreeDao {
       List<TreeNode> result = placeholder ?
         trm.childrenWithPlaceholder(projectKey, type, parent, parent.rank, inclExtinct, page) :
         trm.children(projectKey, type, parent, parent.rank, inclExtinct, page);
+      // use precomputed counts if they exist, e.g. for releases and imported datasets
+      final ChildSummary summary = ChildSummary.load(trm, parent, inclExtinct);
       Supplier<Integer> countSupplier;
       if (placeholder && !result.isEmpty()) {
-        countSupplier =  () -> tm.countChildrenWithRank(parent, result.get(0).getRank(), inclExtinct);
+        final Rank rank = result.get(0).getRank();
+        countSupplier = summary == null ? () -> tm.countChildrenWithRank(parent, rank, inclExtinct) : () -> summary.countWithRank(rank);
       } else {
-        countSupplier =  () -> tm.countChildren(parent, inclExtinct);
+        countSupplier = summary == null ? () -> tm.countChildren(parent, inclExtinct) : summary::count;
       }
 
       if (placeholder && !result.isEmpty() && result.size() <= page.getLimit()) {
         // we *might* need a placeholder, check if there are more children of other ranks
         // look for the highest rank of the result set in the first record - they are ordered by rank!
         TreeNode firstResult = result.get(0);
-        int lowerChildren = tm.countChildrenBelowRank(parent, firstResult.getRank(), inclExtinct);
+        int lowerChildren = summary == null ?
+          tm.countChildrenBelowRank(parent, firstResult.getRank(), inclExtinct) :
+          summary.countBelowRank(firstResult.getRank());
         if (lowerChildren > 0) {
-          List<Rank> placeholderParentRanks = trm.childrenRanks(parent, firstResult.getRank(), inclExtinct);
+          List<Rank> placeholderParentRanks = summary == null ?
+            trm.childrenRanks(parent, firstResult.getRank(), inclExtinct) :
+            summary.ranks(firstResult.getRank());
           TreeNode placeHolder = placeholder(tnParent, firstResult, lowerChildren, placeholderParentRanks);
           // does a placeholder sector exist with a matching placeholder rank?
           if (type == TreeNode.Type.SOURCE) {
@@ -9,7 +9,10 @@ import life.catalogue.db.mapper.NameMapper;
 import life.catalogue.db.mapper.UsageNameID;
 import life.catalogue.db.mapper.legacy.model.LName;
 import life.catalogue.db.type.UuidTypeHandler;
+import life.catalogue.db.type2.NameCount;
 import life.catalogue.db.type2.StringCount;
+import life.catalogue.db.type2.TermCount;
+import life.catalogue.db.type2.UsageCount;
 
 import org.gbif.nameparser.api.ParsedName;
 import org.gbif.nameparser.utils.Closer;
@@ -144,6 +147,9 @@ public class MybatisFactory {
     // legacy package
     registry.registerAliases(LName.class.getPackage().getName());
     registry.registerAlias(StringCount.class);
+    registry.registerAlias(NameCount.class);
+    registry.registerAlias(UsageCount.class);
+    registry.registerAlias(TermCount.class);
     registry.registerAlias(UsageNameID.class);
     registry.registerAlias("TreeNodeMybatis", TreeNode.TreeNodeMybatis.class);
     registry.registerAlias("UsageDecision", Duplicate.UsageDecision.class);
@@ -4,7 +4,10 @@ import life.catalogue.api.model.DatasetImport;
 import life.catalogue.api.model.Page;
 import life.catalogue.api.vocab.ImportState;
 import life.catalogue.db.DatasetProcessable;
+import life.catalogue.db.type2.NameCount;
 import life.catalogue.db.type2.StringCount;
+import life.catalogue.db.type2.TermCount;
+import life.catalogue.db.type2.UsageCount;
 
 import org.gbif.dwc.terms.Term;
 
@@ -48,6 +51,21 @@ public interface DatasetImportMapper extends DatasetProcessable<DatasetImport> {
   
   void update(@Param("imp") DatasetImport datasetImport);
 
+  /**
+   * Counts all names grouped by rank, code, status, type and whether they are bare names in a single scan.
+   */
+  List<NameCount> countNameMetrics(@Param("key") int datasetKey);
+
+  /**
+   * Counts all usages grouped by status, origin, rank, synonym and extinct flag in a single scan.
+   */
+  List<UsageCount> countUsageMetrics(@Param("key") int datasetKey);
+
+  /**
+   * Counts the terms of all verbatim records grouped by their row type in a single scan.
+   */
+  List<TermCount> countVerbatimTermsByType(@Param("key") int datasetKey);
+
   Integer countBareName(@Param("key") int datasetKey);
   Integer countDistribution(@Param("key") int datasetKey);
   Integer countEstimate(@Param("key") int datasetKey);
@@ -192,6 +192,7 @@ public interface DatasetPartitionMapper {
    */
   default void delete(int key) {
     deleteUsageCounter(key);
+    deleteChildSummary(key);
     PROJECT_TABLES.forEach(t -> deleteTable(t, key));
     Lists.reverse(TABLES).forEach(t -> deleteTable(t, key));
     IDMAP_TABLES.forEach(t -> deleteTable(t, key));
@@ -200,6 +201,20 @@ public interface DatasetPartitionMapper {
   void deleteTable(@Param("table") String table, @Param("key") int key);
 
   void deleteUsageCounter(@Param("key") int key);
+
+  /**
+   * Builds the child summary of a dataset with the number of accepted children for each parent by rank and extinct flag,
+   * replacing any previous summary. The tree browser uses it instead of counting children on the fly,
+   * so it must only be built for datasets that do not change anymore, i.e. not for managed ones.
+   */
+  default void buildChildSummary(int key) {
+    deleteChildSummary(key);
+    insertChildSummary(key);
+  }
+
+  void insertChildSummary(@Param("datasetKey") int key);
+
+  void deleteChildSummary(@Param("key") int key);
   
   /**
    * Attaches all dataset specific partition tables to their main table
@@ -252,6 +267,11 @@ public interface DatasetPartitionMapper {
 
   int updateUsageCounter(@Param("key") int key);
 
+  /**
+   * @return the number of usages in the dataset as tracked by the usage counter trigger or null if no counter exists
+   */
+  Integer usageCount(@Param("key") int key);
+
   /**
    * Locks a dataset specific table in EXCLUSIVE mode, only allowing select statements by other transactions.
    * The lock is released when the transaction is ended. There is no other manual lock release possible.
@@ -16,6 +16,14 @@ import org.apache.ibatis.annotations.Param;
 
 public interface DuplicateMapper {
 
+  /**
+   * Returns an opaque version of the data of a dataset that changes whenever its names or usages are modified.
+   * Managed datasets track their data version via triggers, for all others it is given by their import attempt.
+   *
+   * @param projectKey optional project key to also include the state of all decisions on the dataset in the version
+   */
+  String dataVersion(@Param("datasetKey") int datasetKey, @Param("projectKey") Integer projectKey);
+
   /**
    * See DuplicateDao for parameter descriptions...
    */
@@ -42,6 +42,22 @@ public interface NameUsageMapper extends SectorProcessable<NameUsageBase>, CopyD
    */
   SimpleName getSimpleByIdMap(@Param("key") DSID<String> key);
 
+  /**
+   * Bulk version of getSimple that also includes the names index match of each usage.
+   * Ids that do not exist are silently ignored.
+   * @param ids usage ids, use batches of a few thousand at most
+   */
+  List<SimpleNameWithNidx> listSimpleNidx(@Param("datasetKey") int datasetKey, @Param("ids") Collection<String> ids);
+
+  /**
+   * Bulk version of getSimpleByIdMap that also includes the names index match of each usage.
+   * Ids that do not exist are silently ignored.
+   * @param datasetKey the project
+   * @param ids stable usage ids, use batches of a few thousand at most
+   * @return simple names with their id and parent being the stable id, resolved via the id map
+   */
+  List<SimpleNameWithNidx> listSimpleNidxByIdMap(@Param("datasetKey") int datasetKey, @Param("ids") Collection<String> ids);
+
   boolean exists(@Param("key") DSID<String> key);
 
   int delete(@Param("key") DSID<String> key);
@@ -1,5 +1,6 @@
 package life.catalogue.db.mapper;
 
+import life.catalogue.api.model.SimpleName;
 import life.catalogue.api.model.SimpleNameClassification;
 import life.catalogue.api.search.NameUsageWrapper;
 
@@ -35,6 +36,24 @@ public interface NameUsageWrapperMapper {
   List<NameUsageWrapper> getSomeWithoutClassification(@Param("datasetKey") int datasetKey,
                                                 @Param("ids") List<String> taxonIds);
 
+  /**
+   * Lists the full wrapper objects without the recursive classification property for a range of usages,
+   * ordered by their id. Use the id of the last returned usage to page through an entire dataset.
+   *
+   * @param afterId optional usage id to start the range after
+   * @param limit maximum number of usages to return
+   */
+  List<NameUsageWrapper> listWithoutClassification(@Param("datasetKey") int datasetKey,
+                                                   @Nullable @Param("afterId") String afterId,
+                                                   @Param("limit") int limit);
+
+  /**
+   * Iterates over all usages of a dataset in no particular order.
+   * Processed SimpleName instances only contain id, name, authorship, rank
+   * and the parentID as their parent property, not a scientificName!
+   */
+  Cursor<SimpleName> processClassificationNodes(@Param("datasetKey") int datasetKey);
+
   /**
    * Iterates over all usages for a given dataset.
    * The returned wrapper does only include the usage and issues related to name and usage, but no further information.
@@ -5,7 +5,9 @@ import life.catalogue.api.model.Page;
 import life.catalogue.api.model.SectorImport;
 import life.catalogue.api.vocab.ImportState;
 import life.catalogue.db.DatasetProcessable;
+import life.catalogue.db.type2.NameCount;
 import life.catalogue.db.type2.StringCount;
+import life.catalogue.db.type2.UsageCount;
 
 import java.util.Collection;
 import java.util.List;
@@ -55,6 +57,16 @@ public interface SectorImportMapper extends DatasetProcessable<SectorImport> {
   int delete(@Param("key") DSID<Integer> sectorKey);
 
 
+  /**
+   * Counts all names of a sector grouped by rank, code, status, type and whether they are bare names in a single scan.
+   */
+  List<NameCount> countNameMetrics(@Param("datasetKey") int datasetKey, @Param("sectorKey") int sectorKey);
+
+  /**
+   * Counts all usages of a sector grouped by status, origin, rank, synonym and extinct flag in a single scan.
+   */
+  List<UsageCount> countUsageMetrics(@Param("datasetKey") int datasetKey, @Param("sectorKey") int sectorKey);
+
   Integer countBareName(@Param("datasetKey") int datasetKey, @Param("sectorKey") int sectorKey);
   Integer countDistribution(@Param("datasetKey") int datasetKey, @Param("sectorKey") int sectorKey);
   Integer countEstimate(@Param("datasetKey") int datasetKey, @Param("sectorKey") int sectorKey);
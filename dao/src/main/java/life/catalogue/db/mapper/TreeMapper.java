@@ -16,6 +16,39 @@ import org.apache.ibatis.annotations.Param;
  *
  */
 public interface TreeMapper {
+
+  /**
+   * Precomputed number of accepted children of a parent with a given rank and extinct flag.
+   */
+  class ChildCount {
+    private Rank rank;
+    private boolean extinct;
+    private int count;
+
+    public Rank getRank() {
+      return rank;
+    }
+
+    public void setRank(Rank rank) {
+      this.rank = rank;
+    }
+
+    public boolean isExtinct() {
+      return extinct;
+    }
+
+    public void setExtinct(boolean extinct) {
+      this.extinct = extinct;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+  }
   
   /**
    * @param catalogueKey the assembled catalogue the tree is related to.
@@ -71,4 +104,13 @@ public interface TreeMapper {
   List<Integer> childrenSectors(@Param("key") DSID<String> key,
                                 @Nullable @Param("rank") Rank rank);
 
+  /**
+   * @return true if a child summary was built for the given dataset, see DatasetPartitionMapper.buildChildSummary
+   */
+  boolean hasChildSummary(@Param("datasetKey") int datasetKey);
+
+  /**
+   * @return the precomputed child counts by rank and extinct flag for the given parent
+   */
+  List<ChildCount> childCounts(@Param("key") DSID<String> key);
 }
@@ -6,12 +6,37 @@ import life.catalogue.db.mapper.legacy.model.LSpeciesName;
 import java.util.List;
 
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 /**
  * Warning: {@link LSpeciesName#getDistribution()} is not mapped
  */
 public interface LNameMapper {
 
+  /**
+   * A lookup name with the id of its usage or vernacular record.
+   */
+  class IndexEntry {
+    private String id;
+    private String name;
+
+    public String getId() {
+      return id;
+    }
+
+    public void setId(String id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
   LName get(@Param("datasetKey") int datasetKey,
             @Param("id") String id);
 
@@ -34,4 +59,21 @@ public interface LNameMapper {
                      @Param("start") int start,
                      @Param("limit") int limit);
 
+  /**
+   * Iterates over the scientific names of all usages in a dataset.
+   */
+  Cursor<IndexEntry> processIndex(@Param("datasetKey") int datasetKey);
+
+  /**
+   * @return usages for the given ids in the same order as the ids
+   */
+  List<LName> listByIds(@Param("datasetKey") int datasetKey,
+                        @Param("ids") List<String> ids);
+
+  /**
+   * @return full usages for the given ids in the same order as the ids
+   */
+  List<LName> listFullByIds(@Param("datasetKey") int datasetKey,
+                            @Param("ids") List<String> ids);
+
 }
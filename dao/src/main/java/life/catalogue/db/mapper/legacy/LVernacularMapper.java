@@ -5,6 +5,7 @@ import life.catalogue.db.mapper.legacy.model.LName;
 import java.util.List;
 
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 public interface LVernacularMapper {
 
@@ -15,4 +16,15 @@ public interface LVernacularMapper {
                      @Param("name") String name,
                      @Param("start") int start,
                      @Param("limit") int limit);
+
+  /**
+   * Iterates over all vernacular names of a dataset which are attached to a usage.
+   */
+  Cursor<LNameMapper.IndexEntry> processIndex(@Param("datasetKey") int datasetKey);
+
+  /**
+   * @return vernacular names for the given vernacular ids in the same order as the ids
+   */
+  List<LName> listByIds(@Param("datasetKey") int datasetKey,
+                        @Param("ids") List<Integer> ids);
 }
@@ -2,16 +2,12 @@ package life.catalogue.db.tree;
 
 import life.catalogue.api.exception.NotFoundException;
 import life.catalogue.api.model.ImportAttempt;
-import life.catalogue.common.io.InputStreamUtils;
 import life.catalogue.common.io.UTF8IoUtils;
 import life.catalogue.dao.FileMetricsDao;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
@@ -28,8 +24,13 @@ public abstract class BaseDiffService<K> {
   private static final Logger LOG = LoggerFactory.getLogger(BaseDiffService.class);
 
   private final static Pattern ATTEMPTS = Pattern.compile("^(\\d+)\\.\\.(\\d+)$");
+  // budgets for a single diff: 10 million lines per file take 80MB for the line hashes
+  private final static int MAX_LINES = 10_000_000;
+  private final static int MAX_EDITS = 1_000_000;
+  private final static long TIMEOUT = 60_000;
   protected final SqlSessionFactory factory;
   protected final FileMetricsDao<K> dao;
+  private final LineDiff differ = new LineDiff(MAX_LINES, MAX_EDITS, TIMEOUT);
 
   public BaseDiffService(FileMetricsDao<K> dao, SqlSessionFactory factory) {
     this.factory = factory;
@@ -38,12 +39,13 @@ public abstract class BaseDiffService<K> {
 
   public Reader treeDiff(K key, String attempts) {
     int[] atts = parseAttempts(key, attempts);
-    return udiff(key, atts, 2, a -> dao.treeFile(key, a));
+    return udiff(key, atts, 2, false, a -> dao.treeFile(key, a));
   }
 
   public Reader namesDiff(K key, String attempts) {
     int[] atts = parseAttempts(key, attempts);
-    return udiff(key, atts, 0, a -> dao.namesFile(key, a));
+    // name files are sorted
+    return udiff(key, atts, 0, true, a -> dao.namesFile(key, a));
   }
 
   abstract int[] parseAttempts(K key, String attempts);
@@ -105,14 +107,10 @@ public abstract class BaseDiffService<K> {
     File[] files = attemptToFiles(key, atts, getFile);
     try {
       final NamesDiff diff = new NamesDiff(key, atts[0], atts[1]);
-      Set<String> n1 = FileMetricsDao.readLines(files[0]);
-      Set<String> n2 = FileMetricsDao.readLines(files[1]);
-
-      diff.setDeleted(new HashSet<>(n1));
-      diff.getDeleted().removeAll(n2);
-
-      diff.setInserted(new HashSet<>(n2));
-      diff.getInserted().removeAll(n1);
+      diff.setDeleted(new HashSet<>());
+      diff.setInserted(new HashSet<>());
+      differ.difference(() -> UTF8IoUtils.readerFromFile(files[0]), () -> UTF8IoUtils.readerFromFile(files[1]),
+        diff.getDeleted(), diff.getInserted());
       return diff;
 
     } catch (IOException e) {
@@ -120,54 +118,53 @@ public abstract class BaseDiffService<K> {
     }
   }
 
-  public String diffBinaryVersion() throws IOException {
-    Runtime rt = Runtime.getRuntime();
-    Process ps = rt.exec("diff -v");
-    return InputStreamUtils.readEntireStream(ps.getInputStream());
-  }
-
   private String label(K key, int attempt) {
     return "dataset_" + key + "#" + attempt;
   }
 
   /**
-   * Generates a unified diff from two gzipped files using a native unix process.
-   * It allows a maximum of 10s before timing out.
+   * Generates a unified diff from two gzipped files, streaming them within the JVM.
+   * The diff is written to a temporary file which is deleted when the returned reader is closed.
    * @param atts
    * @param context number of lines of the context to include
+   * @param sorted true if the files are sorted and can be compared with a merge join
    * @param getFile
    */
   @VisibleForTesting
-  protected BufferedReader udiff(K key, int[] atts, int context, Function<Integer, File> getFile) {
+  protected BufferedReader udiff(K key, int[] atts, int context, boolean sorted, Function<Integer, File> getFile) {
     File[] files = attemptToFiles(key, atts, getFile);
+    File tmp = null;
+    boolean success = false;
     try {
-      String cmd = String.format("export LC_CTYPE=en_US.UTF-8; diff --label %s --label %s -B -d -U %s <(gunzip -c %s) <(gunzip -c %s)",
-        label(key,atts[0]), label(key,atts[1]), context, files[0].getAbsolutePath(), files[1].getAbsolutePath());
-      // we write the diff to a temp file as we get into problems with the process not returning when streaming the results directly. Especially when http connections are aborted.
-      File tmp = File.createTempFile("coldiff-"+key, ".diff");
+      tmp = File.createTempFile("coldiff-"+key, ".diff");
       tmp.deleteOnExit();
-      LOG.debug("Execute: {}", cmd);
-      ProcessBuilder pb = new ProcessBuilder("bash", "-c", cmd + "; exit 0");
-      pb.redirectOutput(tmp);
-
-      Process ps = pb.start();
-      // limit to 10s, see https://stackoverflow.com/questions/37043114/how-to-stop-a-command-being-executed-after-4-5-seconds-through-process-builder/37065167#37065167
-      if (!ps.waitFor(10, TimeUnit.SECONDS)) {
-        LOG.warn("Diff for {} attempts {} has timed out after 10s", key, atts);
-        ps.destroy(); // make sure we leave no process behind
-      }
-      int status = ps.waitFor();
-      if (status != 0) {
-        String error = InputStreamUtils.readEntireStream(ps.getErrorStream());
-        throw new RuntimeException("Unix diff failed with status " + status + ": " + error);
+      LOG.debug("Diff {} attempts {} with context {}", key, atts, context);
+      try (Writer writer = UTF8IoUtils.writerFromFile(tmp)) {
+        differ.unified(() -> UTF8IoUtils.readerFromGzipFile(files[0]), () -> UTF8IoUtils.readerFromGzipFile(files[1]),
+          label(key,atts[0]), label(key,atts[1]), context, sorted, true, writer);
       }
-      return UTF8IoUtils.readerFromFile(tmp);
+      final File diff = tmp;
+      BufferedReader reader = new BufferedReader(UTF8IoUtils.readerFromFile(diff)) {
+        @Override
+        public void close() throws IOException {
+          super.close();
+          diff.delete();
+        }
+      };
+      success = true;
+      return reader;
+
+    } catch (LineDiff.DiffBudgetException e) {
+      LOG.warn("Diff for {} attempts {} exceeded its budget: {}", key, atts, e.getMessage());
+      throw e;
 
     } catch (IOException e) {
-      throw new RuntimeException("Unix diff failed", e);
+      throw new RuntimeException("Diff failed", e);
 
-    } catch (InterruptedException e) {
-      throw new RuntimeException("Unix diff was interrupted", e);
+    } finally {
+      if (!success && tmp != null) {
+        tmp.delete();
+      }
     }
   }
 
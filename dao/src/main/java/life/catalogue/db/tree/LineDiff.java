@@ -0,0 +1,549 @@
+package life.catalogue.db.tree;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * Line based diff of two text sources running inside the JVM.
+ *
+ * Sources are streamed twice: first to hash every line into a long, then to write the unified diff.
+ * Only the line hashes and bitsets of the changed lines are kept in memory.
+ * Changed lines are detected with Myers' linear space O(ND) algorithm on the hashes
+ * or, for sorted sources, with a merge join that does not need to keep any lines at all.
+ *
+ * Memory is limited by the maximum number of lines per source and the maximum edit distance,
+ * time by a deadline which is checked while comparing. Exceeding any of them throws a DiffBudgetException.
+ */
+public class LineDiff {
+  private static final HashFunction HASH = Hashing.murmur3_128();
+  // number of loop iterations between deadline checks
+  private static final int CHECK_INTERVAL = 1024;
+
+  private final int maxLines;
+  private final int maxEdits;
+  private final long timeout;
+
+  @FunctionalInterface
+  public interface LineSource {
+    BufferedReader open() throws IOException;
+  }
+
+  public static class DiffBudgetException extends RuntimeException {
+    public DiffBudgetException(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * @param maxLines maximum number of lines per source
+   * @param maxEdits maximum number of differing lines when the sources are not sorted
+   * @param timeout maximum time in milliseconds to spend on a single diff
+   */
+  public LineDiff(int maxLines, int maxEdits, long timeout) {
+    this.maxLines = maxLines;
+    this.maxEdits = maxEdits;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Writes a minimal unified diff of two sources, equivalent to diff -d -U.
+   * Nothing is written if both sources are identical.
+   *
+   * @param context number of unchanged lines to include around changes
+   * @param sorted if true the sources are expected to be sorted and compared with a merge join.
+   *               If they turn out not to be sorted the regular diff is used instead.
+   * @param ignoreBlankLines if true hunks which only insert or delete blank lines are skipped, equivalent to diff -B
+   */
+  public void unified(LineSource s1, LineSource s2, String label1, String label2, int context, boolean sorted,
+                      boolean ignoreBlankLines, Writer out) throws IOException {
+    final long deadline = System.currentTimeMillis() + timeout;
+    BitSet del = new BitSet();
+    BitSet ins = new BitSet();
+    // blank lines of both sources, only tracked for changed lines
+    BitSet blank1 = new BitSet();
+    BitSet blank2 = new BitSet();
+    int[] size = null;
+    if (sorted) {
+      size = merge(s1, s2, deadline, new MergeHandler() {
+        @Override
+        public void deleted(int idx, String line) {
+          del.set(idx);
+          blank1.set(idx, isBlank(line));
+        }
+
+        @Override
+        public void inserted(int idx, String line) {
+          ins.set(idx);
+          blank2.set(idx, isBlank(line));
+        }
+      });
+    }
+    if (size == null) {
+      del.clear();
+      ins.clear();
+      blank1.clear();
+      blank2.clear();
+      long[] a = hash(s1, blank1);
+      long[] b = hash(s2, blank2);
+      new Myers(a, b, del, ins, deadline).run();
+      size = new int[]{a.length, b.length};
+    }
+    write(s1, s2, size[0], size[1], del, ins, ignoreBlankLines ? blank1 : null, ignoreBlankLines ? blank2 : null,
+      label1, label2, context, out);
+  }
+
+  /**
+   * Calculates the lines only existing in one of the sources, ignoring their order.
+   * Sorted sources are compared with a merge join, others are loaded into memory.
+   *
+   * @param deleted set to add lines only existing in the first source to
+   * @param inserted set to add lines only existing in the second source to
+   */
+  public void difference(LineSource s1, LineSource s2, Set<String> deleted, Set<String> inserted) throws IOException {
+    final long deadline = System.currentTimeMillis() + timeout;
+    int[] size = merge(s1, s2, deadline, new MergeHandler() {
+      @Override
+      public void deleted(int idx, String line) {
+        deleted.add(line);
+      }
+
+      @Override
+      public void inserted(int idx, String line) {
+        inserted.add(line);
+      }
+    });
+    if (size == null) {
+      deleted.clear();
+      inserted.clear();
+      Set<String> lines1 = read(s1);
+      Set<String> lines2 = read(s2);
+      for (String l : lines1) {
+        if (!lines2.contains(l)) {
+          deleted.add(l);
+        }
+      }
+      for (String l : lines2) {
+        if (!lines1.contains(l)) {
+          inserted.add(l);
+        }
+      }
+    }
+  }
+
+  private interface MergeHandler {
+    void deleted(int idx, String line);
+
+    void inserted(int idx, String line);
+  }
+
+  /**
+   * Merge joins two sorted sources, reporting lines which only exist in one of them.
+   * @return number of lines of both sources or null if any of them is not sorted
+   */
+  private int[] merge(LineSource s1, LineSource s2, long deadline, MergeHandler handler) throws IOException {
+    try (BufferedReader r1 = s1.open();
+         BufferedReader r2 = s2.open()
+    ) {
+      int i = 0;
+      int j = 0;
+      String l1 = r1.readLine();
+      String l2 = r2.readLine();
+      while (l1 != null || l2 != null) {
+        int cmp = l1 == null ? 1 : (l2 == null ? -1 : l1.compareTo(l2));
+        String prev1 = l1;
+        String prev2 = l2;
+        if (cmp <= 0) {
+          if (cmp < 0) {
+            handler.deleted(i, l1);
+          }
+          i++;
+          l1 = r1.readLine();
+          if (l1 != null && prev1.compareTo(l1) > 0) {
+            return null;
+          }
+        }
+        if (cmp >= 0) {
+          if (cmp > 0) {
+            handler.inserted(j, l2);
+          }
+          j++;
+          l2 = r2.readLine();
+          if (l2 != null && prev2.compareTo(l2) > 0) {
+            return null;
+          }
+        }
+        checkLines(Math.max(i, j));
+        if ((i + j) % CHECK_INTERVAL == 0) {
+          checkDeadline(deadline);
+        }
+      }
+      return new int[]{i, j};
+    }
+  }
+
+  private Set<String> read(LineSource src) throws IOException {
+    Set<String> lines = new HashSet<>();
+    try (BufferedReader br = src.open()) {
+      String line;
+      int counter = 0;
+      while ((line = br.readLine()) != null) {
+        checkLines(++counter);
+        lines.add(line);
+      }
+    }
+    return lines;
+  }
+
+  private long[] hash(LineSource src, BitSet blank) throws IOException {
+    LongArrayList hashes = new LongArrayList();
+    try (BufferedReader br = src.open()) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        checkLines(hashes.size() + 1);
+        blank.set(hashes.size(), isBlank(line));
+        hashes.add(HASH.hashString(line, StandardCharsets.UTF_8).asLong());
+      }
+    }
+    return hashes.toLongArray();
+  }
+
+  private static boolean isBlank(String line) {
+    return line.trim().isEmpty();
+  }
+
+  private void checkLines(int lines) {
+    if (lines > maxLines) {
+      throw new DiffBudgetException("Cannot diff sources with more than " + maxLines + " lines");
+    }
+  }
+
+  private void checkDeadline(long deadline) {
+    if (System.currentTimeMillis() > deadline) {
+      throw new DiffBudgetException("Diff has timed out after " + timeout + "ms");
+    }
+  }
+
+  /**
+   * Finds the shortest edit script of two hashed sources,
+   * recursively splitting them at the middle snake as described in section 4b of
+   * Myers, An O(ND) Difference Algorithm and Its Variations, 1986.
+   */
+  private class Myers {
+    private final long[] a;
+    private final long[] b;
+    private final BitSet del;
+    private final BitSet ins;
+    private final long deadline;
+    // furthest reaching paths, forward and reverse, indexed by diagonal + center
+    private final int[] v1;
+    private final int[] v2;
+    private final int center;
+
+    Myers(long[] a, long[] b, BitSet del, BitSet ins, long deadline) {
+      this.a = a;
+      this.b = b;
+      this.del = del;
+      this.ins = ins;
+      this.deadline = deadline;
+      int limit = Math.min(maxEdits, (a.length + b.length + 1) / 2);
+      center = limit + 2;
+      v1 = new int[2 * limit + 5];
+      v2 = new int[2 * limit + 5];
+    }
+
+    void run() {
+      // use an explicit stack instead of recursion to not overflow with many changes
+      Deque<int[]> ranges = new ArrayDeque<>();
+      ranges.push(new int[]{0, a.length, 0, b.length});
+      while (!ranges.isEmpty()) {
+        checkDeadline(deadline);
+        int[] r = ranges.pop();
+        int aOff = r[0];
+        int aLim = r[1];
+        int bOff = r[2];
+        int bLim = r[3];
+        // strip common prefix and suffix
+        while (aOff < aLim && bOff < bLim && a[aOff] == b[bOff]) {
+          aOff++;
+          bOff++;
+        }
+        while (aOff < aLim && bOff < bLim && a[aLim - 1] == b[bLim - 1]) {
+          aLim--;
+          bLim--;
+        }
+        if (aOff == aLim) {
+          ins.set(bOff, bLim);
+        } else if (bOff == bLim) {
+          del.set(aOff, aLim);
+        } else {
+          int[] split = bisect(aOff, aLim, bOff, bLim);
+          if (split == null) {
+            del.set(aOff, aLim);
+            ins.set(bOff, bLim);
+          } else {
+            ranges.push(new int[]{split[0], aLim, split[1], bLim});
+            ranges.push(new int[]{aOff, split[0], bOff, split[1]});
+          }
+        }
+      }
+    }
+
+    /**
+     * @return absolute split point on the shortest edit path or null if the ranges have nothing in common
+     */
+    private int[] bisect(final int aOff, final int aLim, final int bOff, final int bLim) {
+      final int n = aLim - aOff;
+      final int m = bLim - bOff;
+      final int maxD = (n + m + 1) / 2;
+      final int limit = Math.min(maxD, maxEdits);
+      Arrays.fill(v1, center - limit - 2, center + limit + 3, -1);
+      Arrays.fill(v2, center - limit - 2, center + limit + 3, -1);
+      v1[center + 1] = 0;
+      v2[center + 1] = 0;
+      final int delta = n - m;
+      // if the total number of lines is odd, the front path will collide with the reverse path
+      final boolean front = delta % 2 != 0;
+      // offsets for start and end of k loop, preventing mapping of space beyond the grid
+      int k1start = 0;
+      int k1end = 0;
+      int k2start = 0;
+      int k2end = 0;
+      for (int d = 0; d < limit; d++) {
+        if (d % CHECK_INTERVAL == 0) {
+          checkDeadline(deadline);
+        }
+        // walk the front path one step
+        for (int k1 = -d + k1start; k1 <= d - k1end; k1 += 2) {
+          int k1Idx = center + k1;
+          int x1;
+          if (k1 == -d || (k1 != d && v1[k1Idx - 1] < v1[k1Idx + 1])) {
+            x1 = v1[k1Idx + 1];
+          } else {
+            x1 = v1[k1Idx - 1] + 1;
+          }
+          int y1 = x1 - k1;
+          while (x1 < n && y1 < m && a[aOff + x1] == b[bOff + y1]) {
+            x1++;
+            y1++;
+          }
+          v1[k1Idx] = x1;
+          if (x1 > n) {
+            // ran off the right of the graph
+            k1end += 2;
+          } else if (y1 > m) {
+            // ran off the bottom of the graph
+            k1start += 2;
+          } else if (front) {
+            int k2 = delta - k1;
+            if (Math.abs(k2) <= limit + 1 && v2[center + k2] != -1) {
+              // mirror x2 onto top-left coordinate system
+              int x2 = n - v2[center + k2];
+              if (x1 >= x2) {
+                return split(aOff, aLim, bOff, bLim, x1, y1);
+              }
+            }
+          }
+        }
+
+        // walk the reverse path one step
+        for (int k2 = -d + k2start; k2 <= d - k2end; k2 += 2) {
+          int k2Idx = center + k2;
+          int x2;
+          if (k2 == -d || (k2 != d && v2[k2Idx - 1] < v2[k2Idx + 1])) {
+            x2 = v2[k2Idx + 1];
+          } else {
+            x2 = v2[k2Idx - 1] + 1;
+          }
+          int y2 = x2 - k2;
+          while (x2 < n && y2 < m && a[aLim - x2 - 1] == b[bLim - y2 - 1]) {
+            x2++;
+            y2++;
+          }
+          v2[k2Idx] = x2;
+          if (x2 > n) {
+            k2end += 2;
+          } else if (y2 > m) {
+            k2start += 2;
+          } else if (!front) {
+            int k1 = delta - k2;
+            if (Math.abs(k1) <= limit + 1 && v1[center + k1] != -1) {
+              int x1 = v1[center + k1];
+              int y1 = x1 - k1;
+              if (x1 >= n - x2) {
+                return split(aOff, aLim, bOff, bLim, x1, y1);
+              }
+            }
+          }
+        }
+      }
+      if (limit < maxD) {
+        throw new DiffBudgetException("Cannot diff sources with more than " + maxEdits + " changes");
+      }
+      return null;
+    }
+
+    private int[] split(int aOff, int aLim, int bOff, int bLim, int x, int y) {
+      int n = aLim - aOff;
+      int m = bLim - bOff;
+      // a split must make progress, otherwise treat the ranges as entirely different
+      if (x < 0 || x > n || y < 0 || y > m || (x == 0 && y == 0) || (x == n && y == m)) {
+        return null;
+      }
+      return new int[]{aOff + x, bOff + y};
+    }
+  }
+
+  /**
+   * Streams both sources again, writing all changes as hunks with the given number of context lines.
+   * If blank lines are given, hunks which only change blank lines are skipped.
+   */
+  private void write(LineSource s1, LineSource s2, int n, int m, BitSet del, BitSet ins, BitSet blank1, BitSet blank2,
+                     String label1, String label2, int context, Writer out) throws IOException {
+    // changes as consecutive quadruples of deleted range start & end and inserted range start & end
+    IntArrayList changes = new IntArrayList();
+    int i = 0;
+    int j = 0;
+    while (i < n || j < m) {
+      if (i < n && j < m && !del.get(i) && !ins.get(j)) {
+        i++;
+        j++;
+        continue;
+      }
+      int i0 = i;
+      int j0 = j;
+      while (i < n && del.get(i)) {
+        i++;
+      }
+      while (j < m && ins.get(j)) {
+        j++;
+      }
+      if (i == i0 && j == j0) {
+        throw new IllegalStateException("Inconsistent diff at lines " + i + " and " + j);
+      }
+      changes.add(i0);
+      changes.add(i);
+      changes.add(j0);
+      changes.add(j);
+    }
+    // hunks as pairs of the index of their first and last change
+    IntArrayList hunks = new IntArrayList();
+    int c = 0;
+    while (c < changes.size()) {
+      // find the last change of the hunk, merging changes with only little context between them
+      int last = c;
+      while (last + 4 < changes.size() && changes.getInt(last + 4) - changes.getInt(last + 1) <= 2 * context) {
+        last += 4;
+      }
+      if (blank1 == null || !onlyBlanks(changes, c, last, blank1, blank2)) {
+        hunks.add(c);
+        hunks.add(last);
+      }
+      c = last + 4;
+    }
+    if (hunks.isEmpty()) {
+      return;
+    }
+
+    try (BufferedReader r1 = s1.open();
+         BufferedReader r2 = s2.open()
+    ) {
+      out.write("--- " + label1 + "\n");
+      out.write("+++ " + label2 + "\n");
+      // current line positions of both readers
+      int p1 = 0;
+      int p2 = 0;
+      for (int h = 0; h < hunks.size(); h += 2) {
+        c = hunks.getInt(h);
+        final int last = hunks.getInt(h + 1);
+        int aStart = Math.max(0, changes.getInt(c) - context);
+        int bStart = changes.getInt(c + 2) - (changes.getInt(c) - aStart);
+        int aEnd = Math.min(n, changes.getInt(last + 1) + context);
+        int bEnd = changes.getInt(last + 3) + (aEnd - changes.getInt(last + 1));
+        out.write("@@ -" + range(aStart, aEnd - aStart) + " +" + range(bStart, bEnd - bStart) + " @@\n");
+
+        p1 = skip(r1, p1, aStart);
+        p2 = skip(r2, p2, bStart);
+        for (; c <= last; c += 4) {
+          // leading context
+          while (p1 < changes.getInt(c)) {
+            writeLine(out, ' ', r1.readLine());
+            r2.readLine();
+            p1++;
+            p2++;
+          }
+          for (; p1 < changes.getInt(c + 1); p1++) {
+            writeLine(out, '-', r1.readLine());
+          }
+          for (; p2 < changes.getInt(c + 3); p2++) {
+            writeLine(out, '+', r2.readLine());
+          }
+        }
+        // trailing context
+        while (p1 < aEnd) {
+          writeLine(out, ' ', r1.readLine());
+          r2.readLine();
+          p1++;
+          p2++;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return true if all changes from first to last only delete or insert blank lines
+   */
+  private static boolean onlyBlanks(IntArrayList changes, int first, int last, BitSet blank1, BitSet blank2) {
+    for (int c = first; c <= last; c += 4) {
+      int i0 = changes.getInt(c);
+      int i1 = changes.getInt(c + 1);
+      int j0 = changes.getInt(c + 2);
+      int j1 = changes.getInt(c + 3);
+      if (blank1.nextClearBit(i0) < i1 || blank2.nextClearBit(j0) < j1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int skip(BufferedReader br, int pos, int target) throws IOException {
+    while (pos < target) {
+      br.readLine();
+      pos++;
+    }
+    return pos;
+  }
+
+  private static void writeLine(Writer out, char prefix, String line) throws IOException {
+    out.write(prefix);
+    out.write(line);
+    out.write('\n');
+  }
+
+  /**
+   * @param start zero based first line of the range
+   * @return the range in unified diff format, which for empty ranges refers to the line before
+   */
+  private static String range(int start, int count) {
+    if (count == 1) {
+      return String.valueOf(start + 1);
+    }
+    if (count == 0) {
+      return start + ",0";
+    }
+    return (start + 1) + "," + count;
+  }
+}
@@ -0,0 +1,10 @@
+package life.catalogue.db.type2;
+
+import life.catalogue.api.vocab.MatchType;
+
+public class HstoreMatchTypeCountTypeHandler extends HstoreEnumCountTypeHandlerBase<MatchType> {
+
+  public HstoreMatchTypeCountTypeHandler() {
+    super(MatchType.class);
+  }
+}
@@ -0,0 +1,22 @@
+package life.catalogue.db.type2;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+/**
+ * Durations in milliseconds keyed by the name of the timed stage, sorted by the stage name.
+ */
+public class HstoreTimingsTypeHandler extends HstoreCountTypeHandlerBase<String> {
+
+  @Override
+  String toKey(String x) throws IllegalArgumentException {
+    return x;
+  }
+
+  @Override
+  protected Map<String, Integer> sortMap(HashMap<String, Integer> map) {
+    return ImmutableSortedMap.copyOf(map);
+  }
+}
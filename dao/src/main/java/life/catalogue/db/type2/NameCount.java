@@ -0,0 +1,98 @@
+package life.catalogue.db.type2;
+
+import java.util.Objects;
+
+/**
+ * Number of names sharing the same rank, code, nomenclatural status, name type and bare name flag.
+ */
+public class NameCount {
+  private String rank;
+  private String code;
+  private String status;
+  private String type;
+  private boolean bare;
+  private Integer count;
+
+  public NameCount() {
+  }
+
+  public NameCount(String rank, String code, String status, String type, boolean bare, Integer count) {
+    this.rank = rank;
+    this.code = code;
+    this.status = status;
+    this.type = type;
+    this.bare = bare;
+    this.count = count;
+  }
+
+  public String getRank() {
+    return rank;
+  }
+
+  public void setRank(String rank) {
+    this.rank = rank;
+  }
+
+  public String getCode() {
+    return code;
+  }
+
+  public void setCode(String code) {
+    this.code = code;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public boolean isBare() {
+    return bare;
+  }
+
+  public void setBare(boolean bare) {
+    this.bare = bare;
+  }
+
+  public Integer getCount() {
+    return count;
+  }
+
+  public void setCount(Integer count) {
+    this.count = count;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    NameCount that = (NameCount) o;
+    return bare == that.bare &&
+        Objects.equals(rank, that.rank) &&
+        Objects.equals(code, that.code) &&
+        Objects.equals(status, that.status) &&
+        Objects.equals(type, that.type) &&
+        Objects.equals(count, that.count);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(rank, code, status, type, bare, count);
+  }
+
+  @Override
+  public String toString() {
+    return "NameCount{" + rank + ", " + code + ", " + status + ", " + type + ", bare=" + bare + " =" + count + '}';
+  }
+}
@@ -0,0 +1,65 @@
+package life.catalogue.db.type2;
+
+import java.util.Objects;
+
+/**
+ * Number of verbatim records of a given row type that contain a term.
+ */
+public class TermCount {
+  private String rowType;
+  private String term;
+  private Integer count;
+
+  public TermCount() {
+  }
+
+  public TermCount(String rowType, String term, Integer count) {
+    this.rowType = rowType;
+    this.term = term;
+    this.count = count;
+  }
+
+  public String getRowType() {
+    return rowType;
+  }
+
+  public void setRowType(String rowType) {
+    this.rowType = rowType;
+  }
+
+  public String getTerm() {
+    return term;
+  }
+
+  public void setTerm(String term) {
+    this.term = term;
+  }
+
+  public Integer getCount() {
+    return count;
+  }
+
+  public void setCount(Integer count) {
+    this.count = count;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    TermCount that = (TermCount) o;
+    return Objects.equals(rowType, that.rowType) &&
+        Objects.equals(term, that.term) &&
+        Objects.equals(count, that.count);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(rowType, term, count);
+  }
+
+  @Override
+  public String toString() {
+    return "TermCount{" + rowType + ":" + term + "=" + count + '}';
+  }
+}
@@ -0,0 +1,98 @@
+package life.catalogue.db.type2;
+
+import java.util.Objects;
+
+/**
+ * Number of name usages sharing the same taxonomic status, origin, rank, synonym and extinct flag.
+ */
+public class UsageCount {
+  private String status;
+  private String origin;
+  private String rank;
+  private boolean synonym;
+  private boolean extinct;
+  private Integer count;
+
+  public UsageCount() {
+  }
+
+  public UsageCount(String status, String origin, String rank, boolean synonym, boolean extinct, Integer count) {
+    this.status = status;
+    this.origin = origin;
+    this.rank = rank;
+    this.synonym = synonym;
+    this.extinct = extinct;
+    this.count = count;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public String getOrigin() {
+    return origin;
+  }
+
+  public void setOrigin(String origin) {
+    this.origin = origin;
+  }
+
+  public String getRank() {
+    return rank;
+  }
+
+  public void setRank(String rank) {
+    this.rank = rank;
+  }
+
+  public boolean isSynonym() {
+    return synonym;
+  }
+
+  public void setSynonym(boolean synonym) {
+    this.synonym = synonym;
+  }
+
+  public boolean isExtinct() {
+    return extinct;
+  }
+
+  public void setExtinct(boolean extinct) {
+    this.extinct = extinct;
+  }
+
+  public Integer getCount() {
+    return count;
+  }
+
+  public void setCount(Integer count) {
+    this.count = count;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    UsageCount that = (UsageCount) o;
+    return synonym == that.synonym &&
+        extinct == that.extinct &&
+        Objects.equals(status, that.status) &&
+        Objects.equals(origin, that.origin) &&
+        Objects.equals(rank, that.rank) &&
+        Objects.equals(count, that.count);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(status, origin, rank, synonym, extinct, count);
+  }
+
+  @Override
+  public String toString() {
+    return "UsageCount{" + status + ", " + origin + ", " + rank + ", synonym=" + synonym + ", extinct=" + extinct + " =" + count + '}';
+  }
+}
@@ -1,5 +1,7 @@
 package life.catalogue.es;
 
+import life.catalogue.dao.NameUsageProcessor;
+
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
@@ -48,6 +50,41 @@ public class EsConfig {
   @Min(1)
   public int indexingThreads = 4;
 
+  /**
+   * Number of usages above which a dataset is indexed with its entire classification held in memory
+   * instead of traversing the tree in postgres. Zero disables the in memory mode.
+   */
+  @Min(0)
+  public int memoryClassificationThreshold = NameUsageProcessor.DEFAULT_MEMORY_THRESHOLD;
+
+  /**
+   * Number of usages above which a dataset is split into parts of at most this size when indexing all datasets,
+   * so the parts can be indexed by several threads concurrently. Zero disables splitting.
+   */
+  @Min(0)
+  public int indexingSplitSize = 500_000;
+
+  /**
+   * Maximum number of bulk requests sent concurrently while indexing a single dataset.
+   * 1 sends all bulk requests synchronously.
+   */
+  @Min(1)
+  public int bulkRequestsInFlight = 3;
+
+  /**
+   * If true removes all replicas while indexing all datasets and only refreshes the index once at the very end.
+   * The configured number of replicas is restored afterwards.
+   */
+  public boolean bulkIndexSettings = true;
+
+  /**
+   * If true datasets and sectors which are already indexed are synchronised incrementally,
+   * only sending new and changed usages based on the content hash of their documents and deleting removed ones.
+   * Documents only get a content hash when this is enabled, so existing indices need the contentHash field added to their mapping first,
+   * see the PROD changes in dbschema.md.
+   */
+  public boolean incrementalSync = false;
+
   @JsonIgnore
   public boolean isEmpty() {
     return hosts == null || nameUsage == null;
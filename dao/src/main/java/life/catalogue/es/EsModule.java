@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 import com.fasterxml.jackson.annotation.*;
@@ -84,6 +85,9 @@ public class EsModule extends SimpleModule {
 
   private static final ObjectReader nameUsageReader = contentMapper.readerFor(NameUsageWrapper.class);
   private static final ObjectWriter nameUsageWriter = contentMapper.writerFor(NameUsageWrapper.class);
+  private static final ObjectWriter nameUsageContentWriter = configureContentMapper(new ObjectMapper())
+      .addMixIn(DataEntity.class, DataEntityMixIn.class)
+      .writerFor(NameUsageWrapper.class);
 
   private static final TypeReference<Map<String, Object>> mapType = new TypeReference<Map<String, Object>>() {};
 
@@ -178,6 +182,13 @@ public class EsModule extends SimpleModule {
     nameUsageWriter.writeValue(out, nuw);
   }
 
+  /**
+   * Serializes a NameUsageWrapper without the creation and modification metadata of any of its entities.
+   */
+  public static String writeContent(NameUsageWrapper nuw) throws JsonProcessingException {
+    return nameUsageContentWriter.writeValueAsString(nuw);
+  }
+
   public static String writeDebug(Object obj) {
     try {
       return DEBUG_WRITER.writeValueAsString(obj);
@@ -229,6 +240,15 @@ public class EsModule extends SimpleModule {
   abstract class NameMixIn {
     @JsonIgnore abstract String getLabelHtml();
   }
+  /**
+   * Creation and modification metadata changes with every import even if the content itself is the same.
+   */
+  abstract class DataEntityMixIn {
+    @JsonIgnore abstract LocalDateTime getCreated();
+    @JsonIgnore abstract Integer getCreatedBy();
+    @JsonIgnore abstract LocalDateTime getModified();
+    @JsonIgnore abstract Integer getModifiedBy();
+  }
 
   private static ObjectMapper configureContentMapper(ObjectMapper mapper) {
     configureMapper(mapper);
@@ -68,6 +68,9 @@ public class EsNameUsage {
   @MapToType(ESDataType.BINARY)
   private String payload;
 
+  @NotIndexed
+  private Long contentHash;
+
   /**
    * Elasticsearch's own id for the document. Note that this id is NOT part of the document and must therefore not be included in the
    * document type mapping. It comes along as metadata with the search response, outside the JSON document itself. We artificially add it
@@ -298,6 +301,18 @@ public class EsNameUsage {
     this.payload = source;
   }
 
+  /**
+   * Hash of the entire document content, used to detect changed documents when synchronising a dataset incrementally.
+   * Creation and modification metadata of the payload is not part of the hash.
+   */
+  public Long getContentHash() {
+    return contentHash;
+  }
+
+  public void setContentHash(Long contentHash) {
+    this.contentHash = contentHash;
+  }
+
   public List<EsDecision> getDecisions() {
     return decisions;
   }
@@ -309,7 +324,7 @@ public class EsNameUsage {
   @Override
   public int hashCode() {
     return Objects.hash(acceptedName, authorship, authorshipComplete, authorshipYear, classification, classificationIds, datasetKey,
-        decisions, documentId, extinct, issues, nameFields, nameId, nameStrings, nomCode, nomStatus, payload,
+        decisions, documentId, extinct, issues, nameFields, nameId, nameStrings, nomCode, nomStatus, payload, contentHash,
         publishedInId, publisherKey, rank, origin, scientificName, sectorDatasetKey, sectorKey, status, type, usageId);
   }
 
@@ -343,6 +358,7 @@ public class EsNameUsage {
         && nomCode == other.nomCode
         && nomStatus == other.nomStatus
         && Objects.equals(payload, other.payload)
+        && Objects.equals(contentHash, other.contentHash)
         && Objects.equals(publishedInId, other.publishedInId)
         && Objects.equals(publisherKey, other.publisherKey)
         && rank == other.rank
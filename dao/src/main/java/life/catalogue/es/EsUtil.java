@@ -305,6 +305,19 @@ public class EsUtil {
     executeWithRetry(client, new Request("POST", name + "/_refresh"));
   }
 
+  /**
+   * Changes the number of replicas of an existing index.
+   *
+   * @param client
+   * @param name
+   * @param replicas
+   */
+  public static void updateNumberOfReplicas(RestClient client, String name, int replicas) {
+    Request request = new Request("PUT", name + "/_settings");
+    request.setJsonEntity("{\"index\":{\"number_of_replicas\":" + replicas + "}}");
+    executeWithRetry(client, request);
+  }
+
   /**
    * Simple document count.
    * 
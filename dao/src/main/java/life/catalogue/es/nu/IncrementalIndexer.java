@@ -0,0 +1,193 @@
+package life.catalogue.es.nu;
+
+import life.catalogue.api.search.NameUsageSearchParameter;
+import life.catalogue.api.search.NameUsageWrapper;
+import life.catalogue.es.EsException;
+import life.catalogue.es.EsNameUsage;
+import life.catalogue.es.query.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import org.elasticsearch.client.RestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+
+/**
+ * Synchronises the usage documents of a dataset or a single sector with postgres instead of deleting and resending all of them.
+ * The content hashes and document ids of all existing usage documents are loaded first. Every usage passed to the indexer is converted,
+ * but only sent if it is new or its content hash differs, in which case it replaces the outdated document under its existing document id.
+ * Documents of usages that have not been passed to the indexer are deleted on close.
+ *
+ * Bare names are not handled.
+ */
+class IncrementalIndexer implements Consumer<NameUsageWrapper>, AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(IncrementalIndexer.class);
+  private static final int PAGE_SIZE = 10_000;
+
+  private final RestClient client;
+  private final String index;
+  private final int datasetKey;
+  private final Integer sectorKey;
+  private final int batchSize;
+  private final NameUsageIndexer indexer;
+  private final NameUsageWrapperConverter converter = new NameUsageWrapperConverter(true);
+  // content hashes and document ids of all existing usage documents not yet seen, keyed by usage id
+  private final Object2LongOpenHashMap<String> hashes = new Object2LongOpenHashMap<>();
+  private final Object2ObjectOpenHashMap<String, String> docIds = new Object2ObjectOpenHashMap<>();
+  // document ids of surplus documents for the same usage id
+  private final List<String> duplicates = new ArrayList<>();
+  private final List<EsNameUsage> batch;
+  private int inserted;
+  private int updated;
+  private int unchanged;
+  private int deleted;
+
+  IncrementalIndexer(RestClient client, String index, int datasetKey, @Nullable Integer sectorKey, int batchSize, int maxInFlight) {
+    this.client = client;
+    this.index = index;
+    this.datasetKey = datasetKey;
+    this.sectorKey = sectorKey;
+    this.batchSize = batchSize;
+    this.batch = new ArrayList<>(batchSize);
+    this.indexer = new NameUsageIndexer(client, index, maxInFlight, true);
+    loadHashes();
+  }
+
+  private Query scope() {
+    // bare names have no status
+    IsNotNullQuery usages = new IsNotNullQuery(NameUsageFieldLookup.INSTANCE.lookupSingle(NameUsageSearchParameter.STATUS));
+    if (sectorKey == null) {
+      return BoolQuery.withFilters(new TermQuery("datasetKey", datasetKey), usages);
+    }
+    return BoolQuery.withFilters(new TermQuery("datasetKey", datasetKey), new TermQuery("sectorKey", sectorKey), usages);
+  }
+
+  private void loadHashes() {
+    NameUsageQueryService svc = new NameUsageQueryService(index, client);
+    String after = null;
+    List<EsNameUsage> docs;
+    do {
+      EsSearchRequest query = EsSearchRequest.emptyRequest()
+          .select("usageId", "contentHash")
+          .where(scope())
+          .sortBy(new SortField("usageId"))
+          .size(PAGE_SIZE);
+      if (after != null) {
+        query.setSearchAfter(List.of(after));
+      }
+      docs = svc.getDocumentsWithDocId(query);
+      for (EsNameUsage doc : docs) {
+        String prev = docIds.put(doc.getUsageId(), doc.getDocumentId());
+        if (prev != null) {
+          duplicates.add(prev);
+        }
+        // documents indexed without a hash always get replaced
+        hashes.put(doc.getUsageId(), doc.getContentHash() == null ? 0 : (long) doc.getContentHash());
+      }
+      if (!docs.isEmpty()) {
+        after = docs.get(docs.size() - 1).getUsageId();
+      }
+    } while (docs.size() == PAGE_SIZE);
+    LOG.info("Loaded content hashes of {} existing documents for dataset {}{}", hashes.size(), datasetKey, sectorKey == null ? "" : " sector " + sectorKey);
+  }
+
+  @Override
+  public void accept(NameUsageWrapper nuw) {
+    EsNameUsage doc;
+    try {
+      doc = converter.toDocument(nuw);
+    } catch (IOException e) {
+      throw new EsException(e);
+    }
+    String id = doc.getUsageId();
+    if (hashes.containsKey(id)) {
+      long hash = hashes.removeLong(id);
+      String docId = docIds.remove(id);
+      if (hash == doc.getContentHash()) {
+        unchanged++;
+        return;
+      }
+      doc.setDocumentId(docId);
+      updated++;
+    } else {
+      inserted++;
+    }
+    batch.add(doc);
+    if (batch.size() >= batchSize) {
+      submit();
+    }
+  }
+
+  private void submit() {
+    // the request body is built synchronously, so the batch can be reused right away
+    indexer.insert(batch);
+    batch.clear();
+  }
+
+  private void delete(List<String> ids) {
+    for (int i = 0; i < ids.size(); i += batchSize) {
+      indexer.delete(ids.subList(i, Math.min(i + batchSize, ids.size())));
+    }
+  }
+
+  /**
+   * Sends all remaining documents, deletes the documents of usages which no longer exist and waits for all requests to complete.
+   * The index still needs to be refreshed.
+   */
+  @Override
+  public void close() {
+    try {
+      if (!batch.isEmpty()) {
+        submit();
+      }
+      if (!docIds.isEmpty()) {
+        deleted = docIds.size();
+        delete(new ArrayList<>(docIds.values()));
+        docIds.clear();
+        hashes.clear();
+      }
+      if (!duplicates.isEmpty()) {
+        LOG.info("Delete {} duplicate documents for dataset {}{}", duplicates.size(), datasetKey, sectorKey == null ? "" : " sector " + sectorKey);
+        delete(duplicates);
+        duplicates.clear();
+      }
+      indexer.flush();
+    } finally {
+      indexer.close();
+    }
+    LOG.info("Synced dataset {}{}. Inserted: {}. Updated: {}. Unchanged: {}. Deleted: {}.",
+      datasetKey, sectorKey == null ? "" : " sector " + sectorKey, inserted, updated, unchanged, deleted);
+  }
+
+  /**
+   * @return number of usages now present in the index, i.e. inserted, updated and unchanged ones
+   */
+  int usages() {
+    return inserted + updated + unchanged;
+  }
+
+  int inserted() {
+    return inserted;
+  }
+
+  int updated() {
+    return updated;
+  }
+
+  int unchanged() {
+    return unchanged;
+  }
+
+  int deleted() {
+    return deleted;
+  }
+}
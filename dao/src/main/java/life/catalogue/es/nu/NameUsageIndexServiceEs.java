@@ -1,5 +1,6 @@
 package life.catalogue.es.nu;
 
+import life.catalogue.api.event.DatasetIndexChanged;
 import life.catalogue.api.exception.NotFoundException;
 import life.catalogue.api.model.DSID;
 import life.catalogue.api.model.Sector;
@@ -7,8 +8,6 @@ import life.catalogue.api.model.SimpleNameClassification;
 import life.catalogue.api.search.NameUsageWrapper;
 import life.catalogue.common.func.BatchConsumer;
 import life.catalogue.common.util.LoggingUtils;
-import life.catalogue.concurrent.ExecutorUtils;
-import life.catalogue.concurrent.NamedThreadFactory;
 import life.catalogue.dao.DaoUtils;
 import life.catalogue.dao.NameUsageProcessor;
 import life.catalogue.db.mapper.DatasetMapper;
@@ -22,12 +21,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.time.StopWatch;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -35,8 +36,16 @@ import org.elasticsearch.client.RestClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Iterables;
+import com.google.common.eventbus.EventBus;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
@@ -49,18 +58,104 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
   private final EsConfig esConfig;
   private final SqlSessionFactory factory;
   private final NameUsageProcessor processor;
+  private final EventBus bus;
+  // plain metrics until registered
+  private Timer datasetTimer = new Timer();
+  private Meter documentsMeter = new Meter();
+  private Meter bytesMeter = new Meter();
+  private Counter rejections = new Counter();
 
   @VisibleForTesting
   public NameUsageIndexServiceEs(RestClient client, EsConfig esConfig, SqlSessionFactory factory) {
+    this(client, esConfig, factory, null);
+  }
+
+  /**
+   * @param bus optional bus to announce rebuilt or removed datasets on, e.g. to invalidate search caches
+   */
+  public NameUsageIndexServiceEs(RestClient client, EsConfig esConfig, SqlSessionFactory factory, EventBus bus) {
     this.client = client;
     this.esConfig = esConfig;
     this.factory = factory;
-    this.processor = new NameUsageProcessor(factory);
+    this.bus = bus;
+    this.processor = new NameUsageProcessor(factory, esConfig.memoryClassificationThreshold);
+  }
+
+  /**
+   * Optionally register indexing time and throughput metrics, including the ones of the usage processor
+   */
+  public void register(MetricRegistry registry) {
+    final String prefix = MetricRegistry.name("life.catalogue", "es", "index");
+    datasetTimer = registry.timer(MetricRegistry.name(prefix, "dataset"));
+    documentsMeter = registry.meter(MetricRegistry.name(prefix, "documents"));
+    bytesMeter = registry.meter(MetricRegistry.name(prefix, "bytes"));
+    rejections = registry.counter(MetricRegistry.name(prefix, "rejections"));
+    processor.register(registry);
+  }
+
+  private void post(DatasetIndexChanged event) {
+    if (bus != null) {
+      bus.post(event);
+    }
   }
 
   @Override
   public Stats indexDataset(int datasetKey) {
-    return indexDatasetInternal(datasetKey, true);
+    Stats stats;
+    if (esConfig.incrementalSync && indexExists()) {
+      stats = syncDataset(datasetKey);
+    } else {
+      stats = indexDatasetInternal(datasetKey, true, true);
+    }
+    post(DatasetIndexChanged.dataset(datasetKey));
+    return stats;
+  }
+
+  private boolean indexExists() {
+    try {
+      return EsUtil.indexExists(client, esConfig.nameUsage.name);
+    } catch (IOException e) {
+      throw new EsException(e);
+    }
+  }
+
+  /**
+   * Documents only carry a content hash if incremental syncs are enabled.
+   */
+  private NameUsageIndexer newIndexer(int maxInFlight) {
+    return new NameUsageIndexer(client, esConfig.nameUsage.name, maxInFlight, esConfig.incrementalSync);
+  }
+
+  /**
+   * Only sends new and changed usage documents of a dataset and removes the ones of deleted usages.
+   * Bare names are always replaced entirely.
+   */
+  private Stats syncDataset(int datasetKey) {
+    Stats stats = new Stats();
+    try (SqlSession lockSession = factory.openSession()) {
+      LoggingUtils.setDatasetMDC(datasetKey, getClass());
+      LOG.info("Start incremental indexing of dataset {}", datasetKey);
+      StopWatch watch = StopWatch.createStarted();
+      // we lock the main dataset tables so they are only accessible by select statements, but not any modifying statements.
+      DaoUtils.aquireTableLock(datasetKey, lockSession);
+      IncrementalIndexer sync = new IncrementalIndexer(client, esConfig.nameUsage.name, datasetKey, null, BATCH_SIZE, esConfig.bulkRequestsInFlight);
+      try (sync) {
+        processor.processDataset(datasetKey, sync);
+      }
+      stats.usages = sync.usages();
+      LOG.info("Replace bare names from dataset {}", datasetKey);
+      EsUtil.deleteBareNames(client, esConfig.nameUsage.name, datasetKey);
+      stats.names = indexBareNames(datasetKey);
+      EsUtil.refreshIndex(client, esConfig.nameUsage.name);
+      watch.stop();
+
+      LOG.info("Successfully synced dataset {} with index {} in {}. Usages: {}. Bare names: {}. Total: {}. Sent {} new and {} changed usages, deleted {}",
+        datasetKey, esConfig.nameUsage.name, watch, stats.usages, stats.names, stats.total(), sync.inserted(), sync.updated(), sync.deleted());
+      return stats;
+
+    } finally {
+      LoggingUtils.removeDatasetMDC();
+    }
   }
 
   @Override
@@ -70,7 +165,7 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
       LOG.info("Remove dataset {} from index", datasetKey);
       createOrEmptyIndex(datasetKey);
 
-      NameUsageIndexer indexer = new NameUsageIndexer(client, esConfig.nameUsage.name);
+      NameUsageIndexer indexer = newIndexer(1);
       return new BatchConsumer<>(indexer, BATCH_SIZE) {
         @Override
         public void close() {
@@ -84,12 +179,18 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
     }
   }
 
-  private Stats indexDatasetInternal(int datasetKey, boolean clearIndex) {
+  /**
+   * @param clearIndex if true removes all existing documents of the dataset first
+   * @param refresh if true refreshes the index after the usages and the bare names have been indexed
+   */
+  private Stats indexDatasetInternal(int datasetKey, boolean clearIndex, boolean refresh) {
     Stats stats = new Stats();
-    try (SqlSession lockSession = factory.openSession()) {
+    try (SqlSession lockSession = factory.openSession();
+         NameUsageIndexer indexer = newIndexer(esConfig.bulkRequestsInFlight)
+    ) {
       LoggingUtils.setDatasetMDC(datasetKey, getClass());
       LOG.info("Start indexing dataset {}", datasetKey);
-      NameUsageIndexer indexer = new NameUsageIndexer(client, esConfig.nameUsage.name);
+      StopWatch watch = StopWatch.createStarted();
       // we lock the main dataset tables so they are only accessible by select statements, but not any modifying statements.
       DaoUtils.aquireTableLock(datasetKey, lockSession);
       if (clearIndex) {
@@ -100,20 +201,31 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
         LOG.info("Indexing usages from dataset {}", datasetKey);
         processor.processDataset(datasetKey, handler);
       }
-      EsUtil.refreshIndex(client, esConfig.nameUsage.name);
+      indexer.flush();
+      if (refresh) {
+        EsUtil.refreshIndex(client, esConfig.nameUsage.name);
+      }
       stats.usages = indexer.documentsIndexed();
-      indexer.reset();
       try (SqlSession session = factory.openSession()) {
         LOG.info("Indexing bare names from dataset {}", datasetKey);
         NameUsageWrapperMapper mapper = session.getMapper(NameUsageWrapperMapper.class);
         Cursor<NameUsageWrapper> cursor = mapper.processDatasetBareNames(datasetKey, null);
         Iterables.partition(cursor, BATCH_SIZE).forEach(indexer);
       }
-      EsUtil.refreshIndex(client, esConfig.nameUsage.name);
-      stats.names = indexer.documentsIndexed();
+      indexer.flush();
+      if (refresh) {
+        EsUtil.refreshIndex(client, esConfig.nameUsage.name);
+      }
+      watch.stop();
+      stats.names = indexer.documentsIndexed() - stats.usages;
 
       LOG.info("Successfully indexed dataset {} into index {}. Usages: {}. Bare names: {}. Total: {}.",
         datasetKey, esConfig.nameUsage.name, stats.usages, stats.names, stats.total());
+      datasetTimer.update(watch.getTime(), TimeUnit.MILLISECONDS);
+      documentsMeter.mark(indexer.documentsIndexed());
+      bytesMeter.mark(indexer.bytesSent());
+      rejections.inc(indexer.rejections());
+      logThroughput(datasetKey, indexer, watch);
       return stats;
 
     } catch (IOException e) {
@@ -124,12 +236,20 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
     }
   }
 
+  private static void logThroughput(int datasetKey, NameUsageIndexer indexer, StopWatch watch) {
+    long millis = Math.max(1, watch.getTime());
+    LOG.info("Indexed {} documents with {} MB of dataset {} in {}: {} docs/s, {} KB/s. Rejected bulk requests: {}",
+      indexer.documentsIndexed(), indexer.bytesSent() / (1024 * 1024), datasetKey, watch,
+      indexer.documentsIndexed() * 1000L / millis, indexer.bytesSent() * 1000L / millis / 1024, indexer.rejections());
+  }
+
   @Override
   public int deleteDataset(int datasetKey) {
     LOG.info("Removing dataset {} from index {}", datasetKey, esConfig.nameUsage.name);
     int cnt = EsUtil.deleteDataset(client, esConfig.nameUsage.name, datasetKey);
     LOG.info("Deleted all {} documents from dataset {} from index {}", cnt, datasetKey, esConfig.nameUsage.name);
     EsUtil.refreshIndex(client, esConfig.nameUsage.name);
+    post(DatasetIndexChanged.dataset(datasetKey));
     return cnt;
   }
 
@@ -140,16 +260,26 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
       Sector s = session.getMapper(SectorMapper.class).get(sectorKey);
       if (s == null) throw NotFoundException.notFound(Sector.class, sectorKey);
 
-      NameUsageIndexer indexer = new NameUsageIndexer(client, esConfig.nameUsage.name);
-      deleteSector(s);
+      NameUsageIndexer indexer = newIndexer(1);
       NameUsageWrapperMapper mapper = session.getMapper(NameUsageWrapperMapper.class);
 
-      try (BatchConsumer<NameUsageWrapper> handler = new BatchConsumer<>(indexer, BATCH_SIZE)) {
-        LOG.info("Indexing usages from sector {}", s.getKey());
-        processor.processSector(s, handler);
+      if (esConfig.incrementalSync) {
+        IncrementalIndexer sync = new IncrementalIndexer(client, esConfig.nameUsage.name, s.getDatasetKey(), s.getId(), BATCH_SIZE, esConfig.bulkRequestsInFlight);
+        try (sync) {
+          LOG.info("Syncing usages from sector {}", s.getKey());
+          processor.processSector(s, sync);
+        }
+        stats.usages = sync.usages();
+
+      } else {
+        deleteSector(s);
+        try (BatchConsumer<NameUsageWrapper> handler = new BatchConsumer<>(indexer, BATCH_SIZE)) {
+          LOG.info("Indexing usages from sector {}", s.getKey());
+          processor.processSector(s, handler);
+        }
+        stats.usages = indexer.documentsIndexed();
+        indexer.reset();
       }
-      stats.usages = indexer.documentsIndexed();
-      indexer.reset();
 
       LOG.info("Indexing bare names from sector {}", s.getKey());
       Cursor<NameUsageWrapper> cursor = mapper.processDatasetBareNames(s.getDatasetKey(), s.getId());
@@ -216,7 +346,7 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
     if (!usages.isEmpty()) {
       NameUsageWrapper first = usages.iterator().next();
       LOG.info("Adding {} usages. First: {}", usages.size(), first.getUsage());
-      NameUsageIndexer indexer = new NameUsageIndexer(client, esConfig.nameUsage.name);
+      NameUsageIndexer indexer = newIndexer(1);
       indexer.accept(usages);
       return indexer.documentsIndexed();
     }
@@ -225,7 +355,7 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
 
   @Override
   public void updateClassification(int datasetKey, String rootTaxonId) {
-    NameUsageIndexer indexer = new NameUsageIndexer(client, esConfig.nameUsage.name);
+    NameUsageIndexer indexer = newIndexer(1);
     try (SqlSession session = factory.openSession()) {
       NameUsageWrapperMapper mapper = session.getMapper(NameUsageWrapperMapper.class);
       Cursor<SimpleNameClassification> cursor = mapper.processTree(datasetKey, null, rootTaxonId);
@@ -240,17 +370,24 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
   public int createEmptyIndex() {
     try {
       EsUtil.deleteIndex(client, esConfig.nameUsage);
-      return EsUtil.createIndex(client, EsNameUsage.class, esConfig.nameUsage);
+      int status = EsUtil.createIndex(client, EsNameUsage.class, esConfig.nameUsage);
+      post(DatasetIndexChanged.all());
+      return status;
     } catch (IOException e) {
       throw new EsException(e);
     }
   }
 
+  /**
+   * Indexes all datasets, starting with the largest ones as known from their usage counters.
+   * Datasets larger than the configured split size are indexed in parts by several threads.
+   */
   @Override
   public Stats indexAll() {
     createEmptyIndex();
 
     final Stats total = new Stats();
+    final Int2IntMap sizes = new Int2IntOpenHashMap();
     List<Integer> keys;
     try (SqlSession session = factory.openSession(true)) {
       keys = session.getMapper(DatasetMapper.class).keys();
@@ -258,29 +395,171 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
       // first check if we have data partitions - otherwise all queries below throw
       DatasetPartitionMapper dpm = session.getMapper(DatasetPartitionMapper.class);
       keys.removeIf(key -> !dpm.exists(key));
-      LOG.info("Index {} datasets with data partitions out of all {} datasets", keys.size(), allDatasets);
+      for (Integer key : keys) {
+        Integer cnt = dpm.usageCount(key);
+        sizes.put((int) key, cnt == null ? 0 : (int) cnt);
+      }
+      LOG.info("Index {} datasets with data partitions and {} usages out of all {} datasets",
+        keys.size(), sizes.values().stream().mapToLong(Integer::longValue).sum(), allDatasets);
     }
 
+    // replicas would have to index every document again, copy them once at the end instead
+    final boolean bulkSettings = esConfig.bulkIndexSettings;
+    if (bulkSettings && esConfig.nameUsage.numReplicas > 0) {
+      LOG.info("Remove replicas from index {} while indexing all datasets", esConfig.nameUsage.name);
+      EsUtil.updateNumberOfReplicas(client, esConfig.nameUsage.name, 0);
+    }
     final AtomicInteger counter = new AtomicInteger(0);
-    ExecutorService exec = Executors.newFixedThreadPool(esConfig.indexingThreads, new NamedThreadFactory("ES-Indexer"));
-    for (Integer datasetKey : keys) {
-      CompletableFuture.supplyAsync(() -> indexDatasetInternal(datasetKey, false), exec)
-          .exceptionally(ex -> {
-            counter.incrementAndGet();
-            LOG.error("Error indexing dataset {}", datasetKey, ex.getCause());
-            return null;
-          }).thenAccept(st -> {
-            total.add(st);
-            LOG.info("Indexed {}/{} dataset {}. Total usages {}", counter.incrementAndGet(), keys.size(), datasetKey, total.usages);
+    final BiConsumer<Integer, Stats> onDone = (datasetKey, st) -> {
+      synchronized (total) {
+        total.add(st);
+      }
+      LOG.info("Indexed {}/{} dataset {}. Total usages {}", counter.incrementAndGet(), keys.size(), datasetKey, total.usages);
+    };
+    final IntConsumer onError = datasetKey -> counter.incrementAndGet();
+    SizeAwareExecutor exec = new SizeAwareExecutor(esConfig.indexingThreads, "ES-Indexer");
+    try {
+      for (Integer datasetKey : keys) {
+        final int size = sizes.get((int) datasetKey);
+        if (esConfig.indexingSplitSize > 0 && size > esConfig.indexingSplitSize) {
+          exec.submit(size, false, () -> indexDatasetSplit(datasetKey, !bulkSettings, exec, onDone, onError));
+        } else {
+          exec.submit(size, false, () -> {
+            try {
+              onDone.accept(datasetKey, indexDatasetInternal(datasetKey, false, !bulkSettings));
+            } catch (RuntimeException e) {
+              onError.accept(datasetKey);
+              LOG.error("Error indexing dataset {}", datasetKey, e);
+            }
           });
+        }
+      }
+      exec.awaitAndShutdown();
+
+    } finally {
+      if (bulkSettings) {
+        if (esConfig.nameUsage.numReplicas > 0) {
+          LOG.info("Restore {} replicas for index {}", esConfig.nameUsage.numReplicas, esConfig.nameUsage.name);
+          EsUtil.updateNumberOfReplicas(client, esConfig.nameUsage.name, esConfig.nameUsage.numReplicas);
+        }
+        EsUtil.refreshIndex(client, esConfig.nameUsage.name);
+      }
     }
-    ExecutorUtils.shutdown(exec);
 
     LOG.info("Successfully indexed all {} datasets. Index: {}. Usages: {}. Bare names: {}. Total: {}.",
       counter, esConfig.nameUsage.name, total.usages, total.names, total.total());
+    post(DatasetIndexChanged.all());
     return total;
   }
 
+  /**
+   * Splits a large dataset into parts which are submitted as separate jobs to the executor, so other threads can pick them up.
+   * The dataset tables stay locked until the last part has been indexed.
+   */
+  private void indexDatasetSplit(int datasetKey, boolean refresh, SizeAwareExecutor exec, BiConsumer<Integer, Stats> onDone, IntConsumer onError) {
+    SqlSession lockSession = factory.openSession();
+    try {
+      LoggingUtils.setDatasetMDC(datasetKey, getClass());
+      LOG.info("Start indexing dataset {} in parts", datasetKey);
+      // we lock the main dataset tables so they are only accessible by select statements, but not any modifying statements.
+      DaoUtils.aquireTableLock(datasetKey, lockSession);
+      List<NameUsageProcessor.DatasetPart> parts = processor.splitDataset(datasetKey, esConfig.indexingSplitSize);
+      // one more part for the bare names
+      DatasetSplit split = new DatasetSplit(datasetKey, lockSession, parts.size() + 1, refresh, onDone, onError);
+      for (NameUsageProcessor.DatasetPart part : parts) {
+        exec.submit(part.size(), true, () -> split.run(st -> st.usages = indexPart(part)));
+      }
+      exec.submit(0, true, () -> split.run(st -> st.names = indexBareNames(datasetKey)));
+
+    } catch (RuntimeException e) {
+      lockSession.close();
+      onError.accept(datasetKey);
+      LOG.error("Error indexing dataset {}", datasetKey, e);
+
+    } finally {
+      LoggingUtils.removeDatasetMDC();
+    }
+  }
+
+  private int indexPart(NameUsageProcessor.DatasetPart part) {
+    try (NameUsageIndexer indexer = newIndexer(esConfig.bulkRequestsInFlight)) {
+      try (BatchConsumer<NameUsageWrapper> handler = new BatchConsumer<>(indexer, BATCH_SIZE)) {
+        part.process(handler);
+      }
+      indexer.flush();
+      return indexer.documentsIndexed();
+    }
+  }
+
+  private int indexBareNames(int datasetKey) {
+    try (SqlSession session = factory.openSession();
+         NameUsageIndexer indexer = newIndexer(esConfig.bulkRequestsInFlight)
+    ) {
+      Cursor<NameUsageWrapper> cursor = session.getMapper(NameUsageWrapperMapper.class).processDatasetBareNames(datasetKey, null);
+      Iterables.partition(cursor, BATCH_SIZE).forEach(indexer);
+      indexer.flush();
+      return indexer.documentsIndexed();
+    }
+  }
+
+  /**
+   * Tracks the parts of a split dataset, releasing the table lock and reporting the dataset once all parts are done.
+   */
+  private class DatasetSplit {
+    private final int datasetKey;
+    private final SqlSession lockSession;
+    private final AtomicInteger remaining;
+    private final boolean refresh;
+    private final BiConsumer<Integer, Stats> onDone;
+    private final IntConsumer onError;
+    private final Stats stats = new Stats();
+    private final StopWatch watch = StopWatch.createStarted();
+    private volatile boolean failed;
+
+    DatasetSplit(int datasetKey, SqlSession lockSession, int parts, boolean refresh, BiConsumer<Integer, Stats> onDone, IntConsumer onError) {
+      this.datasetKey = datasetKey;
+      this.lockSession = lockSession;
+      this.remaining = new AtomicInteger(parts);
+      this.refresh = refresh;
+      this.onDone = onDone;
+      this.onError = onError;
+    }
+
+    void run(Consumer<Stats> part) {
+      LoggingUtils.setDatasetMDC(datasetKey, NameUsageIndexServiceEs.class);
+      try {
+        Stats st = new Stats();
+        part.accept(st);
+        synchronized (stats) {
+          stats.add(st);
+        }
+      } catch (RuntimeException e) {
+        failed = true;
+        LOG.error("Error indexing part of dataset {}", datasetKey, e);
+      } finally {
+        if (remaining.decrementAndGet() == 0) {
+          finish();
+        }
+        LoggingUtils.removeDatasetMDC();
+      }
+    }
+
+    private void finish() {
+      lockSession.close();
+      watch.stop();
+      if (failed) {
+        onError.accept(datasetKey);
+        return;
+      }
+      if (refresh) {
+        EsUtil.refreshIndex(client, esConfig.nameUsage.name);
+      }
+      LOG.info("Successfully indexed dataset {} in parts into index {}. Usages: {}. Bare names: {}. Total: {}. Time: {}",
+        datasetKey, esConfig.nameUsage.name, stats.usages, stats.names, stats.total(), watch);
+      onDone.accept(datasetKey, stats);
+    }
+  }
+
   private void createOrEmptyIndex(int datasetKey) throws IOException {
     if (EsUtil.indexExists(client, esConfig.nameUsage.name)) {
       EsUtil.deleteDataset(client, esConfig.nameUsage.name, datasetKey);
@@ -294,7 +573,7 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
    * Indexes documents but does not refresh the index! Must be done by caller.
    */
   private int indexNameUsages(int datasetKey, Collection<String> usageIds) {
-    NameUsageIndexer indexer = new NameUsageIndexer(client, esConfig.nameUsage.name);
+    NameUsageIndexer indexer = newIndexer(1);
     try (SqlSession session = factory.openSession()) {
       NameUsageWrapperMapper mapper = session.getMapper(NameUsageWrapperMapper.class);
       List<NameUsageWrapper> usages = usageIds.stream()
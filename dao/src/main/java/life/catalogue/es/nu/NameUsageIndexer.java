@@ -1,13 +1,23 @@
 package life.catalogue.es.nu;
 
 import life.catalogue.api.search.NameUsageWrapper;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
 import life.catalogue.es.*;
 
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.entity.NStringEntity;
 import org.elasticsearch.client.Request;
 import org.elasticsearch.client.RestClient;
 import org.slf4j.Logger;
@@ -15,9 +25,23 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Charsets;
 
-public class NameUsageIndexer implements Consumer<List<NameUsageWrapper>> {
+/**
+ * Indexes batches of name usages with bulk requests.
+ *
+ * By default every batch is sent synchronously in the calling thread. If more than one request is allowed to be in flight,
+ * the request body is still built in the calling thread, but sent by a pool of sender threads, so the producer can continue
+ * to read the next batch while Elasticsearch is busy. Once the maximum number of requests is in flight accept blocks.
+ * Requests rejected by Elasticsearch with 429 are retried with an exponential backoff while they keep their slot,
+ * which throttles the producer until the cluster catches up.
+ *
+ * An asynchronous indexer must be flushed or closed before its counters are final or the index is refreshed.
+ */
+public class NameUsageIndexer implements Consumer<List<NameUsageWrapper>>, AutoCloseable {
   
   private static final Logger LOG = LoggerFactory.getLogger(NameUsageIndexer.class);
+  private static final int ATTEMPTS = 20;
+  private static final int ATTEMPT_WAIT_MILLIS = 1000 * 60 * 10;
+  private static final int BACKOFF_MIN_MILLIS = 1000;
 
   // Set to true for extra statistics (make sure it's false in production)
   private static final boolean EXTRA_STATS = false;
@@ -32,13 +56,43 @@ public class NameUsageIndexer implements Consumer<List<NameUsageWrapper>> {
   private final RestClient client;
   private final String index;
   private final String indexHeader;
+  private final boolean contentHash;
 
-  private int indexed = 0;
+  private final int maxInFlight;
+  private final ExecutorService sender;
+  private final Semaphore inFlight;
+  // first error raised by a sender thread, rethrown in the producer thread
+  private final AtomicReference<RuntimeException> error = new AtomicReference<>();
+
+  private final AtomicInteger indexed = new AtomicInteger();
+  private final AtomicLong bytes = new AtomicLong();
+  private final AtomicInteger rejections = new AtomicInteger();
 
   NameUsageIndexer(RestClient client, String index) {
+    this(client, index, 1);
+  }
+
+  NameUsageIndexer(RestClient client, String index, int maxInFlight) {
+    this(client, index, maxInFlight, false);
+  }
+
+  /**
+   * @param maxInFlight maximum number of bulk requests being sent concurrently. 1 sends all requests synchronously.
+   * @param contentHash if true documents are indexed with a content hash so they can be synced incrementally later on
+   */
+  NameUsageIndexer(RestClient client, String index, int maxInFlight, boolean contentHash) {
     this.client = client;
     this.index = index;
     this.indexHeader = getIndexHeader();
+    this.contentHash = contentHash;
+    this.maxInFlight = Math.max(1, maxInFlight);
+    if (this.maxInFlight > 1) {
+      sender = Executors.newFixedThreadPool(this.maxInFlight, new NamedThreadFactory("ES-Bulk-" + index));
+      inFlight = new Semaphore(this.maxInFlight);
+    } else {
+      sender = null;
+      inFlight = null;
+    }
   }
 
   @Override
@@ -73,9 +127,43 @@ public class NameUsageIndexer implements Consumer<List<NameUsageWrapper>> {
     }
   }
 
+  /**
+   * Indexes already converted documents. Documents with a document ID replace the existing document with that ID,
+   * all others are inserted as new documents. As with {@link #update(List)} document IDs will be nullified.
+   */
+  void insert(List<EsNameUsage> documents) {
+    buf.setLength(0);
+    try {
+      for (EsNameUsage doc : documents) {
+        if (doc.getDocumentId() == null) {
+          buf.append(indexHeader);
+        } else {
+          buf.append(getIndexHeader(doc.getDocumentId()));
+          doc.setDocumentId(null);
+        }
+        buf.append(EsModule.write(doc));
+        buf.append("\n");
+      }
+      sendBatch(documents.size());
+    } catch (IOException e) {
+      throw new EsException(e);
+    }
+  }
+
+  /**
+   * Deletes the documents with the given document IDs.
+   */
+  void delete(List<String> documentIds) {
+    buf.setLength(0);
+    for (String id : documentIds) {
+      buf.append(getDeleteHeader(id));
+    }
+    sendBatch(documentIds.size());
+  }
+
   private void index(List<NameUsageWrapper> batch) {
     buf.setLength(0);
-    NameUsageWrapperConverter converter = new NameUsageWrapperConverter();
+    NameUsageWrapperConverter converter = new NameUsageWrapperConverter(contentHash);
     try {
       for (NameUsageWrapper nuw : batch) {
         buf.append(indexHeader);
@@ -91,7 +179,7 @@ public class NameUsageIndexer implements Consumer<List<NameUsageWrapper>> {
   private void indexWithExtraStats(List<NameUsageWrapper> batch) {
     buf.setLength(0);
     int docSize = 0;
-    NameUsageWrapperConverter converter = new NameUsageWrapperConverter();
+    NameUsageWrapperConverter converter = new NameUsageWrapperConverter(contentHash);
     DecimalFormat df = new DecimalFormat("0.0");
     try {
       String json;
@@ -113,17 +201,118 @@ public class NameUsageIndexer implements Consumer<List<NameUsageWrapper>> {
   }
 
   private void sendBatch(int batchSize) {
+    final NStringEntity body = new NStringEntity(buf.toString(), ContentType.APPLICATION_JSON);
+    if (sender == null) {
+      send(body, batchSize);
+    } else {
+      checkError();
+      try {
+        inFlight.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new EsException(e);
+      }
+      try {
+        sender.execute(() -> {
+          try {
+            send(body, batchSize);
+          } catch (RuntimeException e) {
+            error.compareAndSet(null, e);
+          } finally {
+            inFlight.release();
+          }
+        });
+      } catch (RuntimeException e) {
+        inFlight.release();
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Sends a single bulk request. Rejections by an overloaded cluster are retried with an exponentially growing wait time,
+   * other failures are retried like in {@link EsUtil#executeWithRetry(RestClient, Request)}.
+   */
+  private void send(NStringEntity body, int batchSize) {
     Request request = new Request("POST", "/_bulk/?timeout=5m");
-    request.setJsonEntity(buf.toString());
-    EsUtil.executeWithRetry(client, request);
-    indexed += batchSize;
+    request.setEntity(body);
+    long backoff = BACKOFF_MIN_MILLIS;
+    int attempt = 1;
+    while (true) {
+      try {
+        EsUtil.executeRequest(client, request);
+        break;
+      } catch (TooManyRequestsException e) {
+        rejections.incrementAndGet();
+        LOG.warn("Bulk request to index {} rejected by Elasticsearch. Waiting {} milliseconds before trying again", index, backoff);
+        sleep(backoff);
+        backoff = Math.min(backoff * 2, TooManyRequestsException.WAIT_INTERVAL_MILLIS);
+      } catch (EsRequestException e) {
+        if (attempt++ >= ATTEMPTS) {
+          throw e;
+        }
+        LOG.debug("{}. Bulk request attempt {} failed. Will attempt again after {} milliseconds", e.getMessage(), attempt, ATTEMPT_WAIT_MILLIS);
+        sleep(ATTEMPT_WAIT_MILLIS);
+      }
+    }
+    indexed.addAndGet(batchSize);
+    bytes.addAndGet(body.getContentLength());
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new EsException(e);
+    }
+  }
+
+  private void checkError() {
+    RuntimeException e = error.getAndSet(null);
+    if (e != null) {
+      throw e;
+    }
+  }
+
+  /**
+   * Waits until all bulk requests sent so far have completed and rethrows the first error that occurred in any of them.
+   */
+  void flush() {
+    if (sender != null) {
+      try {
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new EsException(e);
+      }
+      checkError();
+    }
   }
 
   /**
-   * Resets the document counter.
+   * Flushes all pending requests and stops the sender threads.
+   */
+  @Override
+  public void close() {
+    try {
+      flush();
+    } finally {
+      if (sender != null) {
+        ExecutorUtils.shutdown(sender);
+      }
+    }
+  }
+
+  /**
+   * Resets the document, byte and rejection counters.
    */
   void reset() {
-    indexed = 0;
+    flush();
+    indexed.set(0);
+    bytes.set(0);
+    rejections.set(0);
   }
 
   /**
@@ -145,12 +334,26 @@ public class NameUsageIndexer implements Consumer<List<NameUsageWrapper>> {
   }
 
   /**
-   * Returns the number of documents indexed thus far.
+   * Returns the number of documents indexed thus far. Requests still in flight are not included, call flush first.
    * 
    * @return
    */
   int documentsIndexed() {
-    return indexed;
+    return indexed.get();
+  }
+
+  /**
+   * Returns the number of request body bytes sent thus far.
+   */
+  long bytesSent() {
+    return bytes.get();
+  }
+
+  /**
+   * Returns the number of bulk requests rejected by Elasticsearch thus far.
+   */
+  int rejections() {
+    return rejections.get();
   }
 
   private String getIndexHeader() {
@@ -163,6 +366,26 @@ public class NameUsageIndexer implements Consumer<List<NameUsageWrapper>> {
     return String.format(fmt, index);
   }
 
+  private String getIndexHeader(String id) {
+    String fmt;
+    if (EsServerVersion.getInstance(client).is(7)) {
+      fmt = "{\"index\":{\"_id\":\"%s\",\"_index\":\"%s\"}}%n";
+    } else {
+      fmt = "{\"index\":{\"_id\":\"%s\",\"_index\":\"%s\",\"_type\":\"_doc\"}}%n";
+    }
+    return String.format(fmt, id, index);
+  }
+
+  private String getDeleteHeader(String id) {
+    String fmt;
+    if (EsServerVersion.getInstance(client).is(7)) {
+      fmt = "{\"delete\":{\"_id\":\"%s\",\"_index\":\"%s\"}}%n";
+    } else {
+      fmt = "{\"delete\":{\"_id\":\"%s\",\"_index\":\"%s\",\"_type\":\"_doc\"}}%n";
+    }
+    return String.format(fmt, id, index);
+  }
+
   private String getUpdateHeader(String id) {
     String fmt;
     if (EsServerVersion.getInstance(client).is(7)) {
@@ -3,6 +3,7 @@ package life.catalogue.es.nu;
 import life.catalogue.api.model.*;
 import life.catalogue.api.search.NameUsageWrapper;
 import life.catalogue.api.vocab.NameField;
+import life.catalogue.common.kryo.ApiKryoPool;
 import life.catalogue.common.tax.SciNameNormalizer;
 import life.catalogue.es.*;
 
@@ -18,6 +19,14 @@ import java.util.zip.InflaterInputStream;
 
 import org.apache.commons.io.IOUtils;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.Pool;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+
 import static life.catalogue.api.vocab.NameField.*;
 import static life.catalogue.common.collection.CollectionUtils.notEmpty;
 
@@ -29,10 +38,51 @@ import static life.catalogue.common.collection.CollectionUtils.notEmpty;
 public class NameUsageWrapperConverter implements DownwardConverter<NameUsageWrapper, EsNameUsage> {
 
   /**
-   * Serializes, deflates and base64-encodes a NameUsageWrapper. NB you can't store raw byte arrays in Elasticsearch. You must base64-encode
-   * them.
+   * Version tag prefixed to kryo encoded payloads. Legacy payloads are base64-encoded, deflated JSON without any tag,
+   * base64 never contains a colon. The version must be increased whenever the kryo registrations of {@link ApiKryoPool} or
+   * the serialized model classes change, as kryo cannot read payloads written with a different class layout.
+   */
+  static final String PAYLOAD_VERSION = "2:";
+  private static final Pool<Kryo> KRYO = new ApiKryoPool(32);
+
+  private final boolean contentHash;
+
+  public NameUsageWrapperConverter() {
+    this(false);
+  }
+
+  /**
+   * @param contentHash if true documents get a content hash which costs an additional serialization per document.
+   *                    Only needed for incremental syncs.
+   */
+  public NameUsageWrapperConverter(boolean contentHash) {
+    this.contentHash = contentHash;
+  }
+
+  /**
+   * Serializes a NameUsageWrapper with kryo and base64-encodes it, prefixed with the payload version.
+   * NB you can't store raw byte arrays in Elasticsearch. You must base64-encode them.
+   * The payload is not compressed any further as Elasticsearch compresses stored fields already.
    */
   public static String deflate(NameUsageWrapper nuw) throws IOException {
+    Kryo kryo = KRYO.obtain();
+    try {
+      Output output = new Output(1024, -1);
+      kryo.writeObject(output, nuw);
+      return PAYLOAD_VERSION + Base64.getEncoder().encodeToString(output.toBytes());
+    } catch (KryoException e) {
+      throw new IOException("Failed to serialize payload for usage " + nuw.getId(), e);
+    } finally {
+      KRYO.free(kryo);
+    }
+  }
+
+  /**
+   * Serializes, deflates and base64-encodes a NameUsageWrapper in the legacy JSON format
+   * which is only used for documents indexed before the payload version was introduced.
+   */
+  @VisibleForTesting
+  static String deflateJson(NameUsageWrapper nuw) throws IOException {
     ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
     try (DeflaterOutputStream dos = new DeflaterOutputStream(baos)) {
       EsModule.write(dos, nuw);
@@ -42,26 +92,45 @@ public class NameUsageWrapperConverter implements DownwardConverter<NameUsageWra
   }
 
   /**
-   * Base64-decodes, unzips and deserializes the provided payload string back to a NameUsageWrapper instance.
+   * Decodes the provided payload string back to a NameUsageWrapper instance.
+   * Both the current kryo and the legacy JSON payloads are supported.
    * 
    * @param payload
    * @return
-   * @throws IOException
+   * @throws IOException if the payload is corrupt or has an unsupported version
    */
   public static NameUsageWrapper inflate(String payload) throws IOException {
+    if (payload.startsWith(PAYLOAD_VERSION)) {
+      byte[] bytes = Base64.getDecoder().decode(payload.substring(PAYLOAD_VERSION.length()));
+      Kryo kryo = KRYO.obtain();
+      try {
+        return kryo.readObject(new Input(bytes), NameUsageWrapper.class);
+      } catch (KryoException e) {
+        throw new IOException("Failed to deserialize payload", e);
+      } finally {
+        KRYO.free(kryo);
+      }
+    }
+    int colon = payload.indexOf(':');
+    if (colon >= 0) {
+      throw new IOException("Unsupported payload version " + payload.substring(0, colon));
+    }
     byte[] bytes = Base64.getDecoder().decode(payload.getBytes());
     ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
     return EsModule.readNameUsageWrapper(new InflaterInputStream(bais));
   }
 
   /**
-   * Base64-decodes and unzips the provided payload string. For testing purposes only.
+   * Decodes the provided payload string into JSON. For testing purposes only.
    *
    * @param payload
    * @return
    * @throws IOException
    */
   public static String inflateToJson(String payload) throws IOException {
+    if (payload.startsWith(PAYLOAD_VERSION)) {
+      return EsModule.write(inflate(payload));
+    }
     byte[] bytes = Base64.getDecoder().decode(payload.getBytes());
     ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
     InputStream is = new InflaterInputStream(bais);
@@ -255,11 +324,24 @@ public class NameUsageWrapperConverter implements DownwardConverter<NameUsageWra
       doc.setSectorKey(s.getAccepted().getSectorKey());
       doc.setAcceptedName(s.getAccepted().getName().getScientificName());
     }
+    if (contentHash) {
+      doc.setContentHash(contentHash(nuw));
+    }
     prunePayload(nuw);
     doc.setPayload(deflate(nuw));
     return doc;
   }
 
+  /**
+   * Hashes the unpruned NameUsageWrapper without creation and modification metadata, so re-importing unchanged data results in the same hash.
+   * All other document fields are derived from the wrapper, so there is no need to hash the document itself.
+   */
+  private static long contentHash(NameUsageWrapper nuw) throws IOException {
+    return Hashing.murmur3_128()
+        .hashString(EsModule.writeContent(nuw), StandardCharsets.UTF_8)
+        .asLong();
+  }
+
   private static void saveScientificName(NameUsageWrapper nuw, EsNameUsage doc) {
     doc.setScientificName(nuw.getUsage().getName().getScientificName());
     doc.setNameStrings(new NameStrings(nuw.getUsage().getName()));
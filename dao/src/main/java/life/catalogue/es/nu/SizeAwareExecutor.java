@@ -0,0 +1,118 @@
+package life.catalogue.es.nu;
+
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes weighted jobs with a fixed number of threads, always starting the heaviest waiting job first
+ * (longest processing time first scheduling), so small jobs fill up the gaps at the end instead of a single large job
+ * keeping one thread busy long after all others have finished.
+ *
+ * Running jobs can submit further jobs, e.g. parts of a large dataset. Parts are preferred over any other waiting job
+ * so that work already started gets finished first and its resources can be released.
+ *
+ * No job is started before {@link #start()} or {@link #awaitAndShutdown()} is called. Otherwise the thread pool would hand
+ * the first jobs straight to new threads in the order they were submitted, bypassing the priority queue.
+ */
+class SizeAwareExecutor {
+  private static final Logger LOG = LoggerFactory.getLogger(SizeAwareExecutor.class);
+
+  private final ThreadPoolExecutor exec;
+  private final AtomicLong sequence = new AtomicLong();
+  // number of submitted, unfinished jobs plus one for the submitting thread until await is called
+  private final AtomicInteger pending = new AtomicInteger(1);
+  private final CompletableFuture<Void> done = new CompletableFuture<>();
+  private volatile boolean started;
+
+  SizeAwareExecutor(int threads, String name) {
+    exec = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), new NamedThreadFactory(name));
+  }
+
+  /**
+   * @param weight expected amount of work, e.g. the number of usages to index
+   * @param part true if the job is part of already started work
+   */
+  void submit(long weight, boolean part, Runnable job) {
+    pending.incrementAndGet();
+    Job j = new Job(weight, part, sequence.getAndIncrement(), job);
+    if (started) {
+      // all threads exist, so new jobs are always queued
+      exec.execute(j);
+    } else {
+      exec.getQueue().add(j);
+    }
+  }
+
+  /**
+   * Starts all threads which then work through the jobs submitted so far, heaviest first.
+   */
+  void start() {
+    if (!started) {
+      started = true;
+      exec.prestartAllCoreThreads();
+    }
+  }
+
+  /**
+   * Starts the threads if not done yet and waits until all submitted jobs, including the ones they submitted themselves, are finished and shuts down the executor.
+   * Must only be called once.
+   */
+  void awaitAndShutdown() {
+    start();
+    finished();
+    done.join();
+    ExecutorUtils.shutdown(exec);
+  }
+
+  private void finished() {
+    if (pending.decrementAndGet() == 0) {
+      done.complete(null);
+    }
+  }
+
+  private class Job implements Runnable, Comparable<Job> {
+    private final long weight;
+    private final boolean part;
+    private final long seq;
+    private final Runnable job;
+
+    Job(long weight, boolean part, long seq, Runnable job) {
+      this.weight = weight;
+      this.part = part;
+      this.seq = seq;
+      this.job = job;
+    }
+
+    @Override
+    public void run() {
+      try {
+        job.run();
+      } catch (RuntimeException e) {
+        LOG.error("Failed to execute job with weight {}", weight, e);
+      } finally {
+        finished();
+      }
+    }
+
+    @Override
+    public int compareTo(Job o) {
+      if (part != o.part) {
+        return part ? -1 : 1;
+      }
+      if (weight != o.weight) {
+        return weight > o.weight ? -1 : 1;
+      }
+      return Long.compare(seq, o.seq);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package life.catalogue.img;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * An image already encoded in the image format of the service, ready to be send to clients as it is.
+ * The entity tag is derived from the content.
+ */
+public class EncodedImage {
+  private final byte[] bytes;
+  private final String etag;
+
+  public EncodedImage(byte[] bytes) {
+    this.bytes = bytes;
+    this.etag = Hashing.murmur3_128().hashBytes(bytes).toString();
+  }
+
+  public byte[] getBytes() {
+    return bytes;
+  }
+
+  public String getEtag() {
+    return etag;
+  }
+
+  public int size() {
+    return bytes.length;
+  }
+}
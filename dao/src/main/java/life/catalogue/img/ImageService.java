@@ -42,6 +42,16 @@ public interface ImageService {
 
   BufferedImage archiveDatasetLogo(int datasetKey, int releaseKey, ImgConfig.Scale scale) throws NotFoundException;
 
+  /**
+   * @return the logo encoded as PNG, ready to be served as it is
+   */
+  EncodedImage datasetLogoEncoded(int datasetKey, ImgConfig.Scale scale) throws NotFoundException;
+
+  /**
+   * @return the archived logo encoded as PNG, ready to be served as it is
+   */
+  EncodedImage archiveDatasetLogoEncoded(int datasetKey, int releaseKey, ImgConfig.Scale scale) throws NotFoundException;
+
   
   static ImageService passThru() {
     return new ImageService() {
@@ -71,6 +81,16 @@ public interface ImageService {
       public BufferedImage archiveDatasetLogo(int datasetKey, int releaseKey, ImgConfig.Scale scale) {
         return null;
       }
+
+      @Override
+      public EncodedImage datasetLogoEncoded(int datasetKey, ImgConfig.Scale scale) {
+        return null;
+      }
+
+      @Override
+      public EncodedImage archiveDatasetLogoEncoded(int datasetKey, int releaseKey, ImgConfig.Scale scale) {
+        return null;
+      }
     };
   }
 }
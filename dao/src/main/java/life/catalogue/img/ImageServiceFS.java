@@ -1,12 +1,21 @@
 package life.catalogue.img;
 
 import life.catalogue.api.exception.NotFoundException;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Function;
 
 import javax.imageio.ImageIO;
@@ -15,14 +24,51 @@ import org.imgscalr.Scalr;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class ImageServiceFS implements ImageService {
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Image service storing all images as PNG files in the configured repository.
+ *
+ * New images are stored in their original size straight away, while the scaled versions are created
+ * by a small pool of background threads. Until a scaled version exists it is created on the fly from the original.
+ * Encoded images are served from a memory cache of recently requested images.
+ * Cached images are keyed by the version of their file, i.e. its file key, modification time and size,
+ * so a changed file is never served from the cache, even when written by another instance sharing the repository.
+ *
+ * The service must be closed to stop the scaling threads.
+ */
+public class ImageServiceFS implements ImageService, AutoCloseable {
   public static final String IMAGE_FORMAT = "png";
   private static final Logger LOG = LoggerFactory.getLogger(ImageServiceFS.class);
-  
+  private static final int QUEUE_SIZE = 1000;
+  private static final int CACHE_EXPIRY_HOURS = 6;
+  private static final ImgConfig.Scale[] SCALED = {ImgConfig.Scale.LARGE, ImgConfig.Scale.MEDIUM, ImgConfig.Scale.SMALL};
+
   private final ImgConfig cfg;
-  
+  private final ExecutorService scaler;
+  // encoded images by their file path and scale
+  private final Cache<String, EncodedImage> cache;
+  // locks guarding all sizes of an image by the path of its original
+  private final Striped<Lock> locks = Striped.lock(64);
+
   public ImageServiceFS(ImgConfig cfg) {
     this.cfg = cfg;
+    // if the queue is full the caller scales the image itself
+    scaler = new ThreadPoolExecutor(cfg.threads, cfg.threads, 0L, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(QUEUE_SIZE),
+      new NamedThreadFactory("image-scaler", Thread.MIN_PRIORITY, true, null),
+      new ThreadPoolExecutor.CallerRunsPolicy()
+    );
+    cache = CacheBuilder.newBuilder()
+      .maximumWeight(cfg.cacheMB * 1024L * 1024L)
+      .weigher((String k, EncodedImage img) -> img.size())
+      // outdated versions are never requested again, make sure they do not linger around
+      .expireAfterWrite(CACHE_EXPIRY_HOURS, TimeUnit.HOURS)
+      .build();
   }
   
   public static BufferedImage read(InputStream img) throws IOException {
@@ -50,12 +96,23 @@ public class ImageServiceFS implements ImageService {
   @Override
   public void copyDatasetLogo(int datasetKey, int toDatasetKey) throws IOException {
     LOG.info("Copy logo for dataset {} to {}", datasetKey, toDatasetKey);
-    for (ImgConfig.Scale scale : ImgConfig.Scale.values()) {
-      Path src = cfg.datasetLogo(datasetKey, scale);
-      if (Files.exists(src)) {
-        Path target = cfg.datasetLogo(toDatasetKey, scale);
-        Files.createDirectories(target.getParent());
-        Files.copy(src, target);
+    Lock lock = locks.get(cfg.datasetLogo(toDatasetKey, ImgConfig.Scale.ORIGINAL));
+    lock.lock();
+    try {
+      for (ImgConfig.Scale scale : ImgConfig.Scale.values()) {
+        Path src = cfg.datasetLogo(datasetKey, scale);
+        if (Files.exists(src)) {
+          copyFile(src, cfg.datasetLogo(toDatasetKey, scale));
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+    // scaled versions might still be missing if the source logo was changed recently
+    for (ImgConfig.Scale scale : SCALED) {
+      if (datasetLogoExists(toDatasetKey) && !Files.exists(cfg.datasetLogo(toDatasetKey, scale))) {
+        scaleInBackground(s -> cfg.datasetLogo(toDatasetKey, s));
+        break;
       }
     }
   }
@@ -65,36 +122,65 @@ public class ImageServiceFS implements ImageService {
     Path src = cfg.datasetLogo(datasetKey, ImgConfig.Scale.ORIGINAL);
     if (Files.exists(src)) {
       LOG.info("Archive logo for dataset {} in release {} from {}", datasetKey, releaseKey, src);
-      Path target = cfg.datasetLogoArchived(releaseKey, datasetKey);
-      Files.createDirectories(target.getParent());
-      Files.copy(src, target);
+      copyFile(src, cfg.datasetLogoArchived(releaseKey, datasetKey));
     } else {
       LOG.debug("No logo existing for dataset {} to archive in release {}", datasetKey, releaseKey);
     }
   }
 
   private void storeAllImageSizes(BufferedImage img, Function<ImgConfig.Scale, Path> locator) throws IOException {
+    Lock lock = locks.get(locator.apply(ImgConfig.Scale.ORIGINAL));
+    lock.lock();
     try {
       if (img == null) {
         LOG.debug("Delete all sizes for image {}", locator.apply(ImgConfig.Scale.ORIGINAL));
         for (ImgConfig.Scale scale : ImgConfig.Scale.values()) {
-          Path p = locator.apply(scale);
-          Files.delete(p);
+          Files.deleteIfExists(locator.apply(scale));
         }
       } else {
         Path parent = locator.apply(ImgConfig.Scale.ORIGINAL).getParent();
         if (!Files.isDirectory(parent)) {
           Files.createDirectories(parent);
         }
+        // remove outdated scaled versions first so they are not served until the new ones are ready
+        for (ImgConfig.Scale scale : SCALED) {
+          Files.deleteIfExists(locator.apply(scale));
+        }
         writeImage(locator.apply(ImgConfig.Scale.ORIGINAL), img);
-        writeImage(locator.apply(ImgConfig.Scale.LARGE), scale(img, ImgConfig.Scale.LARGE));
-        writeImage(locator.apply(ImgConfig.Scale.MEDIUM), scale(img, ImgConfig.Scale.MEDIUM));
-        writeImage(locator.apply(ImgConfig.Scale.SMALL), scale(img, ImgConfig.Scale.SMALL));
+        scaleInBackground(locator);
       }
     } catch (IOException e) {
       LOG.error("Failed to update all sizes for image {} {}", locator.apply(ImgConfig.Scale.ORIGINAL), img, e);
+    } finally {
+      lock.unlock();
     }
   }
+
+  /**
+   * Creates all scaled versions of an original image in the background.
+   * The original is read only when the task runs and while holding the images lock,
+   * so outdated tasks cannot overwrite the scaled versions of a newer original.
+   */
+  private void scaleInBackground(Function<ImgConfig.Scale, Path> locator) {
+    scaler.execute(() -> {
+      Path orig = locator.apply(ImgConfig.Scale.ORIGINAL);
+      Lock lock = locks.get(orig);
+      lock.lock();
+      try {
+        if (!Files.exists(orig)) {
+          return;
+        }
+        BufferedImage img = ImageIO.read(orig.toFile());
+        for (ImgConfig.Scale scale : SCALED) {
+          writeImage(locator.apply(scale), scale(img, scale));
+        }
+      } catch (Exception e) {
+        LOG.error("Failed to scale image {}", orig, e);
+      } finally {
+        lock.unlock();
+      }
+    });
+  }
   
   /**
    * Scales the image keeping proportions and restricting primarily by the images height.
@@ -109,22 +195,116 @@ public class ImageServiceFS implements ImageService {
   
   private void writeImage(Path p, BufferedImage img) throws IOException {
     LOG.debug("Writing new image {}", p);
-    ImageIO.write(img, IMAGE_FORMAT, p.toFile());
+    // write to a temp file first so readers never see partially written images
+    Path tmp = tmpFile(p);
+    ImageIO.write(img, IMAGE_FORMAT, tmp.toFile());
+    Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
   }
-  
-  
+
+  private static void copyFile(Path src, Path target) throws IOException {
+    Files.createDirectories(target.getParent());
+    Path tmp = tmpFile(target);
+    Files.copy(src, tmp, StandardCopyOption.REPLACE_EXISTING);
+    Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static Path tmpFile(Path p) {
+    return p.resolveSibling(p.getFileName() + ".tmp");
+  }
+
+  private static byte[] encode(BufferedImage img) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(img, IMAGE_FORMAT, out);
+    return out.toByteArray();
+  }
+
+  private static BufferedImage decode(EncodedImage img) {
+    try {
+      return ImageIO.read(new ByteArrayInputStream(img.getBytes()));
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to decode image", e);
+    }
+  }
+
+  /**
+   * @return a cache key for the current version of the file or null if it does not exist
+   */
+  private static String version(Path p) {
+    try {
+      BasicFileAttributes attr = Files.readAttributes(p, BasicFileAttributes.class);
+      // new files are moved into place, so they usually change the file key
+      return p + "@" + attr.fileKey() + "-" + attr.lastModifiedTime().to(TimeUnit.NANOSECONDS) + "-" + attr.size();
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to read image " + p, e);
+    }
+  }
+
   @Override
   public BufferedImage datasetLogo(int datasetKey, ImgConfig.Scale scale) throws NotFoundException {
-    Path p = cfg.datasetLogo(datasetKey, scale);
-    return readImage(p, "Dataset " + datasetKey + " has no logo");
+    return decode(datasetLogoEncoded(datasetKey, scale));
   }
 
   @Override
   public BufferedImage archiveDatasetLogo(int datasetKey, int releaseKey, ImgConfig.Scale scale) throws NotFoundException {
-    Path p = cfg.datasetLogoArchived(releaseKey, datasetKey);
-    BufferedImage img = readImage(p, "Dataset " + datasetKey + " has no logo in release " + releaseKey);
-    // we only archive originals, we need to scale now on the fly
-    return scale(img, scale);
+    return decode(archiveDatasetLogoEncoded(datasetKey, releaseKey, scale));
+  }
+
+  @Override
+  public EncodedImage datasetLogoEncoded(int datasetKey, ImgConfig.Scale scale) throws NotFoundException {
+    final String notFoundMsg = "Dataset " + datasetKey + " has no logo";
+    final Path p = cfg.datasetLogo(datasetKey, scale);
+    final Path orig = cfg.datasetLogo(datasetKey, ImgConfig.Scale.ORIGINAL);
+    String key = version(p);
+    if (key == null) {
+      // the scaled version might not exist yet
+      key = version(orig);
+      if (key == null) {
+        throw new NotFoundException(notFoundMsg);
+      }
+      key = key + "#" + scale;
+    }
+    // the key is taken before the file is read, so a cached image is never older than its key.
+    // Reading under the images lock avoids seeing files that are just being replaced
+    return cached(key, () -> {
+      Lock lock = locks.get(orig);
+      lock.lock();
+      try {
+        if (Files.exists(p)) {
+          return new EncodedImage(Files.readAllBytes(p));
+        }
+        return new EncodedImage(encode(scale(readImage(orig, notFoundMsg), scale)));
+      } finally {
+        lock.unlock();
+      }
+    });
+  }
+
+  @Override
+  public EncodedImage archiveDatasetLogoEncoded(int datasetKey, int releaseKey, ImgConfig.Scale scale) throws NotFoundException {
+    final String notFoundMsg = "Dataset " + datasetKey + " has no logo in release " + releaseKey;
+    final Path p = cfg.datasetLogoArchived(releaseKey, datasetKey);
+    String key = version(p);
+    if (key == null) {
+      throw new NotFoundException(notFoundMsg);
+    }
+    // we only archive originals, we need to scale on the fly but keep the result in the cache
+    return cached(key + "#" + scale, () -> {
+      if (scale == ImgConfig.Scale.ORIGINAL) {
+        return new EncodedImage(Files.readAllBytes(p));
+      }
+      return new EncodedImage(encode(scale(readImage(p, notFoundMsg), scale)));
+    });
+  }
+
+  private EncodedImage cached(String key, Callable<EncodedImage> loader) throws NotFoundException {
+    try {
+      return cache.get(key, loader);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException("Failed to read image " + key, e.getCause());
+    }
   }
 
   private BufferedImage readImage(Path p, String notFoundMsg) throws NotFoundException {
@@ -137,4 +317,12 @@ public class ImageServiceFS implements ImageService {
       throw new RuntimeException("Failed to read image " + p, e);
     }
   }
+
+  /**
+   * Stops the scaling threads, waiting for already queued images to be scaled.
+   */
+  @Override
+  public void close() {
+    ExecutorUtils.shutdown(scaler, ExecutorUtils.MILLIS_TO_DIE, TimeUnit.MILLISECONDS);
+  }
 }
@@ -4,6 +4,7 @@ import life.catalogue.db.PgDbConfig;
 
 import java.nio.file.Path;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 /**
@@ -33,6 +34,18 @@ public class ImgConfig extends PgDbConfig {
 
   @NotNull
   public Size large = new Size(200, 600);
+
+  /**
+   * Maximum memory in megabytes used to cache encoded images.
+   */
+  @Min(0)
+  public int cacheMB = 32;
+
+  /**
+   * Number of background threads used to scale new images.
+   */
+  @Min(1)
+  public int threads = 2;
   
   public Size size(Scale scale) {
     switch (scale) {
@@ -2,10 +2,15 @@ package life.catalogue.matching;
 
 import life.catalogue.api.model.IndexName;
 import life.catalogue.api.model.NameMatch;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
 import life.catalogue.db.mapper.NameMapper;
 import life.catalogue.db.mapper.NameMatchMapper;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.*;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -15,21 +20,40 @@ import org.apache.ibatis.session.SqlSessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
+
 /**
- * Rematches an entire dataset, using 2 separate db connections for read & write
+ * Rematches an entire dataset, using 2 separate db connections for read & write.
+ *
+ * If more than one thread is configured a single reader cursor feeds a bounded queue
+ * which is drained by several matcher workers, each writing through its own BATCH session.
  */
 public class DatasetMatcher {
   private static final Logger LOG = LoggerFactory.getLogger(DatasetMatcher.class);
+  // marker to signal the end of the queue to matcher workers
+  private static final NameMapper.NameWithNidx EOF = new NameMapper.NameWithNidx();
+  // number of queued names per worker thread
+  private static final int QUEUE_SIZE_PER_THREAD = 1000;
   private final SqlSessionFactory factory;
   private final NameIndex ni;
+  private final int threads;
   private int total = 0;
   private int updated = 0;
   private int nomatch = 0;
   private int datasets = 0;
 
   public DatasetMatcher(SqlSessionFactory factory, NameIndex ni) {
+    this(factory, ni, 1);
+  }
+
+  /**
+   * @param threads number of parallel matcher workers to use for a single dataset
+   */
+  public DatasetMatcher(SqlSessionFactory factory, NameIndex ni, int threads) {
+    Preconditions.checkArgument(threads > 0, "Needs at least one matcher thread");
     this.factory = factory;
     this.ni = ni.assertOnline();
+    this.threads = threads;
   }
   
   /**
@@ -43,15 +67,19 @@ public class DatasetMatcher {
     final int nomatchBefore = nomatch;
 
     boolean update = false;
-    try (SqlSession session = factory.openSession(false);
-         BulkMatchHandler h = new BulkMatchHandler(datasetKey, allowInserts)
-    ) {
+    try (SqlSession session = factory.openSession(false)) {
       NameMatchMapper nmm = session.getMapper(NameMatchMapper.class);
       NameMapper nm = session.getMapper(NameMapper.class);
 
       update = nmm.exists(datasetKey);
-      LOG.info("{} name matches for {}", update ? "Update" : "Create", datasetKey);
-      nm.processDatasetWithNidx(datasetKey).forEach(h);
+      LOG.info("{} name matches for {} using {} threads", update ? "Update" : "Create", datasetKey, threads);
+      if (threads > 1) {
+        matchParallel(datasetKey, allowInserts, nm.processDatasetWithNidx(datasetKey));
+      } else {
+        try (BulkMatchHandler h = new BulkMatchHandler(datasetKey, allowInserts)) {
+          nm.processDatasetWithNidx(datasetKey).forEach(h);
+        }
+      }
     } catch (Exception e) {
       LOG.error("Failed to rematch dataset {}", datasetKey, e);
     } finally {
@@ -71,6 +99,59 @@ public class DatasetMatcher {
     }
   }
 
+  /**
+   * Reads all names from the cursor into a bounded queue that is drained by the matcher workers.
+   * Every worker uses its own BulkMatchHandler and thus batch session which gets committed once the worker is done.
+   * The method only returns once all workers have finished.
+   */
+  private void matchParallel(int datasetKey, boolean allowInserts, Iterable<NameMapper.NameWithNidx> names) throws Exception {
+    final BlockingQueue<NameMapper.NameWithNidx> queue = new ArrayBlockingQueue<>(threads * QUEUE_SIZE_PER_THREAD);
+    ExecutorService exec = Executors.newFixedThreadPool(threads, new NamedThreadFactory("dataset-matcher-" + datasetKey));
+    List<Future<?>> workers = new ArrayList<>(threads);
+    try {
+      for (int i = 0; i < threads; i++) {
+        workers.add(exec.submit(new MatchWorker(datasetKey, allowInserts, queue)));
+      }
+      for (NameMapper.NameWithNidx n : names) {
+        offer(queue, n, workers);
+      }
+      for (int i = 0; i < threads; i++) {
+        offer(queue, EOF, workers);
+      }
+      ExecutorUtils.shutdown(exec);
+      // propagate worker exceptions
+      for (Future<?> f : workers) {
+        f.get();
+      }
+
+    } catch (ExecutionException e) {
+      exec.shutdownNow();
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+
+    } catch (Exception e) {
+      exec.shutdownNow();
+      throw e;
+    }
+  }
+
+  /**
+   * Blocks until the name could be queued, but fails early if a worker died in the meantime.
+   */
+  private static void offer(BlockingQueue<NameMapper.NameWithNidx> queue, NameMapper.NameWithNidx n, List<Future<?>> workers) throws Exception {
+    while (!queue.offer(n, 1, TimeUnit.SECONDS)) {
+      for (Future<?> f : workers) {
+        if (f.isDone()) {
+          // workers only finish regularly after the EOF marker was consumed
+          f.get();
+          throw new IllegalStateException("Matcher worker finished unexpectedly");
+        }
+      }
+    }
+  }
+
   public int getTotal() {
     return total;
   }
@@ -87,6 +168,36 @@ public class DatasetMatcher {
     return datasets;
   }
 
+  private synchronized void addCounts(int total, int updated, int nomatch) {
+    this.total += total;
+    this.updated += updated;
+    this.nomatch += nomatch;
+  }
+
+  class MatchWorker implements Callable<Void> {
+    private final int datasetKey;
+    private final boolean allowInserts;
+    private final BlockingQueue<NameMapper.NameWithNidx> queue;
+
+    MatchWorker(int datasetKey, boolean allowInserts, BlockingQueue<NameMapper.NameWithNidx> queue) {
+      this.datasetKey = datasetKey;
+      this.allowInserts = allowInserts;
+      this.queue = queue;
+    }
+
+    @Override
+    public Void call() throws Exception {
+      try (BulkMatchHandler h = new BulkMatchHandler(datasetKey, allowInserts)) {
+        NameMapper.NameWithNidx n = queue.take();
+        while (n != EOF) {
+          h.accept(n);
+          n = queue.take();
+        }
+      }
+      return null;
+    }
+  }
+
   class BulkMatchHandler implements Consumer<NameMapper.NameWithNidx>, AutoCloseable {
     private final int datasetKey;
     private final boolean allowInserts;
@@ -135,9 +246,7 @@ public class DatasetMatcher {
     public void close() throws Exception {
       batchSession.commit();
       batchSession.close();
-      total += _total;
-      updated += _updated;
-      nomatch += _nomatch;
+      addCounts(_total, _updated, _nomatch);
     }
   }
 }
@@ -0,0 +1,154 @@
+package life.catalogue.matching;
+
+import life.catalogue.api.model.IndexName;
+import life.catalogue.common.tax.SciNameNormalizer;
+
+import org.gbif.nameparser.api.Authorship;
+import org.gbif.nameparser.api.Rank;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Index based view on all names index entries sharing the same normalised key.
+ * Gives access to the pre-normalised values needed to score match candidates,
+ * so implementations can avoid loading and normalising full IndexName instances for every query.
+ */
+public interface IndexCandidates {
+
+  /**
+   * @return number of candidates
+   */
+  int size();
+
+  /**
+   * @return the names index key of the candidate
+   */
+  int key(int idx);
+
+  Rank rank(int idx);
+
+  boolean hasAuthorship(int idx);
+
+  /**
+   * @return the normalised ASCII label of the candidate
+   */
+  String label(int idx);
+
+  /**
+   * @return the normalised ASCII scientific name of the candidate
+   */
+  String scientificName(int idx);
+
+  /**
+   * @return the normalised ASCII authorship of the candidate or null if there is none
+   */
+  @Nullable
+  String authorship(int idx);
+
+  /**
+   * @return the recombination authorship of the candidate or null if there is none
+   */
+  @Nullable
+  Authorship combinationAuthorship(int idx);
+
+  /**
+   * @return the basionym authorship of the candidate or null if there is none
+   */
+  @Nullable
+  Authorship basionymAuthorship(int idx);
+
+  /**
+   * @return the key of the canonical name of the candidate or null if the candidate is a canonical name itself
+   */
+  @Nullable
+  Integer canonicalId(int idx);
+
+  /**
+   * @return true if the candidate is a canonical name without authorship, i.e. not linked to another canonical name
+   */
+  default boolean isCanonical(int idx) {
+    Integer cid = canonicalId(idx);
+    return cid == null || cid == key(idx);
+  }
+
+  /**
+   * @return the full index name of the candidate
+   */
+  IndexName name(int idx);
+
+  /**
+   * @return a new, mutable list of all full candidate names
+   */
+  default List<IndexName> names() {
+    List<IndexName> names = new ArrayList<>(size());
+    for (int idx = 0; idx < size(); idx++) {
+      names.add(name(idx));
+    }
+    return names;
+  }
+
+  /**
+   * Wraps a list of index names, normalising their values on every call.
+   */
+  static IndexCandidates of(final List<IndexName> names) {
+    return new IndexCandidates() {
+      @Override
+      public int size() {
+        return names.size();
+      }
+
+      @Override
+      public int key(int idx) {
+        return names.get(idx).getKey();
+      }
+
+      @Override
+      public Rank rank(int idx) {
+        return names.get(idx).getRank();
+      }
+
+      @Override
+      public boolean hasAuthorship(int idx) {
+        return names.get(idx).hasAuthorship();
+      }
+
+      @Override
+      public String label(int idx) {
+        return SciNameNormalizer.normalizedAscii(names.get(idx).getLabel());
+      }
+
+      @Override
+      public String scientificName(int idx) {
+        return SciNameNormalizer.normalizedAscii(names.get(idx).getScientificName());
+      }
+
+      @Override
+      public String authorship(int idx) {
+        return SciNameNormalizer.normalizedAscii(names.get(idx).getAuthorship());
+      }
+
+      @Override
+      public Authorship combinationAuthorship(int idx) {
+        return names.get(idx).getCombinationAuthorship();
+      }
+
+      @Override
+      public Authorship basionymAuthorship(int idx) {
+        return names.get(idx).getBasionymAuthorship();
+      }
+
+      @Override
+      public Integer canonicalId(int idx) {
+        return names.get(idx).getCanonicalId();
+      }
+
+      @Override
+      public IndexName name(int idx) {
+        return names.get(idx);
+      }
+    };
+  }
+}
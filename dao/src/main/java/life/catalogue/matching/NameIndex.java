@@ -7,10 +7,17 @@ import life.catalogue.api.model.NameMatch;
 import life.catalogue.common.Managed;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Throwables;
+
 public interface NameIndex extends Managed, AutoCloseable {
   
   Logger LOG = LoggerFactory.getLogger(NameIndex.class);
@@ -25,6 +32,31 @@ public interface NameIndex extends Managed, AutoCloseable {
    */
   NameMatch match(Name name, boolean allowInserts, boolean verbose);
 
+  /**
+   * Matches a batch of names in parallel using the given executor.
+   *
+   * @param names        the parsed names to match against
+   * @param allowInserts if true inserts the names to be matched into the index if not yet existing, avoiding NoMatch responses
+   * @param verbose      if true adds verbose matching information, i.e. queue of alternative matches
+   * @param exec         executor to run the individual matches in, usually a bounded pool owned by the caller
+   * @return list of matches in the same order as the given names
+   */
+  default List<NameMatch> matchAll(List<Name> names, boolean allowInserts, boolean verbose, Executor exec) {
+    List<CompletableFuture<NameMatch>> futures = names.stream()
+      .map(n -> CompletableFuture.supplyAsync(() -> match(n, allowInserts, verbose), exec))
+      .collect(Collectors.toList());
+    return futures.stream()
+      .map(f -> {
+        try {
+          return f.join();
+        } catch (CompletionException e) {
+          Throwables.throwIfUnchecked(e.getCause());
+          throw e;
+        }
+      })
+      .collect(Collectors.toList());
+  }
+
   /**
    * Lookup IndexName by its key
    */
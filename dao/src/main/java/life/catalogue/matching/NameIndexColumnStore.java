@@ -0,0 +1,249 @@
+package life.catalogue.matching;
+
+import life.catalogue.api.model.IndexName;
+import life.catalogue.common.tax.SciNameNormalizer;
+
+import org.gbif.nameparser.api.Authorship;
+import org.gbif.nameparser.api.Rank;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * NameIndexStore implementation that keeps a compact columnar copy of all values needed for scoring match candidates,
+ * indexed by the names index key. Rank ordinals, canonical ids, authorship flags, the parsed authorships
+ * and the pre-normalised label, name & authorship strings are kept in arrays, so the matcher does not need to deserialise
+ * and normalise full IndexName instances for every candidate and query.
+ *
+ * Full names are persisted in and loaded from the wrapped mapdb store. The columns are rebuilt from it on startup.
+ */
+public class NameIndexColumnStore implements NameIndexStore {
+  private static final Logger LOG = LoggerFactory.getLogger(NameIndexColumnStore.class);
+  private static final Rank[] RANKS = Rank.values();
+  private static final int MIN_CAPACITY = 1024;
+  // marks names without a canonical id, keys start with 1
+  private static final int NO_CANONICAL = 0;
+
+  private final NameIndexMapDBStore store;
+  // replaced as a whole when growing, so readers always see a consistent snapshot
+  private volatile Columns cols = new Columns(MIN_CAPACITY);
+
+  /**
+   * Columns indexed by the names index key
+   */
+  private static class Columns {
+    final short[] ranks;
+    final int[] canonicalIds;
+    final boolean[] authored;
+    // parsed authorships, null if empty
+    final Authorship[] combinationAuthorships;
+    final Authorship[] basionymAuthorships;
+    final String[] labels;
+    final String[] names;
+    final String[] authorships;
+
+    Columns(int capacity) {
+      ranks = new short[capacity];
+      canonicalIds = new int[capacity];
+      authored = new boolean[capacity];
+      combinationAuthorships = new Authorship[capacity];
+      basionymAuthorships = new Authorship[capacity];
+      labels = new String[capacity];
+      names = new String[capacity];
+      authorships = new String[capacity];
+    }
+
+    private Columns(Columns other, int capacity) {
+      ranks = Arrays.copyOf(other.ranks, capacity);
+      canonicalIds = Arrays.copyOf(other.canonicalIds, capacity);
+      authored = Arrays.copyOf(other.authored, capacity);
+      combinationAuthorships = Arrays.copyOf(other.combinationAuthorships, capacity);
+      basionymAuthorships = Arrays.copyOf(other.basionymAuthorships, capacity);
+      labels = Arrays.copyOf(other.labels, capacity);
+      names = Arrays.copyOf(other.names, capacity);
+      authorships = Arrays.copyOf(other.authorships, capacity);
+    }
+
+    int capacity() {
+      return ranks.length;
+    }
+
+    Columns grow(int minCapacity) {
+      int capacity = capacity();
+      while (capacity < minCapacity) {
+        capacity = capacity + (capacity >> 1);
+      }
+      return new Columns(this, capacity);
+    }
+
+    void set(IndexName n) {
+      final int key = n.getKey();
+      ranks[key] = (short) (n.getRank() == null ? Rank.UNRANKED : n.getRank()).ordinal();
+      canonicalIds[key] = n.getCanonicalId() == null ? NO_CANONICAL : n.getCanonicalId();
+      authored[key] = n.hasAuthorship();
+      combinationAuthorships[key] = emptyToNull(n.getCombinationAuthorship());
+      basionymAuthorships[key] = emptyToNull(n.getBasionymAuthorship());
+      labels[key] = SciNameNormalizer.normalizedAscii(n.getLabel());
+      names[key] = SciNameNormalizer.normalizedAscii(n.getScientificName());
+      authorships[key] = SciNameNormalizer.normalizedAscii(n.getAuthorship());
+    }
+  }
+
+  private static Authorship emptyToNull(Authorship a) {
+    return a == null || a.isEmpty() ? null : a;
+  }
+
+  public NameIndexColumnStore(NameIndexMapDBStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public void start() throws Exception {
+    store.start();
+    LOG.info("Loading {} names into columnar names index store", store.count());
+    Columns c = new Columns(MIN_CAPACITY);
+    for (IndexName n : store.all()) {
+      if (n.getKey() >= c.capacity()) {
+        c = c.grow(n.getKey() + 1);
+      }
+      c.set(n);
+    }
+    cols = c;
+    LOG.info("Loaded columnar names index store with a capacity of {}", c.capacity());
+  }
+
+  @Override
+  public void stop() throws Exception {
+    store.stop();
+  }
+
+  @Override
+  public IndexName get(Integer key) {
+    return store.get(key);
+  }
+
+  @Override
+  public Collection<IndexName> byCanonical(Integer key) {
+    return store.byCanonical(key);
+  }
+
+  @Override
+  public Iterable<IndexName> all() {
+    return store.all();
+  }
+
+  @Override
+  public int count() {
+    return store.count();
+  }
+
+  @Override
+  public synchronized void clear() {
+    store.clear();
+    cols = new Columns(MIN_CAPACITY);
+  }
+
+  @Override
+  public List<IndexName> get(String key) {
+    return store.get(key);
+  }
+
+  @Override
+  public IndexCandidates candidates(String key) {
+    int[] keys = store.keys(key);
+    return new ColumnCandidates(keys == null ? new int[0] : keys, cols);
+  }
+
+  @Override
+  public boolean containsKey(String key) {
+    return store.containsKey(key);
+  }
+
+  /**
+   * Updates the columns before the name becomes visible through the wrapped store,
+   * so candidates listed by the store always exist in the current columns.
+   */
+  @Override
+  public void add(String key, IndexName name) {
+    store.check(name);
+    synchronized (this) {
+      Columns c = cols;
+      if (name.getKey() >= c.capacity()) {
+        c = c.grow(name.getKey() + 1);
+        cols = c;
+      }
+      c.set(name);
+    }
+    store.add(key, name);
+  }
+
+  private class ColumnCandidates implements IndexCandidates {
+    private final int[] keys;
+    private final Columns c;
+
+    ColumnCandidates(int[] keys, Columns c) {
+      this.keys = keys;
+      this.c = c;
+    }
+
+    @Override
+    public int size() {
+      return keys.length;
+    }
+
+    @Override
+    public int key(int idx) {
+      return keys[idx];
+    }
+
+    @Override
+    public Rank rank(int idx) {
+      return RANKS[c.ranks[keys[idx]]];
+    }
+
+    @Override
+    public boolean hasAuthorship(int idx) {
+      return c.authored[keys[idx]];
+    }
+
+    @Override
+    public String label(int idx) {
+      return c.labels[keys[idx]];
+    }
+
+    @Override
+    public String scientificName(int idx) {
+      return c.names[keys[idx]];
+    }
+
+    @Override
+    public String authorship(int idx) {
+      return c.authorships[keys[idx]];
+    }
+
+    @Override
+    public Authorship combinationAuthorship(int idx) {
+      return c.combinationAuthorships[keys[idx]];
+    }
+
+    @Override
+    public Authorship basionymAuthorship(int idx) {
+      return c.basionymAuthorships[keys[idx]];
+    }
+
+    @Override
+    public Integer canonicalId(int idx) {
+      int cid = c.canonicalIds[keys[idx]];
+      return cid == NO_CANONICAL ? null : cid;
+    }
+
+    @Override
+    public IndexName name(int idx) {
+      return store.get(keys[idx]);
+    }
+  }
+}
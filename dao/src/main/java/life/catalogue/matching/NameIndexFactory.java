@@ -24,6 +24,21 @@ import org.slf4j.LoggerFactory;
 
 public class NameIndexFactory {
   private static final Logger LOG = LoggerFactory.getLogger(NameIndexFactory.class);
+
+  /**
+   * The available store implementations backing the names index.
+   */
+  public enum StoreType {
+    /**
+     * Kryo serialised names in a mapdb, deserialised for every candidate
+     */
+    MAPDB,
+
+    /**
+     * Pre-normalised columns for matching kept in memory on top of a mapdb for the full names
+     */
+    COLUMNS
+  }
   
   /**
    * @return NameIndex that returns no match for any query
@@ -141,18 +156,30 @@ public class NameIndexFactory {
    * Returns a persistent index if location is given, otherwise an in memory one
    */
   public static NameIndexImpl persistentOrMemory(@Nullable File location, SqlSessionFactory sqlFactory, AuthorshipNormalizer aNormalizer) throws IOException {
+    return persistentOrMemory(location, StoreType.MAPDB, sqlFactory, aNormalizer);
+  }
+
+  /**
+   * Returns a persistent index if location is given, otherwise an in memory one
+   * @param type the store implementation to use
+   */
+  public static NameIndexImpl persistentOrMemory(@Nullable File location, StoreType type, SqlSessionFactory sqlFactory, AuthorshipNormalizer aNormalizer) throws IOException {
     NameIndexImpl ni;
     if (location == null) {
-      ni = memory(sqlFactory, aNormalizer);
+      ni = memory(type, sqlFactory, aNormalizer);
     } else {
-      ni = persistent(location, sqlFactory, aNormalizer);
+      ni = persistent(location, type, sqlFactory, aNormalizer);
     }
     return ni;
   }
 
   public static NameIndexImpl memory(SqlSessionFactory sqlFactory, AuthorshipNormalizer authorshipNormalizer) {
-    LOG.info("Use volatile in memory names index");
-    NameIndexStore store = new NameIndexMapDBStore(DBMaker.memoryDB());
+    return memory(StoreType.MAPDB, sqlFactory, authorshipNormalizer);
+  }
+
+  public static NameIndexImpl memory(StoreType type, SqlSessionFactory sqlFactory, AuthorshipNormalizer authorshipNormalizer) {
+    LOG.info("Use volatile in memory names index with a {} store", type);
+    NameIndexStore store = store(type, new NameIndexMapDBStore(DBMaker.memoryDB()));
     return new NameIndexImpl(store, authorshipNormalizer, sqlFactory);
   }
 
@@ -160,6 +187,13 @@ public class NameIndexFactory {
    * Creates or opens a persistent mapdb names index for the names index.
    */
   public static NameIndexImpl persistent(File location, SqlSessionFactory sqlFactory, AuthorshipNormalizer authorshipNormalizer) throws IOException {
+    return persistent(location, StoreType.MAPDB, sqlFactory, authorshipNormalizer);
+  }
+
+  /**
+   * Creates or opens a persistent mapdb names index for the names index using the given store implementation.
+   */
+  public static NameIndexImpl persistent(File location, StoreType type, SqlSessionFactory sqlFactory, AuthorshipNormalizer authorshipNormalizer) throws IOException {
     if (!location.exists()) {
       FileUtils.forceMkdirParent(location);
       LOG.info("Create persistent names index at {}", location.getAbsolutePath());
@@ -169,8 +203,17 @@ public class NameIndexFactory {
     DBMaker.Maker maker = DBMaker
         .fileDB(location)
         .fileMmapEnableIfSupported();
-    NameIndexStore store = new NameIndexMapDBStore(maker, location);
+    NameIndexStore store = store(type, new NameIndexMapDBStore(maker, location));
     return new NameIndexImpl(store, authorshipNormalizer, sqlFactory);
   }
+
+  private static NameIndexStore store(StoreType type, NameIndexMapDBStore mapdb) {
+    switch (type) {
+      case COLUMNS:
+        return new NameIndexColumnStore(mapdb);
+      default:
+        return mapdb;
+    }
+  }
   
 }
@@ -7,7 +7,6 @@ import life.catalogue.api.model.NameMatch;
 import life.catalogue.api.model.ScientificName;
 import life.catalogue.api.vocab.MatchType;
 import life.catalogue.api.vocab.Users;
-import life.catalogue.common.func.Predicates;
 import life.catalogue.common.tax.AuthorshipNormalizer;
 import life.catalogue.common.tax.SciNameNormalizer;
 import life.catalogue.common.text.StringUtils;
@@ -18,20 +17,27 @@ import life.catalogue.matching.authorship.AuthorComparator;
 import org.gbif.nameparser.api.NameType;
 import org.gbif.nameparser.api.Rank;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Striped;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 
 /**
  * NameMatching implementation that is backed by a generic store with a list of names keyed to their normalised
@@ -46,6 +52,13 @@ public class NameIndexImpl implements NameIndex {
   private final NameIndexStore store;
   private final AuthorComparator authComp;
   private final SqlSessionFactory sqlFactory;
+  // locks for inserts keyed by the normalised name key
+  private final Striped<Lock> insertLocks = Striped.lock(1024);
+  // number of threads inserting or waiting to insert a normalised name key, used to detect contention on the very same name
+  private final ConcurrentHashMap<String, Integer> inserting = new ConcurrentHashMap<>();
+  // plain counters until metrics are registered
+  private Counter insertLockWaits = new Counter();
+  private Counter insertRaces = new Counter();
 
   /**
    * @param sqlFactory sql session factory to talk to the data store backend if needed for inserts or initial loading
@@ -56,6 +69,42 @@ public class NameIndexImpl implements NameIndex {
     this.authComp = new AuthorComparator(normalizer);
     this.sqlFactory = Preconditions.checkNotNull(sqlFactory);
   }
+
+  /**
+   * Optionally register contention metrics for concurrent inserts into the index
+   *
+   * @param registry
+   */
+  public void register(MetricRegistry registry) {
+    insertLockWaits = register(registry, "life.catalogue.matching.insert.lockwait", insertLockWaits);
+    insertRaces = register(registry, "life.catalogue.matching.insert.race", insertRaces);
+  }
+
+  /**
+   * @return the registered counter which keeps the counts so far
+   */
+  private static Counter register(MetricRegistry registry, String name, Counter counter) {
+    Counter registered = registry.counter(name);
+    if (registered != counter) {
+      registered.inc(counter.getCount());
+    }
+    return registered;
+  }
+
+  /**
+   * @return number of inserts that had to wait for another writer inserting the same normalised name.
+   *         Waits caused by different names sharing a lock stripe are not counted.
+   */
+  public long getInsertLockWaits() {
+    return insertLockWaits.getCount();
+  }
+
+  /**
+   * @return number of inserts that were avoided because a concurrent writer had just inserted the same name
+   */
+  public long getInsertRaces() {
+    return insertRaces.getCount();
+  }
   
   private int countPg() {
     try (SqlSession s = sqlFactory.openSession()) {
@@ -82,14 +131,16 @@ public class NameIndexImpl implements NameIndex {
   public NameMatch match(Name name, boolean allowInserts, boolean verbose) {
     NameMatch m;
 
-    List<IndexName> candidates = store.get(key(name));
+    IndexCandidates candidates = store.candidates(key(name));
     if (candidates != null) {
       m = matchCandidates(name, candidates);
       if (verbose) {
+        List<IndexName> alternatives = candidates.names();
         if (m.hasMatch()) {
-          candidates.remove(m.getName());
+          final Integer matchKey = m.getName().getKey();
+          alternatives.removeIf(n -> n.getKey().equals(matchKey));
         }
-        m.setAlternatives(candidates);
+        m.setAlternatives(alternatives);
       } else {
         m.setAlternatives(null);
       }
@@ -145,9 +196,10 @@ public class NameIndexImpl implements NameIndex {
   }
 
   /**
-   * Does comparison by rank, name & author to pick real match from candidates
+   * Does comparison by rank, name & author to pick real match from candidates.
+   * Full index names are only loaded for the final match.
    */
-  private NameMatch matchCandidates(Name query, final List<IndexName> candidates) {
+  private NameMatch matchCandidates(Name query, final IndexCandidates candidates) {
     final Rank rank = normRank(query.getRank());
     final boolean compareRank = rank != Rank.UNRANKED;
     final boolean isCanonical = !query.hasAuthorship();
@@ -157,23 +209,23 @@ public class NameIndexImpl implements NameIndex {
     // calculate score by rank, nomCode & authorship
     // immediately filtering no matches with a negative score
     int bestScore = 0;
-    final List<IndexName> matches = new ArrayList<>();
-    for (IndexName n : candidates) {
+    final IntList matches = new IntArrayList();
+    for (int idx = 0; idx < candidates.size(); idx++) {
       // 0 to 5
       int score = 0;
       
       // make sure rank match up exactly if part of query
-      if (compareRank && !match(rank, n.getRank())) {
+      if (compareRank && !match(rank, candidates.rank(idx))) {
         continue;
       }
 
       // we only want matches without an authorship
-      if (isCanonical && n.hasAuthorship()) {
+      if (isCanonical && candidates.hasAuthorship(idx)) {
         continue;
       }
 
       // exact full name match: =5
-      if (queryfullname.equalsIgnoreCase(SciNameNormalizer.normalizedAscii(n.getLabel()))) {
+      if (queryfullname.equalsIgnoreCase(candidates.label(idx))) {
         score = 5;
         
       } else {
@@ -183,12 +235,12 @@ public class NameIndexImpl implements NameIndex {
           // remove different authorships or
           // +1 for equal authorships
           // +2 for exact equal authorship strings
-          Equality aeq = authComp.compare(query, n);
+          Equality aeq = authComp.compare(query, candidates.combinationAuthorship(idx), candidates.basionymAuthorship(idx));
           if (aeq == Equality.DIFFERENT) {
             continue;
           }
 
-          if (queryauthorship.equalsIgnoreCase(SciNameNormalizer.normalizedAscii(n.getAuthorship()))) {
+          if (queryauthorship.equalsIgnoreCase(candidates.authorship(idx))) {
             score += 3;
           } else if (aeq == Equality.EQUAL) {
             score += 1;
@@ -196,11 +248,11 @@ public class NameIndexImpl implements NameIndex {
         }
 
         // exact canonical name match: +1
-        if (queryname.equalsIgnoreCase(SciNameNormalizer.normalizedAscii(n.getScientificName()))) {
+        if (queryname.equalsIgnoreCase(candidates.scientificName(idx))) {
           score += 1;
         }
       }
-      bestScore = addOrRemove(score, n, bestScore, matches);
+      bestScore = addOrRemove(score, idx, bestScore, matches);
     }
 
     NameMatch m = new NameMatch();
@@ -208,7 +260,7 @@ public class NameIndexImpl implements NameIndex {
       m.setType(MatchType.NONE);
 
     } else if (matches.size() == 1) {
-      IndexName m0 = matches.get(0);
+      IndexName m0 = candidates.name(matches.getInt(0));
       m.setName(m0);
       if (query.getLabel().equalsIgnoreCase(m0.getLabel())) {
         m.setType(MatchType.EXACT);
@@ -226,8 +278,15 @@ public class NameIndexImpl implements NameIndex {
       //  b) the authorship matches various authorships, e.g. if only the basionym or year is given
 
       // pick canonical
-      if (matches.stream().anyMatch(Predicates.not(IndexName::hasAuthorship))) {
-        matches.removeIf(IndexName::hasAuthorship);
+      IntList canonicals = new IntArrayList();
+      for (int idx : matches) {
+        if (candidates.isCanonical(idx) && !candidates.hasAuthorship(idx)) {
+          canonicals.add(idx);
+        }
+      }
+      if (!canonicals.isEmpty()) {
+        matches.clear();
+        matches.addAll(canonicals);
         if (matches.size()==1) {
           m.setType(MatchType.CANONICAL);
         }
@@ -238,35 +297,29 @@ public class NameIndexImpl implements NameIndex {
         LOG.debug("Ambiguous match ({} hits) for {} {}", matches.size(), query.getRank(), query.getLabel());
       }
       // we pick the lowest key to guarantee a stable outcome in all cases - even if we dont have a canonical (should not really happen)
-      IndexName earliest = matches.get(0);
-      for (IndexName n : matches) {
-        if (n.getKey() < earliest.getKey()) {
-          earliest = n;
+      int earliest = matches.getInt(0);
+      for (int idx : matches) {
+        if (candidates.key(idx) < candidates.key(earliest)) {
+          earliest = idx;
         }
       }
-      m.setName(earliest);
-      return m;
+      m.setName(candidates.name(earliest));
     }
-    m.setAlternatives(candidates);
     return m;
   }
   
   /**
    * @return new best score
    */
-  private int addOrRemove(int score, IndexName n, int bestScore, List<IndexName> matches) {
+  private int addOrRemove(int score, int idx, int bestScore, IntList matches) {
     if (score < bestScore) {
-      //LOG.debug("Worse match {}<{}: {}", score, bestScore, n.canonicalNameComplete());
       return bestScore;
     }
     
     if (score > bestScore) {
-      //LOG.debug("Better match {}>{}: {}", score, bestScore, n.canonicalNameComplete());
       matches.clear();
-    } else {
-      //LOG.debug("Same match {}={}: {}", score, bestScore, n.canonicalNameComplete());
     }
-    matches.add(n);
+    matches.add(idx);
     return score;
   }
 
@@ -308,24 +361,38 @@ public class NameIndexImpl implements NameIndex {
   }
 
   /**
-   * We synchronize this method to only ever allow one write at a time to avoid duplicates.
+   * We lock this method on the normalised name key to only ever allow one write per name at a time to avoid duplicates.
    * As we do allow concurrent reads through the main match method
    * we can get parallel queries for the exact same name not previously existing, especially when rebuilding the index concurrently.
    * As these concurrent reads would all result in no matches which would subsequently becomes writes,
    * we need to make sure here again that the name indeed did not yet exist.
+   * Inserts of names with a different key can proceed in parallel, unless they share the same lock stripe.
    */
-  public synchronized NameMatch tryToAdd(Name orig, NameMatch match, boolean verbose) {
-    var match2 = match(orig, false, verbose);
-    if (needsInsert(match2, orig)) {
-      // verified we still do not have that name - insert the original match for real!
-      IndexName n = new IndexName(orig);
-      add(n);
-      match.setName(n);
-      match.setType(MatchType.EXACT);
-      LOG.debug("Inserted: {}", match.getName().getLabel());
-      return match;
+  public NameMatch tryToAdd(Name orig, NameMatch match, boolean verbose) {
+    final String key = key(orig);
+    if (inserting.merge(key, 1, Integer::sum) > 1) {
+      insertLockWaits.inc();
+    }
+    final Lock lock = insertLocks.get(key);
+    lock.lock();
+    try {
+      var match2 = match(orig, false, verbose);
+      if (needsInsert(match2, orig)) {
+        // verified we still do not have that name - insert the original match for real!
+        IndexName n = new IndexName(orig);
+        add(n);
+        match.setName(n);
+        match.setType(MatchType.EXACT);
+        LOG.debug("Inserted: {}", match.getName().getLabel());
+        return match;
+      }
+      insertRaces.inc();
+      return match2;
+
+    } finally {
+      lock.unlock();
+      inserting.computeIfPresent(key, (k, cnt) -> cnt == 1 ? null : cnt - 1);
     }
-    return match2;
   }
 
   @Override
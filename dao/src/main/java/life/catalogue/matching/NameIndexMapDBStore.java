@@ -169,6 +169,14 @@ public class NameIndexMapDBStore implements NameIndexStore {
     return matches;
   }
   
+  /**
+   * @return the names index keys of all names with the given normalised key or null if none exist
+   */
+  int[] keys(String key) {
+    avail();
+    return names.get(key);
+  }
+
   @Override
   public boolean containsKey(String key) {
     avail();
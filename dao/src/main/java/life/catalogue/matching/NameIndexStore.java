@@ -32,6 +32,14 @@ public interface NameIndexStore extends Managed {
   void clear();
 
   List<IndexName> get(String key);
+
+  /**
+   * Returns a candidate view for all names with the given key to be scored by the matcher.
+   * Stores that keep pre-normalised values should override this to avoid loading full names.
+   */
+  default IndexCandidates candidates(String key) {
+    return IndexCandidates.of(get(key));
+  }
   
   boolean containsKey(String key);
   
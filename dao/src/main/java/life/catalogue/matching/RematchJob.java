@@ -22,6 +22,8 @@ public class RematchJob extends BackgroundJob {
 
   @JsonProperty
   private final int[] datasetKeys;
+  @JsonProperty
+  private int threads = 1;
 
   public static RematchJob all(int userKey, SqlSessionFactory factory, NameIndex ni){
     LOG.warn("Rematch all datasets with data using a names index of size {}", ni.size());
@@ -47,6 +49,15 @@ public class RematchJob extends BackgroundJob {
     this.ni = ni.assertOnline();
   }
 
+  /**
+   * Sets the number of parallel matcher threads to use for each dataset.
+   */
+  public RematchJob withThreads(int threads) {
+    Preconditions.checkArgument(threads > 0, "Needs at least one matcher thread");
+    this.threads = threads;
+    return this;
+  }
+
   @Override
   public boolean isDuplicate(BackgroundJob other) {
     if (other instanceof RematchJob) {
@@ -58,9 +69,9 @@ public class RematchJob extends BackgroundJob {
 
   @Override
   public void execute() {
-    LOG.info("Rematching {} datasets with data. Triggered by {}", datasetKeys.length, getUserKey());
+    LOG.info("Rematching {} datasets with data using {} threads. Triggered by {}", datasetKeys.length, threads, getUserKey());
 
-    DatasetMatcher matcher = new DatasetMatcher(factory, ni);
+    DatasetMatcher matcher = new DatasetMatcher(factory, ni, threads);
     for (int key : datasetKeys) {
       matcher.match(key, true);
     }
@@ -59,19 +59,27 @@ public class AuthorComparator {
    * Does a comparison of recombination and basionym authorship using the author compare method once for the recombination authorship and once for the basionym.
    */
   public Equality compare(ScientificName n1, ScientificName n2) {
-    Equality recomb = compare(n1.getCombinationAuthorship(), n2.getCombinationAuthorship());
+    return compare(n1, n2.getCombinationAuthorship(), n2.getBasionymAuthorship());
+  }
+
+  /**
+   * Same as compare(n1, n2) but taking the recombination and basionym authorship of the second name directly,
+   * so callers do not need to load an entire name.
+   */
+  public Equality compare(ScientificName n1, @Nullable Authorship combination2, @Nullable Authorship basionym2) {
+    Equality recomb = compare(n1.getCombinationAuthorship(), combination2);
     if (recomb != Equality.UNKNOWN) {
       // in case the recomb author differs or is the same we are done, no need for basionym authorship comparison
       return recomb;
     }
-    Equality original = compare(n1.getBasionymAuthorship(), n2.getBasionymAuthorship());
+    Equality original = compare(n1.getBasionymAuthorship(), basionym2);
     if (original == Equality.UNKNOWN) {
       // a common error is missing brackets, so if all is unknown we compare authorship across brackets and return a possible match
       Equality across = Equality.UNKNOWN;
       if (n1.getCombinationAuthorship().isEmpty()) {
-        across = compare(n1.getBasionymAuthorship(), n2.getCombinationAuthorship());
+        across = compare(n1.getBasionymAuthorship(), combination2);
       } else if (n1.getBasionymAuthorship().isEmpty()) {
-        across = compare(n1.getCombinationAuthorship(), n2.getBasionymAuthorship());
+        across = compare(n1.getCombinationAuthorship(), basionym2);
       }
       return across == Equality.EQUAL ? Equality.EQUAL : Equality.UNKNOWN;
     }
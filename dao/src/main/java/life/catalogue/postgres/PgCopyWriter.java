@@ -0,0 +1,214 @@
+package life.catalogue.postgres;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.terms.UnknownTerm;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import com.google.common.base.Joiner;
+
+/**
+ * Streams objects as rows straight into a postgres table using the COPY protocol in its text format,
+ * avoiding the overhead of individual insert statements and intermediate files.
+ *
+ * Column values are extracted from the objects by the given functions and encoded based on their java type:
+ * enums by their name, terms by their prefixed name, booleans as t/f, collections as postgres arrays
+ * and everything else by its string representation. JSONB values need to be given as serialised json strings.
+ *
+ * Columns which are not listed are set to their default, so generated columns and serials are populated as usual
+ * and triggers are executed.
+ * With an auto commit connection the rows are committed when the writer is closed.
+ * If writing a row failed the copy command is cancelled on close instead, so no partial data is committed.
+ */
+public class PgCopyWriter<T> implements AutoCloseable {
+  private static final int BUFFER_SIZE = 65536;
+  private static final String NULL = "\\N";
+  private final PGCopyOutputStream copy;
+  private final Writer writer;
+  private final List<Function<? super T, ?>> values;
+  private final StringBuilder sb = new StringBuilder();
+  private long counter;
+  private boolean failed;
+
+  /**
+   * Ordered list of columns with functions to extract their value from an object.
+   */
+  public static class Columns<T> {
+    private final List<String> names = new ArrayList<>();
+    private final List<Function<? super T, ?>> values = new ArrayList<>();
+
+    public Columns<T> add(String column, Function<? super T, ?> value) {
+      names.add(column);
+      values.add(value);
+      return this;
+    }
+
+    public List<String> getNames() {
+      return names;
+    }
+  }
+
+  public PgCopyWriter(PGConnection con, String table, Columns<T> columns) {
+    this.values = List.copyOf(columns.values);
+    String sql = "COPY " + table + " (" + Joiner.on(",").join(columns.names) + ") FROM STDIN";
+    try {
+      copy = new PGCopyOutputStream(con, sql, BUFFER_SIZE);
+    } catch (SQLException e) {
+      throw new PersistenceException("Failed to start copy into " + table, e);
+    }
+    writer = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), BUFFER_SIZE);
+  }
+
+  public void write(T obj) {
+    sb.setLength(0);
+    try {
+      boolean first = true;
+      for (Function<? super T, ?> val : values) {
+        if (!first) {
+          sb.append('\t');
+        }
+        first = false;
+        appendValue(sb, val.apply(obj));
+      }
+      sb.append('\n');
+      writer.write(sb.toString());
+      counter++;
+    } catch (IOException e) {
+      failed = true;
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      failed = true;
+      throw e;
+    }
+  }
+
+  /**
+   * @return number of rows written so far
+   */
+  public long getCounter() {
+    return counter;
+  }
+
+  /**
+   * Finishes the copy command and makes postgres process the remaining rows.
+   * Cancels the copy command instead if any write failed.
+   */
+  @Override
+  public void close() {
+    try {
+      if (failed) {
+        copy.cancelCopy();
+      } else {
+        writer.flush();
+        copy.endCopy();
+      }
+    } catch (IOException e) {
+      cancel();
+      throw new UncheckedIOException(e);
+    } catch (SQLException e) {
+      throw new PersistenceException(failed ? "Failed to cancel copy" : "Failed to finish copy", e);
+    } finally {
+      try {
+        copy.close();
+      } catch (IOException e) {
+        // ignore, we only make sure an active copy is ended
+      }
+    }
+  }
+
+  private void cancel() {
+    try {
+      copy.cancelCopy();
+    } catch (SQLException e) {
+      // ignore, the original failure is reported
+    }
+  }
+
+  static void appendValue(StringBuilder sb, Object val) {
+    if (val == null) {
+      sb.append(NULL);
+    } else if (val instanceof Collection) {
+      appendArray(sb, (Collection<?>) val);
+    } else {
+      escape(sb, toString(val));
+    }
+  }
+
+  private static String toString(Object val) {
+    // terms are often enums too
+    if (val instanceof Term) {
+      Term t = (Term) val;
+      return t instanceof UnknownTerm ? t.qualifiedName() : t.prefixedName();
+    } else if (val instanceof Enum) {
+      return ((Enum<?>) val).name();
+    } else if (val instanceof Boolean) {
+      return (Boolean) val ? "t" : "f";
+    }
+    return val.toString();
+  }
+
+  /**
+   * Writes a postgres array literal with all elements quoted.
+   */
+  private static void appendArray(StringBuilder sb, Collection<?> col) {
+    StringBuilder arr = new StringBuilder();
+    arr.append('{');
+    boolean first = true;
+    for (Object o : col) {
+      if (!first) {
+        arr.append(',');
+      }
+      first = false;
+      if (o == null) {
+        arr.append("NULL");
+      } else {
+        arr.append('"');
+        String x = toString(o);
+        for (int i = 0; i < x.length(); i++) {
+          char c = x.charAt(i);
+          if (c == '"' || c == '\\') {
+            arr.append('\\');
+          }
+          arr.append(c);
+        }
+        arr.append('"');
+      }
+    }
+    arr.append('}');
+    escape(sb, arr);
+  }
+
+  /**
+   * Escapes backslashes and the delimiter and line break characters of the copy text format.
+   */
+  private static void escape(StringBuilder sb, CharSequence x) {
+    for (int i = 0; i < x.length(); i++) {
+      char c = x.charAt(i);
+      switch (c) {
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        default:
+          sb.append(c);
+      }
+    }
+  }
+}
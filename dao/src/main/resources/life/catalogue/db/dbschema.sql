@@ -842,6 +842,7 @@ CREATE TABLE dataset_import (
   names_by_rank_count HSTORE,
   names_by_status_count HSTORE,
   names_by_type_count HSTORE,
+  names_by_match_type_count HSTORE,
   species_interactions_by_type_count HSTORE,
   synonyms_by_rank_count HSTORE,
   taxa_by_rank_count HSTORE,
@@ -850,6 +851,7 @@ CREATE TABLE dataset_import (
   usages_by_origin_count HSTORE,
   usages_by_status_count HSTORE,
   vernaculars_by_language_count HSTORE,
+  timings HSTORE,
   -- extra
   verbatim_by_row_type_count JSONB,
   verbatim_by_term_count HSTORE,
@@ -884,6 +886,7 @@ CREATE TABLE dataset_export (
   truncated TEXT[],
   md5 TEXT,
   size INTEGER,
+  bytes_written BIGINT,
   synonym_count INTEGER,
   taxon_count INTEGER,
   taxa_by_rank_count HSTORE
@@ -957,6 +960,7 @@ CREATE TABLE sector_import (
   names_by_rank_count HSTORE,
   names_by_status_count HSTORE,
   names_by_type_count HSTORE,
+  names_by_match_type_count HSTORE,
   species_interactions_by_type_count HSTORE,
   synonyms_by_rank_count HSTORE,
   taxa_by_rank_count HSTORE,
@@ -965,6 +969,7 @@ CREATE TABLE sector_import (
   usages_by_origin_count HSTORE,
   usages_by_status_count HSTORE,
   vernaculars_by_language_count HSTORE,
+  timings HSTORE,
   job TEXT NOT NULL,
   warnings TEXT[],
   error TEXT,
@@ -1619,9 +1624,21 @@ CREATE VIEW v_name_usage AS (
 
 
 
+CREATE TABLE usage_children (
+  dataset_key INTEGER NOT NULL,
+  parent_id TEXT NOT NULL,
+  rank RANK NOT NULL,
+  extinct BOOLEAN NOT NULL,
+  count INTEGER NOT NULL,
+  PRIMARY KEY (dataset_key, parent_id, rank, extinct)
+);
+
+CREATE SEQUENCE data_version_seq;
+
 CREATE TABLE usage_count (
   dataset_key int PRIMARY KEY,
-  counter int
+  counter int,
+  version BIGINT NOT NULL DEFAULT nextval('data_version_seq')
 );
 
 CREATE OR REPLACE FUNCTION count_usage_on_insert()
@@ -1645,3 +1662,13 @@ $$
   END;
 $$
 LANGUAGE 'plpgsql';
+
+CREATE OR REPLACE FUNCTION bump_data_version()
+RETURNS TRIGGER AS
+$$
+  BEGIN
+    EXECUTE 'UPDATE usage_count set version=nextval(''data_version_seq'') where dataset_key=' || TG_ARGV[0];
+    RETURN NULL;
+  END;
+$$
+LANGUAGE 'plpgsql';
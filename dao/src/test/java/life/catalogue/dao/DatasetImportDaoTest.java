@@ -3,10 +3,12 @@ package life.catalogue.dao;
 import life.catalogue.api.TestEntityGenerator;
 import life.catalogue.api.model.DatasetImport;
 import life.catalogue.api.vocab.*;
+import life.catalogue.db.mapper.DatasetImportMapper;
 
 import org.gbif.dwc.terms.AcefTerm;
 import org.gbif.dwc.terms.Term;
 import org.gbif.nameparser.api.NameType;
+import org.gbif.nameparser.api.NomCode;
 import org.gbif.nameparser.api.Rank;
 
 import org.junit.Before;
@@ -89,4 +91,35 @@ public class DatasetImportDaoTest extends DaoTestBase {
     }
   }
 
+  /**
+   * Verifies the metrics aggregated from grouped scans against the individual count queries.
+   */
+  @Test
+  public void metricsMatchCountQueries() {
+    final int key = TestEntityGenerator.DATASET11.getKey();
+    DatasetImport d = dao.generateMetrics(key, Users.TESTER);
+
+    DatasetImportMapper m = session.getMapper(DatasetImportMapper.class);
+    assertEquals(m.countName(key), d.getNameCount());
+    assertEquals(m.countBareName(key), d.getBareNameCount());
+    assertEquals(m.countTaxon(key), d.getTaxonCount());
+    assertEquals(m.countSynonym(key), d.getSynonymCount());
+    assertEquals(m.countDistribution(key), d.getDistributionCount());
+    assertEquals(m.countMedia(key), d.getMediaCount());
+    assertEquals(m.countTypeMaterial(key), d.getTypeMaterialCount());
+    assertEquals(m.countVernacular(key), d.getVernacularCount());
+    assertEquals(m.countVerbatim(key), d.getVerbatimCount());
+    assertEquals(DatasetImportDao.countMap(DatasetImportDao::parseRank, m.countNamesByRank(key)), d.getNamesByRankCount());
+    assertEquals(DatasetImportDao.countMap(NomCode.class, m.countNamesByCode(key)), d.getNamesByCodeCount());
+    assertEquals(DatasetImportDao.countMap(NameType.class, m.countNamesByType(key)), d.getNamesByTypeCount());
+    assertEquals(DatasetImportDao.countMap(TaxonomicStatus.class, m.countUsagesByStatus(key)), d.getUsagesByStatusCount());
+    assertEquals(DatasetImportDao.countMap(Origin.class, m.countUsagesByOrigin(key)), d.getUsagesByOriginCount());
+    assertEquals(DatasetImportDao.countMap(DatasetImportDao::parseRank, m.countTaxaByRank(key)), d.getTaxaByRankCount());
+    assertEquals(DatasetImportDao.countMap(DatasetImportDao::parseRank, m.countSynonymsByRank(key)), d.getSynonymsByRankCount());
+    assertEquals(DatasetImportDao.countMap(DatasetImportDao::parseRank, m.countExtinctTaxaByRank(key)), d.getExtinctTaxaByRankCount());
+    for (Term rowType : d.getVerbatimByTermCount().keySet()) {
+      assertEquals(m.countVerbatimTerms(key, rowType).size(), d.getVerbatimByRowTypeCount().get(rowType).size());
+    }
+  }
+
 }
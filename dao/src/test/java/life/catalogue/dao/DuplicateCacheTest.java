@@ -0,0 +1,75 @@
+package life.catalogue.dao;
+
+import life.catalogue.api.model.Dataset;
+import life.catalogue.api.model.Duplicate;
+import life.catalogue.api.model.Page;
+
+import life.catalogue.api.event.DatasetChanged;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DuplicateCacheTest {
+
+  static Duplicate.Mybatis dup(String key, String... ids) {
+    Duplicate.Mybatis d = new Duplicate.Mybatis();
+    d.setKey(key);
+    d.setUsages(List.of(ids));
+    return d;
+  }
+
+  @Test
+  public void page() {
+    List<Duplicate.Mybatis> dups = List.of(
+      dup("abies alba", "1", "2"),
+      dup("abies alpina", "3", "4", "5"),
+      dup("picea abies", "6", "7")
+    );
+    AtomicInteger calls = new AtomicInteger();
+    List<Object> key = List.of("test", 1);
+    DuplicateCache cache = new DuplicateCache(1);
+
+    List<Duplicate.Mybatis> paged = new ArrayList<>();
+    Page p = new Page(0, 2);
+    paged.addAll(cache.page(3, key, p, () -> {
+      calls.incrementAndGet();
+      return dups;
+    }));
+    p.next();
+    paged.addAll(cache.page(3, key, p, () -> {
+      calls.incrementAndGet();
+      return dups;
+    }));
+    assertEquals(dups, paged);
+    assertEquals(1, calls.get());
+
+    assertTrue(cache.page(3, key, new Page(10, 10), List::of).isEmpty());
+
+    // other key
+    assertTrue(cache.page(3, List.of("test", 2), new Page(), List::of).isEmpty());
+    // other dataset
+    assertTrue(cache.page(4, key, new Page(), List::of).isEmpty());
+
+    // still cached
+    cache.page(3, key, p, () -> {
+      calls.incrementAndGet();
+      return dups;
+    });
+    assertEquals(1, calls.get());
+
+    Dataset d = new Dataset();
+    d.setKey(3);
+    cache.datasetChanged(DatasetChanged.deleted(d));
+    cache.page(3, key, p, () -> {
+      calls.incrementAndGet();
+      return dups;
+    });
+    assertEquals(2, calls.get());
+  }
+}
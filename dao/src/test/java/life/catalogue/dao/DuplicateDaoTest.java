@@ -10,12 +10,14 @@ import life.catalogue.common.tax.SciNameNormalizer;
 import life.catalogue.db.MybatisTestUtils;
 import life.catalogue.db.PgSetupRule;
 import life.catalogue.db.mapper.DecisionMapper;
+import life.catalogue.db.mapper.DuplicateMapper;
 import life.catalogue.postgres.AuthorshipNormFunc;
 import life.catalogue.postgres.PgCopyUtils;
 
 import org.gbif.nameparser.api.Rank;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -87,7 +89,7 @@ public class DuplicateDaoTest {
   @Before
   public void init() {
     session = PgSetupRule.getSqlSessionFactory().openSession(true);
-    dao = new DuplicateDao(session);
+    dao = new DuplicateDao(session, new DuplicateCache(16));
     watch.reset();
   }
 
@@ -196,6 +198,35 @@ public class DuplicateDaoTest {
     System.out.println(watch);
   }
 
+  @Test
+  public void paging() {
+    List<Duplicate> all = find(MatchingMode.STRICT, 2, datasetKey, null, null, null, null, null, null, null, new Page(0, 100));
+    assertComplete(21, all, 2);
+
+    List<Duplicate> paged = new ArrayList<>();
+    Page p = new Page(0, 4);
+    List<Duplicate> dups;
+    do {
+      dups = find(MatchingMode.STRICT, 2, datasetKey, null, null, null, null, null, null, null, p);
+      paged.addAll(dups);
+      p.next();
+    } while (!dups.isEmpty());
+    assertEquals(all, paged);
+  }
+
+  @Test
+  public void dataVersion() {
+    DuplicateMapper dm = session.getMapper(DuplicateMapper.class);
+    final String v = dm.dataVersion(datasetKey, null);
+    assertNotNull(v);
+    assertEquals(v, dm.dataVersion(datasetKey, null));
+
+    final String vd = dm.dataVersion(datasetKey, Datasets.COL);
+    assertNotEquals(v, vd);
+    create(session.getMapper(DecisionMapper.class), "x1", Rank.SPECIES);
+    assertNotEquals(vd, dm.dataVersion(datasetKey, Datasets.COL));
+  }
+
   @Test
   public void duplicateNames() {
     int minSize = 2;
@@ -0,0 +1,80 @@
+package life.catalogue.dao;
+
+import life.catalogue.api.model.DatasetImport;
+import life.catalogue.api.vocab.Origin;
+import life.catalogue.api.vocab.TaxonomicStatus;
+import life.catalogue.db.type2.NameCount;
+import life.catalogue.db.type2.StringCount;
+import life.catalogue.db.type2.UsageCount;
+
+import org.gbif.nameparser.api.NameType;
+import org.gbif.nameparser.api.NomCode;
+import org.gbif.nameparser.api.Rank;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ImportMetricsCollectorTest {
+
+  @Test
+  public void apply() {
+    ImportMetricsCollector collector = new ImportMetricsCollector();
+    collector.addNames(List.of(
+      new NameCount("species", "BOTANICAL", null, "SCIENTIFIC", false, 10),
+      new NameCount("species", "ZOOLOGICAL", null, "SCIENTIFIC", true, 2),
+      new NameCount("genus", "BOTANICAL", null, "SCIENTIFIC", false, 3),
+      new NameCount(null, null, null, "INFORMAL", true, 1)
+    ));
+    collector.addUsages(List.of(
+      new UsageCount("ACCEPTED", "SOURCE", "species", false, false, 6),
+      new UsageCount("ACCEPTED", "SOURCE", "species", false, true, 1),
+      new UsageCount("PROVISIONALLY_ACCEPTED", "SOURCE", "genus", false, false, 3),
+      new UsageCount("SYNONYM", "SOURCE", "species", true, false, 3),
+      new UsageCount("SYNONYM", "IMPLICIT_NAME", null, true, false, 1)
+    ));
+
+    DatasetImport di = new DatasetImport();
+    collector.apply(di);
+
+    assertEquals((Integer) 16, di.getNameCount());
+    assertEquals((Integer) 3, di.getBareNameCount());
+    assertEquals((Integer) 10, di.getTaxonCount());
+    assertEquals((Integer) 4, di.getSynonymCount());
+
+    assertEquals(2, di.getNamesByRankCount().size());
+    assertEquals((Integer) 12, di.getNamesByRankCount().get(Rank.SPECIES));
+    assertEquals((Integer) 3, di.getNamesByRankCount().get(Rank.GENUS));
+    assertEquals((Integer) 13, di.getNamesByCodeCount().get(NomCode.BOTANICAL));
+    assertEquals((Integer) 2, di.getNamesByCodeCount().get(NomCode.ZOOLOGICAL));
+    assertEquals(0, di.getNamesByStatusCount().size());
+    assertEquals((Integer) 15, di.getNamesByTypeCount().get(NameType.SCIENTIFIC));
+    assertEquals((Integer) 1, di.getNamesByTypeCount().get(NameType.INFORMAL));
+
+    assertEquals((Integer) 7, di.getUsagesByStatusCount().get(TaxonomicStatus.ACCEPTED));
+    assertEquals((Integer) 3, di.getUsagesByStatusCount().get(TaxonomicStatus.PROVISIONALLY_ACCEPTED));
+    assertEquals((Integer) 4, di.getUsagesByStatusCount().get(TaxonomicStatus.SYNONYM));
+    assertEquals((Integer) 13, di.getUsagesByOriginCount().get(Origin.SOURCE));
+    assertEquals((Integer) 1, di.getUsagesByOriginCount().get(Origin.IMPLICIT_NAME));
+    assertEquals((Integer) 7, di.getTaxaByRankCount().get(Rank.SPECIES));
+    assertEquals((Integer) 3, di.getTaxaByRankCount().get(Rank.GENUS));
+    assertEquals(1, di.getExtinctTaxaByRankCount().size());
+    assertEquals((Integer) 1, di.getExtinctTaxaByRankCount().get(Rank.SPECIES));
+    assertEquals(1, di.getSynonymsByRankCount().size());
+    assertEquals((Integer) 3, di.getSynonymsByRankCount().get(Rank.SPECIES));
+    assertFalse(di.getSynonymsByRankCount().containsKey(Rank.GENUS));
+  }
+
+  @Test
+  public void sum() {
+    assertEquals(0, ImportMetricsCollector.sum(List.of()));
+    assertEquals(6, ImportMetricsCollector.sum(List.of(
+      new StringCount("deu", 2),
+      new StringCount((String) null, 3),
+      new StringCount("eng", 1)
+    )));
+  }
+}
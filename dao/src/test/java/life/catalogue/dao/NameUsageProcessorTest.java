@@ -36,6 +36,16 @@ public class NameUsageProcessorTest extends DaoTestBase {
     Assert.assertEquals(4, handler.synCounter.get());
   }
   
+  @Test
+  public void processDatasetInMemory() {
+    DRH handler = new DRH();
+    // force the in memory classification mode
+    NameUsageProcessor proc = new NameUsageProcessor(PgSetupRule.getSqlSessionFactory(), 1);
+    proc.processDataset(NAME4.getDatasetKey(), handler);
+    Assert.assertEquals(24, handler.counter.get());
+    Assert.assertEquals(4, handler.synCounter.get());
+  }
+
   public static class DRH implements Consumer<NameUsageWrapper> {
     public AtomicInteger counter = new AtomicInteger(0);
     public AtomicInteger synCounter = new AtomicInteger(0);
@@ -2,14 +2,19 @@ package life.catalogue.dao;
 
 import life.catalogue.api.model.*;
 import life.catalogue.db.PgSetupRule;
+import life.catalogue.db.mapper.DatasetPartitionMapper;
+import life.catalogue.db.mapper.TreeMapper;
 import life.catalogue.db.tree.SectorDataRule;
 import life.catalogue.db.tree.TxtTreeDataRule;
 
 import org.gbif.nameparser.api.Rank;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.ibatis.session.SqlSession;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.rules.RuleChain;
@@ -237,6 +242,82 @@ public class TreeDaoTest {
     assertSector(children.getResult().get(2), sectorRule.sectorKey(3));
   }
 
+  @Test
+  public void childSummary() {
+    List<DSID<String>> parents = List.of(
+      DSID.of(TRILOBITA, "1"),
+      DSID.of(TRILOBITA, RankID.buildID("1", Rank.ORDER)),
+      DSID.of(TRILOBITA, RankID.buildID("1", Rank.FAMILY)),
+      DSID.of(MAMMALIA, "2")
+    );
+    Map<String, List<String>> live = new HashMap<>();
+    for (DSID<String> key : parents) {
+      for (boolean extinct : List.of(true, false)) {
+        live.put(key + "-" + extinct, summarize(dao.children(key, catKey, true, extinct, TreeNode.Type.SOURCE, PAGE)));
+      }
+    }
+
+    try (SqlSession session = PgSetupRule.getSqlSessionFactory().openSession(true)) {
+      DatasetPartitionMapper dpm = session.getMapper(DatasetPartitionMapper.class);
+      TreeMapper trm = session.getMapper(TreeMapper.class);
+      try {
+        dpm.buildChildSummary(TRILOBITA);
+        dpm.buildChildSummary(MAMMALIA);
+        assertTrue(trm.hasChildSummary(TRILOBITA));
+        assertFalse(trm.hasChildSummary(catKey));
+        assertFalse(trm.childCounts(DSID.of(TRILOBITA, "1")).isEmpty());
+
+        for (DSID<String> key : parents) {
+          for (boolean extinct : List.of(true, false)) {
+            assertEquals(live.get(key + "-" + extinct), summarize(dao.children(key, catKey, true, extinct, TreeNode.Type.SOURCE, PAGE)));
+          }
+        }
+      } finally {
+        dpm.deleteChildSummary(TRILOBITA);
+        dpm.deleteChildSummary(MAMMALIA);
+      }
+    }
+  }
+
+  private static List<String> summarize(ResultPage<TreeNode> children) {
+    List<String> nodes = new ArrayList<>();
+    nodes.add("total=" + children.getTotal());
+    for (TreeNode n : children) {
+      nodes.add(n.getId() + "|" + n.getParentId() + "|" + n.getRank() + "|" + n.getChildCount());
+    }
+    return nodes;
+  }
+
+  @Test
+  public void childSummaryCounts() {
+    List<TreeMapper.ChildCount> counts = List.of(
+      count(Rank.ORDER, false, 2),
+      count(Rank.FAMILY, false, 3),
+      count(Rank.FAMILY, true, 1),
+      count(Rank.GENUS, true, 4)
+    );
+    TreeDao.ChildSummary summary = new TreeDao.ChildSummary(counts, true);
+    assertEquals(10, summary.count());
+    assertEquals(4, summary.countWithRank(Rank.FAMILY));
+    assertEquals(8, summary.countBelowRank(Rank.ORDER));
+    assertEquals(List.of(Rank.ORDER, Rank.FAMILY, Rank.GENUS), summary.ranks(null));
+    assertEquals(List.of(Rank.ORDER, Rank.FAMILY), summary.ranks(Rank.FAMILY));
+
+    summary = new TreeDao.ChildSummary(counts, false);
+    assertEquals(5, summary.count());
+    assertEquals(3, summary.countWithRank(Rank.FAMILY));
+    assertEquals(3, summary.countBelowRank(Rank.ORDER));
+    assertEquals(List.of(Rank.ORDER, Rank.FAMILY), summary.ranks(null));
+  }
+
+  private static TreeMapper.ChildCount count(Rank rank, boolean extinct, int count) {
+    TreeMapper.ChildCount c = new TreeMapper.ChildCount();
+    c.setRank(rank);
+    c.setExtinct(extinct);
+    c.setCount(count);
+    return c;
+  }
+
   private static void assertPlaceholder(TreeNode n, Rank rank) {
     assertTrue(n.isPlaceholder());
     assertEquals(rank, n.getRank());
@@ -44,6 +44,8 @@ public class DatasetExportMapperTest extends CRUDTestBase<UUID, DatasetExport, D
     d.setStatus(status);
     d.setRequest(req);
     d.setTaxonCount(1324);
+    d.setSize(2048);
+    d.setBytesWritten(10240);
     d.setTruncated(Set.of(ColdpTerm.VernacularName, DwcTerm.Taxon));
     d.getTaxaByRankCount().put(Rank.SPECIES, 100);
     d.getTaxaByRankCount().put(Rank.GENUS, 11);
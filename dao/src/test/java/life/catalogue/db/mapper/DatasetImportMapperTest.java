@@ -67,6 +67,7 @@ public class DatasetImportMapperTest extends MapperTestBase<DatasetImportMapper>
     m.setNamesByRankCount(mockCount(Rank.class));
     m.setNamesByStatusCount(mockCount(NomStatus.class));
     m.setNamesByTypeCount(mockCount(NameType.class));
+    m.setNamesByMatchTypeCount(mockCount(MatchType.class));
     m.setSpeciesInteractionsByTypeCount(mockCount(SpeciesInteractionType.class));
     m.setSynonymsByRankCount(mockCount(Rank.class));
     m.setTaxaByRankCount(mockCount(Rank.class));
@@ -75,6 +76,7 @@ public class DatasetImportMapperTest extends MapperTestBase<DatasetImportMapper>
     m.setUsagesByOriginCount(mockCount(Origin.class));
     m.setUsagesByStatusCount(mockCount(TaxonomicStatus.class));
     m.setVernacularsByLanguageCount(mockCount());
+    m.setTimings(mockCount());
   }
 
   private static DatasetImport create(ImportState state) throws Exception {
@@ -85,6 +85,8 @@ public class DatasetPartitionMapperTest extends MapperTestBase<DatasetPartitionM
   public void updateCounter() {
     int x = mapper().updateUsageCounter(TestDataRule.APPLE.key);
     assertEquals(4, x);
+    assertEquals((Integer) 4, mapper().usageCount(TestDataRule.APPLE.key));
+    Assert.assertNull(mapper().usageCount(9999));
   }
 
   /**
@@ -63,6 +63,20 @@ public class NameUsageMapperTest extends MapperTestBase<NameUsageMapper> {
     assertEquals(t.getName().getAuthorship(), sn.getAuthorship());
   }
 
+  @Test
+  public void listSimpleNidx() throws Exception {
+    Taxon t = TestEntityGenerator.TAXON1;
+    List<SimpleNameWithNidx> sns = mapper().listSimpleNidx(t.getDatasetKey(), List.of(t.getId(), "not-existing"));
+    assertEquals(1, sns.size());
+    SimpleNameWithNidx sn = sns.get(0);
+    assertEquals(t.getId(), sn.getId());
+    assertEquals(t.getParentId(), sn.getParent());
+    assertEquals(t.getStatus(), sn.getStatus());
+    assertEquals(t.getName().getRank(), sn.getRank());
+    assertEquals(t.getName().getScientificName(), sn.getName());
+    assertEquals(t.getName().getAuthorship(), sn.getAuthorship());
+  }
+
   @Test
   public void listRelated() throws Exception {
     mapper().listRelated(DSID.of(testDataRule.testData.key, "1"), null, null);
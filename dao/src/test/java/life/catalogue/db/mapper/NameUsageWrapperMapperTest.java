@@ -9,6 +9,7 @@ import life.catalogue.api.search.NameUsageWrapper;
 import life.catalogue.api.vocab.Datasets;
 import life.catalogue.api.vocab.MatchType;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -20,6 +21,7 @@ import static life.catalogue.api.TestEntityGenerator.NAME4;
 import static life.catalogue.api.TestEntityGenerator.TAXON2;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 
 public class NameUsageWrapperMapperTest extends MapperTestBase<NameUsageWrapperMapper> {
@@ -42,6 +44,32 @@ public class NameUsageWrapperMapperTest extends MapperTestBase<NameUsageWrapperM
     Assert.assertEquals(1, counter.get());
   }
 
+  @Test
+  public void listWithoutClassification() throws Exception {
+    final int datasetKey = TAXON2.getDatasetKey();
+    List<NameUsageWrapper> all = mapper().listWithoutClassification(datasetKey, null, 1000);
+    assertTrue(all.size() > 1);
+
+    List<NameUsageWrapper> page = mapper().listWithoutClassification(datasetKey, null, 1);
+    assertEquals(1, page.size());
+    assertEquals(all.get(0).getUsage().getId(), page.get(0).getUsage().getId());
+
+    page = mapper().listWithoutClassification(datasetKey, page.get(0).getUsage().getId(), 1000);
+    assertEquals(all.size() - 1, page.size());
+    assertEquals(all.get(1).getUsage().getId(), page.get(0).getUsage().getId());
+  }
+
+  @Test
+  public void processClassificationNodes() throws Exception {
+    mapper().processClassificationNodes(TAXON2.getDatasetKey()).forEach(sn -> {
+      counter.incrementAndGet();
+      assertNotNull(sn.getId());
+      assertNotNull(sn.getName());
+      assertNotNull(sn.getRank());
+    });
+    assertTrue(counter.get() > 1);
+  }
+
   @Test
   public void testGetComplete() throws Exception {
     DatasetMapper dm = mapper(DatasetMapper.class);
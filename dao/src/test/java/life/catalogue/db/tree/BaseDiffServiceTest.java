@@ -8,7 +8,6 @@ import life.catalogue.db.TestDataRule;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.IOException;
 import java.util.Collections;
 
 import org.apache.commons.io.IOUtils;
@@ -25,20 +24,12 @@ public abstract class BaseDiffServiceTest<K> extends DaoTestBase {
     super(TestDataRule.tree());
   }
 
-  @Test
-  public void diffBinaryVersion() throws IOException {
-    String v = diff.diffBinaryVersion();
-    System.out.println(v);
-    assertTrue(v.startsWith("diff"));
-    assertTrue(v.length() > 10);
-  }
-
   @Test
   public void udiff() throws Exception {
     final File f1 = Resources.toFile("trees/coldp.tree.gz");
     final File f2 = Resources.toFile("trees/coldp2.tree.gz");
 
-    BufferedReader br = diff.udiff(provideTestKey(), new int[]{1,2}, 2, i -> {
+    BufferedReader br = diff.udiff(provideTestKey(), new int[]{1,2}, 2, false, i -> {
       switch (i) {
         case 1: return f1;
         case 2: return f2;
@@ -28,7 +28,7 @@ public class DatasetDiffServiceTest extends BaseDiffServiceTest<Integer> {
     final File f2 = Resources.toFile("trees/itis/37-names.txt.gz");
 
     StopWatch watch = StopWatch.createStarted();
-    var br = diff.udiff(provideTestKey(), new int[]{1,2}, 0, i -> {
+    var br = diff.udiff(provideTestKey(), new int[]{1,2}, 0, true, i -> {
       switch (i) {
         case 1: return f1;
         case 2: return f2;
@@ -0,0 +1,169 @@
+package life.catalogue.db.tree;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LineDiffTest {
+  final LineDiff diff = new LineDiff(1000, 100, 10_000);
+
+  static LineDiff.LineSource src(String... lines) {
+    return () -> new BufferedReader(new StringReader(lines.length == 0 ? "" : String.join("\n", lines) + "\n"));
+  }
+
+  private String unified(LineDiff.LineSource s1, LineDiff.LineSource s2, int context, boolean sorted) throws Exception {
+    return unified(s1, s2, context, sorted, false);
+  }
+
+  private String unified(LineDiff.LineSource s1, LineDiff.LineSource s2, int context, boolean sorted, boolean ignoreBlankLines) throws Exception {
+    StringWriter out = new StringWriter();
+    diff.unified(s1, s2, "a", "b", context, sorted, ignoreBlankLines, out);
+    return out.toString();
+  }
+
+  @Test
+  public void identical() throws Exception {
+    assertEquals("", unified(src("A", "B", "C"), src("A", "B", "C"), 2, false));
+    assertEquals("", unified(src(), src(), 2, false));
+  }
+
+  @Test
+  public void unified() throws Exception {
+    LineDiff.LineSource s1 = src("1", "2", "3", "4", "5", "6", "7", "8", "9", "10");
+    LineDiff.LineSource s2 = src("1", "2", "three", "4", "5", "6", "7", "8", "10", "11");
+
+    assertEquals("--- a\n" +
+        "+++ b\n" +
+        "@@ -2,3 +2,3 @@\n" +
+        " 2\n" +
+        "-3\n" +
+        "+three\n" +
+        " 4\n" +
+        "@@ -8,3 +8,3 @@\n" +
+        " 8\n" +
+        "-9\n" +
+        " 10\n" +
+        "+11\n",
+      unified(s1, s2, 1, false));
+
+    // merged into a single hunk with larger context
+    assertEquals("--- a\n" +
+        "+++ b\n" +
+        "@@ -1,10 +1,10 @@\n" +
+        " 1\n" +
+        " 2\n" +
+        "-3\n" +
+        "+three\n" +
+        " 4\n" +
+        " 5\n" +
+        " 6\n" +
+        " 7\n" +
+        " 8\n" +
+        "-9\n" +
+        " 10\n" +
+        "+11\n",
+      unified(s1, s2, 3, false));
+  }
+
+  @Test
+  public void emptySource() throws Exception {
+    assertEquals("--- a\n" +
+        "+++ b\n" +
+        "@@ -0,0 +1,2 @@\n" +
+        "+A\n" +
+        "+B\n",
+      unified(src(), src("A", "B"), 2, false));
+  }
+
+  @Test
+  public void sorted() throws Exception {
+    LineDiff.LineSource s1 = src("Abies", "Abies alba", "Picea", "Pinus");
+    LineDiff.LineSource s2 = src("Abies", "Abies nigra", "Picea", "Pinus", "Pinus alba");
+    String expected = "--- a\n" +
+        "+++ b\n" +
+        "@@ -2 +2 @@\n" +
+        "-Abies alba\n" +
+        "+Abies nigra\n" +
+        "@@ -4,0 +5 @@\n" +
+        "+Pinus alba\n";
+    assertEquals(expected, unified(s1, s2, 0, true));
+    assertEquals(expected, unified(s1, s2, 0, false));
+  }
+
+  @Test
+  public void unsortedFallback() throws Exception {
+    LineDiff.LineSource s1 = src("Pinus", "Abies", "Picea");
+    LineDiff.LineSource s2 = src("Pinus", "Picea");
+    assertEquals(unified(s1, s2, 0, false), unified(s1, s2, 0, true));
+  }
+
+  /**
+   * Same as diff -B
+   */
+  @Test
+  public void ignoreBlankLines() throws Exception {
+    LineDiff.LineSource s1 = src("1", "2", "3", "4", "5", "6", "7", "8");
+    LineDiff.LineSource s2 = src("1", "", "2", "3", "4", "5", "6", "  ", "7", "eight");
+
+    assertEquals("--- a\n" +
+        "+++ b\n" +
+        "@@ -1,2 +1,3 @@\n" +
+        " 1\n" +
+        "+\n" +
+        " 2\n" +
+        "@@ -6,3 +7,4 @@\n" +
+        " 6\n" +
+        "+  \n" +
+        " 7\n" +
+        "-8\n" +
+        "+eight\n",
+      unified(s1, s2, 1, false, false));
+
+    // blank only hunks are skipped, but shown when they are part of a hunk with other changes
+    String expected = "--- a\n" +
+        "+++ b\n" +
+        "@@ -6,3 +7,4 @@\n" +
+        " 6\n" +
+        "+  \n" +
+        " 7\n" +
+        "-8\n" +
+        "+eight\n";
+    assertEquals(expected, unified(s1, s2, 1, false, true));
+
+    // only blank changes
+    assertEquals("", unified(src("A", "B"), src("A", "", "B", ""), 1, false, true));
+    assertEquals("", unified(src("", "A", "B"), src("A", "B"), 1, true, true));
+  }
+
+  @Test
+  public void difference() throws Exception {
+    Set<String> deleted = new HashSet<>();
+    Set<String> inserted = new HashSet<>();
+    diff.difference(src("a", "b", "c", "e"), src("b", "d", "e", "f"), deleted, inserted);
+    assertEquals(Set.of("a", "c"), deleted);
+    assertEquals(Set.of("d", "f"), inserted);
+
+    // not sorted
+    deleted.clear();
+    inserted.clear();
+    diff.difference(src("e", "c", "b", "a"), src("b", "d", "e", "f"), deleted, inserted);
+    assertEquals(Set.of("a", "c"), deleted);
+    assertEquals(Set.of("d", "f"), inserted);
+  }
+
+  @Test(expected = LineDiff.DiffBudgetException.class)
+  public void maxLines() throws Exception {
+    new LineDiff(2, 100, 10_000).unified(src("a", "b", "c"), src("a"), "a", "b", 0, false, false, new StringWriter());
+  }
+
+  @Test(expected = LineDiff.DiffBudgetException.class)
+  public void maxEdits() throws Exception {
+    new LineDiff(100, 1, 10_000).unified(src("a", "b", "c", "d"), src("e", "b", "f", "d"), "a", "b", 0, false, false, new StringWriter());
+  }
+}
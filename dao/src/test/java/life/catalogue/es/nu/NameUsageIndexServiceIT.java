@@ -14,6 +14,7 @@ import life.catalogue.api.vocab.Datasets;
 import life.catalogue.dao.DecisionDao;
 import life.catalogue.dao.NameDao;
 import life.catalogue.dao.TaxonDao;
+import life.catalogue.db.mapper.TaxonMapper;
 import life.catalogue.es.*;
 import life.catalogue.es.query.TermQuery;
 import life.catalogue.es.query.TermsQuery;
@@ -26,6 +27,7 @@ import java.io.InputStream;
 import java.util.Comparator;
 import java.util.List;
 
+import org.apache.ibatis.session.SqlSession;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -66,6 +68,36 @@ public class NameUsageIndexServiceIT extends EsReadWriteTestBase {
     assertEquals(1, stats.names);
   }
 
+  @Test
+  public void indexDatasetIncrementally() throws IOException {
+    List<Taxon> pgTaxa = createPgTaxa(4);
+    List<String> ids = pgTaxa.stream().map(Taxon::getId).collect(toList());
+    NameUsageIndexService svc = createIndexService();
+    NameUsageIndexService.Stats full = svc.indexDataset(EsSetupRule.DATASET_KEY);
+
+    EsConfig cfg = esSetupRule.getEsConfig();
+    cfg.incrementalSync = true;
+    try {
+      // nothing changed
+      NameUsageIndexService.Stats stats = svc.indexDataset(EsSetupRule.DATASET_KEY);
+      assertEquals(full.usages, stats.usages);
+      assertEquals(full.names, stats.names);
+      assertEquals(4, query(new TermsQuery("usageId", ids)).getResult().size());
+
+      // remove a taxon in postgres
+      try (SqlSession session = getSqlSessionFactory().openSession(true)) {
+        session.getMapper(TaxonMapper.class).delete(DSID.of(EsSetupRule.DATASET_KEY, ids.get(0)));
+      }
+      stats = svc.indexDataset(EsSetupRule.DATASET_KEY);
+      assertEquals(full.usages - 1, stats.usages);
+      assertEquals(3, query(new TermsQuery("usageId", ids)).getResult().size());
+      assertEquals(0, query(new TermQuery("usageId", ids.get(0))).getResult().size());
+
+    } finally {
+      cfg.incrementalSync = false;
+    }
+  }
+
   @Test
   public void createEditorialDecision() {
     // Insert 3 taxa into postgres
@@ -1,8 +1,16 @@
 package life.catalogue.es.nu;
 
+import life.catalogue.api.TestEntityGenerator;
+import life.catalogue.api.search.NameUsageWrapper;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Ignore;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Focuses on the normalization methods within NameUsageWrapperConverter
@@ -67,4 +75,63 @@ public class NameUsageWrapperConverterTest {
     assertEquals("silvestris", s);
   }
 
+  @Test
+  public void payload() throws IOException {
+    for (NameUsageWrapper nuw : wrappers()) {
+      String payload = NameUsageWrapperConverter.deflate(nuw);
+      assertTrue(payload.startsWith(NameUsageWrapperConverter.PAYLOAD_VERSION));
+      assertEquals(nuw, NameUsageWrapperConverter.inflate(payload));
+    }
+  }
+
+  @Test
+  public void legacyPayload() throws IOException {
+    for (NameUsageWrapper nuw : wrappers()) {
+      String payload = NameUsageWrapperConverter.deflateJson(nuw);
+      assertEquals(nuw, NameUsageWrapperConverter.inflate(payload));
+      assertEquals(NameUsageWrapperConverter.inflateToJson(payload),
+          NameUsageWrapperConverter.inflateToJson(NameUsageWrapperConverter.deflate(nuw)));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void unsupportedPayload() throws IOException {
+    NameUsageWrapperConverter.inflate("99:" + NameUsageWrapperConverter.deflate(TestEntityGenerator.newNameUsageTaxonWrapper()).substring(2));
+  }
+
+  /**
+   * Compares encoding & decoding time and payload size of the kryo and the legacy JSON payloads.
+   */
+  @Test
+  @Ignore("benchmark only")
+  public void payloadBenchmark() throws IOException {
+    final int rounds = 100000;
+    List<NameUsageWrapper> nuws = wrappers();
+    for (boolean kryo : new boolean[]{false, true, false, true}) {
+      long size = 0;
+      long encode = 0;
+      long decode = 0;
+      for (int i = 0; i < rounds; i++) {
+        NameUsageWrapper nuw = nuws.get(i % nuws.size());
+        long start = System.nanoTime();
+        String payload = kryo ? NameUsageWrapperConverter.deflate(nuw) : NameUsageWrapperConverter.deflateJson(nuw);
+        long mid = System.nanoTime();
+        NameUsageWrapperConverter.inflate(payload);
+        decode += System.nanoTime() - mid;
+        encode += mid - start;
+        size += payload.length();
+      }
+      System.out.printf("%s: encode %d ns, decode %d ns, %d bytes per payload%n", kryo ? "kryo" : "json",
+          encode / rounds, decode / rounds, size / rounds);
+    }
+  }
+
+  private static List<NameUsageWrapper> wrappers() {
+    return List.of(
+        TestEntityGenerator.newNameUsageTaxonWrapper(),
+        TestEntityGenerator.newNameUsageSynonymWrapper(),
+        TestEntityGenerator.newNameUsageBareNameWrapper()
+    );
+  }
+
 }
@@ -0,0 +1,49 @@
+package life.catalogue.es.nu;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SizeAwareExecutorTest {
+
+  @Test
+  public void largestFirst() throws Exception {
+    SizeAwareExecutor exec = new SizeAwareExecutor(2, "test");
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+    // the first jobs must not start straight away in submission order
+    exec.submit(10, false, () -> order.add("small"));
+    exec.submit(20, false, () -> order.add("smaller"));
+    exec.submit(1000, false, () -> order.add("large"));
+    exec.submit(500, false, () -> order.add("medium"));
+    exec.awaitAndShutdown();
+
+    // both threads start with the two heaviest jobs
+    assertEquals(Set.of("large", "medium"), new HashSet<>(order.subList(0, 2)));
+    assertEquals(4, order.size());
+  }
+
+  @Test
+  public void partsFirst() throws Exception {
+    SizeAwareExecutor exec = new SizeAwareExecutor(1, "test");
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+    exec.submit(10, false, () -> order.add("small"));
+    exec.submit(1000, false, () -> {
+      order.add("large");
+      exec.submit(1, true, () -> order.add("part1"));
+      exec.submit(2, true, () -> order.add("part2"));
+    });
+    exec.submit(100, false, () -> order.add("medium"));
+    exec.submit(100, false, () -> {
+      throw new IllegalStateException("failing jobs are logged only");
+    });
+    exec.awaitAndShutdown();
+
+    assertEquals(List.of("large", "part2", "part1", "medium", "small"), order);
+  }
+}
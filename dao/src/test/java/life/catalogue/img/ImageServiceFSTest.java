@@ -4,9 +4,16 @@ import life.catalogue.api.exception.NotFoundException;
 import life.catalogue.common.io.Resources;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.imageio.ImageIO;
 
@@ -15,7 +22,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
 
 public class ImageServiceFSTest {
 
@@ -55,6 +62,93 @@ public class ImageServiceFSTest {
     assertNotNull(srv.archiveDatasetLogo(sourceDatasetKey, datasetKey, ImgConfig.Scale.ORIGINAL));
   }
 
+  @Test
+  public void encoded() throws Exception {
+    final int datasetKey = 1010;
+    srv.putDatasetLogo(datasetKey, logo("fishbase.png"));
+    // scaled versions are available straight away
+    EncodedImage small = srv.datasetLogoEncoded(datasetKey, ImgConfig.Scale.SMALL);
+    assertTrue(small.size() > 0);
+    BufferedImage img = ImageIO.read(new ByteArrayInputStream(small.getBytes()));
+    assertEquals(cfg.small.getHeight(), img.getHeight());
+
+    // and get written to disk in the background
+    for (int i = 0; i < 100 && !Files.exists(cfg.datasetLogo(datasetKey, ImgConfig.Scale.SMALL)); i++) {
+      Thread.sleep(100);
+    }
+    assertTrue(Files.exists(cfg.datasetLogo(datasetKey, ImgConfig.Scale.LARGE)));
+    assertTrue(Files.exists(cfg.datasetLogo(datasetKey, ImgConfig.Scale.MEDIUM)));
+    assertTrue(Files.exists(cfg.datasetLogo(datasetKey, ImgConfig.Scale.SMALL)));
+    small = srv.datasetLogoEncoded(datasetKey, ImgConfig.Scale.SMALL);
+    assertSame(small, srv.datasetLogoEncoded(datasetKey, ImgConfig.Scale.SMALL));
+
+    // a new logo replaces the cached one
+    EncodedImage orig = srv.datasetLogoEncoded(datasetKey, ImgConfig.Scale.ORIGINAL);
+    srv.putDatasetLogo(datasetKey, ImageIO.read(new ByteArrayInputStream(small.getBytes())));
+    EncodedImage orig2 = srv.datasetLogoEncoded(datasetKey, ImgConfig.Scale.ORIGINAL);
+    assertNotEquals(orig.getEtag(), orig2.getEtag());
+
+    srv.putDatasetLogo(datasetKey, null);
+    assertFalse(srv.datasetLogoExists(datasetKey));
+    try {
+      srv.datasetLogoEncoded(datasetKey, ImgConfig.Scale.SMALL);
+      fail("Logo should be deleted");
+    } catch (NotFoundException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void changedOnDisk() throws Exception {
+    final int datasetKey = 1010;
+    srv.putDatasetLogo(datasetKey, logo("fishbase.png"));
+    EncodedImage orig = srv.datasetLogoEncoded(datasetKey, ImgConfig.Scale.ORIGINAL);
+
+    // another instance sharing the repository replaces the logo
+    Path p = cfg.datasetLogo(datasetKey, ImgConfig.Scale.ORIGINAL);
+    Path tmp = p.resolveSibling("other.png");
+    ImageIO.write(logo("eti.png"), "png", tmp.toFile());
+    Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING);
+
+    EncodedImage orig2 = srv.datasetLogoEncoded(datasetKey, ImgConfig.Scale.ORIGINAL);
+    assertNotEquals(orig.getEtag(), orig2.getEtag());
+    assertArrayEquals(Files.readAllBytes(p), orig2.getBytes());
+  }
+
+  /**
+   * Reads logos while they are being replaced and makes sure the cache ends up with the last one written.
+   */
+  @Test
+  public void readWhileUpdating() throws Exception {
+    final int datasetKey = 1010;
+    final List<BufferedImage> logos = List.of(logo("eti.png"), logo("fishbase.png"), logo("flow.png"), logo("lepindex.png"));
+    srv.putDatasetLogo(datasetKey, logos.get(0));
+
+    AtomicBoolean running = new AtomicBoolean(true);
+    AtomicReference<Throwable> error = new AtomicReference<>();
+    Thread reader = new Thread(() -> {
+      try {
+        while (running.get()) {
+          for (ImgConfig.Scale scale : ImgConfig.Scale.values()) {
+            assertTrue(srv.datasetLogoEncoded(datasetKey, scale).size() > 0);
+          }
+        }
+      } catch (Throwable e) {
+        error.set(e);
+      }
+    });
+    reader.start();
+    for (int i = 0; i < 40; i++) {
+      srv.putDatasetLogo(datasetKey, logos.get(i % logos.size()));
+    }
+    running.set(false);
+    reader.join();
+    assertNull(error.get());
+
+    Path p = cfg.datasetLogo(datasetKey, ImgConfig.Scale.ORIGINAL);
+    assertArrayEquals(Files.readAllBytes(p), srv.datasetLogoEncoded(datasetKey, ImgConfig.Scale.ORIGINAL).getBytes());
+  }
+
   @Test(expected = NotFoundException.class)
   public void notFound() throws IOException {
     final int datasetKey = 3;
@@ -8,6 +8,9 @@ import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 public class DatasetMatcherTest {
 
   @ClassRule
@@ -31,4 +34,20 @@ public class DatasetMatcherTest {
     m = new DatasetMatcher(PgSetupRule.getSqlSessionFactory(), nidx);
     m.match(11, true);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void rematchAppleParallel() throws Exception {
+    NameIndex nidx = NameIndexFactory.memory(PgSetupRule.getSqlSessionFactory(), AuthorshipNormalizer.createWithoutAuthormap()).started();
+    DatasetMatcher m = new DatasetMatcher(PgSetupRule.getSqlSessionFactory(), nidx, 4);
+    m.match(11, true);
+    final int total = m.getTotal();
+    assertTrue(total > 0);
+    assertEquals(1, m.getDatasets());
+
+    // same results as single threaded, nothing to update anymore
+    m = new DatasetMatcher(PgSetupRule.getSqlSessionFactory(), nidx, 1);
+    m.match(11, true);
+    assertEquals(total, m.getTotal());
+    assertEquals(0, m.getUpdated());
+  }
+}
@@ -0,0 +1,91 @@
+package life.catalogue.matching;
+
+import life.catalogue.api.model.IndexName;
+
+import org.gbif.nameparser.api.Authorship;
+import org.gbif.nameparser.api.Rank;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapdb.DBMaker;
+
+import static org.junit.Assert.*;
+
+public class NameIndexColumnStoreTest {
+  NameIndexColumnStore db;
+
+  @Before
+  public void init() throws Exception {
+    db = new NameIndexColumnStore(new NameIndexMapDBStore(DBMaker.memoryDB()));
+    db.start();
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    db.stop();
+  }
+
+  @Test
+  public void candidates() throws Exception {
+    assertEquals(0, db.candidates("abies alba").size());
+
+    db.add("abies alba", name(1, "Abies álba", null, Rank.SPECIES));
+    IndexName mill = name(2, "Abies alba", "Mill.", Rank.SPECIES);
+    mill.setCombinationAuthorship(Authorship.yearAuthors(null, "Mill."));
+    mill.setCanonicalId(1);
+    db.add("abies alba", mill);
+    // force the columns to grow
+    db.add("abies alba", name(5000, "Abies alba", "L.", Rank.VARIETY));
+    db.add("abies", name(3, "Abies", null, Rank.GENUS));
+    assertEquals(4, db.count());
+
+    IndexCandidates c = db.candidates("abies alba");
+    assertEquals(3, c.size());
+    assertEquals(1, c.key(0));
+    assertEquals(Rank.SPECIES, c.rank(0));
+    assertFalse(c.hasAuthorship(0));
+    assertEquals("Abies alba", c.label(0));
+    assertEquals("Abies alba", c.scientificName(0));
+    assertNull(c.authorship(0));
+    assertNull(c.combinationAuthorship(0));
+    assertNull(c.basionymAuthorship(0));
+    assertNull(c.canonicalId(0));
+    assertTrue(c.isCanonical(0));
+
+    assertEquals(2, c.key(1));
+    assertTrue(c.hasAuthorship(1));
+    assertEquals("Abies alba Mill", c.label(1));
+    assertEquals("Mill", c.authorship(1));
+    assertEquals(Authorship.yearAuthors(null, "Mill."), c.combinationAuthorship(1));
+    assertNull(c.basionymAuthorship(1));
+    assertEquals((Integer) 1, c.canonicalId(1));
+    assertFalse(c.isCanonical(1));
+    assertEquals("Abies alba", c.name(1).getScientificName());
+
+    assertEquals(5000, c.key(2));
+    assertEquals(Rank.VARIETY, c.rank(2));
+    assertEquals(3, c.names().size());
+
+    // columns are rebuilt on restart
+    db.stop();
+    db.start();
+    c = db.candidates("abies alba");
+    assertEquals(3, c.size());
+    assertEquals("Abies alba L", c.label(2));
+    assertEquals(Authorship.yearAuthors(null, "Mill."), c.combinationAuthorship(1));
+    assertEquals((Integer) 1, c.canonicalId(1));
+
+    db.clear();
+    assertEquals(0, db.candidates("abies alba").size());
+  }
+
+  static IndexName name(int key, String name, String authorship, Rank rank) {
+    IndexName n = new IndexName();
+    n.setKey(key);
+    n.setScientificName(name);
+    n.setAuthorship(authorship);
+    n.setRank(rank);
+    return n;
+  }
+}
@@ -34,6 +34,8 @@ import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
 
+import com.codahale.metrics.MetricRegistry;
+
 import static org.junit.Assert.*;
 
 public class NameIndexImplTest {
@@ -252,6 +254,15 @@ public class NameIndexImplTest {
 
     assertEquals(repeat, counter.get());
     assertEquals(2, ni.size());
+
+    // contention is counted without registered metrics and kept when registering them later
+    NameIndexImpl impl = (NameIndexImpl) ni;
+    final long waits = impl.getInsertLockWaits();
+    final long races = impl.getInsertRaces();
+    MetricRegistry registry = new MetricRegistry();
+    impl.register(registry);
+    assertEquals(waits, registry.counter("life.catalogue.matching.insert.lockwait").getCount());
+    assertEquals(races, registry.counter("life.catalogue.matching.insert.race").getCount());
   }
 
   @Test
@@ -0,0 +1,68 @@
+package life.catalogue.matching;
+
+import life.catalogue.api.model.IndexName;
+
+import org.gbif.nameparser.api.Rank;
+
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.time.StopWatch;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.mapdb.DBMaker;
+
+/**
+ * Manual benchmark comparing the candidate scanning costs of the mapdb and the columnar names index stores.
+ * Both stores are filled with the same names, grouped into keys of varying sizes, and then every key is scanned
+ * reading all values the matcher needs for scoring.
+ */
+@Ignore("manual benchmark")
+public class NameIndexStoreBenchmark {
+  static final int KEYS = 20000;
+  static final int MAX_GROUP = 40;
+  static final int REPEAT = 5;
+
+  @Test
+  public void compare() throws Exception {
+    run("mapdb", () -> new NameIndexMapDBStore(DBMaker.memoryDB()));
+    run("columns", () -> new NameIndexColumnStore(new NameIndexMapDBStore(DBMaker.memoryDB())));
+  }
+
+  private void run(String label, Supplier<NameIndexStore> supplier) throws Exception {
+    NameIndexStore store = supplier.get();
+    store.start();
+    try {
+      int key = 1;
+      for (int k = 0; k < KEYS; k++) {
+        final String nkey = "Abies alba" + k;
+        for (int x = 0; x < 1 + k % MAX_GROUP; x++) {
+          IndexName n = new IndexName();
+          n.setKey(key++);
+          n.setScientificName("Abies älba" + k);
+          n.setAuthorship(x == 0 ? null : "Mill., " + (1700 + x));
+          n.setRank(Rank.SPECIES);
+          store.add(nkey, n);
+        }
+      }
+
+      StopWatch watch = StopWatch.createStarted();
+      long chars = 0;
+      for (int r = 0; r < REPEAT; r++) {
+        for (int k = 0; k < KEYS; k++) {
+          IndexCandidates c = store.candidates("Abies alba" + k);
+          for (int idx = 0; idx < c.size(); idx++) {
+            chars += c.rank(idx).ordinal();
+            chars += c.hasAuthorship(idx) ? 1 : 0;
+            chars += c.label(idx).length();
+            chars += c.scientificName(idx).length();
+          }
+        }
+      }
+      watch.stop();
+      System.out.println(String.format("%s store with %s names scanned %s times in %s (%s)", label, store.count(), REPEAT, watch, chars));
+
+    } finally {
+      store.stop();
+    }
+  }
+}
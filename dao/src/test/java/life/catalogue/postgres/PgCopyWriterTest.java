@@ -0,0 +1,120 @@
+package life.catalogue.postgres;
+
+import life.catalogue.api.vocab.Issue;
+import life.catalogue.db.PgSetupRule;
+
+import org.gbif.dwc.terms.DwcTerm;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.postgresql.jdbc.PgConnection;
+
+import static org.junit.Assert.*;
+
+public class PgCopyWriterTest {
+
+  PgConnection con;
+
+  @ClassRule
+  public static PgSetupRule pgSetupRule = new PgSetupRule();
+
+  @Before
+  public void init() throws SQLException {
+    con = pgSetupRule.connect();
+    PgSetupRule.wipeDB(con);
+    con.setAutoCommit(true);
+  }
+
+  @After
+  public void teardown() throws SQLException {
+    con.close();
+  }
+
+  static String encode(Object val) {
+    StringBuilder sb = new StringBuilder();
+    PgCopyWriter.appendValue(sb, val);
+    return sb.toString();
+  }
+
+  @Test
+  public void values() throws Exception {
+    assertEquals("\\N", encode(null));
+    assertEquals("Abies alba", encode("Abies alba"));
+    assertEquals("a\\tb\\nc\\rd\\\\e", encode("a\tb\nc\rd\\e"));
+    assertEquals("13", encode(13));
+    assertEquals("t", encode(true));
+    assertEquals("REFERENCE_ID_INVALID", encode(Issue.REFERENCE_ID_INVALID));
+    assertEquals("dwc:Taxon", encode(DwcTerm.Taxon));
+    assertEquals("{}", encode(List.of()));
+    assertEquals("{\"L.\",NULL,\"say \\\\\"hi\\\\\"\"}", encode(Arrays.asList("L.", null, "say \"hi\"")));
+  }
+
+  @Test
+  public void copy() throws Exception {
+    try (Statement st = con.createStatement()) {
+      st.execute("CREATE TABLE person (key serial primary key, name text, age int, alive boolean, aliases text[])");
+    }
+    PgCopyWriter.Columns<String[]> cols = new PgCopyWriter.Columns<String[]>()
+      .add("name", p -> p[0])
+      .add("age", p -> p[1] == null ? null : Integer.valueOf(p[1]))
+      .add("alive", p -> p[1] == null)
+      .add("aliases", p -> Arrays.asList(p).subList(2, p.length));
+
+    try (PgCopyWriter<String[]> writer = new PgCopyWriter<>(con, "person", cols)) {
+      writer.write(new String[]{"Carl Linnaeus", "70", "Carolus Linnæus", "Carl von Linné"});
+      writer.write(new String[]{"Tab\tand\nnew line \\ backslash", null, "a,b", "{c}", "\"d\""});
+      assertEquals(2, writer.getCounter());
+    }
+
+    try (Statement st = con.createStatement();
+         ResultSet rs = st.executeQuery("SELECT name, age, alive, aliases FROM person ORDER BY key")
+    ) {
+      assertTrue(rs.next());
+      assertEquals("Carl Linnaeus", rs.getString(1));
+      assertEquals(70, rs.getInt(2));
+      assertFalse(rs.getBoolean(3));
+      assertArrayEquals(new String[]{"Carolus Linnæus", "Carl von Linné"}, (String[]) rs.getArray(4).getArray());
+
+      assertTrue(rs.next());
+      assertEquals("Tab\tand\nnew line \\ backslash", rs.getString(1));
+      assertNull(rs.getObject(2));
+      assertTrue(rs.getBoolean(3));
+      assertArrayEquals(new String[]{"a,b", "{c}", "\"d\""}, (String[]) rs.getArray(4).getArray());
+
+      assertFalse(rs.next());
+    }
+  }
+
+  @Test
+  public void cancelOnFailure() throws Exception {
+    try (Statement st = con.createStatement()) {
+      st.execute("CREATE TABLE person (key serial primary key, name text, age int)");
+    }
+    PgCopyWriter.Columns<String[]> cols = new PgCopyWriter.Columns<String[]>()
+      .add("name", p -> p[0])
+      .add("age", p -> Integer.valueOf(p[1]));
+
+    try (PgCopyWriter<String[]> writer = new PgCopyWriter<>(con, "person", cols)) {
+      writer.write(new String[]{"Carl Linnaeus", "70"});
+      writer.write(new String[]{"Pehr Kalm", "unknown"});
+      fail("Expected NumberFormatException");
+    } catch (NumberFormatException e) {
+      // expected
+    }
+
+    try (Statement st = con.createStatement();
+         ResultSet rs = st.executeQuery("SELECT count(*) FROM person")
+    ) {
+      assertTrue(rs.next());
+      assertEquals(0, rs.getInt(1));
+    }
+  }
+}
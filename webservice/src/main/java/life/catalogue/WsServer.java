@@ -7,6 +7,7 @@ import life.catalogue.api.util.ObjectUtils;
 import life.catalogue.api.vocab.ColDwcTerm;
 import life.catalogue.assembly.AssemblyCoordinator;
 import life.catalogue.cache.CacheFlush;
+import life.catalogue.cache.ReleaseSearchCache;
 import life.catalogue.command.*;
 import life.catalogue.common.io.DownloadUtil;
 import life.catalogue.common.tax.AuthorshipNormalizer;
@@ -37,13 +38,14 @@ import life.catalogue.es.nu.search.NameUsageSearchServiceEs;
 import life.catalogue.es.nu.suggest.NameUsageSuggestionServiceEs;
 import life.catalogue.exporter.ExportManager;
 import life.catalogue.gbifsync.GbifSync;
-import life.catalogue.img.ImageService;
 import life.catalogue.img.ImageServiceFS;
 import life.catalogue.importer.ContinuousImporter;
 import life.catalogue.importer.ImportManager;
 import life.catalogue.legacy.IdMap;
+import life.catalogue.legacy.LegacyNameIndex;
 import life.catalogue.matching.NameIndex;
 import life.catalogue.matching.NameIndexFactory;
+import life.catalogue.matching.NameIndexImpl;
 import life.catalogue.parser.NameParser;
 import life.catalogue.release.PublicReleaseListener;
 import life.catalogue.release.ReleaseManager;
@@ -233,16 +235,27 @@ public class WsServer extends Application<WsServerConfig> {
       final RestClient esClient = new EsClientFactory(cfg.es).createClient();
       env.lifecycle().manage(new ManagedEsClient(esClient));
       env.healthChecks().register("elastic", new EsHealthCheck(esClient, cfg.es));
-      indexService = new NameUsageIndexServiceEs(esClient, cfg.es, getSqlSessionFactory());
+      NameUsageIndexServiceEs indexServiceEs = new NameUsageIndexServiceEs(esClient, cfg.es, getSqlSessionFactory(), bus);
+      indexServiceEs.register(env.metrics());
+      indexService = indexServiceEs;
       searchService = new NameUsageSearchServiceEs(cfg.es.nameUsage.name, esClient);
       suggestService = new NameUsageSuggestionServiceEs(cfg.es.nameUsage.name, esClient);
+      if (cfg.releaseSearchCacheMB > 0) {
+        ReleaseSearchCache searchCache = new ReleaseSearchCache(searchService, suggestService, cfg.releaseSearchCacheMB, env.metrics());
+        bus.register(searchCache);
+        searchService = searchCache;
+        suggestService = searchCache;
+      }
     }
 
     // images
-    final ImageService imgService = new ImageServiceFS(cfg.img);
+    final ImageServiceFS imgService = new ImageServiceFS(cfg.img);
+    env.lifecycle().manage(ManagedUtils.from(imgService));
 
     // name index
-    ni = NameIndexFactory.persistentOrMemory(cfg.namesIndexFile, getSqlSessionFactory(), AuthorshipNormalizer.INSTANCE);
+    NameIndexImpl nidx = NameIndexFactory.persistentOrMemory(cfg.namesIndexFile, cfg.namesIndexStore, getSqlSessionFactory(), AuthorshipNormalizer.INSTANCE);
+    nidx.register(env.metrics());
+    ni = nidx;
     // we do not start up the index automatically, we need to run 2 apps in parallel during deploys!
     env.lifecycle().manage(ManagedUtils.stopOnly(ni));
     env.healthChecks().register("names-index", new NamesIndexHealthCheck(ni));
@@ -255,8 +268,6 @@ public class WsServer extends Application<WsServerConfig> {
     // diff
     DatasetDiffService dDiff = new DatasetDiffService(getSqlSessionFactory(), fmdDao);
     SectorDiffService sDiff = new SectorDiffService(getSqlSessionFactory(), fmsDao);
-    env.healthChecks().register("dataset-diff", new DiffHealthCheck(dDiff));
-    env.healthChecks().register("sector-diff", new DiffHealthCheck(sDiff));
 
     // update db lookups
     try (Connection c = mybatis.getConnection()) {
@@ -315,7 +326,7 @@ public class WsServer extends Application<WsServerConfig> {
     env.lifecycle().manage(ManagedUtils.stopOnly(gbifSync));
 
     // assembly
-    AssemblyCoordinator assembly = new AssemblyCoordinator(getSqlSessionFactory(), ni, secdao, siDao, indexService, env.metrics());
+    AssemblyCoordinator assembly = new AssemblyCoordinator(getSqlSessionFactory(), ni, secdao, siDao, indexService, env.metrics(), cfg.syncThreads);
     env.lifecycle().manage(assembly);
 
     // link assembly and import manager so they are aware of each other
@@ -327,6 +338,20 @@ public class WsServer extends Application<WsServerConfig> {
     // we do not start up the map automatically, we need to run 2 apps in parallel during deploys!
     env.lifecycle().manage(ManagedUtils.stopOnly(idMap));
 
+    // batch name matching with its own bounded thread pool
+    MatchingResource matchingResource = new MatchingResource(ni, cfg.matchingThreads);
+    env.lifecycle().manage(ManagedUtils.from(matchingResource));
+
+    LegacyNameIndex legacyIndex = null;
+    if (cfg.legacyNameIndexSize > 0) {
+      legacyIndex = new LegacyNameIndex(getSqlSessionFactory(), cfg.legacyNameIndexSize);
+      bus.register(legacyIndex);
+      env.lifecycle().manage(ManagedUtils.from(legacyIndex));
+    }
+
+    DuplicateCache dupCache = new DuplicateCache(cfg.duplicateCacheMB);
+    bus.register(dupCache);
+
     // resources
     j.register(new AdminResource(getSqlSessionFactory(), assembly, new DownloadUtil(httpClient), cfg, imgService, ni, indexService, cImporter,
       importManager, gbifSync, ni, executor, idMap));
@@ -338,12 +363,12 @@ public class WsServer extends Application<WsServerConfig> {
     j.register(new DatasetResource(getSqlSessionFactory(), ddao, dsdao, imgService, assembly, releaseManager));
     j.register(new DecisionResource(decdao));
     j.register(new DocsResource(cfg, OpenApiFactory.build(cfg, env)));
-    j.register(new DuplicateResource());
+    j.register(new DuplicateResource(dupCache));
     j.register(new EstimateResource(edao));
     j.register(new ExportResource(exdao, cfg));
     j.register(new ImporterResource(importManager, diDao));
-    j.register(new LegacyWebserviceResource(cfg, idMap));
-    j.register(new MatchingResource(ni));
+    j.register(new LegacyWebserviceResource(cfg, idMap, legacyIndex, env.metrics()));
+    j.register(matchingResource);
     j.register(new NamesIndexResource(ni));
     j.register(new NameResource(ndao));
     j.register(new NameUsageResource(searchService, suggestService));
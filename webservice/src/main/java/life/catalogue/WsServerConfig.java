@@ -19,6 +19,7 @@ import life.catalogue.dw.metrics.GangliaBundleConfiguration;
 import life.catalogue.dw.metrics.GangliaConfiguration;
 import life.catalogue.es.EsConfig;
 import life.catalogue.img.ImgConfig;
+import life.catalogue.matching.NameIndexFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -105,10 +106,23 @@ public class WsServerConfig extends Configuration implements CorsBundleConfigura
   @Valid
   public JobConfig job = new JobConfig();
 
+  /**
+   * Maximum number of sector syncs and deletions to run concurrently.
+   * Sectors sharing the same source or targeting overlapping subtrees are always executed one after the other.
+   */
+  @Min(1)
+  public int syncThreads = 4;
+
   /**
    * Names index kvp file to persist map on disk. If empty will use a volatile memory index.
    */
   public File namesIndexFile;
+
+  /**
+   * Names index store implementation to use.
+   */
+  @NotNull
+  public NameIndexFactory.StoreType namesIndexStore = NameIndexFactory.StoreType.MAPDB;
   
   /**
    * Directory to store text tree, name index lists and other metrics for each dataset and sector import attempt
@@ -123,6 +137,32 @@ public class WsServerConfig extends Configuration implements CorsBundleConfigura
   @NotNull
   public File exportDir = new File("/tmp/exports");
 
+  /**
+   * Number of data files written concurrently by a single archive export.
+   */
+  @Min(1)
+  public int exportThreads = 4;
+
+  /**
+   * Number of threads compressing the data files of a single archive export while they are being written.
+   */
+  @Min(1)
+  public int exportZipThreads = 2;
+
+  /**
+   * Maximum memory in megabytes used to cache search and suggest responses of immutable releases.
+   * Zero disables the cache.
+   */
+  @Min(0)
+  public int releaseSearchCacheMB = 256;
+
+  /**
+   * Maximum memory in megabytes used to cache detected duplicate groups, so paging through them does not detect them again.
+   * Zero disables the cache.
+   */
+  @Min(0)
+  public int duplicateCacheMB = 256;
+
   @NotNull
   public String exportCss = "https://gitcdn.link/repo/CatalogueOfLife/backend/master/webservice/src/main/resources/exporter/html/catalogue.css";
 
@@ -148,6 +188,19 @@ public class WsServerConfig extends Configuration implements CorsBundleConfigura
    */
   public File legacyIdMapFile;
 
+  /**
+   * Maximum number of scientific and vernacular names of releases to keep in memory for the legacy name search.
+   * Zero disables the index and all legacy searches go to the database.
+   */
+  @Min(0)
+  public int legacyNameIndexSize = 20_000_000;
+
+  /**
+   * Number of threads parsing and matching names of batch matching requests, shared by all requests.
+   */
+  @Min(1)
+  public int matchingThreads = 4;
+
 
   @Override
   @JsonIgnore
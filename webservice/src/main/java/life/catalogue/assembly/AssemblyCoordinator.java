@@ -5,19 +5,18 @@ import com.codahale.metrics.Timer;
 import io.dropwizard.lifecycle.Managed;
 import life.catalogue.api.model.*;
 import life.catalogue.api.vocab.ImportState;
-import life.catalogue.concurrent.ExecutorUtils;
 import life.catalogue.dao.SectorDao;
 import life.catalogue.dao.SectorImportDao;
 import life.catalogue.db.mapper.NameMapper;
 import life.catalogue.db.mapper.SectorImportMapper;
 import life.catalogue.db.mapper.SectorMapper;
+import life.catalogue.db.mapper.TaxonMapper;
 import life.catalogue.es.NameUsageIndexService;
 import life.catalogue.importer.ImportManager;
 import life.catalogue.matching.NameIndex;
 import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
-import org.gbif.nameparser.utils.NamedThreadFactory;
 import org.neo4j.helpers.collection.Iterables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,19 +24,24 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * Coordinates sector syncs and deletions of projects.
+ * Sector jobs are executed concurrently as long as they neither share the same source dataset
+ * nor target overlapping subtrees of the same project. Conflicting jobs run one after the other in the order they were queued.
+ */
 public class AssemblyCoordinator implements Managed {
   static  final Comparator<Sector> SECTOR_ORDER = Comparator.comparing(Sector::getTarget, Comparator.nullsLast(SimpleName::compareTo));
   private static final Logger LOG = LoggerFactory.getLogger(AssemblyCoordinator.class);
   private static final String THREAD_NAME = "assembly-sync";
   
-  private ExecutorService exec;
+  private SectorScheduler scheduler;
+  private final int threads;
+  private final MetricRegistry registry;
   private ImportManager importManager;
   private final NameIndex nameIndex;
   private final SqlSessionFactory factory;
@@ -46,25 +50,29 @@ public class AssemblyCoordinator implements Managed {
   private final SectorDao sdao;
   private final Map<DSID<Integer>, SectorFuture> syncs = Collections.synchronizedMap(new LinkedHashMap<>());
   private final Timer timer;
-  private final Map<Integer, AtomicInteger> counter = new HashMap<>(); // by dataset (project) key
-  private final Map<Integer, AtomicInteger> failed = new HashMap<>();  // by dataset (project) key
+  private final Map<Integer, AtomicInteger> counter = new ConcurrentHashMap<>(); // by dataset (project) key
+  private final Map<Integer, AtomicInteger> failed = new ConcurrentHashMap<>();  // by dataset (project) key
 
   static class SectorFuture {
     public final DSID<Integer> sectorKey;
-    public final Future<?> future;
     public final SectorImport state;
     public final boolean delete;
     
-    private SectorFuture(SectorRunnable job, Future<?> future) {
+    private SectorFuture(SectorRunnable job) {
       this.sectorKey = DSID.copy(job.sectorKey);
       this.state = job.getState();
-      this.future = future;
       this.delete = job instanceof SectorDelete || job instanceof SectorDeleteFull;
     }
   }
   
-  public AssemblyCoordinator(SqlSessionFactory factory, NameIndex nameIndex, SectorDao sdao, SectorImportDao sid, NameUsageIndexService indexService, MetricRegistry registry) {
+  /**
+   * @param threads maximum number of sector jobs to run concurrently
+   */
+  public AssemblyCoordinator(SqlSessionFactory factory, NameIndex nameIndex, SectorDao sdao, SectorImportDao sid, NameUsageIndexService indexService,
+                             MetricRegistry registry, int threads) {
     this.factory = factory;
+    this.threads = threads;
+    this.registry = registry;
     this.sid = sid;
     this.sdao = sdao;
     this.indexService = indexService;
@@ -74,8 +82,8 @@ public class AssemblyCoordinator implements Managed {
   
   @Override
   public void start() throws Exception {
-    LOG.info("Starting assembly coordinator");
-    exec = Executors.newSingleThreadExecutor(new NamedThreadFactory(THREAD_NAME, Thread.MAX_PRIORITY, true));
+    LOG.info("Starting assembly coordinator with {} threads", threads);
+    scheduler = new SectorScheduler(threads, THREAD_NAME, registry);
 
     // cancel all existing syncs/deletions
     try (SqlSession session = factory.openSession(true)) {
@@ -99,12 +107,8 @@ public class AssemblyCoordinator implements Managed {
 
   @Override
   public void stop() throws Exception {
-    // orderly shutdown running imports
-    for (SectorFuture df : syncs.values()) {
-      df.future.cancel(true);
-    }
-    // fully shutdown threadpool within given time
-    ExecutorUtils.shutdown(exec, ExecutorUtils.MILLIS_TO_DIE, TimeUnit.MILLISECONDS);
+    // orderly shutdown running imports and the threadpool within given time
+    scheduler.shutdown();
   }
   
   public void setImportManager(ImportManager importManager) {
@@ -218,11 +222,28 @@ public class AssemblyCoordinator implements Managed {
     
     } else {
       assertStableData(job);
-      syncs.put(job.sectorKey, new SectorFuture(job, exec.submit(job)));
+      syncs.put(job.sectorKey, new SectorFuture(job));
+      scheduler.submit(job.sectorKey, job, scope(job.sector));
       LOG.info("Queued {} for {} targeting {}", job.getClass().getSimpleName(), job.sector, job.sector.getTarget());
     }
   }
   
+  /**
+   * @return the scope of a sector with the ancestors of its target in the project
+   */
+  private SectorScheduler.Scope scope(Sector s) {
+    List<String> ancestors = Collections.emptyList();
+    String targetID = s.getTarget() == null ? null : s.getTarget().getId();
+    if (targetID != null) {
+      try (SqlSession session = factory.openSession(true)) {
+        ancestors = session.getMapper(TaxonMapper.class).classificationSimple(s.getTargetAsDSID()).stream()
+          .map(SimpleName::getId)
+          .collect(Collectors.toList());
+      }
+    }
+    return new SectorScheduler.Scope(s.getDatasetKey(), s.getSubjectDatasetKey(), targetID, ancestors);
+  }
+
   /**
    * We use old school callbacks here as you cannot easily cancel CompletableFutures.
    */
@@ -231,8 +252,7 @@ public class AssemblyCoordinator implements Managed {
     Duration durQueued = Duration.between(sync.getCreated(), sync.getStarted());
     Duration durRun = Duration.between(sync.getStarted(), LocalDateTime.now());
     LOG.info("Sector Sync {} finished. {} min queued, {} min to execute", sync.getSectorKey(), durQueued.toMinutes(), durRun.toMinutes());
-    counter.putIfAbsent(sync.sectorKey.getDatasetKey(), new AtomicInteger(0));
-    counter.get(sync.sectorKey.getDatasetKey()).incrementAndGet();
+    counter.computeIfAbsent(sync.sectorKey.getDatasetKey(), k -> new AtomicInteger(0)).incrementAndGet();
     timer.update(durRun.getSeconds(), TimeUnit.SECONDS);
   }
   
@@ -242,14 +262,14 @@ public class AssemblyCoordinator implements Managed {
   private void errorCallBack(SectorRunnable sync, Exception err) {
     syncs.remove(sync.getSectorKey());
     LOG.error("Sector Sync {} failed: {}", sync.getSectorKey(), err.getCause().getMessage(), err.getCause());
-    failed.putIfAbsent(sync.sectorKey.getDatasetKey(), new AtomicInteger(0));
-    failed.get(sync.sectorKey.getDatasetKey()).incrementAndGet();
+    failed.computeIfAbsent(sync.sectorKey.getDatasetKey(), k -> new AtomicInteger(0)).incrementAndGet();
   }
   
   public synchronized void cancel(DSID<Integer> sectorKey, User user) {
     if (syncs.containsKey(sectorKey)) {
       LOG.info("Sync of sector {} cancelled by user {}", sectorKey, user);
-      syncs.remove(sectorKey).future.cancel(true);
+      syncs.remove(sectorKey);
+      scheduler.cancel(sectorKey);
     }
   }
   
@@ -23,6 +23,7 @@ import org.gbif.nameparser.api.Rank;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.function.BiConsumer;
@@ -131,6 +132,11 @@ abstract class SectorRunnable implements Runnable {
 
     } finally {
       state.setFinished(LocalDateTime.now());
+      // time spent in the queue and running, in milliseconds
+      if (state.getStarted() != null) {
+        state.getTimings().put("wait", (int) Duration.between(created, state.getStarted()).toMillis());
+        state.getTimings().put("run", (int) Duration.between(state.getStarted(), state.getFinished()).toMillis());
+      }
       // persist sector import
       try (SqlSession session = factory.openSession(true)) {
         session.getMapper(SectorImportMapper.class).update(state);
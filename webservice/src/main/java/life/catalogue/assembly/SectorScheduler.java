@@ -0,0 +1,204 @@
+package life.catalogue.assembly;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
+import life.catalogue.api.model.DSID;
+import life.catalogue.concurrent.ExecutorUtils;
+import org.gbif.nameparser.utils.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes sector jobs concurrently with a fixed number of threads as long as they do not overlap.
+ * Overlapping jobs are executed strictly in the order they were queued,
+ * see {@link Scope#overlaps(Scope)} for the definition of an overlap.
+ *
+ * Jobs are only handed over to the executor once they can run, so waiting jobs never block a thread.
+ */
+class SectorScheduler {
+  private static final Logger LOG = LoggerFactory.getLogger(SectorScheduler.class);
+  private static final int QUEUED = 0;
+  private static final int RUNNING = 1;
+  private static final int CANCELED = 2;
+
+  private final ExecutorService exec;
+  private final int threads;
+  private final List<Job> waiting = new LinkedList<>();
+  private final List<Job> running = new ArrayList<>();
+  private final Timer waitTimer;
+  private final Timer runTimer;
+
+  /**
+   * The part of a project a sector job modifies.
+   */
+  static class Scope {
+    final int projectKey;
+    final Integer sourceKey;
+    final String targetID;
+    // the target id and all its ancestor ids
+    final Set<String> lineage;
+
+    Scope(int projectKey, Integer sourceKey, String targetID, Collection<String> ancestorIDs) {
+      this.projectKey = projectKey;
+      this.sourceKey = sourceKey;
+      this.targetID = targetID;
+      this.lineage = new HashSet<>(ancestorIDs);
+      if (targetID != null) {
+        lineage.add(targetID);
+      }
+    }
+
+    /**
+     * Two jobs overlap if they belong to the same project and either share the same source dataset
+     * or their targets lie within the same subtree, i.e. one target is the other or one of its ancestors.
+     * A missing target overlaps with all jobs of the project.
+     */
+    boolean overlaps(Scope other) {
+      if (projectKey != other.projectKey) {
+        return false;
+      }
+      if (targetID == null || other.targetID == null || Objects.equals(sourceKey, other.sourceKey)) {
+        return true;
+      }
+      return lineage.contains(other.targetID) || other.lineage.contains(targetID);
+    }
+  }
+
+  private class Job implements Runnable {
+    final DSID<Integer> key;
+    final Runnable task;
+    final Scope scope;
+    final AtomicInteger state = new AtomicInteger(QUEUED);
+    final long queued = System.nanoTime();
+    Future<?> future;
+
+    Job(DSID<Integer> key, Runnable task, Scope scope) {
+      this.key = key;
+      this.task = task;
+      this.scope = scope;
+    }
+
+    @Override
+    public void run() {
+      if (!state.compareAndSet(QUEUED, RUNNING)) {
+        return;
+      }
+      final long started = System.nanoTime();
+      waitTimer.update(started - queued, TimeUnit.NANOSECONDS);
+      try {
+        task.run();
+      } finally {
+        runTimer.update(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        release(this);
+      }
+    }
+  }
+
+  SectorScheduler(int threads, String threadName, MetricRegistry registry) {
+    Preconditions.checkArgument(threads > 0, "At least one thread required");
+    this.threads = threads;
+    exec = Executors.newFixedThreadPool(threads, new NamedThreadFactory(threadName, Thread.MAX_PRIORITY, true));
+    waitTimer = registry.timer("life.catalogue.assembly.wait");
+    runTimer = registry.timer("life.catalogue.assembly.run");
+  }
+
+  /**
+   * Queues a new job which is started as soon as a thread is free
+   * and no overlapping job that was queued before is still waiting or running.
+   */
+  synchronized void submit(DSID<Integer> key, Runnable task, Scope scope) {
+    waiting.add(new Job(DSID.copy(key), task, scope));
+    schedule();
+  }
+
+  /**
+   * Cancels a waiting job or interrupts it if it is running already.
+   * @return true if a job with the given key was found
+   */
+  synchronized boolean cancel(DSID<Integer> key) {
+    for (Job job : waiting) {
+      if (job.key.equals(key)) {
+        waiting.remove(job);
+        return true;
+      }
+    }
+    for (Job job : running) {
+      if (job.key.equals(key)) {
+        if (job.state.compareAndSet(QUEUED, CANCELED)) {
+          // never started, release the slot ourselves
+          job.future.cancel(false);
+          release(job);
+        } else {
+          job.future.cancel(true);
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  synchronized int waitingSize() {
+    return waiting.size();
+  }
+
+  synchronized int runningSize() {
+    return running.size();
+  }
+
+  /**
+   * Drops all waiting jobs, interrupts running ones and shuts down the executor.
+   */
+  void shutdown() throws InterruptedException {
+    synchronized (this) {
+      waiting.clear();
+      for (Job job : running) {
+        job.future.cancel(true);
+      }
+    }
+    ExecutorUtils.shutdown(exec, ExecutorUtils.MILLIS_TO_DIE, TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized void release(Job job) {
+    if (running.remove(job)) {
+      schedule();
+    }
+  }
+
+  /**
+   * Starts waiting jobs in queue order as long as threads are free.
+   * A job is skipped if it overlaps with a running job or an earlier waiting job,
+   * so overlapping jobs never overtake each other.
+   */
+  private void schedule() {
+    List<Job> blocked = new ArrayList<>();
+    Iterator<Job> iter = waiting.iterator();
+    while (iter.hasNext() && running.size() < threads) {
+      Job job = iter.next();
+      if (overlaps(job, running) || overlaps(job, blocked)) {
+        blocked.add(job);
+      } else {
+        iter.remove();
+        running.add(job);
+        job.future = exec.submit(job);
+        LOG.debug("Started sector job {}. {} running, {} waiting", job.key, running.size(), waiting.size());
+      }
+    }
+  }
+
+  private static boolean overlaps(Job job, List<Job> jobs) {
+    for (Job j : jobs) {
+      if (job.scope.overlaps(j.scope)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
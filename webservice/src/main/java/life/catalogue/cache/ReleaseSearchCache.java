@@ -0,0 +1,221 @@
+package life.catalogue.cache;
+
+import life.catalogue.api.event.DatasetChanged;
+import life.catalogue.api.event.DatasetIndexChanged;
+import life.catalogue.api.exception.NotFoundException;
+import life.catalogue.api.model.Page;
+import life.catalogue.api.search.*;
+import life.catalogue.api.vocab.DatasetOrigin;
+import life.catalogue.dao.DatasetInfoCache;
+import life.catalogue.es.NameUsageSearchService;
+import life.catalogue.es.NameUsageSuggestionService;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * Caches search and suggest responses for requests that are restricted to immutable releases.
+ * All other requests are passed through to the underlying services.
+ *
+ * Both caches share a memory budget which is enforced by weighing responses with a rough size estimate.
+ * Caffeine evicts with a frequency and recency aware policy, so popular release queries stay cached.
+ * Cached responses are invalidated via the bus when a release is deleted or its index is rebuilt.
+ */
+public class ReleaseSearchCache implements NameUsageSearchService, NameUsageSuggestionService {
+  private static final Logger LOG = LoggerFactory.getLogger(ReleaseSearchCache.class);
+  // estimated kilobytes per cached item
+  private static final int KB_PER_USAGE = 2;
+  private static final int FACETS_PER_KB = 20;
+  private static final int SUGGESTIONS_PER_KB = 4;
+
+  private final NameUsageSearchService search;
+  private final NameUsageSuggestionService suggest;
+  private final IntPredicate isRelease;
+  private final Cache<Key, NameUsageSearchResponse> searchCache;
+  private final Cache<Key, NameUsageSuggestResponse> suggestCache;
+  private final Meter searchHits;
+  private final Meter searchMisses;
+  private final Meter suggestHits;
+  private final Meter suggestMisses;
+
+  /**
+   * The normalized request incl paging and the dataset keys it is restricted to.
+   */
+  private static class Key {
+    final NameUsageRequest req;
+    final Page page;
+    final Set<Integer> datasetKeys;
+
+    Key(NameUsageRequest req, Page page, Set<Integer> datasetKeys) {
+      this.req = req;
+      this.page = page;
+      this.datasetKeys = datasetKeys;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key key = (Key) o;
+      return req.equals(key.req) && Objects.equals(page, key.page);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(req, page);
+    }
+  }
+
+  /**
+   * @param maxMB maximum memory in megabytes to be used by both caches together
+   */
+  public ReleaseSearchCache(NameUsageSearchService search, NameUsageSuggestionService suggest, int maxMB, MetricRegistry registry) {
+    this(search, suggest, maxMB, registry, ReleaseSearchCache::isRelease);
+  }
+
+  @VisibleForTesting
+  ReleaseSearchCache(NameUsageSearchService search, NameUsageSuggestionService suggest, int maxMB, MetricRegistry registry, IntPredicate isRelease) {
+    this.search = search;
+    this.suggest = suggest;
+    this.isRelease = isRelease;
+    // the search results are usually much larger, give them most of the memory
+    final long maxKB = maxMB * 1024L;
+    searchCache = Caffeine.newBuilder()
+      .maximumWeight(maxKB * 3 / 4)
+      .weigher((Key k, NameUsageSearchResponse v) -> weigh(v))
+      .build();
+    suggestCache = Caffeine.newBuilder()
+      .maximumWeight(maxKB / 4)
+      .weigher((Key k, NameUsageSuggestResponse v) -> 1 + size(v.getSuggestions()) / SUGGESTIONS_PER_KB)
+      .build();
+    final String prefix = "life.catalogue.cache.release";
+    searchHits = registry.meter(MetricRegistry.name(prefix, "search", "hits"));
+    searchMisses = registry.meter(MetricRegistry.name(prefix, "search", "misses"));
+    suggestHits = registry.meter(MetricRegistry.name(prefix, "suggest", "hits"));
+    suggestMisses = registry.meter(MetricRegistry.name(prefix, "suggest", "misses"));
+  }
+
+  private static boolean isRelease(int datasetKey) {
+    try {
+      return DatasetInfoCache.CACHE.info(datasetKey).origin == DatasetOrigin.RELEASED;
+    } catch (NotFoundException e) {
+      return false;
+    }
+  }
+
+  private static int weigh(NameUsageSearchResponse resp) {
+    int facets = 0;
+    if (resp.getFacets() != null) {
+      for (Set<?> values : resp.getFacets().values()) {
+        facets += values.size();
+      }
+    }
+    return 1 + size(resp.getResult()) * KB_PER_USAGE + facets / FACETS_PER_KB;
+  }
+
+  private static int size(Collection<?> items) {
+    return items == null ? 0 : items.size();
+  }
+
+  @Override
+  public NameUsageSearchResponse search(NameUsageSearchRequest request, Page page) {
+    Key key = key(request.copy(), page == null ? null : new Page(page.getOffset(), page.getLimit()));
+    if (key == null) {
+      return search.search(request, page);
+    }
+    NameUsageSearchResponse resp = searchCache.getIfPresent(key);
+    if (resp != null) {
+      searchHits.mark();
+    } else {
+      searchMisses.mark();
+      resp = search.search(request, page);
+      searchCache.put(key, resp);
+    }
+    return resp;
+  }
+
+  @Override
+  public NameUsageSuggestResponse suggest(NameUsageSuggestRequest request) {
+    Key key = key(request.copy(), null);
+    if (key == null) {
+      return suggest.suggest(request);
+    }
+    NameUsageSuggestResponse resp = suggestCache.getIfPresent(key);
+    if (resp != null) {
+      suggestHits.mark();
+    } else {
+      suggestMisses.mark();
+      resp = suggest.suggest(request);
+      suggestCache.put(key, resp);
+    }
+    return resp;
+  }
+
+  /**
+   * Normalizes a copy of the request which the services are free to modify.
+   * @return the cache key or null if the request is not restricted to releases only
+   */
+  private Key key(NameUsageRequest req, Page page) {
+    Set<Object> values = req.getFilterValues(NameUsageSearchParameter.DATASET_KEY);
+    if (values == null || values.isEmpty()) {
+      return null;
+    }
+    Set<Integer> datasetKeys = new HashSet<>();
+    for (Object v : values) {
+      if (!(v instanceof Integer) || !isRelease.test((Integer) v)) {
+        return null;
+      }
+      datasetKeys.add((Integer) v);
+    }
+    // deep copy the filters as the values of copied requests are shared
+    Map<NameUsageSearchParameter, Set<Object>> filters = new EnumMap<>(NameUsageSearchParameter.class);
+    req.getFilters().forEach((p, vals) -> filters.put(p, new HashSet<>(vals)));
+    req.setFilters(filters);
+    req.setQ(StringUtils.trimToNull(StringUtils.normalizeSpace(req.getQ())));
+    req.setSciNameSearchTerms(null);
+    return new Key(req, page, datasetKeys);
+  }
+
+  /**
+   * Removes all cached responses for the given dataset.
+   */
+  public void invalidate(int datasetKey) {
+    searchCache.asMap().keySet().removeIf(k -> k.datasetKeys.contains(datasetKey));
+    suggestCache.asMap().keySet().removeIf(k -> k.datasetKeys.contains(datasetKey));
+  }
+
+  public void invalidateAll() {
+    searchCache.invalidateAll();
+    suggestCache.invalidateAll();
+  }
+
+  @Subscribe
+  public void datasetChanged(DatasetChanged event){
+    if (event.isDeletion()) {
+      LOG.info("Invalidate cached search results for deleted dataset {}", event.key);
+      invalidate(event.key);
+    }
+  }
+
+  @Subscribe
+  public void indexChanged(DatasetIndexChanged event){
+    if (event.isAll()) {
+      LOG.info("Invalidate all cached search results");
+      invalidateAll();
+    } else {
+      LOG.info("Invalidate cached search results for reindexed dataset {}", event.getDatasetKey());
+      invalidate(event.getDatasetKey());
+    }
+  }
+}
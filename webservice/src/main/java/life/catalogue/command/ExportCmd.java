@@ -28,7 +28,6 @@ import life.catalogue.dw.mail.MailBundle;
 
 import life.catalogue.exporter.ExportManager;
 
-import life.catalogue.img.ImageService;
 
 import life.catalogue.img.ImageServiceFS;
 
@@ -48,6 +47,7 @@ public class ExportCmd extends AbstractMybatisCmd {
   private static final String ARG_FORMAT = "format";
 
   private JobExecutor exec;
+  private ImageServiceFS imageService;
   private ExportManager manager;
   private final MailBundle mail = new MailBundle();
   private PublicReleaseListener copy;
@@ -108,7 +108,7 @@ public class ExportCmd extends AbstractMybatisCmd {
       EventBus bus = new EventBus();
       mail.run(cfg, null);
       exec = new JobExecutor(cfg.job, mail.getMailer());
-      final ImageService imageService = new ImageServiceFS(cfg.img);
+      imageService = new ImageServiceFS(cfg.img);
       final DatasetExportDao exportDao = new DatasetExportDao(cfg.exportDir, factory, bus);
       manager = new ExportManager(cfg, factory, exec, imageService, mail.getMailer(), exportDao);
       JerseyClientBuilder builder = new JerseyClientBuilder(new MetricRegistry()).using(cfg.client);
@@ -148,6 +148,9 @@ public class ExportCmd extends AbstractMybatisCmd {
       TimeUnit.SECONDS.sleep(30);
       System.out.println("Shutting down executor");
       exec.close();
+      if (imageService != null) {
+        imageService.close();
+      }
     }
 
     // move exports to COL download dir?
@@ -92,7 +92,7 @@ public class NamesIndexCmd extends AbstractMybatisCmd {
       runner.runScript(Resources.getResourceAsReader(SCHEMA_SETUP));
     }
 
-    NameIndex ni = NameIndexFactory.persistentOrMemory(indexBuildFile(cfg), factory, AuthorshipNormalizer.INSTANCE);
+    NameIndex ni = NameIndexFactory.persistentOrMemory(indexBuildFile(cfg), cfg.namesIndexStore, factory, AuthorshipNormalizer.INSTANCE);
     ni.start();
 
     IntSet keys;
@@ -11,6 +11,12 @@ public class ImporterConfig {
   
   @Min(1)
   public int batchSize = 10000;
+
+  /**
+   * If true verbatim records, references, names, name matches, usages and relations are bulk loaded
+   * using the postgres COPY protocol. Otherwise they are inserted with batched insert statements.
+   */
+  public boolean copy = true;
   
   /**
    * Number of parallel imports to allow simultanously
@@ -49,6 +49,12 @@ public class NormalizerConfig {
   
   @Min(0)
   public int mappedMemory = 128;
+
+  /**
+   * Number of threads to match names to the names index with
+   */
+  @Min(1)
+  public int matchingThreads = 4;
   
   /**
    * The dataset source files as a single archive in original format (zip, gzip, etc).
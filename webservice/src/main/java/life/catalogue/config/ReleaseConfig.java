@@ -2,6 +2,7 @@ package life.catalogue.config;
 
 import life.catalogue.api.vocab.DataFormat;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.io.File;
 import java.time.LocalDate;
@@ -19,6 +20,10 @@ public class ReleaseConfig {
   // nidx deduplication workaround - should be fixed by now so not enabled by default
   public boolean nidxDeduplication = false;
 
+  // number of tables to copy concurrently when releasing or duplicating a project
+  @Min(1)
+  public int copyThreads = 4;
+
   @NotNull
   public File reportDir = new File("/tmp/col/release");
 
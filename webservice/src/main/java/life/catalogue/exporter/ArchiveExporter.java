@@ -10,46 +10,74 @@ import life.catalogue.api.model.*;
 import life.catalogue.api.search.EstimateSearchRequest;
 import life.catalogue.api.vocab.DataFormat;
 import life.catalogue.api.vocab.EntityType;
-import life.catalogue.common.func.ThrowingBiConsumer;
-import life.catalogue.common.func.ThrowingConsumer;
 import life.catalogue.common.io.TermWriter;
+import life.catalogue.common.io.ZipBuilder;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
 import life.catalogue.db.DatasetProcessable;
 import life.catalogue.db.NameProcessable;
 import life.catalogue.db.TaxonProcessable;
 import life.catalogue.db.mapper.*;
 import life.catalogue.img.ImageService;
+import org.apache.commons.io.FileUtils;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.gbif.dwc.terms.Term;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Base class for tabular archive exports writing one data file per entity.
+ *
+ * Data files are written concurrently, each with its own writer and database session.
+ * For full dataset exports all files are independent and written at the same time.
+ * Filtered exports first need to export the core usages to know which names and taxa to include,
+ * then all other entity files and finally the references used by any of them.
+ * The ids tracked for filtered exports are kept in temporary, file based sets to keep the heap bounded.
+ * Excel workbooks cannot be written concurrently and are always exported with a single thread.
+ *
+ * Tabular data files are streamed straight into compressed zip entries by a separate pool of compression threads,
+ * so deflating overlaps with reading from the database and the uncompressed files never touch the disk.
+ * Only the small metadata files are written to the temporary directory and added when bundling the archive.
+ */
 public abstract class ArchiveExporter extends DatasetExporter {
   private static final Logger LOG = LoggerFactory.getLogger(ArchiveExporter.class);
 
   protected boolean fullDataset;
-  protected final Set<String> nameIDs = new HashSet<>();
-  protected final Set<String> taxonIDs = new HashSet<>();
-  protected final Set<String> refIDs = new HashSet<>();
+  // ids of exported entities for filtered exports only
+  protected Set<String> nameIDs;
+  protected Set<String> taxonIDs;
+  protected Set<String> refIDs;
+  private DB idDb;
   protected final LoadingCache<String, String> refCache;
   protected final Int2IntMap sector2datasetKeys = new Int2IntOpenHashMap();
-  protected SectorMapper sectorMapper;
+  // lookup session used by the sector and reference caches, guarded by itself
+  private SqlSession lookupSession;
+  private SectorMapper sectorMapper;
   protected DatasetSourceMapper projectSourceMapper;
   protected NameRelationMapper nameRelMapper;
   protected SqlSession session;
-  protected TermWriter writer;
-  protected final DSID<String> key = DSID.of(datasetKey, "");
   private final SXSSFWorkbook wb;
+  // streaming zip for tabular exports only
+  private ExecutorService zipExec;
+  private ZipBuilder zip;
 
   ArchiveExporter(DataFormat requiredFormat, int userKey, ExportRequest req, SqlSessionFactory factory, WsServerConfig cfg, ImageService imageService) {
     super(req, userKey, requiredFormat, factory, cfg, imageService);
@@ -59,8 +87,10 @@ public abstract class ArchiveExporter extends DatasetExporter {
       .build(new CacheLoader<>() {
         @Override
         public String load(String key) throws Exception {
-          Reference r = session.getMapper(ReferenceMapper.class).get(rKey.id(key));
-          return r == null ? null : r.getCitation();
+          synchronized (lookupSession) {
+            Reference r = lookupSession.getMapper(ReferenceMapper.class).get(rKey.id(key));
+            return r == null ? null : r.getCitation();
+          }
         }
       });
     if (req.isExcel()) {
@@ -75,13 +105,15 @@ public abstract class ArchiveExporter extends DatasetExporter {
   protected Integer sector2datasetKey(Integer sectorKey){
     if (sectorKey != null) {
       int sk = sectorKey;
-      if (!sector2datasetKeys.containsKey(sk)) {
-        Sector s = sectorMapper.get(DSID.of(datasetKey, sectorKey));
-        // we apparently have references that still link to removed sectors - don't fail
-        sector2datasetKeys.put(sk, s==null ? -1 : s.getSubjectDatasetKey());
+      synchronized (lookupSession) {
+        if (!sector2datasetKeys.containsKey(sk)) {
+          Sector s = sectorMapper.get(DSID.of(datasetKey, sectorKey));
+          // we apparently have references that still link to removed sectors - don't fail
+          sector2datasetKeys.put(sk, s==null ? -1 : s.getSubjectDatasetKey());
+        }
+        int dkey = sector2datasetKeys.get(sk);
+        return dkey<0 ? null : dkey;
       }
-      int dkey = sector2datasetKeys.get(sk);
-      return dkey<0 ? null : dkey;
     }
     return null;
   }
@@ -90,15 +122,111 @@ public abstract class ArchiveExporter extends DatasetExporter {
   public void export() throws Exception {
     // do we have a full dataset export request?
     fullDataset = !req.hasFilter();
-    try (SqlSession session = factory.openSession(false)) {
+    final int threads = req.isExcel() ? 1 : cfg.exportThreads;
+    ExecutorService exec = Executors.newFixedThreadPool(threads, new NamedThreadFactory("export-" + getKey()));
+    try (SqlSession session = factory.openSession(false);
+         SqlSession lookupSession = factory.openSession(false)
+    ) {
       this.session = session;
+      this.lookupSession = lookupSession;
+      sectorMapper = lookupSession.getMapper(SectorMapper.class);
+      if (!req.isExcel()) {
+        zipExec = Executors.newFixedThreadPool(cfg.exportZipThreads, new NamedThreadFactory("export-zip-" + getKey()));
+        zip = new ZipBuilder(new File(cfg.normalizer.scratchDir, "export/" + getKey() + "-zip"), zipExec);
+      }
       init(session);
-      exportCore();
-      exportNameRels();
-      exportTaxonRels();
-      exportReferences();
-      closeWriter();
+      if (fullDataset) {
+        run(exec,
+          this::exportCore,
+          () -> exportNameRelation(EntityType.NAME_RELATION, NameRelationMapper.class, this::write),
+          () -> exportNameRelation(EntityType.TYPE_MATERIAL, TypeMaterialMapper.class, this::write),
+          () -> exportTaxonExtension(EntityType.VERNACULAR, VernacularNameMapper.class, this::write),
+          () -> exportTaxonExtension(EntityType.DISTRIBUTION, DistributionMapper.class, this::write),
+          () -> exportTaxonExtension(EntityType.MEDIA, MediaMapper.class, this::write),
+          this::exportEstimates,
+          () -> exportTaxonRelation(EntityType.SPECIES_INTERACTION, SpeciesInteractionMapper.class, this::write),
+          () -> exportTaxonRelation(EntityType.TAXON_CONCEPT_RELATION, TaxonConceptRelationMapper.class, this::write),
+          this::exportReferences
+        );
+      } else {
+        openIdSets();
+        // all other files depend on the exported usages
+        run(exec, this::exportCore);
+        run(exec,
+          () -> exportNameRelation(EntityType.NAME_RELATION, NameRelationMapper.class, this::write),
+          () -> exportNameRelation(EntityType.TYPE_MATERIAL, TypeMaterialMapper.class, this::write),
+          () -> exportTaxonExtension(EntityType.VERNACULAR, VernacularNameMapper.class, this::write),
+          () -> exportTaxonExtension(EntityType.DISTRIBUTION, DistributionMapper.class, this::write),
+          () -> exportTaxonExtension(EntityType.MEDIA, MediaMapper.class, this::write),
+          this::exportEstimates,
+          () -> exportTaxonRelation(EntityType.SPECIES_INTERACTION, SpeciesInteractionMapper.class, this::write),
+          () -> exportTaxonRelation(EntityType.TAXON_CONCEPT_RELATION, TaxonConceptRelationMapper.class, this::write)
+        );
+        // references used by any of the above
+        run(exec, this::exportReferences);
+      }
       exportMetadata();
+
+    } finally {
+      ExecutorUtils.shutdown(exec);
+      closeIdSets();
+    }
+  }
+
+  /**
+   * Writes data files concurrently and waits for all of them to be finished.
+   * If one file fails all others are cancelled.
+   */
+  private void run(ExecutorService exec, FileExport... exports) throws Exception {
+    List<Future<?>> futures = new ArrayList<>();
+    for (FileExport fe : exports) {
+      futures.add(exec.submit(() -> {
+        fe.export();
+        return null;
+      }));
+    }
+    try {
+      for (Future<?> f : futures) {
+        f.get();
+      }
+    } catch (ExecutionException e) {
+      futures.forEach(f -> f.cancel(true));
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  @FunctionalInterface
+  private interface FileExport {
+    void export() throws Exception;
+  }
+
+  private void openIdSets() {
+    File dbFile = new File(cfg.normalizer.scratchDir, "export/" + getKey() + "-ids.db");
+    LOG.info("Track exported ids in {}", dbFile);
+    dbFile.getParentFile().mkdirs();
+    idDb = DBMaker.fileDB(dbFile)
+      .fileMmapEnableIfSupported()
+      .fileDeleteAfterClose()
+      .make();
+    nameIDs = idDb.hashSet("names", Serializer.STRING).create();
+    taxonIDs = idDb.hashSet("taxa", Serializer.STRING).create();
+    refIDs = idDb.hashSet("references", Serializer.STRING).create();
+  }
+
+  private void closeIdSets() {
+    if (idDb != null) {
+      idDb.close();
+      idDb = null;
+    }
+  }
+
+  private static void track(Set<String> ids, String id) {
+    // can happen, but sets do not accept nulls
+    if (id != null) {
+      ids.add(id);
     }
   }
 
@@ -114,20 +242,42 @@ public abstract class ArchiveExporter extends DatasetExporter {
       LOG.info("Dispose temporary Excel files");
       wb.dispose();
     }
-    super.bundle();
+    if (zip == null) {
+      super.bundle();
+    } else {
+      LOG.info("Bundling streamed archive at {}", archive.getAbsolutePath());
+      FileUtils.forceMkdir(archive.getParentFile());
+      getExport().setBytesWritten(zip.write(archive, tmpDir));
+    }
+  }
+
+  @Override
+  protected void cleanup() {
+    if (zip != null) {
+      try {
+        zip.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to delete temporary zip entries of export {}", getKey(), e);
+      }
+      ExecutorUtils.shutdown(zipExec);
+    }
+    super.cleanup();
   }
 
+  /**
+   * Initialises mappers for the main session which is only used by the core usage export and for metadata.
+   */
   protected void init(SqlSession session) throws Exception {
-    sectorMapper = session.getMapper(SectorMapper.class);
     projectSourceMapper = session.getMapper(DatasetSourceMapper.class);
     nameRelMapper = session.getMapper(NameRelationMapper.class);
   }
 
   private void exportCore() throws IOException {
-    if (!newDataFile(define(EntityType.NAME_USAGE))) {
+    final TermWriter writer = newDataFile(define(EntityType.NAME_USAGE));
+    if (writer == null) {
       throw new IllegalStateException("Core name usage data must be exported");
     }
-    try (SqlSession session = factory.openSession()) {
+    try (writer; SqlSession session = factory.openSession()) {
       NameUsageMapper num = session.getMapper(NameUsageMapper.class);
       Cursor<NameUsageBase> cursor;
       if (fullDataset) {
@@ -135,78 +285,66 @@ public abstract class ArchiveExporter extends DatasetExporter {
       } else {
         cursor = num.processTree(datasetKey, null, req.getTaxonID(), null, req.getMinRank(), req.isSynonyms(), true);
       }
-      cursor.forEach(this::consumeUsage);
+      cursor.forEach(u -> consumeUsage(writer, u));
     } catch (RuntimeException e) {
-      catchTruncation(e);
-    } finally {
-      taxonIDs.remove(null); // can happen
-      nameIDs.remove(null); // can happen
+      catchTruncation(e, writer);
     }
   }
 
-  private void catchTruncation(RuntimeException e){
+  private void catchTruncation(RuntimeException e, TermWriter writer){
     if (e.getCause() != null && e.getCause() instanceof ExcelTermWriter.MaxRowsException) {
       // we truncate the output and keep a warning, but allow to proceed
       LOG.warn(e.getCause().getMessage());
-      getExport().addTruncated(writer.getRowType());
+      synchronized (this) {
+        getExport().addTruncated(writer.getRowType());
+      }
     } else {
       // anything else is unexpected
       throw e;
     }
   }
 
-  private void consumeUsage(NameUsageBase u){
+  private void consumeUsage(TermWriter writer, NameUsageBase u){
     if (!fullDataset && u.isTaxon()) {
-      taxonIDs.add(u.getId());
-      nameIDs.add(u.getName().getId());
-      refIDs.add(u.getName().getPublishedInId());
-      refIDs.add(u.getAccordingToId());
-      refIDs.addAll(u.getReferenceIds());
+      track(taxonIDs, u.getId());
+      track(nameIDs, u.getName().getId());
+      track(refIDs, u.getName().getPublishedInId());
+      track(refIDs, u.getAccordingToId());
+      if (u.getReferenceIds() != null) {
+        u.getReferenceIds().forEach(id -> track(refIDs, id));
+      }
     }
     // metrics
     counter.inc(u);
 
     try {
-      write(u);
+      write(writer, u);
       writer.next();
     } catch (final IOException e) {
       throw new RuntimeException(e);
     }
   }
 
-  private void exportNameRels() throws IOException {
-    exportNameRelation(EntityType.NAME_RELATION, NameRelationMapper.class, this::write);
-    exportNameRelation(EntityType.TYPE_MATERIAL, TypeMaterialMapper.class, this::write);
-  }
-
-  private void exportTaxonRels() throws IOException {
-    exportTaxonExtension(EntityType.VERNACULAR, VernacularNameMapper.class, this::write);
-    exportTaxonExtension(EntityType.DISTRIBUTION, DistributionMapper.class, this::write);
-    exportTaxonExtension(EntityType.MEDIA, MediaMapper.class, this::write);
-    exportEstimates();
-    exportTaxonRelation(EntityType.SPECIES_INTERACTION, SpeciesInteractionMapper.class, this::write);
-    exportTaxonRelation(EntityType.TAXON_CONCEPT_RELATION, TaxonConceptRelationMapper.class, this::write);
-  }
-
   protected void exportReferences() throws IOException {
-    if (newDataFile(define(EntityType.REFERENCE))) {
-      try (SqlSession session = factory.openSession()) {
+    final TermWriter writer = newDataFile(define(EntityType.REFERENCE));
+    if (writer != null) {
+      try (writer; SqlSession session = factory.openSession()) {
         ReferenceMapper rm = session.getMapper(ReferenceMapper.class);
         if (fullDataset) {
           rm.processDataset(datasetKey).forEach(r -> {
             try {
-              write(r);
+              write(writer, r);
               writer.next();
             } catch (final IOException e) {
               throw new RuntimeException(e);
             }
           });
         } else {
-          refIDs.remove(null); // can happen
+          final DSID<String> key = DSID.of(datasetKey, null);
           for (String id : refIDs) {
             var ref = rm.get(key.id(id));
             if (ref != null) {
-              write(ref);
+              write(writer, ref);
               writer.next();
             } else {
               LOG.warn("Reference ID {} used but does not exist in dataset {}", id, datasetKey);
@@ -217,114 +355,131 @@ public abstract class ArchiveExporter extends DatasetExporter {
     }
   }
 
-  private <T extends SectorScopedEntity<Integer> & Referenced> void exportTaxonExtension(EntityType entity, Class<? extends TaxonExtensionMapper<T>> mapperClass, ThrowingBiConsumer<String, T, IOException> consumer) throws IOException {
-    if (newDataFile(define(entity))) {
-      try (SqlSession session = factory.openSession()) {
+  @FunctionalInterface
+  private interface ExtensionWriter<T> {
+    void write(TermWriter writer, String taxonID, T obj) throws IOException;
+  }
+
+  @FunctionalInterface
+  private interface EntityWriter<T> {
+    void write(TermWriter writer, T obj) throws IOException;
+  }
+
+  private <T extends SectorScopedEntity<Integer> & Referenced> void exportTaxonExtension(EntityType entity, Class<? extends TaxonExtensionMapper<T>> mapperClass, ExtensionWriter<T> consumer) throws IOException {
+    final TermWriter writer = newDataFile(define(entity));
+    if (writer != null) {
+      try (writer; SqlSession session = factory.openSession()) {
         TaxonExtensionMapper<T> exm = session.getMapper(mapperClass);
         if (fullDataset) {
           exm.processDataset(datasetKey).forEach(x -> {
             try {
               trackRefId(x.getObj());
-              consumer.accept(x.getTaxonID(), x.getObj());
-              this.writer.next();
+              consumer.write(writer, x.getTaxonID(), x.getObj());
+              writer.next();
             } catch (final IOException e) {
               throw new RuntimeException(e);
             }
           });
         } else {
+          final DSID<String> key = DSID.of(datasetKey, null);
           for (String id : taxonIDs) {
             for (T x : exm.listByTaxon(key.id(id))) {
               trackRefId(x);
-              consumer.accept(id, x);
-              this.writer.next();
+              consumer.write(writer, id, x);
+              writer.next();
             }
           }
         }
       } catch (RuntimeException e) {
-        catchTruncation(e);
+        catchTruncation(e, writer);
       }
     }
   }
 
-  private <T extends DatasetScopedEntity & Referenced, M extends NameProcessable<T> & DatasetProcessable<T>> void exportNameRelation(EntityType type, Class<M> mapperClass, ThrowingConsumer<T, IOException> consumer) throws IOException {
+  private <T extends DatasetScopedEntity & Referenced, M extends NameProcessable<T> & DatasetProcessable<T>> void exportNameRelation(EntityType type, Class<M> mapperClass, EntityWriter<T> consumer) throws IOException {
     new NameRelExporter<T, M>().export(type, mapperClass, consumer);
   }
 
   private class NameRelExporter<T extends DatasetScopedEntity & Referenced, M extends NameProcessable<T> & DatasetProcessable<T>> {
-    void export(EntityType entity, Class<M> mapperClass, ThrowingConsumer<T, IOException> consumer) throws IOException {
-      if (newDataFile(define(entity))) {
-        try (SqlSession session = factory.openSession()) {
+    void export(EntityType entity, Class<M> mapperClass, EntityWriter<T> consumer) throws IOException {
+      final TermWriter writer = newDataFile(define(entity));
+      if (writer != null) {
+        try (writer; SqlSession session = factory.openSession()) {
           M mapper = session.getMapper(mapperClass);
           if (fullDataset) {
             mapper.processDataset(datasetKey).forEach(x -> {
               try {
                 trackRefId(x);
-                consumer.accept(x);
+                consumer.write(writer, x);
                 writer.next();
               } catch (final IOException e) {
                 throw new RuntimeException(e);
               }
             });
           } else {
+            final DSID<String> key = DSID.of(datasetKey, null);
             for (String id : nameIDs) {
               for (T x : mapper.listByName(key.id(id))) {
                 trackRefId(x);
-                consumer.accept(x);
+                consumer.write(writer, x);
                 writer.next();
               }
             }
           }
         } catch (RuntimeException e) {
-          catchTruncation(e);
+          catchTruncation(e, writer);
         }
       }
     }
   }
 
-  private <T extends DatasetScopedEntity<Integer> & Referenced, M extends TaxonProcessable<T> & DatasetProcessable<T>> void exportTaxonRelation(EntityType type, Class<M> mapperClass, ThrowingConsumer<T, IOException> consumer) throws IOException {
+  private <T extends DatasetScopedEntity<Integer> & Referenced, M extends TaxonProcessable<T> & DatasetProcessable<T>> void exportTaxonRelation(EntityType type, Class<M> mapperClass, EntityWriter<T> consumer) throws IOException {
     new TaxonRelExporter<T, M>().export(type, mapperClass, consumer);
   }
 
   private class TaxonRelExporter<T extends DatasetScopedEntity<Integer> & Referenced, M extends TaxonProcessable<T> & DatasetProcessable<T>> {
-    void export(EntityType entity, Class<M> mapperClass, ThrowingConsumer<T, IOException> consumer) throws IOException {
-      if (newDataFile(define(entity))) {
-        try (SqlSession session = factory.openSession()) {
+    void export(EntityType entity, Class<M> mapperClass, EntityWriter<T> consumer) throws IOException {
+      final TermWriter writer = newDataFile(define(entity));
+      if (writer != null) {
+        try (writer; SqlSession session = factory.openSession()) {
           M mapper = session.getMapper(mapperClass);
           if (fullDataset) {
             mapper.processDataset(datasetKey).forEach(x -> {
               try {
                 trackRefId(x);
-                consumer.accept(x);
+                consumer.write(writer, x);
                 writer.next();
               } catch (final IOException e) {
                 throw new RuntimeException(e);
               }
             });
           } else {
+            final DSID<String> key = DSID.of(datasetKey, null);
             for (String id : taxonIDs) {
               for (T x : mapper.listByTaxon(key.id(id))) {
                 trackRefId(x);
-                consumer.accept(x);
+                consumer.write(writer, x);
                 writer.next();
               }
             }
           }
         } catch (RuntimeException e) {
-          catchTruncation(e);
+          catchTruncation(e, writer);
         }
       }
     }
   }
 
   private void exportEstimates() throws IOException {
-    if (newDataFile(define(EntityType.ESTIMATE))) {
-      try (SqlSession session = factory.openSession()) {
+    final TermWriter writer = newDataFile(define(EntityType.ESTIMATE));
+    if (writer != null) {
+      try (writer; SqlSession session = factory.openSession()) {
         EstimateMapper mapper = session.getMapper(EstimateMapper.class);
         if (fullDataset) {
           mapper.processDataset(datasetKey).forEach(x -> {
             try {
               trackRefId(x);
-              write(x);
+              write(writer, x);
               writer.next();
             } catch (final IOException e) {
               throw new RuntimeException(e);
@@ -338,41 +493,42 @@ public abstract class ArchiveExporter extends DatasetExporter {
             req.setId(id);
             for (SpeciesEstimate x : mapper.search(req, page)) {
               trackRefId(x);
-              write(x);
+              write(writer, x);
               writer.next();
             }
           }
         }
       } catch (RuntimeException e) {
-        catchTruncation(e);
+        catchTruncation(e, writer);
       }
     }
   }
 
   abstract void exportMetadata() throws IOException;
 
-  private void closeWriter() throws IOException {
-    if (writer != null) {
-      writer.close();
-      writer = null;
-    }
-  }
-
-  private boolean newDataFile(Term[] terms) throws IOException {
-    closeWriter();
+  /**
+   * @return a new writer for the data file or null if the entity is not exported
+   */
+  private TermWriter newDataFile(Term[] terms) throws IOException {
     if (terms != null && terms.length>2) {
       Term rowType = terms[0];
       Term idTerm = terms[1];
       var cols = List.of(Arrays.copyOfRange(terms, 2, terms.length));
       LOG.info("Export {} from dataset {}", rowType.simpleName(), datasetKey);
-      if (req.isExcel()) {
-        writer = new ExcelTermWriter(wb, rowType, idTerm, cols);
-      } else {
-        writer = new TermWriter.TSV(tmpDir, rowType, idTerm, cols);
-      }
-      return true;
+      return newWriter(rowType, idTerm, cols);
+    }
+    return null;
+  }
+
+  /**
+   * @return a new writer for a data file, either a sheet of the Excel workbook or a streamed zip entry
+   */
+  protected TermWriter newWriter(Term rowType, Term idTerm, List<Term> cols) throws IOException {
+    if (req.isExcel()) {
+      return new ExcelTermWriter(wb, rowType, idTerm, cols);
+    } else {
+      return new TermWriter.TSV(zip.newEntry(TermWriter.filename(rowType)), rowType, idTerm, cols);
     }
-    return false;
   }
 
   /**
@@ -384,39 +540,42 @@ public abstract class ArchiveExporter extends DatasetExporter {
    */
   abstract Term[] define(EntityType entity);
 
-  void write(NameUsageBase u){
+  /**
+   * The write methods are called concurrently for different entities, each with their own writer.
+   */
+  void write(TermWriter writer, NameUsageBase u){
   }
 
-  void write(Reference r) throws IOException {
+  void write(TermWriter writer, Reference r) throws IOException {
   }
 
-  void write(NameRelation rel) {
+  void write(TermWriter writer, NameRelation rel) {
   }
 
-  void write(TypeMaterial tm) {
+  void write(TermWriter writer, TypeMaterial tm) {
   }
 
-  void write(TaxonConceptRelation rel) {
+  void write(TermWriter writer, TaxonConceptRelation rel) {
   }
 
-  void write(SpeciesInteraction rel) {
+  void write(TermWriter writer, SpeciesInteraction rel) {
   }
 
-  void write(String taxonID, VernacularName vn) {
+  void write(TermWriter writer, String taxonID, VernacularName vn) {
   }
 
-  void write(String taxonID, Distribution d) {
+  void write(TermWriter writer, String taxonID, Distribution d) {
   }
 
-  void write(String taxonID, Media m) {
+  void write(TermWriter writer, String taxonID, Media m) {
   }
 
-  void write(SpeciesEstimate e) {
+  void write(TermWriter writer, SpeciesEstimate e) {
   }
 
   private void trackRefId(Referenced referenced) {
     if (!fullDataset) {
-      refIDs.add(referenced.getReferenceId());
+      track(refIDs, referenced.getReferenceId());
     }
   }
 }
@@ -6,6 +6,7 @@ import life.catalogue.api.jackson.ApiModule;
 import life.catalogue.api.model.*;
 import life.catalogue.api.util.ObjectUtils;
 import life.catalogue.api.vocab.*;
+import life.catalogue.common.io.TermWriter;
 import life.catalogue.common.io.UTF8IoUtils;
 import life.catalogue.common.text.StringUtils;
 import life.catalogue.db.mapper.DatasetSourceMapper;
@@ -53,7 +54,7 @@ public class ColdpExporter extends ArchiveExporter {
   }
 
   @Override
-  void write(NameUsageBase u) {
+  void write(TermWriter writer, NameUsageBase u) {
     Name n = u.getName();
     writer.set(ColdpTerm.ID, u.getId());
     writer.set(ColdpTerm.sourceID, sector2datasetKey(u.getSectorKey()));
@@ -98,7 +99,7 @@ public class ColdpExporter extends ArchiveExporter {
   }
 
   @Override
-  void write(String taxonID, VernacularName vn) {
+  void write(TermWriter writer, String taxonID, VernacularName vn) {
     writer.set(ColdpTerm.taxonID, taxonID);
     writer.set(ColdpTerm.sourceID, sector2datasetKey(vn.getSectorKey()));
     writer.set(ColdpTerm.name, vn.getName());
@@ -119,7 +120,7 @@ public class ColdpExporter extends ArchiveExporter {
   }
 
   @Override
-  void write(Reference r) throws IOException {
+  void write(TermWriter writer, Reference r) throws IOException {
     writer.set(ColdpTerm.ID, r.getId());
     writer.set(ColdpTerm.sourceID, sector2datasetKey(r.getSectorKey()));
     writer.set(ColdpTerm.citation, r.getCitation());
@@ -150,7 +151,7 @@ public class ColdpExporter extends ArchiveExporter {
   }
 
   @Override
-  void write(NameRelation rel) {
+  void write(TermWriter writer, NameRelation rel) {
     writer.set(ColdpTerm.nameID, rel.getNameId());
     writer.set(ColdpTerm.relatedNameID, rel.getRelatedNameId());
     writer.set(ColdpTerm.sourceID, sector2datasetKey(rel.getSectorKey()));
@@ -160,7 +161,7 @@ public class ColdpExporter extends ArchiveExporter {
   }
 
   @Override
-  void write(TypeMaterial tm) {
+  void write(TermWriter writer, TypeMaterial tm) {
     writer.set(ColdpTerm.ID, tm.getId());
     writer.set(ColdpTerm.sourceID, sector2datasetKey(tm.getSectorKey()));
     writer.set(ColdpTerm.nameID, tm.getNameId());
@@ -181,7 +182,7 @@ public class ColdpExporter extends ArchiveExporter {
   }
 
   @Override
-  void write(TaxonConceptRelation rel) {
+  void write(TermWriter writer, TaxonConceptRelation rel) {
     writer.set(ColdpTerm.taxonID, rel.getTaxonId());
     writer.set(ColdpTerm.relatedTaxonID, rel.getRelatedTaxonId());
     writer.set(ColdpTerm.sourceID, sector2datasetKey(rel.getSectorKey()));
@@ -191,7 +192,7 @@ public class ColdpExporter extends ArchiveExporter {
   }
 
   @Override
-  void write(String taxonID, Media m) {
+  void write(TermWriter writer, String taxonID, Media m) {
     writer.set(ColdpTerm.taxonID, taxonID);
     writer.set(ColdpTerm.sourceID, sector2datasetKey(m.getSectorKey()));
     writer.set(ColdpTerm.url, m.getUrl());
@@ -205,7 +206,7 @@ public class ColdpExporter extends ArchiveExporter {
   }
 
   @Override
-  void write(SpeciesInteraction si) {
+  void write(TermWriter writer, SpeciesInteraction si) {
     writer.set(ColdpTerm.taxonID, si.getTaxonId());
     writer.set(ColdpTerm.relatedTaxonID, si.getRelatedTaxonId());
     writer.set(ColdpTerm.sourceID, sector2datasetKey(si.getSectorKey()));
@@ -216,7 +217,7 @@ public class ColdpExporter extends ArchiveExporter {
   }
 
   @Override
-  void write(String taxonID, Distribution d) {
+  void write(TermWriter writer, String taxonID, Distribution d) {
     writer.set(ColdpTerm.taxonID, taxonID);
     writer.set(ColdpTerm.sourceID, sector2datasetKey(d.getSectorKey()));
     writer.set(ColdpTerm.area, d.getArea());
@@ -228,7 +229,7 @@ public class ColdpExporter extends ArchiveExporter {
   }
 
   @Override
-  void write(SpeciesEstimate est) {
+  void write(TermWriter writer, SpeciesEstimate est) {
     if (est.getTarget() != null) {
       writer.set(ColdpTerm.taxonID, est.getTarget().getId());
       //TODO: writer.set(ColdpTerm.sourceID, null);
@@ -10,6 +10,7 @@ import life.catalogue.api.vocab.JobStatus;
 import life.catalogue.common.io.ChecksumUtils;
 import life.catalogue.common.io.CompressionUtil;
 import life.catalogue.common.lang.Exceptions;
+import life.catalogue.common.text.StringUtils;
 import life.catalogue.concurrent.DatasetBlockingJob;
 import life.catalogue.concurrent.JobPriority;
 import life.catalogue.concurrent.UsageCounter;
@@ -134,12 +135,19 @@ abstract class DatasetExporter extends DatasetBlockingJob {
       bundle();
       LOG.info("Export {} of dataset {} completed", getKey(), datasetKey);
     } finally {
-      LOG.info("Remove temporary export directory {}", tmpDir.getAbsolutePath());
-      try {
-        FileUtils.deleteDirectory(tmpDir);
-      } catch (IOException e) {
-        LOG.warn("Failed to delete temporary export directory {}", tmpDir.getAbsolutePath(), e);
-      }
+      cleanup();
+    }
+  }
+
+  /**
+   * Removes all temporary files, regardless whether the export succeeded or not.
+   */
+  protected void cleanup() {
+    LOG.info("Remove temporary export directory {}", tmpDir.getAbsolutePath());
+    try {
+      FileUtils.deleteDirectory(tmpDir);
+    } catch (IOException e) {
+      LOG.warn("Failed to delete temporary export directory {}", tmpDir.getAbsolutePath(), e);
     }
   }
 
@@ -160,6 +168,8 @@ abstract class DatasetExporter extends DatasetBlockingJob {
     try {
       export.setSize(Files.size(archive.toPath()));
       export.setMd5(ChecksumUtils.getMD5Checksum(archive));
+      LOG.info("Export {} wrote {} into an archive of {} at {}", getKey(),
+        StringUtils.byteWithUnitSI(export.getBytesWritten()), export.getSizeWithUnit(), export.getThroughputWithUnit());
     } catch (IOException e) {
       LOG.error("Failed to read generated archive file stats for {}", archive, e);
     }
@@ -174,6 +184,7 @@ abstract class DatasetExporter extends DatasetBlockingJob {
   protected void bundle() throws IOException {
     LOG.info("Bundling archive at {}", archive.getAbsolutePath());
     FileUtils.forceMkdir(archive.getParentFile());
+    export.setBytesWritten(FileUtils.sizeOfDirectory(tmpDir));
     CompressionUtil.zipDir(tmpDir, archive, true);
   }
 
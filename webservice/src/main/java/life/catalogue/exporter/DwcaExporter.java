@@ -50,7 +50,9 @@ public class DwcaExporter extends ArchiveExporter {
       if (writer2 != null) {
         writer2.close();
       }
-      writer2 = new TermWriter.TSV(tmpDir, terms[0], terms[1], List.of(Arrays.copyOfRange(terms, 2, terms.length)));
+      var cols = List.of(Arrays.copyOfRange(terms, 2, terms.length));
+      // the species profile stays a plain file next to Excel workbooks
+      writer2 = req.isExcel() ? new TermWriter.TSV(tmpDir, terms[0], terms[1], cols) : newWriter(terms[0], terms[1], cols);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -131,7 +133,7 @@ public class DwcaExporter extends ArchiveExporter {
     };
   }
 
-  void write(NameUsageBase u) {
+  void write(TermWriter writer, NameUsageBase u) {
     Name n = u.getName();
     writer.set(DwcTerm.taxonID, u.getId());
     writer.set(DwcTerm.datasetID, sector2datasetKey(u.getSectorKey()));
@@ -182,13 +184,13 @@ public class DwcaExporter extends ArchiveExporter {
     }
   }
 
-  void write(String taxonID, VernacularName vn) {
+  void write(TermWriter writer, String taxonID, VernacularName vn) {
     writer.set(DwcTerm.taxonID, taxonID);
     writer.set(DcTerm.language, vn.getLanguage());
     writer.set(DwcTerm.vernacularName, vn.getName());
   }
 
-  void write(String taxonID, Distribution d) {
+  void write(TermWriter writer, String taxonID, Distribution d) {
     writer.set(DwcTerm.taxonID, taxonID);
     writer.set(DwcTerm.occurrenceStatus, d.getStatus());
     if (d.getGazetteer() == Gazetteer.TEXT) {
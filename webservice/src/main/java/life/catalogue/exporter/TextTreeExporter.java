@@ -43,6 +43,7 @@ public class TextTreeExporter extends DatasetExporter {
   protected void bundle() throws IOException {
     LOG.info("Compressing text tree to {}", archive.getAbsolutePath());
     FileUtils.forceMkdir(archive.getParentFile());
+    getExport().setBytesWritten(f.length());
     CompressionUtil.zipFile(f, archive);
   }
 
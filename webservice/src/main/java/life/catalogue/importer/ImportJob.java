@@ -29,6 +29,7 @@ import life.catalogue.matching.decision.SectorRematcher;
 import life.catalogue.matching.NameIndex;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.time.DurationFormatUtils;
+import org.apache.commons.lang3.time.StopWatch;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -226,10 +227,15 @@ public class ImportJob implements Runnable {
       final boolean doImport = prepareSourceData(sourceDir);
       checkIfCancelled();
       if (doImport) {
+        // the existing summary is outdated once we start replacing the data and must not survive a failed import
+        dao.deleteChildSummary(datasetKey);
         LOG.info("Normalizing {}", datasetKey);
         updateState(ImportState.PROCESSING);
         store = NeoDbFactory.create(datasetKey, getAttempt(), cfg.normalizer);
-        new Normalizer(dataset, store, sourceDir, index, imgService).call();
+        Normalizer normalizer = new Normalizer(dataset, store, sourceDir, index, imgService, cfg.normalizer.matchingThreads);
+        normalizer.call();
+        di.setNamesByMatchTypeCount(normalizer.getMatchCounts());
+        di.getTimings().putAll(normalizer.getTimings());
   
         LOG.info("Fetching logo for {}", datasetKey);
         LogoUpdateJob.updateDatasetAsync(dataset.getDataset(), factory, downloader, cfg.normalizer::scratchFile, imgService, req.createdBy);
@@ -237,7 +243,9 @@ public class ImportJob implements Runnable {
         LOG.info("Writing {} to Postgres!", datasetKey);
         updateState(ImportState.INSERTING);
         store = NeoDbFactory.open(datasetKey, getAttempt(), cfg.normalizer);
+        StopWatch watch = StopWatch.createStarted();
         new PgImport(di.getAttempt(), dataset, store, factory, cfg.importer, indexService).call();
+        di.getTimings().put("pgImport", (int) watch.getTime());
 
         LOG.info("Build import metrics for dataset {}", datasetKey);
         updateState(ImportState.ANALYZING);
@@ -14,6 +14,8 @@ import life.catalogue.common.collection.IterUtils;
 import life.catalogue.common.collection.MapUtils;
 import life.catalogue.common.tax.MisappliedNameMatcher;
 import life.catalogue.common.tax.RankUtils;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
 import life.catalogue.img.ImageService;
 import life.catalogue.img.ImageServiceFS;
 import life.catalogue.importer.acef.AcefInserter;
@@ -28,6 +30,7 @@ import life.catalogue.importer.reference.ReferenceFactory;
 import life.catalogue.importer.txttree.TxtTreeInserter;
 import life.catalogue.matching.NameIndex;
 import life.catalogue.parser.NameParser;
+import org.apache.commons.lang3.time.StopWatch;
 import org.gbif.nameparser.api.NameType;
 import org.gbif.nameparser.api.Rank;
 import org.neo4j.graphdb.*;
@@ -39,10 +42,12 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -52,6 +57,9 @@ import java.util.stream.Collectors;
  */
 public class Normalizer implements Callable<Boolean> {
   private static final Logger LOG = LoggerFactory.getLogger(Normalizer.class);
+  public static final int DEFAULT_MATCHING_THREADS = 4;
+  // number of names matched as one unit of work by a matching thread
+  private static final int MATCH_CHUNK_SIZE = 1000;
   private final DataFormat format;
   private final Path sourceDir;
   private final int datasetKey;
@@ -60,10 +68,21 @@ public class Normalizer implements Callable<Boolean> {
   private final ImageService imgService;
   private final NameIndex index;
   private final DatasetWithSettings dataset;
+  private final int matchingThreads;
+  private final Map<MatchType, Integer> matchCounts = new EnumMap<>(MatchType.class);
+  private final Map<String, Integer> timings = new LinkedHashMap<>();
   private MappingFlags meta;
 
 
   public Normalizer(DatasetWithSettings dataset, NeoDb store, Path sourceDir, NameIndex index, ImageService imgService) {
+    this(dataset, store, sourceDir, index, imgService, DEFAULT_MATCHING_THREADS);
+  }
+
+  /**
+   * @param matchingThreads number of threads to match names concurrently with
+   */
+  public Normalizer(DatasetWithSettings dataset, NeoDb store, Path sourceDir, NameIndex index, ImageService imgService, int matchingThreads) {
+    Preconditions.checkArgument(matchingThreads > 0, "At least one matching thread required");
     this.format = Preconditions.checkNotNull(dataset.getDataFormat(), "Data format not given");
     this.dataset = dataset;
     this.sourceDir = sourceDir;
@@ -72,6 +91,28 @@ public class Normalizer implements Callable<Boolean> {
     refFactory = new ReferenceFactory(datasetKey, store.references());
     this.index = index;
     this.imgService = imgService;
+    this.matchingThreads = matchingThreads;
+  }
+
+  /**
+   * @return number of names by their names index match type, available after the normalizer has run
+   */
+  public Map<MatchType, Integer> getMatchCounts() {
+    return matchCounts;
+  }
+
+  /**
+   * @return duration in milliseconds of each normalizer stage in the order they were executed
+   */
+  public Map<String, Integer> getTimings() {
+    return timings;
+  }
+
+  private void lap(String stage, StopWatch watch) {
+    timings.put(stage, (int) watch.getTime());
+    LOG.info("Normalizer stage {} completed in {}", stage, watch);
+    watch.reset();
+    watch.start();
   }
 
   /**
@@ -83,23 +124,29 @@ public class Normalizer implements Callable<Boolean> {
   @Override
   public Boolean call() throws NormalizationFailedException, InterruptedException {
     LOG.info("Start normalization of {}", store);
+    final StopWatch watch = StopWatch.createStarted();
     try {
       // batch import verbatim records
       insertData();
       // create new id generator being aware of existing ids we inserted up to now
       store.updateIdGenerators();
+      lap("insert", watch);
       // insert normalizer db relations, create implicit nodes if needed and parse names
       checkIfCancelled();
       normalize();
+      lap("normalize", watch);
       // sync taxon KVP store with neo4j relations, setting correct neo4j labels, homotypic keys etc
       checkIfCancelled();
       store.sync();
+      lap("sync", watch);
       // verify, derive issues and fail before we do expensive matching or even db imports
       checkIfCancelled();
       validate();
+      lap("validate", watch);
       // matches names and taxon concepts and builds metrics per name/taxon
       checkIfCancelled();
       matchAndCount();
+      lap("match", watch);
       LOG.info("Normalization succeeded");
 
     } finally {
@@ -287,20 +334,69 @@ public class Normalizer implements Callable<Boolean> {
     return obj;
   }
 
-  private void matchAndCount() {
-    final Map<MatchType, AtomicInteger> counts = Maps.newHashMap();
-    for (MatchType mt : MatchType.values()) {
-      counts.put(mt, new AtomicInteger(0));
-    }
+  /**
+   * Matches all names to the names index using several threads.
+   * Names are read and matched in chunks, but matches are persisted and checked for duplicates in the order the names were read
+   * by the calling thread only, so the first verbatim record of a duplicate name is always the same.
+   */
+  private void matchAndCount() throws InterruptedException {
     // track duplicates, map index name ids to first verbatim key
     final Int2IntMap nameIds = new Int2IntOpenHashMap();
-    store.names().all().forEach(nn -> {
+    final ExecutorService exec = Executors.newFixedThreadPool(matchingThreads, new NamedThreadFactory("normalizer-match-" + datasetKey));
+    // pending chunks in the order they were read
+    final Deque<Future<List<NeoName>>> chunks = new ArrayDeque<>();
+    try {
+      Iterator<NeoName> iter = store.names().all().iterator();
+      while (iter.hasNext()) {
+        final List<NeoName> chunk = new ArrayList<>(MATCH_CHUNK_SIZE);
+        while (iter.hasNext() && chunk.size() < MATCH_CHUNK_SIZE) {
+          chunk.add(iter.next());
+        }
+        chunks.add(exec.submit(() -> match(chunk)));
+        // limit the number of names held in memory
+        if (chunks.size() > 2 * matchingThreads) {
+          persistMatches(chunks.poll().get(), nameIds);
+        }
+      }
+      while (!chunks.isEmpty()) {
+        persistMatches(chunks.poll().get(), nameIds);
+      }
+
+    } catch (ExecutionException e) {
+      throw new NormalizationFailedException("Failed to match names", e.getCause());
+
+    } finally {
+      if (!chunks.isEmpty()) {
+        chunks.forEach(f -> f.cancel(true));
+      }
+      ExecutorUtils.shutdown(exec);
+    }
+    LOG.info("Matched all {} names: {}", MapUtils.sumValues(matchCounts), Joiner.on(',').withKeyValueSeparator("=").join(matchCounts));
+  }
+
+  /**
+   * Matches a chunk of names, updating their names index properties. Executed by the matching threads.
+   */
+  private List<NeoName> match(List<NeoName> chunk) {
+    for (NeoName nn : chunk) {
       NameMatch m = index.match(nn.getName(), true, false);
       nn.namesIndexMatchType = m.getType();
-      if (m.hasMatch()) {
-        int nKey = m.getName().getKey();
-        nn.namesIndexId = nKey;
-        store.names().update(nn);
+      nn.namesIndexId = m.hasMatch() ? m.getName().getKey() : null;
+    }
+    return chunk;
+  }
+
+  /**
+   * Counts and writes back matched names in one batch and flags duplicates, processing names in their given order.
+   */
+  private void persistMatches(List<NeoName> chunk, Int2IntMap nameIds) throws InterruptedException {
+    checkIfCancelled();
+    List<NeoName> matched = new ArrayList<>(chunk.size());
+    for (NeoName nn : chunk) {
+      matchCounts.merge(nn.namesIndexMatchType, 1, Integer::sum);
+      if (nn.namesIndexId != null) {
+        int nKey = nn.namesIndexId;
+        matched.add(nn);
         // track duplicates regardless of status - but only for verbatim records!
         if (nn.getName().getVerbatimKey() != null) {
           if (nameIds.containsKey(nKey)) {
@@ -311,9 +407,8 @@ public class Normalizer implements Callable<Boolean> {
           }
         }
       }
-      counts.get(m.getType()).incrementAndGet();
-    });
-    LOG.info("Matched all {} names: {}", MapUtils.sumValues(counts), Joiner.on(',').withKeyValueSeparator("=").join(counts));
+    }
+    store.names().updateAll(matched);
   }
 
   private void normalize() {
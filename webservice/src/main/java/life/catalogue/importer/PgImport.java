@@ -13,6 +13,7 @@ import life.catalogue.common.lang.InterruptedRuntimeException;
 import life.catalogue.config.ImporterConfig;
 import life.catalogue.dao.Partitioner;
 import life.catalogue.db.Create;
+import life.catalogue.db.InitDbUtils;
 import life.catalogue.db.mapper.*;
 import life.catalogue.es.NameUsageIndexService;
 import life.catalogue.importer.neo.NeoDb;
@@ -23,6 +24,7 @@ import life.catalogue.importer.neo.model.NeoUsage;
 import life.catalogue.importer.neo.model.RelType;
 import life.catalogue.importer.neo.traverse.StartEndHandler;
 import life.catalogue.importer.neo.traverse.TreeWalker;
+import life.catalogue.postgres.PgCopyWriter;
 import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
@@ -40,6 +42,7 @@ import javax.xml.crypto.Data;
 
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.InvocationTargetException;
+import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -62,6 +65,7 @@ public class PgImport implements Callable<Boolean> {
   
   private final NeoDb store;
   private final int batchSize;
+  private final boolean copy;
   private final SqlSessionFactory sessionFactory;
   private final NameUsageIndexService indexService;
   private final int attempt;
@@ -89,6 +93,7 @@ public class PgImport implements Callable<Boolean> {
     this.dataset = dataset;
     this.store = store;
     this.batchSize = cfg.batchSize;
+    this.copy = cfg.copy;
     this.sessionFactory = sessionFactory;
     this.indexService = indexService;
     verbatimIssueCache = Caffeine.newBuilder()
@@ -201,6 +206,10 @@ public class PgImport implements Callable<Boolean> {
   }
   
   private void insertVerbatim() throws InterruptedException {
+    if (copy) {
+      copyVerbatim();
+      return;
+    }
     try (final SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
       VerbatimRecordMapper mapper = session.getMapper(VerbatimRecordMapper.class);
       int counter = 0;
@@ -221,6 +230,44 @@ public class PgImport implements Callable<Boolean> {
     }
   }
   
+  private void copyVerbatim() {
+    int counter = 0;
+    try (SqlSession session = sessionFactory.openSession(true)) {
+      try (PgCopyWriter<VerbatimRecord> writer = copyWriter(session, "verbatim", PgImportColumns.VERBATIM)) {
+        for (VerbatimRecord v : store.verbatimList()) {
+          int storeKey = v.getId();
+          // generated keys are not returned by COPY, assign them ourselves
+          v.setId(++counter);
+          v.setDatasetKey(dataset.getKey());
+          writer.write(v);
+          verbatimKeys.put(storeKey, v.getId());
+          if (counter % batchSize == 0) {
+            interruptIfCancelled();
+            LOG.debug("Copied {} verbatim records so far", counter);
+          }
+        }
+      }
+      // make sure the serial continues after our own keys
+      session.getMapper(DatasetPartitionMapper.class).updateIdSequence("verbatim", dataset.getKey());
+    }
+    LOG.info("Copied {} verbatim records", counter);
+  }
+
+  /**
+   * Opens a COPY writer for a dataset partition table or the name_match table.
+   * The session should use auto commit so the rows get committed when the writer is closed.
+   */
+  private <T> PgCopyWriter<T> copyWriter(SqlSession session, String table, PgCopyWriter.Columns<T> columns) {
+    if (!table.equals("name_match")) {
+      table = table + "_" + Partitioner.partition(dataset.getKey());
+    }
+    try {
+      return new PgCopyWriter<>(InitDbUtils.toPgConnection(session.getConnection()), table, columns);
+    } catch (SQLException e) {
+      throw new PersistenceException(e);
+    }
+  }
+
   private void commitVerbatimBatch(SqlSession session, Map<Integer, VerbatimRecord> batchCache) {
     interruptIfCancelled();
     session.commit();
@@ -278,6 +325,10 @@ public class PgImport implements Callable<Boolean> {
   }
 
   private void insertReferences() throws InterruptedException {
+    if (copy) {
+      copyReferences();
+      return;
+    }
     try (final SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
       ReferenceMapper mapper = session.getMapper(ReferenceMapper.class);
       int counter = 0;
@@ -301,10 +352,32 @@ public class PgImport implements Callable<Boolean> {
   }
   
   
+  private void copyReferences() {
+    // update all tmp ids to nice ones
+    store.references().updateTmpIds();
+    try (SqlSession session = sessionFactory.openSession(true);
+         PgCopyWriter<Reference> writer = copyWriter(session, "reference", PgImportColumns.REFERENCE)
+    ) {
+      for (Reference r : store.references()) {
+        r.setDatasetKey(dataset.getKey());
+        updateVerbatimUserEntity(r);
+        writer.write(r);
+        if (rCounter.incrementAndGet() % batchSize == 0) {
+          interruptIfCancelled();
+        }
+      }
+    }
+    LOG.debug("Copied all {} references", rCounter);
+  }
+
   /**
    * Inserts all names, collecting all homotypic name keys for later updates if they havent been inserted already.
    */
   private void insertNames() {
+    if (copy) {
+      copyNames();
+      return;
+    }
     try (final SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
       final NameMapper nm = session.getMapper(NameMapper.class);
       final NameMatchMapper nmm = session.getMapper(NameMatchMapper.class);
@@ -333,6 +406,38 @@ public class PgImport implements Callable<Boolean> {
     LOG.info("Inserted {} name in total", nCounter.get());
   }
   
+  /**
+   * Copies all names and their names index matches using 2 connections in parallel.
+   */
+  private void copyNames() {
+    try (SqlSession session = sessionFactory.openSession(true);
+         SqlSession matchSession = sessionFactory.openSession(true)
+    ) {
+      LOG.debug("Remove existing name matches");
+      session.getMapper(NameMatchMapper.class).deleteByDataset(dataset.getKey());
+
+      LOG.debug("Copying all names");
+      try (PgCopyWriter<Name> nWriter = copyWriter(session, "name", PgImportColumns.NAME);
+           PgCopyWriter<NeoName> mWriter = copyWriter(matchSession, "name_match", PgImportColumns.NAME_MATCH)
+      ) {
+        store.names().all().forEach(n -> {
+          n.getName().setDatasetKey(dataset.getKey());
+          updateVerbatimUserEntity(n.getName());
+          updateReferenceKey(n.getName().getPublishedInId(), n.getName()::setPublishedInId);
+          nWriter.write(n.getName());
+          if (n.namesIndexId != null) {
+            mWriter.write(n);
+          }
+          if (nCounter.incrementAndGet() % batchSize == 0) {
+            interruptIfCancelled();
+            LOG.debug("Copied {} names", nCounter.get());
+          }
+        });
+      }
+    }
+    LOG.info("Copied {} name in total", nCounter.get());
+  }
+
   /**
    * Go through all neo4j relations and convert them to name acts if the rel type matches
    */
@@ -340,6 +445,7 @@ public class PgImport implements Callable<Boolean> {
     nRelCounter = insertRelations(
       RelType::isNameRel,
       NameRelationMapper.class,
+      "name_rel", PgImportColumns.NAME_REL,
       store::toNameRelation
     );
   }
@@ -385,7 +491,10 @@ public class PgImport implements Callable<Boolean> {
         LOG.info("Loaded {} decisions for indexing", cnt);
       }
 
-      try (SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
+      try (SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false);
+           SqlSession copySession = copy ? sessionFactory.openSession(true) : null;
+           PgCopyWriter<NameUsageBase> usageWriter = copy ? copyWriter(copySession, "name_usage", PgImportColumns.USAGE) : null
+      ) {
         LOG.info("Inserting remaining names and all taxa");
         TreatmentMapper treatmentMapper = session.getMapper(TreatmentMapper.class);
         DistributionMapper distributionMapper = session.getMapper(DistributionMapper.class);
@@ -394,6 +503,14 @@ public class PgImport implements Callable<Boolean> {
         TaxonMapper taxonMapper = session.getMapper(TaxonMapper.class);
         SynonymMapper synMapper = session.getMapper(SynonymMapper.class);
         VernacularNameMapper vernacularMapper = session.getMapper(VernacularNameMapper.class);
+        // usages are copied if enabled, all their extensions are always inserted in batches
+        final Consumer<NameUsageBase> usages = usageWriter != null ? usageWriter::write : u -> {
+          if (u.isSynonym()) {
+            synMapper.create((Synonym) u);
+          } else {
+            taxonMapper.create((Taxon) u);
+          }
+        };
 
         // iterate over taxonomic tree in depth first order, keeping postgres parent keys
         // pro parte synonyms will be visited multiple times, remember their name ids!
@@ -419,11 +536,11 @@ public class PgImport implements Callable<Boolean> {
                   proParteIds.add(u.getId());
                 }
               }
-              synMapper.create(u.getSynonym());
+              usages.accept(u.getSynonym());
               sCounter.incrementAndGet();
 
             } else {
-              taxonMapper.create(updateUser(u.getTaxon()));
+              usages.accept(updateUser(u.getTaxon()));
               tCounter.incrementAndGet();
               Taxon acc = u.getTaxon();
 
@@ -578,6 +695,7 @@ public class PgImport implements Callable<Boolean> {
     tRelCounter = insertRelations(
       RelType::isTaxonConceptRel,
       TaxonConceptRelationMapper.class,
+      "taxon_concept_rel", PgImportColumns.TAXON_CONCEPT_REL,
       store::toConceptRelation
     );
 
@@ -585,41 +703,56 @@ public class PgImport implements Callable<Boolean> {
     sRelCounter = insertRelations(
       RelType::isSpeciesInteraction,
       SpeciesInteractionMapper.class,
+      "species_interaction", PgImportColumns.SPECIES_INTERACTION,
       store::toSpeciesInteraction
     );
   }
 
+  /**
+   * @param table relation table to copy into, used instead of the mapper if COPY is enabled
+   */
   private <T extends DatasetScopedEntity<Integer> & Referenced> int insertRelations (
     Predicate<RelType> filter,
     Class<? extends Create<T>> relMapperClass,
+    String table,
+    PgCopyWriter.Columns<T> columns,
     Function<Relationship, T> creator
   ) {
     int total = 0;
     String type = null;
-    for (RelType rt : RelType.values()) {
-      if (!filter.test(rt)) continue;
-
-      if (type == null && rt.relationClass() != null) {
-        type = rt.relationClass().getSimpleName();
-      }
-      final AtomicInteger counter = new AtomicInteger(0);
-      try (final SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
-        final Create<T> relMapper = session.getMapper(relMapperClass);
-        try (Transaction tx = store.getNeo().beginTx()) {
-          store.iterRelations(rt).stream().forEach(rel -> {
-            T nr = creator.apply(rel);
-            updateReferenceKey(nr);
-            relMapper.create(updateUser(nr));
-            if (counter.incrementAndGet() % batchSize == 0) {
-              interruptIfCancelled();
-              session.commit();
-            }
-          });
+    try (SqlSession copySession = copy ? sessionFactory.openSession(true) : null;
+         PgCopyWriter<T> copyWriter = copy ? copyWriter(copySession, table, columns) : null
+    ) {
+      for (RelType rt : RelType.values()) {
+        if (!filter.test(rt)) continue;
+
+        if (type == null && rt.relationClass() != null) {
+          type = rt.relationClass().getSimpleName();
         }
-        session.commit();
+        final AtomicInteger counter = new AtomicInteger(0);
+        try (final SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
+          final Create<T> relMapper = session.getMapper(relMapperClass);
+          try (Transaction tx = store.getNeo().beginTx()) {
+            store.iterRelations(rt).stream().forEach(rel -> {
+              T nr = creator.apply(rel);
+              updateReferenceKey(nr);
+              updateUser(nr);
+              if (copyWriter != null) {
+                copyWriter.write(nr);
+              } else {
+                relMapper.create(nr);
+              }
+              if (counter.incrementAndGet() % batchSize == 0) {
+                interruptIfCancelled();
+                session.commit();
+              }
+            });
+          }
+          session.commit();
+        }
+        LOG.debug("Inserted {} {} relations", counter.get(), rt);
+        total += counter.get();
       }
-      LOG.debug("Inserted {} {} relations", counter.get(), rt);
-      total += counter.get();
     }
 
     LOG.info("Inserted {} {} relations", total, type);
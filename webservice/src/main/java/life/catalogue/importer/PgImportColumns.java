@@ -0,0 +1,194 @@
+package life.catalogue.importer;
+
+import life.catalogue.api.jackson.ApiModule;
+import life.catalogue.api.model.*;
+import life.catalogue.importer.neo.model.NeoName;
+import life.catalogue.postgres.PgCopyWriter;
+
+import org.gbif.dwc.terms.Term;
+import org.gbif.nameparser.api.Authorship;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Copy columns of the main tables written by the PgImport.
+ * They must be kept in sync with the insert statements of the respective mappers, incl the null handling of their type handlers.
+ */
+final class PgImportColumns {
+  private static final ObjectWriter TERMS_WRITER = ApiModule.MAPPER.writerFor(new TypeReference<Map<Term, String>>() {});
+  private static final ObjectWriter CSL_WRITER = ApiModule.MAPPER.writerFor(CslData.class);
+
+  private PgImportColumns() {
+  }
+
+  /**
+   * Verbatim records with their final key already set.
+   */
+  static final PgCopyWriter.Columns<VerbatimRecord> VERBATIM = new PgCopyWriter.Columns<VerbatimRecord>()
+    .add("id", VerbatimRecord::getId)
+    .add("dataset_key", VerbatimRecord::getDatasetKey)
+    .add("line", VerbatimRecord::getLine)
+    .add("file", VerbatimRecord::getFile)
+    .add("type", VerbatimRecord::getType)
+    .add("terms", v -> json(TERMS_WRITER, v.getTerms()))
+    .add("issues", v -> nullToEmpty(v.getIssues()));
+
+  static final PgCopyWriter.Columns<Reference> REFERENCE = new PgCopyWriter.Columns<Reference>()
+    .add("dataset_key", Reference::getDatasetKey)
+    .add("sector_key", Reference::getSectorKey)
+    .add("id", Reference::getId)
+    .add("verbatim_key", Reference::getVerbatimKey)
+    .add("csl", r -> json(CSL_WRITER, r.getCsl()))
+    .add("citation", Reference::getCitation)
+    .add("year", Reference::getYear)
+    .add("created_by", Reference::getCreatedBy)
+    .add("modified_by", Reference::getModifiedBy);
+
+  static final PgCopyWriter.Columns<Name> NAME = new PgCopyWriter.Columns<Name>()
+    .add("dataset_key", Name::getDatasetKey)
+    .add("sector_key", Name::getSectorKey)
+    .add("id", Name::getId)
+    .add("verbatim_key", Name::getVerbatimKey)
+    .add("homotypic_name_id", Name::getHomotypicNameId)
+    .add("scientific_name", Name::getScientificName)
+    .add("scientific_name_normalized", Name::getScientificNameNormalized)
+    .add("authorship", Name::getAuthorship)
+    .add("authorship_normalized", Name::getAuthorshipNormalized)
+    .add("rank", Name::getRank)
+    .add("uninomial", Name::getUninomial)
+    .add("genus", Name::getGenus)
+    .add("infrageneric_epithet", Name::getInfragenericEpithet)
+    .add("specific_epithet", Name::getSpecificEpithet)
+    .add("infraspecific_epithet", Name::getInfraspecificEpithet)
+    .add("cultivar_epithet", Name::getCultivarEpithet)
+    .add("candidatus", Name::isCandidatus)
+    .add("notho", Name::getNotho)
+    .add("basionym_authors", n -> authors(n.getBasionymAuthorship(), Authorship::getAuthors))
+    .add("basionym_ex_authors", n -> authors(n.getBasionymAuthorship(), Authorship::getExAuthors))
+    .add("basionym_year", n -> n.getBasionymAuthorship() == null ? null : n.getBasionymAuthorship().getYear())
+    .add("combination_authors", n -> authors(n.getCombinationAuthorship(), Authorship::getAuthors))
+    .add("combination_ex_authors", n -> authors(n.getCombinationAuthorship(), Authorship::getExAuthors))
+    .add("combination_year", n -> n.getCombinationAuthorship() == null ? null : n.getCombinationAuthorship().getYear())
+    .add("sanctioning_author", Name::getSanctioningAuthor)
+    .add("published_in_id", Name::getPublishedInId)
+    .add("published_in_page", Name::getPublishedInPage)
+    .add("code", Name::getCode)
+    .add("nom_status", Name::getNomStatus)
+    .add("origin", Name::getOrigin)
+    .add("type", Name::getType)
+    .add("link", Name::getLink)
+    .add("nomenclatural_note", Name::getNomenclaturalNote)
+    .add("unparsed", Name::getUnparsed)
+    .add("remarks", Name::getRemarks)
+    .add("created_by", Name::getCreatedBy)
+    .add("modified_by", Name::getModifiedBy);
+
+  /**
+   * Names with a names index match. The name_match table is not partitioned.
+   */
+  static final PgCopyWriter.Columns<NeoName> NAME_MATCH = new PgCopyWriter.Columns<NeoName>()
+    .add("dataset_key", nn -> nn.getName().getDatasetKey())
+    .add("sector_key", nn -> nn.getName().getSectorKey())
+    .add("type", nn -> nn.namesIndexMatchType)
+    .add("index_id", nn -> nn.namesIndexId)
+    .add("name_id", nn -> nn.getName().getId());
+
+  /**
+   * Taxa and synonyms, leaving taxon specific columns empty for synonyms.
+   */
+  static final PgCopyWriter.Columns<NameUsageBase> USAGE = new PgCopyWriter.Columns<NameUsageBase>()
+    .add("id", NameUsageBase::getId)
+    .add("dataset_key", NameUsageBase::getDatasetKey)
+    .add("sector_key", NameUsageBase::getSectorKey)
+    .add("verbatim_key", NameUsageBase::getVerbatimKey)
+    .add("parent_id", NameUsageBase::getParentId)
+    .add("name_id", u -> u.getName().getId())
+    .add("status", NameUsageBase::getStatus)
+    .add("is_synonym", u -> u.getStatus().isSynonym())
+    .add("origin", NameUsageBase::getOrigin)
+    .add("name_phrase", NameUsageBase::getNamePhrase)
+    .add("according_to_id", NameUsageBase::getAccordingToId)
+    .add("reference_ids", NameUsageBase::getReferenceIds)
+    .add("remarks", NameUsageBase::getRemarks)
+    .add("created_by", NameUsageBase::getCreatedBy)
+    .add("modified_by", NameUsageBase::getModifiedBy)
+    .add("scrutinizer", u -> taxon(u, Taxon::getScrutinizer))
+    .add("scrutinizer_date", u -> taxon(u, Taxon::getScrutinizerDate))
+    .add("extinct", u -> taxon(u, Taxon::isExtinct))
+    .add("temporal_range_start", u -> taxon(u, Taxon::getTemporalRangeStart))
+    .add("temporal_range_end", u -> taxon(u, Taxon::getTemporalRangeEnd))
+    .add("environments", u -> nullToEmpty(taxon(u, Taxon::getEnvironments)))
+    .add("link", u -> taxon(u, Taxon::getLink));
+
+  static final PgCopyWriter.Columns<NameRelation> NAME_REL = new PgCopyWriter.Columns<NameRelation>()
+    .add("dataset_key", NameRelation::getDatasetKey)
+    .add("sector_key", NameRelation::getSectorKey)
+    .add("name_id", NameRelation::getNameId)
+    .add("related_name_id", NameRelation::getRelatedNameId)
+    .add("verbatim_key", NameRelation::getVerbatimKey)
+    .add("type", NameRelation::getType)
+    .add("reference_id", NameRelation::getReferenceId)
+    .add("remarks", NameRelation::getRemarks)
+    .add("created_by", NameRelation::getCreatedBy)
+    .add("modified_by", NameRelation::getModifiedBy);
+
+  static final PgCopyWriter.Columns<TaxonConceptRelation> TAXON_CONCEPT_REL = new PgCopyWriter.Columns<TaxonConceptRelation>()
+    .add("dataset_key", TaxonConceptRelation::getDatasetKey)
+    .add("sector_key", TaxonConceptRelation::getSectorKey)
+    .add("taxon_id", TaxonConceptRelation::getTaxonId)
+    .add("related_taxon_id", TaxonConceptRelation::getRelatedTaxonId)
+    .add("verbatim_key", TaxonConceptRelation::getVerbatimKey)
+    .add("type", TaxonConceptRelation::getType)
+    .add("reference_id", TaxonConceptRelation::getReferenceId)
+    .add("remarks", TaxonConceptRelation::getRemarks)
+    .add("created_by", TaxonConceptRelation::getCreatedBy)
+    .add("modified_by", TaxonConceptRelation::getModifiedBy);
+
+  static final PgCopyWriter.Columns<SpeciesInteraction> SPECIES_INTERACTION = new PgCopyWriter.Columns<SpeciesInteraction>()
+    .add("dataset_key", SpeciesInteraction::getDatasetKey)
+    .add("sector_key", SpeciesInteraction::getSectorKey)
+    .add("taxon_id", SpeciesInteraction::getTaxonId)
+    .add("related_taxon_id", SpeciesInteraction::getRelatedTaxonId)
+    .add("related_taxon_scientific_name", SpeciesInteraction::getRelatedTaxonScientificName)
+    .add("verbatim_key", SpeciesInteraction::getVerbatimKey)
+    .add("type", SpeciesInteraction::getType)
+    .add("reference_id", SpeciesInteraction::getReferenceId)
+    .add("remarks", SpeciesInteraction::getRemarks)
+    .add("created_by", SpeciesInteraction::getCreatedBy)
+    .add("modified_by", SpeciesInteraction::getModifiedBy);
+
+  private static String json(ObjectWriter writer, Object obj) {
+    if (obj == null) {
+      return null;
+    }
+    try {
+      return writer.writeValueAsString(obj);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static <X> X taxon(NameUsageBase u, Function<Taxon, X> getter) {
+    return u instanceof Taxon ? getter.apply((Taxon) u) : null;
+  }
+
+  private static Collection<?> authors(Authorship authorship, Function<Authorship, List<String>> getter) {
+    return authorship == null ? Collections.emptyList() : nullToEmpty(getter.apply(authorship));
+  }
+
+  /**
+   * Mirrors the array type handlers which store empty arrays instead of nulls.
+   */
+  private static Collection<?> nullToEmpty(Collection<?> col) {
+    return col == null ? Collections.emptyList() : col;
+  }
+}
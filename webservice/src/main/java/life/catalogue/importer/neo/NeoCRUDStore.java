@@ -17,6 +17,8 @@ import org.neo4j.graphdb.Node;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -163,6 +165,19 @@ public class NeoCRUDStore<T extends DSID<String> & VerbatimEntity & NeoNode> {
     objects.put(obj.getNode().getId(), obj);
   }
   
+  /**
+   * Updates several objects in the KVP store with a single batch write, keeping ID index and neo4j nodes as they are.
+   * Only to be used for changes of properties which are neither stored in neo4j nor in any other index of the store.
+   */
+  public void updateAll(Collection<T> objs) {
+    Map<Long, T> batch = new HashMap<>();
+    for (T obj : objs) {
+      Preconditions.checkNotNull(obj.getNode());
+      batch.put(obj.getNode().getId(), obj);
+    }
+    objects.putAll(batch);
+  }
+
   /**
    * Removes the neo4j node with all its relations and all entities stored under this node like NeoTaxon.
    */
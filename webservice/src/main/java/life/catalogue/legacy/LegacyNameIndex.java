@@ -0,0 +1,263 @@
+package life.catalogue.legacy;
+
+import life.catalogue.api.event.DatasetChanged;
+import life.catalogue.api.exception.NotFoundException;
+import life.catalogue.api.vocab.DatasetOrigin;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
+import life.catalogue.dao.DatasetInfoCache;
+import life.catalogue.db.mapper.legacy.LNameMapper;
+import life.catalogue.db.mapper.legacy.LVernacularMapper;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * In memory index of all scientific and vernacular names of releases used by the legacy name search.
+ * Names are kept lower cased in sorted arrays, so exact and prefix matches are found by binary search
+ * and counts and pages are derived from the matching range without any SQL COUNT or OFFSET.
+ *
+ * Releases do not change, so the index of a release is built once in the background on its first search.
+ * Until it is ready and for all other datasets search requests are answered by the database.
+ * The number of names kept in memory is limited and least recently used releases are evicted first.
+ * Indices are built by a small pool of background threads so concurrent builds cannot exhaust the database or memory.
+ */
+public class LegacyNameIndex implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(LegacyNameIndex.class);
+  // LIKE wildcards which are not escaped in the legacy scientific name search
+  private static final String WILDCARDS = "%_";
+  // number of indices built concurrently
+  private static final int BUILD_THREADS = 2;
+
+  private final ExecutorService builder;
+  private final AsyncLoadingCache<Integer, Index> indices;
+  private final IntPredicate isRelease;
+  private final int maxNames;
+  // datasets with more names than the index can hold
+  private final Set<Integer> tooLarge = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Names sorted by their lower cased value with the ids of their records in the same order.
+   */
+  static class Names {
+    final String[] names;
+    final String[] ids;
+
+    Names(List<LNameMapper.IndexEntry> entries) {
+      entries.sort(Comparator.comparing(LNameMapper.IndexEntry::getName).thenComparing(LNameMapper.IndexEntry::getId));
+      names = new String[entries.size()];
+      ids = new String[entries.size()];
+      int idx = 0;
+      for (LNameMapper.IndexEntry e : entries) {
+        names[idx] = e.getName();
+        ids[idx++] = e.getId();
+      }
+    }
+
+    int size() {
+      return names.length;
+    }
+
+    /**
+     * @return index of the first name which is equal or greater than the given one
+     */
+    private int lowerBound(String name) {
+      int low = 0;
+      int high = names.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (names[mid].compareTo(name) < 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * @return start (inclusive) and end (exclusive) position of all matching names
+     */
+    int[] range(String q, boolean prefix) {
+      int from = lowerBound(q);
+      // all strings with the prefix sort before the prefix followed by the highest char
+      int to = lowerBound(prefix ? q + Character.MAX_VALUE : q + Character.MIN_VALUE);
+      return new int[]{from, to};
+    }
+  }
+
+  /**
+   * The scientific and vernacular names of a single dataset.
+   */
+  static class Index {
+    final Names scientific;
+    final Names vernacular;
+
+    Index(Names scientific, Names vernacular) {
+      this.scientific = scientific;
+      this.vernacular = vernacular;
+    }
+
+    int size() {
+      return scientific.size() + vernacular.size();
+    }
+
+    /**
+     * Pages through all matching scientific names followed by all matching vernacular names.
+     */
+    Hits search(String q, boolean prefix, int start, int limit) {
+      final String lq = normalize(q);
+      int[] sn = scientific.range(lq, prefix);
+      int[] vn = vernacular.range(lq, prefix);
+      Hits hits = new Hits(sn[1] - sn[0], vn[1] - vn[0]);
+      int end = Math.min(start + limit, hits.getTotal());
+      for (int idx = start; idx < end; idx++) {
+        if (idx < hits.scientificCount) {
+          hits.usageIds.add(scientific.ids[sn[0] + idx]);
+        } else {
+          hits.vernacularIds.add(Integer.parseInt(vernacular.ids[vn[0] + idx - hits.scientificCount]));
+        }
+      }
+      return hits;
+    }
+  }
+
+  /**
+   * A page of matching usage and vernacular ids together with the total number of matches.
+   */
+  public static class Hits {
+    private final int scientificCount;
+    private final int vernacularCount;
+    private final List<String> usageIds = new ArrayList<>();
+    private final List<Integer> vernacularIds = new ArrayList<>();
+
+    Hits(int scientificCount, int vernacularCount) {
+      this.scientificCount = scientificCount;
+      this.vernacularCount = vernacularCount;
+    }
+
+    public int getTotal() {
+      return scientificCount + vernacularCount;
+    }
+
+    public List<String> getUsageIds() {
+      return usageIds;
+    }
+
+    public List<Integer> getVernacularIds() {
+      return vernacularIds;
+    }
+  }
+
+  /**
+   * @param maxNames maximum number of scientific and vernacular names to keep in memory
+   */
+  public LegacyNameIndex(SqlSessionFactory factory, int maxNames) {
+    this(factory, maxNames, LegacyNameIndex::isRelease);
+  }
+
+  @VisibleForTesting
+  LegacyNameIndex(SqlSessionFactory factory, int maxNames, IntPredicate isRelease) {
+    this.isRelease = isRelease;
+    this.maxNames = maxNames;
+    builder = Executors.newFixedThreadPool(BUILD_THREADS,
+      new NamedThreadFactory("legacy-name-index", Thread.MIN_PRIORITY, true, null)
+    );
+    indices = Caffeine.newBuilder()
+      .maximumWeight(maxNames)
+      .weigher((Integer key, Index idx) -> idx.size())
+      .executor(builder)
+      .buildAsync(key -> build(factory, key));
+  }
+
+  private static boolean isRelease(int datasetKey) {
+    try {
+      return DatasetInfoCache.CACHE.info(datasetKey).origin == DatasetOrigin.RELEASED;
+    } catch (NotFoundException e) {
+      return false;
+    }
+  }
+
+  private Index build(SqlSessionFactory factory, int datasetKey) {
+    LOG.info("Build legacy name index for dataset {}", datasetKey);
+    try (SqlSession session = factory.openSession()) {
+      Names sn = new Names(load(session.getMapper(LNameMapper.class).processIndex(datasetKey)));
+      Names vn = new Names(load(session.getMapper(LVernacularMapper.class).processIndex(datasetKey)));
+      LOG.info("Built legacy name index for dataset {} with {} scientific and {} vernacular names", datasetKey, sn.size(), vn.size());
+      Index idx = new Index(sn, vn);
+      if (idx.size() > maxNames) {
+        // the index would be evicted straight away, dont try again
+        LOG.warn("Legacy name index for dataset {} with {} names exceeds the maximum of {}", datasetKey, idx.size(), maxNames);
+        tooLarge.add(datasetKey);
+      }
+      return idx;
+    }
+  }
+
+  private static List<LNameMapper.IndexEntry> load(Cursor<LNameMapper.IndexEntry> cursor) {
+    List<LNameMapper.IndexEntry> entries = new ArrayList<>();
+    for (LNameMapper.IndexEntry e : cursor) {
+      if (e.getName() != null) {
+        e.setName(normalize(e.getName()));
+        entries.add(e);
+      }
+    }
+    return entries;
+  }
+
+  private static String normalize(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Searches the index of a release for exact or prefix matches of scientific and vernacular names.
+   * Builds the index in the background if it does not exist yet.
+   *
+   * @return the matching page or null if the dataset cannot be searched with the index (yet)
+   */
+  public Hits search(int datasetKey, String q, boolean prefix, int start, int limit) {
+    if (tooLarge.contains(datasetKey) || !isRelease.test(datasetKey) || StringUtils.containsAny(q, WILDCARDS)) {
+      return null;
+    }
+    CompletableFuture<Index> idx = indices.get(datasetKey);
+    if (idx.isDone() && !idx.isCompletedExceptionally()) {
+      return idx.join().search(q, prefix, start, limit);
+    }
+    return null;
+  }
+
+  @VisibleForTesting
+  void put(int datasetKey, Index index) {
+    indices.put(datasetKey, CompletableFuture.completedFuture(index));
+  }
+
+  @Subscribe
+  public void datasetChanged(DatasetChanged event){
+    if (event.isDeletion()) {
+      indices.synchronous().invalidate(event.key);
+      tooLarge.remove(event.key);
+    }
+  }
+
+  @Override
+  public void close() {
+    ExecutorUtils.shutdown(builder, ExecutorUtils.MILLIS_TO_DIE, TimeUnit.MILLISECONDS);
+  }
+}
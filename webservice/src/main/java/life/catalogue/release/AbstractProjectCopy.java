@@ -9,12 +9,14 @@ import life.catalogue.dao.*;
 import life.catalogue.db.CopyDataset;
 import life.catalogue.db.mapper.*;
 import life.catalogue.es.NameUsageIndexService;
+import org.apache.commons.lang3.time.StopWatch;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 import static life.catalogue.common.lang.Exceptions.interruptIfCancelled;
 
@@ -38,11 +40,15 @@ public abstract class AbstractProjectCopy implements Runnable {
   protected final int newDatasetKey;
   private final DatasetOrigin newDatasetOrigin;
   protected final boolean mapIds;
+  private final int copyThreads;
   protected DatasetSettings settings;
 
 
+  /**
+   * @param copyThreads number of tables to copy concurrently
+   */
   public AbstractProjectCopy(String actionName, SqlSessionFactory factory, DatasetImportDao diDao, DatasetDao dDao, NameUsageIndexService indexService,
-                             int userKey, int datasetKey, boolean mapIds) {
+                             int userKey, int datasetKey, boolean mapIds, int copyThreads) {
     DaoUtils.requireManaged(datasetKey, "Only managed datasets can be duplicated.");
     this.actionName = actionName;
     this.factory = factory;
@@ -52,6 +58,7 @@ public abstract class AbstractProjectCopy implements Runnable {
     this.indexService = indexService;
     this.user = userKey;
     this.mapIds = mapIds;
+    this.copyThreads = copyThreads;
     this.datasetKey = datasetKey;
     metrics = diDao.createWaiting(datasetKey, this, userKey);
     metrics.setJob(getClass().getSimpleName());
@@ -192,31 +199,38 @@ public abstract class AbstractProjectCopy implements Runnable {
     diDao.update(metrics);
   }
 
-  private void copyData() {
-    LOG.info("Copy data into dataset {}", newDatasetKey);
+  /**
+   * Copies all tables concurrently with each table using its own connection.
+   * As constraints are only added when partitions get attached, the partition tables do not depend on each other
+   * and only share the id mapping tables that were created before.
+   * The copy duration of each table is kept in the metrics timings.
+   */
+  private void copyData() throws InterruptedException {
+    LOG.info("Copy data into dataset {} using {} threads", newDatasetKey, copyThreads);
     updateState(ImportState.INSERTING);
-    try (SqlSession session = factory.openSession(true)) {
-      copyTable(Sector.class, SectorMapper.class, session);
-      copyTable(EditorialDecision.class, DecisionMapper.class, session);
-      copyTable(SpeciesEstimate.class, EstimateMapper.class, session);
-
-      copyTable(VerbatimRecord.class, VerbatimRecordMapper.class, session);
-
-      copyTable(Reference.class, ReferenceMapper.class, session);
-
-      copyTable(Name.class, NameMapper.class, session);
-      copyTable(NameMatch.class, NameMatchMapper.class, session);
-      copyTable(NameRelation.class, NameRelationMapper.class, session);
-      copyTable(TypeMaterial.class, TypeMaterialMapper.class, session);
-
-      copyTable(NameUsage.class, NameUsageMapper.class, session);
-      copyTable(VerbatimSource.class, VerbatimSourceMapper.class, session);
-
-      copyTable(VernacularName.class, VernacularNameMapper.class, session);
-      copyTable(Distribution.class, DistributionMapper.class, session);
-      copyTable(Treatment.class, TreatmentMapper.class, session);
-      copyTable(Media.class, MediaMapper.class, session);
-    }
+    StopWatch watch = StopWatch.createStarted();
+    CopyScheduler scheduler = new CopyScheduler(copyThreads, "project-copy-" + newDatasetKey);
+    // start with the largest tables so the small ones fill up the remaining threads at the end
+    copyTable(scheduler, NameUsage.class, NameUsageMapper.class);
+    copyTable(scheduler, Name.class, NameMapper.class);
+    copyTable(scheduler, VerbatimRecord.class, VerbatimRecordMapper.class);
+    copyTable(scheduler, NameMatch.class, NameMatchMapper.class);
+    copyTable(scheduler, VerbatimSource.class, VerbatimSourceMapper.class);
+    copyTable(scheduler, Reference.class, ReferenceMapper.class);
+    copyTable(scheduler, VernacularName.class, VernacularNameMapper.class);
+    copyTable(scheduler, Distribution.class, DistributionMapper.class);
+    copyTable(scheduler, NameRelation.class, NameRelationMapper.class);
+    copyTable(scheduler, TypeMaterial.class, TypeMaterialMapper.class);
+    copyTable(scheduler, Media.class, MediaMapper.class);
+    copyTable(scheduler, Treatment.class, TreatmentMapper.class);
+    copyTable(scheduler, Sector.class, SectorMapper.class);
+    copyTable(scheduler, EditorialDecision.class, DecisionMapper.class);
+    copyTable(scheduler, SpeciesEstimate.class, EstimateMapper.class);
+
+    Map<String, Integer> timings = scheduler.await();
+    timings.forEach((table, millis) -> metrics.getTimings().put("copy" + table, millis));
+    metrics.getTimings().put("copy", (int) watch.getTime());
+    LOG.info("Copied all data into dataset {} in {}", newDatasetKey, watch);
   }
 
   void updateState(ImportState state) {
@@ -237,9 +251,16 @@ public abstract class AbstractProjectCopy implements Runnable {
     indexService.indexDataset(newDatasetKey);
   }
 
-  private <M extends CopyDataset> void copyTable(Class entity, Class<M> mapperClass, SqlSession session){
-    int count = session.getMapper(mapperClass).copyDataset(datasetKey, newDatasetKey, mapIds);
-    LOG.info("Copied {} {}s", count, entity.getSimpleName());
+  private <M extends CopyDataset> void copyTable(CopyScheduler scheduler, Class entity, Class<M> mapperClass, String... dependsOn){
+    scheduler.add(entity.getSimpleName(), () -> {
+      LoggingUtils.setDatasetMDC(datasetKey, getClass());
+      try (SqlSession session = factory.openSession(true)) {
+        int count = session.getMapper(mapperClass).copyDataset(datasetKey, newDatasetKey, mapIds);
+        LOG.info("Copied {} {}s", count, entity.getSimpleName());
+      } finally {
+        LoggingUtils.removeDatasetMDC();
+      }
+    }, dependsOn);
   }
 
 }
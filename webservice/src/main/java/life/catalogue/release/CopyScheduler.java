@@ -0,0 +1,69 @@
+package life.catalogue.release;
+
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.apache.commons.lang3.time.StopWatch;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Executes named copy tasks concurrently with a fixed number of threads.
+ * A task is only started once all tasks it depends on have finished successfully.
+ * If a task fails, its dependents are skipped, but all other tasks are still awaited
+ * so no copy is running anymore once the scheduler returns.
+ */
+class CopyScheduler {
+  private final Map<String, CompletableFuture<Void>> tasks = new LinkedHashMap<>();
+  private final Map<String, Integer> timings = new ConcurrentHashMap<>();
+  private final ExecutorService exec;
+
+  CopyScheduler(int threads, String name) {
+    exec = Executors.newFixedThreadPool(threads, new NamedThreadFactory(name));
+  }
+
+  /**
+   * Schedules a new task which gets executed as soon as all its dependencies have finished.
+   * @param name unique task name
+   * @param task the actual copy job
+   * @param dependsOn names of previously added tasks which need to finish first
+   */
+  void add(String name, Runnable task, String... dependsOn) {
+    Preconditions.checkArgument(!tasks.containsKey(name), "Task %s exists already", name);
+    CompletableFuture<?>[] deps = new CompletableFuture[dependsOn.length];
+    for (int i = 0; i < dependsOn.length; i++) {
+      deps[i] = Preconditions.checkNotNull(tasks.get(dependsOn[i]), "Dependency %s of %s unknown", dependsOn[i], name);
+    }
+    tasks.put(name, CompletableFuture.allOf(deps).thenRunAsync(() -> {
+      StopWatch watch = StopWatch.createStarted();
+      task.run();
+      timings.put(name, (int) watch.getTime());
+    }, exec));
+  }
+
+  /**
+   * Waits for all tasks to finish and shuts down the executor.
+   * @return duration in milliseconds of each task in the order they were added
+   * @throws RuntimeException the exception of a failed task
+   */
+  Map<String, Integer> await() throws InterruptedException {
+    try {
+      CompletableFuture.allOf(tasks.values().toArray(CompletableFuture[]::new)).get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    } finally {
+      ExecutorUtils.shutdown(exec);
+    }
+    Map<String, Integer> ordered = new LinkedHashMap<>();
+    for (String name : tasks.keySet()) {
+      ordered.put(name, timings.get(name));
+    }
+    return ordered;
+  }
+}
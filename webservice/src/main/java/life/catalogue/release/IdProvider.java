@@ -1,8 +1,11 @@
 package life.catalogue.release;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterables;
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
@@ -17,12 +20,14 @@ import life.catalogue.common.id.IdConverter;
 import life.catalogue.common.io.TabWriter;
 import life.catalogue.common.io.UTF8IoUtils;
 import life.catalogue.common.text.StringUtils;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
 import life.catalogue.config.ReleaseConfig;
 import life.catalogue.db.mapper.DatasetMapper;
 import life.catalogue.db.mapper.IdMapMapper;
-import life.catalogue.db.mapper.NameMatchMapper;
 import life.catalogue.db.mapper.NameUsageMapper;
 import life.catalogue.release.ReleasedIds.ReleasedId;
+import org.apache.commons.lang3.time.StopWatch;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.gbif.nameparser.api.Rank;
@@ -33,8 +38,14 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.annotation.Nullable;
+
 import static java.util.Comparator.naturalOrder;
 import static java.util.Comparator.nullsLast;
 import static life.catalogue.api.vocab.TaxonomicStatus.MISAPPLIED;
@@ -65,6 +76,8 @@ import static life.catalogue.api.vocab.TaxonomicStatus.MISAPPLIED;
  */
 public class IdProvider {
   protected final Logger LOG = LoggerFactory.getLogger(IdProvider.class);
+  // number of ids to lookup with a single query when writing reports
+  private static final int REPORT_BATCH_SIZE = 1000;
 
   private final int projectKey;
   private final int attempt;
@@ -80,10 +93,10 @@ public class IdProvider {
   private IntSet resurrected = new IntOpenHashSet();
   private IntSet created = new IntOpenHashSet();
   private IntSet deleted = new IntOpenHashSet();
-  private final SortedMap<String, List<InstableName>> unstable = new TreeMap<>();
+  // release dataset keys of resurrected ids which are removed from the released ids
+  private final Int2IntMap resurrectedReleases = new Int2IntOpenHashMap();
+  private final Map<String, Long> timings = new LinkedHashMap<>();
   protected IdMapMapper idm;
-  protected NameUsageMapper num;
-  protected NameMatchMapper nmm;
 
   public IdProvider(int projectKey, int attempt, int releaseDatasetKey, ReleaseConfig cfg, SqlSessionFactory factory) {
     this.releaseDatasetKey = releaseDatasetKey;
@@ -96,29 +109,49 @@ public class IdProvider {
   }
 
   public IdReport run() {
+    StopWatch watch = StopWatch.createStarted();
     prepare();
+    timings.put("prepare", watch.getTime());
+    watch.reset();
+    watch.start();
     mapIds();
+    timings.put("mapIds", watch.getTime());
+    watch.reset();
+    watch.start();
     report();
+    timings.put("report", watch.getTime());
     LOG.info("Reused {} stable IDs for project release {}-{} ({}), resurrected={}, newly created={}, deleted={}", reused, projectKey, attempt, releaseDatasetKey, resurrected.size(), created.size(), deleted.size());
+    LOG.info("ID provider timings for project release {}-{} in ms: {}", projectKey, attempt, timings);
     return getReport();
   }
+
   public static class InstableName implements DSID<String> {
     public final boolean del;
     public final int datasetKey;
     public final String id;
+    public final String name;
+    public final String authorship;
     public final String fullname;
     public final Rank rank;
     public final TaxonomicStatus status;
     public final String parent;
+    public final Integer nidx;
+    public final Integer canonicalId;
+    public final MatchType matchType;
 
-    public InstableName(boolean del, DSID<String> key, SimpleName sn) {
+    public InstableName(boolean del, DSID<String> key, SimpleNameWithNidx sn) {
       this.del = del;
       this.datasetKey = key.getDatasetKey();
       this.id = key.getId();
+      this.name = sn.getName();
+      this.authorship = sn.getAuthorship();
       this.fullname = sn.getLabel();
       this.rank = sn.getRank();
       this.status = sn.getStatus();
       this.parent = sn.getParent();
+      this.nidx = sn.getNamesIndexId();
+      this.canonicalId = sn.getCanonicalId();
+      this.matchType = sn.getNamesIndexMatchType();
     }
 
     public boolean isDel() {
@@ -150,40 +183,74 @@ public class IdProvider {
     public final IntSet created;
     public final IntSet deleted;
     public final IntSet resurrected;
+    /**
+     * Duration in milliseconds of each executed step
+     */
+    public final Map<String, Long> timings;
 
-    IdReport(IntSet created, IntSet deleted, IntSet resurrected) {
+    IdReport(IntSet created, IntSet deleted, IntSet resurrected, Map<String, Long> timings) {
       this.created = created;
       this.deleted = deleted;
       this.resurrected = resurrected;
+      this.timings = timings;
     }
   }
 
   public IdReport getReport() {
-    return new IdReport(created, deleted, resurrected);
+    return new IdReport(created, deleted, resurrected, Collections.unmodifiableMap(timings));
   }
 
+  /**
+   * Writes the 3 tsv reports for deleted, resurrected and created ids concurrently
+   * and finally the unstable names report which combines all of them.
+   */
   protected void report() {
+    File dir = cfg.reportDir(projectKey, attempt);
+    ExecutorService exec = Executors.newFixedThreadPool(3, new NamedThreadFactory("id-report-" + projectKey));
     try {
-      File dir = cfg.reportDir(projectKey, attempt);
       // read the following IDs from previous releases
-      reportFile(dir,"deleted.tsv", deleted, true, true);
-      reportFile(dir,"resurrected.tsv", resurrected, true, false);
+      Future<List<InstableName>> del = exec.submit(() -> reportFile(dir,"deleted.tsv", deleted, true, true));
+      Future<List<InstableName>> res = exec.submit(() -> reportFile(dir,"resurrected.tsv", resurrected, true, false));
       // read ID from this release & ID mapping
-      reportFile(dir,"created.tsv", created, false, false);
-      // clear instable names, removing the ones with just deletions
-      unstable.entrySet().removeIf(entry -> entry.getValue().parallelStream().allMatch(n -> n.del));
-      try (Writer writer = UTF8IoUtils.writerFromFile(new File(dir, "unstable.txt"));
-          SqlSession session = factory.openSession(true)
-      ) {
-        nmm = session.getMapper(NameMatchMapper.class);
-        for (var entry : unstable.entrySet()) {
-          writer.write(entry.getKey() + "\n");
-          entry.getValue().sort(Comparator.comparing(InstableName::isDel).reversed());
-          entry.getValue().forEach(n -> writeInstableName(writer, n));
-        }
-      }
-    } catch (IOException e) {
+      Future<List<InstableName>> cre = exec.submit(() -> reportFile(dir,"created.tsv", created, false, false));
+      reportUnstable(dir, del.get(), res.get(), cre.get());
+
+    } catch (IOException | ExecutionException e) {
       LOG.error("Failed to write ID reports for project "+projectKey, e);
+
+    } catch (InterruptedException e) {
+      LOG.warn("Interrupted while writing ID reports for project {}", projectKey);
+      Thread.currentThread().interrupt();
+
+    } finally {
+      ExecutorUtils.shutdown(exec);
+    }
+  }
+
+  /**
+   * Writes all names which have been deleted and, under the same name, have been resurrected or created.
+   * @param deleted deleted names which define the keys of the unstable names
+   */
+  private void reportUnstable(File dir, List<InstableName> deleted, List<InstableName> resurrected, List<InstableName> created) throws IOException {
+    final SortedMap<String, List<InstableName>> unstable = new TreeMap<>();
+    for (InstableName n : deleted) {
+      unstable.computeIfAbsent(n.name, k -> new ArrayList<>()).add(n);
+    }
+    // avoid adding many created ids for those which have not also been deleted
+    for (InstableName n : Iterables.concat(resurrected, created)) {
+      List<InstableName> names = unstable.get(n.name);
+      if (names != null) {
+        names.add(n);
+      }
+    }
+    // clear instable names, removing the ones with just deletions
+    unstable.entrySet().removeIf(entry -> entry.getValue().stream().allMatch(n -> n.del));
+    try (Writer writer = UTF8IoUtils.writerFromFile(new File(dir, "unstable.txt"))) {
+      for (var entry : unstable.entrySet()) {
+        writer.write(entry.getKey() + "\n");
+        entry.getValue().sort(Comparator.comparing(InstableName::isDel).reversed());
+        entry.getValue().forEach(n -> writeInstableName(writer, n));
+      }
     }
   }
 
@@ -202,14 +269,13 @@ public class IdProvider {
       writer.write(':');
       writer.write(n.id);
 
-      NameMatch match = nmm.get(n);
       writer.write(" nidx=");
-      if (match != null) {
-        writer.write(match.getName().getKey());
+      if (n.nidx != null) {
+        writer.write(String.valueOf(n.nidx));
         writer.write('/');
-        writer.write(match.getName().getCanonicalId());
+        writer.write(String.valueOf(n.canonicalId));
         writer.write(' ');
-        writer.write(String.valueOf(match.getType()));
+        writer.write(String.valueOf(n.matchType));
       } else {
         writer.write("null");
       }
@@ -225,79 +291,117 @@ public class IdProvider {
     }
   }
 
-  private void reportFile(File dir, String filename, IntSet ids, boolean previousReleases, boolean deletion) throws IOException {
-    File f = new File(dir, filename);
+  /**
+   * Writes a tsv report for the given ids, resolving their usages in batches of sorted ids.
+   *
+   * @param isOld if true lookup the ids from older releases, otherwise from the project using the id map table
+   * @return the reported names in the order of their ids
+   */
+  private List<InstableName> reportFile(File dir, String filename, IntSet ids, boolean isOld, boolean deletion) throws IOException {
+    final StopWatch watch = StopWatch.createStarted();
+    final File f = new File(dir, filename);
+    final List<InstableName> names = new ArrayList<>();
     try(TabWriter tsv = TabWriter.fromFile(f);
         SqlSession session = factory.openSession(true)
     ) {
-      num = session.getMapper(NameUsageMapper.class);
+      NameUsageMapper num = session.getMapper(NameUsageMapper.class);
       LOG.info("Writing ID report for project release {}-{} of {} IDs to {}", projectKey, attempt, ids.size(), f);
-      ids.stream()
-        .sorted()
-        .forEach(id -> reportId(id, previousReleases, tsv, deletion));
+      int[] sorted = ids.toIntArray();
+      Arrays.sort(sorted);
+      for (int start = 0; start < sorted.length; start += REPORT_BATCH_SIZE) {
+        int[] batch = Arrays.copyOfRange(sorted, start, Math.min(sorted.length, start + REPORT_BATCH_SIZE));
+        Map<String, InstableName> usages = isOld ? lookupReleased(num, batch, deletion) : lookupProject(num, batch, deletion);
+        for (int id : batch) {
+          InstableName n = usages.get(encode(id));
+          reportId(id, n, isOld, tsv);
+          if (n != null) {
+            names.add(n);
+          }
+        }
+      }
     }
+    watch.stop();
+    LOG.info("Written ID report {} for project release {}-{} with {} IDs in {}", filename, projectKey, attempt, ids.size(), watch);
+    return names;
   }
 
-  /**
-   * @param isOld if true lookup the if from older releases, otherwise from the project using the id map table
-   * @param deletion
-   */
-  private void reportId(int id, boolean isOld, TabWriter tsv, boolean deletion){
-    String ID = IdConverter.LATIN29.encode(id);
-    SimpleName sn = null;
-    DSID<String> key = null;
-    try {
-      int datasetKey = -1;
+  private void reportId(int id, @Nullable InstableName n, boolean isOld, TabWriter tsv) throws IOException {
+    final String ID = encode(id);
+    if (n == null) {
       if (isOld) {
-        ReleasedId rid = this.ids.byId(id);
-        datasetKey = attempt2dataset.get(rid.attempt);
-        key = DSID.of(datasetKey, ID);
-        sn = num.getSimple(key);
+        LOG.warn("Old ID {} [{}] reported without name usage", ID, id);
       } else {
-        // usages do not exist yet in the release - we gotta use the id map and look them up in the project!
-        sn = num.getSimpleByIdMap(DSID.of(projectKey, ID));
-        if (sn != null) {
-          key = DSID.of(releaseDatasetKey, ID);
-        }
+        LOG.warn("ID {} [{}] reported without name usage", ID, id);
       }
+      tsv.write(new String[]{
+        ID,
+        null,
+        null,
+        null,
+        null
+      });
 
-      if (sn == null) {
-        if (isOld) {
-          LOG.warn("Old ID {}-{} [{}] reported without name usage", datasetKey, ID, id);
-        } else {
-          LOG.warn("ID {} [{}] reported without name usage", ID, id);
-        }
-        tsv.write(new String[]{
-          ID,
-          null,
-          null,
-          null,
-          null
-        });
+    } else {
+      tsv.write(new String[]{
+        ID,
+        VocabularyUtils.toString(n.rank),
+        VocabularyUtils.toString(n.status),
+        n.name,
+        n.authorship
+      });
+    }
+  }
 
+  /**
+   * Looks up ids from previous releases, querying each release dataset only once.
+   * @return names keyed by their stable id
+   */
+  private Map<String, InstableName> lookupReleased(NameUsageMapper num, int[] batch, boolean deletion) {
+    Int2ObjectMap<List<String>> byDataset = new Int2ObjectOpenHashMap<>();
+    for (int id : batch) {
+      int datasetKey = releaseDatasetKey(id);
+      if (datasetKey < 0) {
+        LOG.warn("Old ID {} [{}] without a known release", encode(id), id);
       } else {
-        // always use the new stable identifier, not the projects temporary one
-        sn.setId(ID);
-        tsv.write(new String[]{
-          ID,
-          VocabularyUtils.toString(sn.getRank()),
-          VocabularyUtils.toString(sn.getStatus()),
-          sn.getName(),
-          sn.getAuthorship()
-        });
-        // populate unstable names report
-        // expects deleted names to come first, so we can avoid adding many created ids for those which have not also been deleted
-        if (deletion) {
-          unstable.putIfAbsent(sn.getName(), new ArrayList<>());
-        }
-        if (unstable.containsKey(sn.getName())) {
-          unstable.get(sn.getName()).add(new InstableName(deletion, key, sn));
-        }
+        byDataset.computeIfAbsent(datasetKey, k -> new ArrayList<>()).add(encode(id));
       }
+    }
+    Map<String, InstableName> usages = new HashMap<>();
+    for (Int2ObjectMap.Entry<List<String>> e : byDataset.int2ObjectEntrySet()) {
+      for (SimpleNameWithNidx sn : num.listSimpleNidx(e.getIntKey(), e.getValue())) {
+        usages.put(sn.getId(), new InstableName(deletion, DSID.of(e.getIntKey(), sn.getId()), sn));
+      }
+    }
+    return usages;
+  }
+
+  /**
+   * Looks up ids which do not exist yet in the release, using the id map to find them in the project.
+   * @return names keyed by their stable id
+   */
+  private Map<String, InstableName> lookupProject(NameUsageMapper num, int[] batch, boolean deletion) {
+    List<String> stableIds = new ArrayList<>(batch.length);
+    for (int id : batch) {
+      stableIds.add(encode(id));
+    }
+    Map<String, InstableName> usages = new HashMap<>();
+    for (SimpleNameWithNidx sn : num.listSimpleNidxByIdMap(projectKey, stableIds)) {
+      // always use the new stable identifier, not the projects temporary one
+      usages.put(sn.getId(), new InstableName(deletion, DSID.of(releaseDatasetKey, sn.getId()), sn));
+    }
+    return usages;
+  }
 
-    } catch (IOException | RuntimeException e) {
-      LOG.error("Failed to report {}ID {}: {} [key={}, sn={}]", isOld ? "old ":"", id, ID, key, sn, e);
+  /**
+   * @return the key of the release dataset an old id was last seen in or -1 if unknown
+   */
+  private int releaseDatasetKey(int id) {
+    // resurrected ids have already been removed from the released ids
+    if (resurrectedReleases.containsKey(id)) {
+      return resurrectedReleases.get(id);
     }
+    ReleasedId rid = this.ids.byId(id);
+    return rid == null ? -1 : attempt2dataset.get(rid.attempt);
   }
 
   private void prepare(){
@@ -478,7 +582,10 @@ public class IdProvider {
       ReleasedId[] rids = ids.byNxId(nidx);
       if (rids != null) {
         IntSet ids = new IntOpenHashSet();
-        ScoreMatrix scores = new ScoreMatrix(names, rids, this::matchScore);
+        ScoreMatrix scores = new ScoreMatrix(names, rids, this::matchScore,
+          n -> blockingKey(n.getStatus(), n.getParent()),
+          r -> blockingKey(r.status, r.parent)
+        );
         List<ScoreMatrix.ReleaseMatch> best = scores.highest();
         while (!best.isEmpty()) {
           // best is sorted, issue as they come but avoid already released ids
@@ -509,6 +616,7 @@ public class IdProvider {
     rm.name.setCanonicalId(rm.rid.id);
     if (rm.rid.attempt < ids.getMaxAttempt()) {
       resurrected.add(rm.rid.id);
+      resurrectedReleases.put(rm.rid.id, attempt2dataset.get(rm.rid.attempt));
     }
     scores.remove(rm);
   }
@@ -580,6 +688,37 @@ public class IdProvider {
     return score;
   }
 
+  /**
+   * A cheap key to prefilter candidates before scoring them.
+   * It separates all pairs that {@link #matchScore} rejects because of a different synonym status,
+   * a misapplied name or a different accepted name of synonyms.
+   * Parents are compared case insensitive just as {@link String#equalsIgnoreCase(String)} does.
+   *
+   * @return the key or null to compare with all other names
+   */
+  @VisibleForTesting
+  static String blockingKey(TaxonomicStatus status, String parent) {
+    if (status == null) {
+      return null;
+    } else if (status == MISAPPLIED) {
+      return "M:" + foldCase(parent);
+    } else if (status.isSynonym()) {
+      return "S:" + foldCase(parent);
+    }
+    return "A";
+  }
+
+  private static String foldCase(String x) {
+    if (x == null) {
+      return "";
+    }
+    char[] chars = x.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+    }
+    return new String(chars);
+  }
+
   private int matchTypeScore(MatchType mt) {
     switch (mt) {
       case EXACT: return 3;
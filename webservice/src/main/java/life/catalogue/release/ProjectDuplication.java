@@ -13,8 +13,8 @@ import org.apache.ibatis.session.SqlSessionFactory;
 public class ProjectDuplication extends AbstractProjectCopy {
 
   ProjectDuplication(SqlSessionFactory factory, NameUsageIndexService indexService, DatasetImportDao diDao, DatasetDao dDao,
-                     int datasetKey, int userKey) {
-    super("duplicating", factory, diDao, dDao, indexService, userKey, datasetKey, false);
+                     int datasetKey, int userKey, int copyThreads) {
+    super("duplicating", factory, diDao, dDao, indexService, userKey, datasetKey, false, copyThreads);
   }
 
   @Override
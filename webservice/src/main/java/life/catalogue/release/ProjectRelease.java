@@ -48,7 +48,7 @@ public class ProjectRelease extends AbstractProjectCopy {
   ProjectRelease(SqlSessionFactory factory, NameUsageIndexService indexService, DatasetImportDao diDao, DatasetDao dDao, ImageService imageService,
                  int datasetKey, int userKey, WsServerConfig cfg, CloseableHttpClient client, ExportManager exportManager,
                  DoiService doiService, DoiUpdater doiUpdater) {
-    super("releasing", factory, diDao, dDao, indexService, userKey, datasetKey, true);
+    super("releasing", factory, diDao, dDao, indexService, userKey, datasetKey, true, cfg.release.copyThreads);
     this.imageService = imageService;
     this.doiService = doiService;
     this.cfg = cfg;
@@ -117,7 +117,7 @@ public class ReleaseManager {
    * @throws IllegalArgumentException if the dataset is not managed
    */
   public ProjectDuplication buildDuplication(int projectKey, int userKey) {
-    return new ProjectDuplication(factory, indexService, diDao, dDao, projectKey, userKey);
+    return new ProjectDuplication(factory, indexService, diDao, dDao, projectKey, userKey, cfg.release.copyThreads);
   }
 
 }
@@ -1,26 +1,51 @@
 package life.catalogue.release;
 
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
-import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.ints.*;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.shorts.ShortArrayList;
 import life.catalogue.api.model.SimpleNameWithNidx;
 import life.catalogue.api.vocab.MatchType;
 import life.catalogue.api.vocab.TaxonomicStatus;
 import life.catalogue.common.id.IdConverter;
-import org.apache.commons.lang3.ArrayUtils;
 import org.gbif.nameparser.api.Rank;
 
 /**
  * Tracks released ids incl historic releases.
  * Each ID is only represented by the most recent, i.e. highest release attempt.
+ *
+ * To keep the memory footprint low for many millions of ids all properties are stored in primitive columns,
+ * one row per added id. Strings are deduplicated in a shared pool and enums are kept as their ordinals.
+ * ReleasedId instances are only created on lookup and are therefore not identical across calls.
+ * Rows of removed ids are not reused.
  */
 public class ReleasedIds {
+  private static final int NONE = -1;
+  private static final MatchType[] MATCH_TYPES = MatchType.values();
+  private static final Rank[] RANKS = Rank.values();
+  private static final TaxonomicStatus[] STATI = TaxonomicStatus.values();
 
   private int maxKey = 0;
   private int maxAttempt = 0;
-  private final Int2ObjectMap<ReleasedId> byId = new Int2ObjectOpenHashMap<>();
-  private final Int2ObjectMap<ReleasedId[]> byNxId = new Int2ObjectOpenHashMap<>();
+  // columns
+  private final IntArrayList ids = new IntArrayList();
+  private final IntArrayList nxIds = new IntArrayList();
+  private final IntArrayList attempts = new IntArrayList();
+  private final ByteArrayList matchTypes = new ByteArrayList();
+  private final ShortArrayList ranks = new ShortArrayList();
+  private final ByteArrayList stati = new ByteArrayList();
+  private final IntArrayList authorships = new IntArrayList();
+  private final IntArrayList phrases = new IntArrayList();
+  private final IntArrayList parents = new IntArrayList();
+  // next row with the same nxId, forming a linked list in the order the ids were added
+  private final IntArrayList nextByNxId = new IntArrayList();
+  private final StringPool strings = new StringPool();
+  // indices pointing to rows
+  private final Int2IntMap byId = new Int2IntOpenHashMap();
+  private final Int2IntMap firstByNxId = new Int2IntOpenHashMap();
+  private final Int2IntMap lastByNxId = new Int2IntOpenHashMap();
 
   public static class ReleasedId {
     public final int id;
@@ -41,15 +66,19 @@ public class ReleasedIds {
     }
 
     public ReleasedId(int id, int attempt, SimpleNameWithNidx sn) {
+      this(id, sn.getNamesIndexId(), attempt, sn.getNamesIndexMatchType(), sn.getRank(), sn.getAuthorship(), sn.getPhrase(), sn.getStatus(), sn.getParent());
+    }
+
+    private ReleasedId(int id, int nxId, int attempt, MatchType matchType, Rank rank, String authorship, String phrase, TaxonomicStatus status, String parent) {
       this.id = id;
-      this.nxId = sn.getNamesIndexId();
+      this.nxId = nxId;
       this.attempt = attempt;
-      this.matchType = sn.getNamesIndexMatchType();
-      this.rank = sn.getRank();
-      this.authorship = sn.getAuthorship();
-      this.phrase = sn.getPhrase();
-      this.status = sn.getStatus();
-      this.parent = sn.getParent();
+      this.matchType = matchType;
+      this.rank = rank;
+      this.authorship = authorship;
+      this.phrase = phrase;
+      this.status = status;
+      this.parent = parent;
     }
 
     public String id() {
@@ -57,6 +86,41 @@ public class ReleasedIds {
     }
   }
 
+  /**
+   * Deduplicates strings, handing out int references to them.
+   */
+  private static class StringPool {
+    private final Object2IntMap<String> index = new Object2IntOpenHashMap<>();
+    private final ObjectArrayList<String> values = new ObjectArrayList<>();
+
+    StringPool() {
+      index.defaultReturnValue(NONE);
+    }
+
+    int add(String x) {
+      if (x == null) {
+        return NONE;
+      }
+      int ref = index.getInt(x);
+      if (ref == NONE) {
+        ref = values.size();
+        values.add(x);
+        index.put(x, ref);
+      }
+      return ref;
+    }
+
+    String get(int ref) {
+      return ref == NONE ? null : values.get(ref);
+    }
+  }
+
+  public ReleasedIds() {
+    byId.defaultReturnValue(NONE);
+    firstByNxId.defaultReturnValue(NONE);
+    lastByNxId.defaultReturnValue(NONE);
+  }
+
   public int size() {
     return byId.size();
   }
@@ -70,13 +134,32 @@ public class ReleasedIds {
   }
 
   public void remove(int id) throws IllegalArgumentException {
-    ReleasedId r = byId.remove(id);
-    if (r != null) {
-      ReleasedId[] rids = ArrayUtils.removeAllOccurences(byNxId.get(r.nxId), r);
-      if (rids == null || rids.length == 0) {
-        byNxId.remove(r.nxId);
+    int row = byId.remove(id);
+    if (row != NONE) {
+      // unlink row from its nxId list
+      int nxId = nxIds.getInt(row);
+      int prev = NONE;
+      int curr = firstByNxId.get(nxId);
+      while (curr != row) {
+        prev = curr;
+        curr = nextByNxId.getInt(curr);
+      }
+      int next = nextByNxId.getInt(row);
+      if (prev == NONE) {
+        if (next == NONE) {
+          firstByNxId.remove(nxId);
+        } else {
+          firstByNxId.put(nxId, next);
+        }
       } else {
-        byNxId.put(r.nxId, rids);
+        nextByNxId.set(prev, next);
+      }
+      if (lastByNxId.get(nxId) == row) {
+        if (prev == NONE) {
+          lastByNxId.remove(nxId);
+        } else {
+          lastByNxId.put(nxId, prev);
+        }
       }
     }
   }
@@ -86,9 +169,9 @@ public class ReleasedIds {
    */
   public IntSet maxAttemptIds(){
     IntSet ids = new IntOpenHashSet();
-    for (ReleasedId rid : byId.values()) {
-      if (rid.attempt == maxAttempt) {
-        ids.add(rid.id);
+    for (int row : byId.values()) {
+      if (attempts.getInt(row) == maxAttempt) {
+        ids.add(this.ids.getInt(row));
       }
     }
     return ids;
@@ -99,8 +182,8 @@ public class ReleasedIds {
    */
   public int maxAttemptIdCount(){
     int counter = 0;
-    for (ReleasedId rid : byId.values()) {
-      if (rid.attempt == maxAttempt) {
+    for (int row : byId.values()) {
+      if (attempts.getInt(row) == maxAttempt) {
         counter++;
       }
     }
@@ -108,34 +191,85 @@ public class ReleasedIds {
   }
 
   void add (ReleasedId id) {
-    if (byId.containsKey(id.id)) {
+    int existing = byId.get(id.id);
+    if (existing != NONE) {
       // ignore already existing ids, but make sure the existing attempt is more recent, i.e. higher!
-      if (byId.get(id.id).attempt < id.attempt) {
+      if (attempts.getInt(existing) < id.attempt) {
         throw new IllegalStateException("releases need to be sorted by attempt before adding");
       }
       return;
     }
-    byId.put(id.id, id);
-    if (byNxId.containsKey(id.nxId)) {
-      byNxId.put(id.nxId, ArrayUtils.add(byNxId.get(id.nxId), id));
+    final int row = ids.size();
+    ids.add(id.id);
+    nxIds.add(id.nxId);
+    attempts.add(id.attempt);
+    matchTypes.add((byte) ordinal(id.matchType));
+    ranks.add((short) ordinal(id.rank));
+    stati.add((byte) ordinal(id.status));
+    authorships.add(strings.add(id.authorship));
+    phrases.add(strings.add(id.phrase));
+    parents.add(strings.add(id.parent));
+    nextByNxId.add(NONE);
+
+    byId.put(id.id, row);
+    int last = lastByNxId.get(id.nxId);
+    if (last == NONE) {
+      firstByNxId.put(id.nxId, row);
     } else {
-      byNxId.put(id.nxId, new ReleasedId[]{id});
+      nextByNxId.set(last, row);
     }
+    lastByNxId.put(id.nxId, row);
+
     if (id.id > maxKey) {
       maxKey = id.id;
     }
     if (id.attempt > maxAttempt) {
       maxAttempt = id.attempt;
     }
+  }
+
+  private static int ordinal(Enum<?> val) {
+    return val == null ? NONE : val.ordinal();
+  }
 
+  private static <T extends Enum<?>> T value(T[] values, int ordinal) {
+    return ordinal == NONE ? null : values[ordinal];
   }
 
+  private ReleasedId get(int row) {
+    return new ReleasedId(ids.getInt(row), nxIds.getInt(row), attempts.getInt(row),
+      value(MATCH_TYPES, matchTypes.getByte(row)),
+      value(RANKS, ranks.getShort(row)),
+      strings.get(authorships.getInt(row)),
+      strings.get(phrases.getInt(row)),
+      value(STATI, stati.getByte(row)),
+      strings.get(parents.getInt(row))
+    );
+  }
+
+  /**
+   * @return all ids with the given names index id in the order they were added or null if there are none
+   */
   public ReleasedId[] byNxId(int nxId) {
-    return byNxId.getOrDefault(nxId, null);
+    int row = firstByNxId.get(nxId);
+    if (row == NONE) {
+      return null;
+    }
+    int size = 0;
+    for (int r = row; r != NONE; r = nextByNxId.getInt(r)) {
+      size++;
+    }
+    ReleasedId[] rids = new ReleasedId[size];
+    int idx = 0;
+    for (int r = row; r != NONE; r = nextByNxId.getInt(r)) {
+      rids[idx++] = get(r);
+    }
+    return rids;
   }
 
   public ReleasedId byId(int id) {
-    return byId.get(id);
+    int row = byId.get(id);
+    return row == NONE ? null : get(row);
   }
 
   public boolean hasId(int id) {
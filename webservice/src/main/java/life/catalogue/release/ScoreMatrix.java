@@ -1,53 +1,98 @@
 package life.catalogue.release;
 
-import it.unimi.dsi.fastutil.ints.*;
 import life.catalogue.api.model.SimpleNameWithNidx;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 
+/**
+ * Sparse match scores of all names against all released id candidates.
+ * Only positive scores are kept in a priority queue ordered by descending score,
+ * so greedily picking the best matches does not need to scan all name/candidate pairs again.
+ *
+ * Candidates can optionally be prefiltered by a cheap blocking key,
+ * so the potentially expensive scorer is only called for pairs that share the same key.
+ */
 public class ScoreMatrix {
-  private static final int DELETED_N = -1;
-  private static final int DELETED_R = -2;
   private final int lenN;
   private final int lenR;
-  // first dimension=names idx, second=candidates idx
-  private final int[][] scores;
-  private final IntList distinctScores;
+  private final PriorityQueue<ReleaseMatch> queue;
+  private final boolean[] removedN;
+  private final boolean[] removedR;
   private final List<SimpleNameWithNidx> names;
   private final ReleasedIds.ReleasedId[] releasedIds;
+  private final BiFunction<SimpleNameWithNidx, ReleasedIds.ReleasedId,Integer> scorer;
 
   /**
-   * Produces a match score matrix of all names against all candidates.
+   * Produces the match scores of all names against all candidates.
    * @param scorer function to generate a score with 0=nomatch, the higher the better the match
    */
   public ScoreMatrix(List<SimpleNameWithNidx> names, ReleasedIds.ReleasedId[] releasedIds,
                      BiFunction<SimpleNameWithNidx, ReleasedIds.ReleasedId,Integer> scorer) {
+    this(names, releasedIds, scorer, n -> null, r -> null);
+  }
+
+  /**
+   * Produces the match scores of all names against candidates sharing the same blocking key.
+   * The blocking keys must never separate a pair that the scorer would give a positive score.
+   * A null key is a wildcard that is compared with everything.
+   *
+   * @param scorer function to generate a score with 0=nomatch, the higher the better the match
+   * @param nameKey cheap blocking key of a name
+   * @param ridKey cheap blocking key of a released id, matching the keys of the names
+   */
+  public ScoreMatrix(List<SimpleNameWithNidx> names, ReleasedIds.ReleasedId[] releasedIds,
+                     BiFunction<SimpleNameWithNidx, ReleasedIds.ReleasedId,Integer> scorer,
+                     Function<SimpleNameWithNidx, ?> nameKey, Function<ReleasedIds.ReleasedId, ?> ridKey) {
     this.names = names;
     this.releasedIds = releasedIds;
+    this.scorer = scorer;
     lenN = names.size();
     lenR = releasedIds.length;
-    scores = new int[lenN][lenR];
+    removedN = new boolean[lenN];
+    removedR = new boolean[lenR];
+    // group candidates by their blocking key, keeping the wildcards separate
+    Map<Object, List<Integer>> blocks = new HashMap<>();
+    List<Integer> wildcards = new ArrayList<>();
+    List<Integer> all = new ArrayList<>(lenR);
+    for (int ri=0; ri<lenR; ri++) {
+      Object key = ridKey.apply(releasedIds[ri]);
+      if (key == null) {
+        wildcards.add(ri);
+      } else {
+        blocks.computeIfAbsent(key, k -> new ArrayList<>()).add(ri);
+      }
+      all.add(ri);
+    }
+
+    List<ReleaseMatch> matches = new ArrayList<>();
     int ni=0;
-    IntSet distinctScores = new IntOpenHashSet();
     for (SimpleNameWithNidx n : names){
-      int ri=0;
-      for (ReleasedIds.ReleasedId r : releasedIds){
-        int score = Math.max(scorer.apply(n, r), 0);
-        scores[ni][ri++] = score;
-        distinctScores.add(score);
+      Object key = nameKey.apply(n);
+      if (key == null) {
+        score(matches, ni, all);
+      } else {
+        score(matches, ni, blocks.getOrDefault(key, Collections.emptyList()));
+        score(matches, ni, wildcards);
       }
       ni++;
     }
-    // zero is no match, dont return
-    distinctScores.remove(0);
-    this.distinctScores = new IntArrayList(distinctScores);
-    this.distinctScores.sort(IntComparators.OPPOSITE_COMPARATOR);
+    queue = new PriorityQueue<>(Math.max(1, matches.size()), ReleaseMatch.PRIORITY_ORDER);
+    queue.addAll(matches);
+  }
+
+  private void score(List<ReleaseMatch> matches, int ni, List<Integer> candidates) {
+    SimpleNameWithNidx n = names.get(ni);
+    for (int ri : candidates) {
+      int score = scorer.apply(n, releasedIds[ri]);
+      // zero is no match, dont keep
+      if (score > 0) {
+        matches.add(new ReleaseMatch(ni, ri, score, n, releasedIds[ri]));
+      }
+    }
   }
 
   public static class ReleaseMatch implements Comparable<ReleaseMatch>{
@@ -55,6 +100,9 @@ public class ScoreMatrix {
       Comparator.<ReleaseMatch, Integer>comparing(m -> m.rid.id, Integer::compare)
         .thenComparing(m -> m.rid.attempt, Integer::compare)
         .thenComparing(m -> m.name, Comparator.naturalOrder());
+    // highest score first, then in natural order
+    private static final Comparator<ReleaseMatch> PRIORITY_ORDER =
+      Comparator.<ReleaseMatch>comparingInt(m -> -m.score).thenComparing(NATURAL_ORDER);
 
     private final int namesIdx;
     private final int relIdx;
@@ -76,59 +124,59 @@ public class ScoreMatrix {
     }
   }
 
-  private List<ReleaseMatch> match(int highscore) {
-    final List<ReleaseMatch> next = new ArrayList<>();
-    for (int ni=0; ni<lenN; ni++) {
-      // we only mark the first row or column as deleted - so just check those
-      if (scores[ni][0] != -1 && scores[ni][0] != -3) {
-        for (int ri=0; ri<lenR; ri++) {
-          if (scores[0][ri] != -2 && scores[0][ri] != -3 && scores[ni][ri] == highscore) {
-            next.add(new ReleaseMatch(ni, ri, highscore, names.get(ni), releasedIds[ri]));
-          }
-        }
-      }
-    }
-    return next;
+  private boolean isRemoved(ReleaseMatch m) {
+    return removedN[m.namesIdx] || removedR[m.relIdx];
   }
 
   /**
    * return the batch of matches with the highest, equal score.
    * In case there have been multiple previous ids, sort lowest ID first to keep stability.
    * As IDs are issued incrementally the smallest ID is always the oldest too.
+   *
+   * The returned matches are taken from the matrix, so the next call returns the next lower score
+   * even if not all matches have been removed.
    */
   public List<ReleaseMatch> highest() {
     List<ReleaseMatch> next = new ArrayList<>();
-    while (next.isEmpty() && !distinctScores.isEmpty()) {
-      next = match(distinctScores.removeInt(0));
+    // skip removed names or candidates
+    while (!queue.isEmpty() && isRemoved(queue.peek())) {
+      queue.poll();
+    }
+    if (!queue.isEmpty()) {
+      final int highscore = queue.peek().score;
+      while (!queue.isEmpty() && queue.peek().score == highscore) {
+        ReleaseMatch m = queue.poll();
+        if (!isRemoved(m)) {
+          // the queue order is the natural sort order within the same score
+          next.add(m);
+        }
+      }
     }
-    // natural sort order defines the relevance
-    Collections.sort(next);
     return next;
   }
 
+  /**
+   * Removes the name and the candidate of a match from any further matching.
+   */
   public void remove(ReleaseMatch rm){
-    // we mark only the first rows or columns
-    // the first row & column, 0/0, represents both so we must be able to distinguish between row or column markup
-    // for this we add up both
-    if (rm.namesIdx==0) {
-      scores[rm.namesIdx][0] = Math.min(scores[rm.namesIdx][0], 0) + DELETED_N;
-    } else {
-      scores[rm.namesIdx][0] = DELETED_N;
-    }
-
-    if (rm.relIdx == 0) {
-      scores[0][rm.relIdx] = Math.min(scores[0][rm.relIdx], 0) + DELETED_R;
-    } else {
-      scores[0][rm.relIdx] = DELETED_R;
-    }
+    removedN[rm.namesIdx] = true;
+    removedR[rm.relIdx] = true;
   }
 
+  /**
+   * Prints all scores of the remaining names and candidates for debugging.
+   * Scores are not kept in memory, so this calls the scorer again for every pair.
+   */
   public void printMatrix(){
     System.out.println(StringUtils.repeat("---", lenR));
     for (int ni=0; ni<lenN; ni++) {
       StringBuilder sb = new StringBuilder();
       for (int ri=0; ri<lenR; ri++) {
-        sb.append(String.format("% 3d", scores[ni][ri]));
+        if (removedN[ni] || removedR[ri]) {
+          sb.append("  x");
+        } else {
+          sb.append(String.format("% 3d", scorer.apply(names.get(ni), releasedIds[ri])));
+        }
       }
       System.out.println(sb);
     }
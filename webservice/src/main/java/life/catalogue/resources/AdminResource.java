@@ -222,11 +222,13 @@ public class AdminResource {
 
   @POST
   @Path("/rematch")
-  public BackgroundJob rematch(@QueryParam("datasetKey") List<Integer> datasetKeys, @Auth User user) {
+  public BackgroundJob rematch(@QueryParam("datasetKey") List<Integer> datasetKeys,
+                               @QueryParam("threads") @DefaultValue("1") @Min(1) int threads,
+                               @Auth User user) {
     if (datasetKeys == null || datasetKeys.isEmpty()) {
       throw new IllegalArgumentException("At least one datasetKey parameter is required");
     } else {
-      return runJob(RematchJob.some(user.getKey(),factory,ni, datasetKeys.stream().mapToInt(i->i).toArray()));
+      return runJob(RematchJob.some(user.getKey(),factory,ni, datasetKeys.stream().mapToInt(i->i).toArray()).withThreads(threads));
     }
   }
 
@@ -17,12 +17,12 @@ import life.catalogue.dw.auth.Roles;
 import life.catalogue.dw.jersey.MoreMediaTypes;
 import life.catalogue.dw.jersey.filter.DatasetKeyRewriteFilter;
 import life.catalogue.dw.jersey.filter.VaryAccept;
+import life.catalogue.img.EncodedImage;
 import life.catalogue.img.ImageService;
 import life.catalogue.img.ImageServiceFS;
 import life.catalogue.img.ImgConfig;
 import life.catalogue.release.ReleaseManager;
 
-import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -32,7 +32,9 @@ import javax.annotation.security.RolesAllowed;
 import javax.validation.Valid;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
 import org.apache.ibatis.session.SqlSession;
@@ -137,8 +139,23 @@ public class DatasetResource extends AbstractGlobalResource<Dataset> {
   @GET
   @Path("{key}/logo")
   @Produces("image/png")
-  public BufferedImage logo(@PathParam("key") int key, @QueryParam("size") @DefaultValue("small") ImgConfig.Scale scale) {
-    return imgService.datasetLogo(key, scale);
+  public Response logo(@PathParam("key") int key, @QueryParam("size") @DefaultValue("small") ImgConfig.Scale scale, @Context Request request) {
+    return image(imgService.datasetLogoEncoded(key, scale), request);
+  }
+
+  /**
+   * Serves the encoded image bytes as they are, answering conditional requests with a matching ETag with 304.
+   */
+  private static Response image(EncodedImage img, Request request) {
+    if (img == null) {
+      return Response.noContent().build();
+    }
+    EntityTag etag = new EntityTag(img.getEtag());
+    Response.ResponseBuilder rb = request.evaluatePreconditions(etag);
+    if (rb == null) {
+      rb = Response.ok(img.getBytes()).tag(etag);
+    }
+    return rb.build();
   }
   
   @POST
@@ -243,14 +260,15 @@ public class DatasetResource extends AbstractGlobalResource<Dataset> {
   @GET
   @Path("/{key}/source/{id}/logo")
   @Produces("image/png")
-  public BufferedImage sourceLogo(@PathParam("key") int datasetKey, @PathParam("id") int id, @QueryParam("size") @DefaultValue("small") ImgConfig.Scale scale) {
+  public Response sourceLogo(@PathParam("key") int datasetKey, @PathParam("id") int id, @QueryParam("size") @DefaultValue("small") ImgConfig.Scale scale,
+                             @Context Request request) {
     DatasetOrigin origin = DatasetInfoCache.CACHE.info(datasetKey).origin;
     if (!origin.isManagedOrRelease()) {
       throw new IllegalArgumentException("Dataset "+datasetKey+" is not a project");
     } else if (origin == DatasetOrigin.RELEASED) {
-      return imgService.archiveDatasetLogo(id, datasetKey, scale);
+      return image(imgService.archiveDatasetLogoEncoded(id, datasetKey, scale), request);
     }
-    return imgService.datasetLogo(id, scale);
+    return image(imgService.datasetLogoEncoded(id, scale), request);
   }
 
   @GET
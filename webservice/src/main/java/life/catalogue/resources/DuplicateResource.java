@@ -6,6 +6,7 @@ import life.catalogue.api.vocab.EntityType;
 import life.catalogue.api.vocab.MatchingMode;
 import life.catalogue.api.vocab.NameCategory;
 import life.catalogue.api.vocab.TaxonomicStatus;
+import life.catalogue.dao.DuplicateCache;
 import life.catalogue.dao.DuplicateDao;
 
 import org.gbif.nameparser.api.Rank;
@@ -30,7 +31,10 @@ public class DuplicateResource {
   private static final Logger LOG = LoggerFactory.getLogger(DuplicateResource.class);
   
   
-  public DuplicateResource() {
+  private final DuplicateCache cache;
+
+  public DuplicateResource(DuplicateCache cache) {
+    this.cache = cache;
   }
   
   @GET
@@ -50,7 +54,7 @@ public class DuplicateResource {
                               @QueryParam("withDecision") Boolean withDecision,
                               @QueryParam("catalogueKey") Integer catalogueKey,
                               @Valid @BeanParam Page page, @Context SqlSession session) {
-    DuplicateDao dao = new DuplicateDao(session);
+    DuplicateDao dao = new DuplicateDao(session, cache);
     if (entity == null || entity == EntityType.NAME_USAGE) {
         return dao.findUsages(mode, minSize, datasetKey, sourceDatasetKey, sectorKey, category, ranks, status,
           authorshipDifferent, acceptedDifferent, rankDifferent, codeDifferent, withDecision, catalogueKey, page);
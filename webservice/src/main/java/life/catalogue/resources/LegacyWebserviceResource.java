@@ -13,10 +13,14 @@ import life.catalogue.db.mapper.legacy.model.LName;
 import life.catalogue.db.mapper.legacy.model.LResponse;
 import life.catalogue.dw.jersey.filter.VaryAccept;
 import life.catalogue.legacy.IdMap;
+import life.catalogue.legacy.LegacyNameIndex;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.ws.rs.*;
@@ -28,6 +32,9 @@ import org.apache.ibatis.session.SqlSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
 import io.swagger.v3.oas.annotations.Hidden;
 
 import static life.catalogue.api.util.ObjectUtils.coalesce;
@@ -50,12 +57,24 @@ public class LegacyWebserviceResource {
   private static final Logger LOG = LoggerFactory.getLogger(LegacyWebserviceResource.class);
   private final String version;
   private final IdMap idMap;
+  private final LegacyNameIndex nameIndex;
   private final URI portalURI;
+  private final Timer getTimer;
+  private final Timer indexSearchTimer;
+  private final Timer dbSearchTimer;
 
-  public LegacyWebserviceResource(WsServerConfig cfg, IdMap idMap) {
+  /**
+   * @param nameIndex optional name index to search releases with
+   */
+  public LegacyWebserviceResource(WsServerConfig cfg, IdMap idMap, @Nullable LegacyNameIndex nameIndex, MetricRegistry registry) {
     version = cfg.versionString();
     portalURI = cfg.portalURI;
     this.idMap = idMap;
+    this.nameIndex = nameIndex;
+    final String prefix = "life.catalogue.legacy";
+    getTimer = registry.timer(MetricRegistry.name(prefix, "get"));
+    indexSearchTimer = registry.timer(MetricRegistry.name(prefix, "search", "index"));
+    dbSearchTimer = registry.timer(MetricRegistry.name(prefix, "search", "db"));
   }
 
   static int calcLimit(boolean full, Integer limitRequested){
@@ -134,8 +153,6 @@ public class LegacyWebserviceResource {
    * @return
    */
   private LResponse search (int datasetKey, final String name, boolean full, int start, Integer limitRequested, SqlSession session) {
-    LNameMapper sMapper = session.getMapper(LNameMapper.class);
-    LVernacularMapper vMapper = session.getMapper(LVernacularMapper.class);
     boolean prefix = false;
     String q = name;
     if (name.endsWith("*")) {
@@ -145,13 +162,57 @@ public class LegacyWebserviceResource {
     if (q.length() < 3) {
       return invalidName(name);
     }
+    int limit = calcLimit(full, limitRequested);
+
+    if (nameIndex != null) {
+      // only stopped and recorded if the index could be used
+      Timer.Context ctxt = indexSearchTimer.time();
+      LegacyNameIndex.Hits hits = nameIndex.search(datasetKey, q, prefix, start, limit);
+      if (hits != null) {
+        try {
+          return search(datasetKey, name, full, start, hits, session);
+        } finally {
+          ctxt.stop();
+        }
+      }
+    }
+    try (Timer.Context ctxt = dbSearchTimer.time()) {
+      return search(datasetKey, name, q, prefix, full, start, limit, session);
+    }
+  }
 
+  /**
+   * Loads the page of names found in the name index.
+   */
+  private LResponse search (int datasetKey, final String name, boolean full, int start, LegacyNameIndex.Hits hits, SqlSession session) {
+    if (hits.getTotal() < start) {
+      return nameNotFound(name, start);
+    }
+    List<LName> results = new ArrayList<>();
+    if (!hits.getUsageIds().isEmpty()) {
+      LNameMapper sMapper = session.getMapper(LNameMapper.class);
+      results.addAll(full ?
+        sMapper.listFullByIds(datasetKey, hits.getUsageIds()) :
+        sMapper.listByIds(datasetKey, hits.getUsageIds())
+      );
+    }
+    if (!hits.getVernacularIds().isEmpty()) {
+      results.addAll(session.getMapper(LVernacularMapper.class).listByIds(datasetKey, hits.getVernacularIds()));
+    }
+    return new LResponse(name, hits.getTotal(), start, results, version);
+  }
+
+  /**
+   * Counts and searches names in the database.
+   */
+  private LResponse search (int datasetKey, final String name, String q, boolean prefix, boolean full, int start, int limit, SqlSession session) {
+    LNameMapper sMapper = session.getMapper(LNameMapper.class);
+    LVernacularMapper vMapper = session.getMapper(LVernacularMapper.class);
     int cntSN = sMapper.count(datasetKey, prefix, q);
     int cntVN = vMapper.count(datasetKey, prefix, q);
     if (cntSN + cntVN < start) {
       return nameNotFound(name, start);
     }
-    int limit = calcLimit(full, limitRequested);
     List<LName> results;
     if (cntSN - start > 0) {
       // scientific and maybe vernaculars
@@ -170,15 +231,17 @@ public class LegacyWebserviceResource {
   }
 
   private LResponse get (int datasetKey, String id, boolean full, SqlSession session) {
-    LNameMapper mapper = session.getMapper(LNameMapper.class);
-    LName obj = full ?
-      mapper.getFull(datasetKey, id) :
-      mapper.get(datasetKey, id);
-    if (obj == null) {
-      return idNotFound(id);
+    try (Timer.Context ctxt = getTimer.time()) {
+      LNameMapper mapper = session.getMapper(LNameMapper.class);
+      LName obj = full ?
+        mapper.getFull(datasetKey, id) :
+        mapper.get(datasetKey, id);
+      if (obj == null) {
+        return idNotFound(id);
+      }
+      LResponse resp = new LResponse(id, obj, version);
+      return resp;
     }
-    LResponse resp = new LResponse(id, obj, version);
-    return resp;
   }
 
 
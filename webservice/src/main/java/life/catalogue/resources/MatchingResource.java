@@ -1,36 +1,63 @@
 package life.catalogue.resources;
 
+import life.catalogue.api.jackson.ApiModule;
 import life.catalogue.api.model.IssueContainer;
 import life.catalogue.api.model.Name;
 import life.catalogue.api.model.NameMatch;
 import life.catalogue.api.model.ParsedNameUsage;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
 import life.catalogue.matching.NameIndex;
 import life.catalogue.parser.NameParser;
 
 import org.gbif.nameparser.api.NomCode;
 import org.gbif.nameparser.api.Rank;
 
-import java.util.Optional;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
-import javax.ws.rs.GET;
-import javax.ws.rs.Path;
-import javax.ws.rs.Produces;
-import javax.ws.rs.QueryParam;
+import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 
+import org.glassfish.jersey.media.multipart.FormDataParam;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+
 @Path("/name/matching")
 @Produces(MediaType.APPLICATION_JSON)
-public class MatchingResource {
+public class MatchingResource implements AutoCloseable {
   
   @SuppressWarnings("unused")
   private static final Logger LOG = LoggerFactory.getLogger(MatchingResource.class);
+  // number of names read, parsed and matched together before the results are streamed
+  private static final int BATCH_SIZE = 1000;
+  // maximum number of names waiting to be parsed or matched before request threads do the work themselves
+  private static final int QUEUE_SIZE = 4 * BATCH_SIZE;
   private final NameIndex ni;
-  
-  public MatchingResource(NameIndex ni) {
+  private final ThreadPoolExecutor exec;
+
+  /**
+   * @param threads number of threads parsing and matching the names of batch requests
+   */
+  public MatchingResource(NameIndex ni, int threads) {
     this.ni = ni;
+    exec = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(QUEUE_SIZE),
+      new NamedThreadFactory("name-matcher", Thread.NORM_PRIORITY, true, null),
+      new ThreadPoolExecutor.CallerRunsPolicy()
+    );
   }
   
   /**
@@ -47,10 +74,119 @@ public class MatchingResource {
     return m;
   }
   
+  /**
+   * Matching names by posting plain text content using one line per scientific name.
+   * Matches are streamed back as a json array in the same order as the given names.
+   * Make sure to preserve new lines (\n) in the posted data, for example use --data-binary with curl:
+   * <pre>
+   * curl POST -H "Content-Type:text/plain" --data-binary @scientific_names.txt http://api.catalogueoflife.org/name/matching
+   * </pre>
+   */
+  @POST
+  @Consumes(MediaType.TEXT_PLAIN)
+  public StreamingOutput matchPlainText(@QueryParam("rank") Rank rank,
+                                        @QueryParam("code") NomCode code,
+                                        @QueryParam("verbose") boolean verbose,
+                                        InputStream names) {
+    return matchLines(rank, code, verbose, names);
+  }
+
+  /**
+   * Matching names by uploading a plain UTF-8 text file using one line per scientific name.
+   * Matches are streamed back as a json array in the same order as the given names.
+   * <pre>
+   * curl -F names=@scientific_names.txt http://api.catalogueoflife.org/name/matching
+   * </pre>
+   */
+  @POST
+  @Consumes(MediaType.MULTIPART_FORM_DATA)
+  public StreamingOutput matchFile(@FormDataParam("rank") Rank rank,
+                                   @FormDataParam("code") NomCode code,
+                                   @FormDataParam("verbose") boolean verbose,
+                                   @FormDataParam("names") InputStream file) {
+    if (file == null) {
+      throw new IllegalArgumentException("No names file uploaded");
+    }
+    return matchLines(rank, code, verbose, file);
+  }
+
+  private StreamingOutput matchLines(Rank rank, NomCode code, boolean verbose, InputStream names) {
+    // fail early before we start streaming
+    ni.assertOnline();
+    final BufferedReader reader = new BufferedReader(new InputStreamReader(names, StandardCharsets.UTF_8));
+    return os -> {
+      JsonGenerator jgen = ApiModule.MAPPER.getFactory().createGenerator(os);
+      jgen.writeStartArray();
+      List<String> batch = new ArrayList<>(BATCH_SIZE);
+      String line;
+      while ((line = reader.readLine()) != null) {
+        batch.add(line);
+        if (batch.size() >= BATCH_SIZE) {
+          write(jgen, matchBatch(batch, rank, code, verbose));
+          batch.clear();
+        }
+      }
+      if (!batch.isEmpty()) {
+        write(jgen, matchBatch(batch, rank, code, verbose));
+      }
+      jgen.writeEndArray();
+      jgen.flush();
+    };
+  }
+
+  private static void write(JsonGenerator jgen, List<NameMatch> matches) throws IOException {
+    for (NameMatch m : matches) {
+      jgen.writeObject(m);
+    }
+    jgen.flush();
+  }
+
+  /**
+   * Parses and matches every distinct name of the batch only once and in parallel.
+   * Empty or unparsable names result in a no match.
+   * @return matches in the same order as the given batch
+   */
+  List<NameMatch> matchBatch(List<String> batch, Rank rank, NomCode code, boolean verbose) {
+    List<String> distinct = batch.stream()
+      .map(String::trim)
+      .filter(q -> !q.isEmpty())
+      .distinct()
+      .collect(Collectors.toList());
+    List<CompletableFuture<Optional<Name>>> futures = distinct.stream()
+      .map(q -> CompletableFuture.supplyAsync(() -> parse(q, rank, code), exec))
+      .collect(Collectors.toList());
+    List<Optional<Name>> parsed = futures.stream()
+      .map(CompletableFuture::join)
+      .collect(Collectors.toList());
+
+    List<String> queries = new ArrayList<>(distinct.size());
+    List<Name> names = new ArrayList<>(distinct.size());
+    for (int idx = 0; idx < distinct.size(); idx++) {
+      if (parsed.get(idx).isPresent()) {
+        queries.add(distinct.get(idx));
+        names.add(parsed.get(idx).get());
+      }
+    }
+    List<NameMatch> matches = ni.matchAll(names, false, verbose, exec);
+    Map<String, NameMatch> byQuery = new HashMap<>();
+    for (int idx = 0; idx < queries.size(); idx++) {
+      byQuery.put(queries.get(idx), matches.get(idx));
+    }
+    return batch.stream()
+      .map(q -> byQuery.getOrDefault(q.trim(), NameMatch.noMatch()))
+      .collect(Collectors.toList());
+  }
+
   static Name name(String name, Rank rank, NomCode code) {
+    return parse(name, rank, code).orElseThrow(
+      () -> new IllegalArgumentException("Unable to parse name: " + name)
+    );
+  }
+
+  private static Optional<Name> parse(String name, Rank rank, NomCode code) {
     Optional<ParsedNameUsage> opt = NameParser.PARSER.parse(name, rank, code, IssueContainer.VOID);
-    if (opt.isPresent()) {
-      Name n = opt.get().getName();
+    return opt.map(pnu -> {
+      Name n = pnu.getName();
       // use parser determined code and rank in case nothing was given explicitly
       if (rank != null) {
         n.setRank(rank);
@@ -59,10 +195,12 @@ public class MatchingResource {
         n.setCode(code);
       }
       return n;
-      
-    } else {
-      throw new IllegalArgumentException("Unable to parse name: " + name);
-    }
+    });
   }
-  
+
+  @Override
+  public void close() {
+    ExecutorUtils.shutdown(exec, ExecutorUtils.MILLIS_TO_DIE, TimeUnit.MILLISECONDS);
+  }
+
 }
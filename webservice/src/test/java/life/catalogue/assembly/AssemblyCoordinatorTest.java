@@ -47,7 +47,7 @@ public class AssemblyCoordinatorTest {
 
     SectorImportDao sid = new SectorImportDao(PgSetupRule.getSqlSessionFactory(), treeRepoRule.getRepo());
     SectorDao sdao = Mockito.mock(SectorDao.class);
-    coord = new AssemblyCoordinator(PgSetupRule.getSqlSessionFactory(), NameIndexFactory.passThru(), sdao, sid, NameUsageIndexService.passThru(), new MetricRegistry());
+    coord = new AssemblyCoordinator(PgSetupRule.getSqlSessionFactory(), NameIndexFactory.passThru(), sdao, sid, NameUsageIndexService.passThru(), new MetricRegistry(), 2);
   }
   
   @Test(expected = IllegalArgumentException.class)
@@ -0,0 +1,115 @@
+package life.catalogue.assembly;
+
+import com.codahale.metrics.MetricRegistry;
+import life.catalogue.api.model.DSID;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SectorSchedulerTest {
+
+  static SectorScheduler.Scope scope(int project, int source, String target, String... ancestors) {
+    return new SectorScheduler.Scope(project, source, target, List.of(ancestors));
+  }
+
+  @Test
+  public void overlaps() {
+    SectorScheduler.Scope insecta = scope(3, 100, "Insecta", "Arthropoda", "Animalia");
+    SectorScheduler.Scope aves = scope(3, 101, "Aves", "Chordata", "Animalia");
+    SectorScheduler.Scope coleoptera = scope(3, 102, "Coleoptera", "Insecta", "Arthropoda", "Animalia");
+
+    assertFalse(insecta.overlaps(aves));
+    assertFalse(aves.overlaps(coleoptera));
+    // ancestor & descendant
+    assertTrue(insecta.overlaps(coleoptera));
+    assertTrue(coleoptera.overlaps(insecta));
+    // same target
+    assertTrue(insecta.overlaps(scope(3, 103, "Insecta", "Arthropoda", "Animalia")));
+    // same source
+    assertTrue(insecta.overlaps(scope(3, 100, "Aves", "Chordata", "Animalia")));
+    // missing target
+    assertTrue(insecta.overlaps(new SectorScheduler.Scope(3, 104, null, List.of())));
+    // other project
+    assertFalse(insecta.overlaps(scope(4, 100, "Insecta", "Arthropoda", "Animalia")));
+  }
+
+  @Test
+  public void schedule() throws Exception {
+    SectorScheduler scheduler = new SectorScheduler(2, "sync-test", new MetricRegistry());
+    List<String> started = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(4);
+    try {
+      scheduler.submit(DSID.of(3, 1), job("insecta", started, release, done), scope(3, 100, "Insecta", "Arthropoda"));
+      // overlaps with insecta and has to wait
+      scheduler.submit(DSID.of(3, 2), job("coleoptera", started, null, done), scope(3, 101, "Coleoptera", "Insecta", "Arthropoda"));
+      // disjoint and runs in parallel
+      scheduler.submit(DSID.of(3, 3), job("aves", started, null, done), scope(3, 102, "Aves", "Chordata"));
+      // overlaps with the waiting coleoptera job and must not overtake it
+      scheduler.submit(DSID.of(3, 4), job("carabidae", started, null, done), scope(3, 103, "Carabidae", "Coleoptera", "Insecta", "Arthropoda"));
+
+      awaitStarted(started, 2);
+      assertEquals(Set.of("insecta", "aves"), Set.copyOf(started));
+      assertEquals(2, scheduler.waitingSize());
+
+      release.countDown();
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      assertEquals(List.of("coleoptera", "carabidae"), List.copyOf(started.subList(2, 4)));
+      assertEquals(0, scheduler.waitingSize());
+
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  @Test
+  public void cancel() throws Exception {
+    SectorScheduler scheduler = new SectorScheduler(1, "sync-test", new MetricRegistry());
+    List<String> started = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(2);
+    try {
+      scheduler.submit(DSID.of(3, 1), job("insecta", started, release, done), scope(3, 100, "Insecta"));
+      scheduler.submit(DSID.of(3, 2), job("aves", started, null, done), scope(3, 101, "Aves"));
+      scheduler.submit(DSID.of(3, 3), job("mammalia", started, null, done), scope(3, 102, "Mammalia"));
+
+      assertTrue(scheduler.cancel(DSID.of(3, 2)));
+      assertFalse(scheduler.cancel(DSID.of(3, 99)));
+      release.countDown();
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      assertEquals(List.of("insecta", "mammalia"), List.copyOf(started));
+
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  private static Runnable job(String name, List<String> started, CountDownLatch release, CountDownLatch done) {
+    return () -> {
+      started.add(name);
+      try {
+        if (release != null) {
+          release.await(10, TimeUnit.SECONDS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        done.countDown();
+      }
+    };
+  }
+
+  private static void awaitStarted(List<String> started, int expected) throws InterruptedException {
+    long timeout = System.currentTimeMillis() + 10000;
+    while (started.size() < expected && System.currentTimeMillis() < timeout) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+}
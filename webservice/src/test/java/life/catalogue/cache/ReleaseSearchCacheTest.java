@@ -0,0 +1,131 @@
+package life.catalogue.cache;
+
+import life.catalogue.api.event.DatasetChanged;
+import life.catalogue.api.event.DatasetIndexChanged;
+import life.catalogue.api.model.Dataset;
+import life.catalogue.api.model.Page;
+import life.catalogue.api.search.*;
+import life.catalogue.es.NameUsageSearchService;
+import life.catalogue.es.NameUsageSuggestionService;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+import static org.junit.Assert.*;
+
+public class ReleaseSearchCacheTest {
+  static final int RELEASE = 3;
+  static final int RELEASE2 = 4;
+  static final int PROJECT = 10;
+
+  AtomicInteger searches = new AtomicInteger();
+  AtomicInteger suggestions = new AtomicInteger();
+  MetricRegistry registry;
+  ReleaseSearchCache cache;
+
+  @Before
+  public void init() {
+    searches.set(0);
+    suggestions.set(0);
+    registry = new MetricRegistry();
+    NameUsageSearchService search = (req, page) -> {
+      searches.incrementAndGet();
+      // the ES service modifies the request
+      if (req.hasQ()) {
+        req.setQ(req.getQ().toLowerCase());
+      }
+      return new NameUsageSearchResponse(page, 0, Collections.emptyList());
+    };
+    NameUsageSuggestionService suggest = req -> {
+      suggestions.incrementAndGet();
+      req.setSciNameSearchTerms(new String[]{req.getQ()});
+      return new NameUsageSuggestResponse(Collections.emptyList());
+    };
+    cache = new ReleaseSearchCache(search, suggest, 1, registry, key -> key == RELEASE || key == RELEASE2);
+  }
+
+  static NameUsageSearchRequest search(String q, int... datasetKeys) {
+    NameUsageSearchRequest req = new NameUsageSearchRequest();
+    req.setQ(q);
+    for (int key : datasetKeys) {
+      req.addFilter(NameUsageSearchParameter.DATASET_KEY, key);
+    }
+    return req;
+  }
+
+  static NameUsageSuggestRequest suggest(String q, int datasetKey) {
+    NameUsageSuggestRequest req = new NameUsageSuggestRequest();
+    req.setQ(q);
+    req.setDatasetFilter(datasetKey);
+    return req;
+  }
+
+  @Test
+  public void search() {
+    NameUsageSearchResponse resp = cache.search(search("Abies", RELEASE), new Page(0, 10));
+    assertSame(resp, cache.search(search("Abies", RELEASE), new Page(0, 10)));
+    // normalized whitespace
+    assertSame(resp, cache.search(search(" Abies ", RELEASE), new Page(0, 10)));
+    assertEquals(1, searches.get());
+
+    // other page or query
+    cache.search(search("Abies", RELEASE), new Page(10, 10));
+    cache.search(search("Pinus", RELEASE), new Page(0, 10));
+    assertEquals(3, searches.get());
+
+    // not restricted to releases only
+    cache.search(search("Abies", PROJECT), new Page(0, 10));
+    cache.search(search("Abies", PROJECT), new Page(0, 10));
+    cache.search(search("Abies", RELEASE, PROJECT), new Page(0, 10));
+    cache.search(search("Abies"), new Page(0, 10));
+    assertEquals(7, searches.get());
+
+    assertEquals(2, registry.meter("life.catalogue.cache.release.search.hits").getCount());
+    assertEquals(3, registry.meter("life.catalogue.cache.release.search.misses").getCount());
+  }
+
+  @Test
+  public void suggest() {
+    cache.suggest(suggest("Abies", RELEASE));
+    cache.suggest(suggest("Abies", RELEASE));
+    cache.suggest(suggest("Abies", PROJECT));
+    assertEquals(2, suggestions.get());
+    assertEquals(1, registry.meter("life.catalogue.cache.release.suggest.hits").getCount());
+  }
+
+  @Test
+  public void invalidate() {
+    cache.search(search("Abies", RELEASE), new Page());
+    cache.search(search("Abies", RELEASE2), new Page());
+    cache.suggest(suggest("Abies", RELEASE));
+    assertEquals(2, searches.get());
+
+    Dataset d = new Dataset();
+    d.setKey(RELEASE);
+    cache.datasetChanged(DatasetChanged.created(d));
+    cache.search(search("Abies", RELEASE), new Page());
+    assertEquals(2, searches.get());
+
+    cache.datasetChanged(DatasetChanged.deleted(d));
+    cache.search(search("Abies", RELEASE), new Page());
+    cache.search(search("Abies", RELEASE2), new Page());
+    cache.suggest(suggest("Abies", RELEASE));
+    assertEquals(3, searches.get());
+    assertEquals(2, suggestions.get());
+
+    cache.indexChanged(DatasetIndexChanged.dataset(RELEASE2));
+    cache.search(search("Abies", RELEASE), new Page());
+    cache.search(search("Abies", RELEASE2), new Page());
+    assertEquals(4, searches.get());
+
+    cache.indexChanged(DatasetIndexChanged.all());
+    cache.search(search("Abies", RELEASE), new Page());
+    cache.search(search("Abies", RELEASE2), new Page());
+    assertEquals(6, searches.get());
+  }
+}
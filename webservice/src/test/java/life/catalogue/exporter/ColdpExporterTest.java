@@ -4,6 +4,7 @@ import life.catalogue.api.model.CslData;
 import life.catalogue.api.model.CslDate;
 import life.catalogue.api.model.CslName;
 import life.catalogue.api.model.ExportRequest;
+import life.catalogue.api.model.SimpleName;
 import life.catalogue.api.vocab.DataFormat;
 import life.catalogue.api.vocab.Users;
 import life.catalogue.db.PgSetupRule;
@@ -47,6 +48,15 @@ public class ColdpExporterTest extends ExporterTest {
     assertTrue(exp.getArchive().exists());
   }
 
+  @Test
+  public void subtree() {
+    req.setRoot(new SimpleName("root-2"));
+    ColdpExporter exp = new ColdpExporter(req, Users.TESTER, PgSetupRule.getSqlSessionFactory(), cfg, ImageService.passThru());
+    exp.run();
+
+    assertTrue(exp.getArchive().exists());
+  }
+
   @Test
   public void excel() {
     req.setExcel(true);
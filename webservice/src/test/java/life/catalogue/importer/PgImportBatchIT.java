@@ -0,0 +1,11 @@
+package life.catalogue.importer;
+
+/**
+ * Runs all PgImport tests using batched insert statements instead of COPY.
+ */
+public class PgImportBatchIT extends PgImportIT {
+
+  public PgImportBatchIT() {
+    icfg.copy = false;
+  }
+}
@@ -0,0 +1,91 @@
+package life.catalogue.legacy;
+
+import life.catalogue.db.mapper.legacy.LNameMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LegacyNameIndexTest {
+  static final int RELEASE = 3;
+  static final int PROJECT = 10;
+
+  LegacyNameIndex index;
+
+  @Before
+  public void init() {
+    index = new LegacyNameIndex(null, 1000, key -> key == RELEASE);
+    index.put(RELEASE, new LegacyNameIndex.Index(
+      names("Abies alba", "u1", "Abies", "u2", "Abies alba", "u3", "Abies balsamea", "u4", "Pinus", "u5"),
+      names("Weißtanne", "1", "Abies tree", "2", "Balsam fir", "3")
+    ));
+  }
+
+  @After
+  public void close() {
+    index.close();
+  }
+
+  static LegacyNameIndex.Names names(String... nameIdPairs) {
+    List<LNameMapper.IndexEntry> entries = new ArrayList<>();
+    for (int i = 0; i < nameIdPairs.length; i += 2) {
+      LNameMapper.IndexEntry e = new LNameMapper.IndexEntry();
+      e.setName(nameIdPairs[i].toLowerCase());
+      e.setId(nameIdPairs[i + 1]);
+      entries.add(e);
+    }
+    return new LegacyNameIndex.Names(entries);
+  }
+
+  @Test
+  public void exact() {
+    LegacyNameIndex.Hits hits = index.search(RELEASE, "ABIES alba", false, 0, 10);
+    assertEquals(2, hits.getTotal());
+    assertEquals(List.of("u1", "u3"), hits.getUsageIds());
+    assertTrue(hits.getVernacularIds().isEmpty());
+
+    hits = index.search(RELEASE, "Abies", false, 0, 10);
+    assertEquals(1, hits.getTotal());
+    assertEquals(List.of("u2"), hits.getUsageIds());
+
+    hits = index.search(RELEASE, "Abie", false, 0, 10);
+    assertEquals(0, hits.getTotal());
+    assertTrue(hits.getUsageIds().isEmpty());
+  }
+
+  @Test
+  public void prefix() {
+    LegacyNameIndex.Hits hits = index.search(RELEASE, "abies", true, 0, 10);
+    assertEquals(5, hits.getTotal());
+    assertEquals(List.of("u2", "u1", "u3", "u4"), hits.getUsageIds());
+    assertEquals(List.of(2), hits.getVernacularIds());
+
+    // paging continues from scientific into vernacular names
+    hits = index.search(RELEASE, "abies", true, 3, 2);
+    assertEquals(5, hits.getTotal());
+    assertEquals(List.of("u4"), hits.getUsageIds());
+    assertEquals(List.of(2), hits.getVernacularIds());
+
+    hits = index.search(RELEASE, "abies", true, 10, 2);
+    assertEquals(5, hits.getTotal());
+    assertTrue(hits.getUsageIds().isEmpty());
+    assertTrue(hits.getVernacularIds().isEmpty());
+
+    hits = index.search(RELEASE, "weiß", true, 0, 10);
+    assertEquals(1, hits.getTotal());
+    assertEquals(List.of(1), hits.getVernacularIds());
+  }
+
+  @Test
+  public void notIndexed() {
+    assertNull(index.search(PROJECT, "Abies", true, 0, 10));
+    // wildcards are only supported by the database
+    assertNull(index.search(RELEASE, "Abies%", true, 0, 10));
+    assertNull(index.search(RELEASE, "Abies_alba", false, 0, 10));
+  }
+}
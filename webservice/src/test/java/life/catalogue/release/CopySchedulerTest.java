@@ -0,0 +1,80 @@
+package life.catalogue.release;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CopySchedulerTest {
+
+  @Test
+  public void dependencies() throws Exception {
+    CopyScheduler scheduler = new CopyScheduler(3, "test");
+    List<String> done = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch parallel = new CountDownLatch(2);
+    // a and b only finish if they run at the same time
+    scheduler.add("a", () -> {
+      parallel.countDown();
+      await(parallel);
+      done.add("a");
+    });
+    scheduler.add("b", () -> {
+      parallel.countDown();
+      await(parallel);
+      done.add("b");
+    });
+    scheduler.add("c", () -> done.add("c"), "a", "b");
+    scheduler.add("d", () -> done.add("d"), "c");
+
+    Map<String, Integer> timings = scheduler.await();
+    assertEquals(List.of("a", "b", "c", "d"), List.copyOf(timings.keySet()));
+    assertEquals(4, done.size());
+    assertTrue(done.indexOf("c") > done.indexOf("a"));
+    assertTrue(done.indexOf("c") > done.indexOf("b"));
+    assertEquals("d", done.get(3));
+  }
+
+  @Test
+  public void failure() throws Exception {
+    CopyScheduler scheduler = new CopyScheduler(2, "test");
+    List<String> done = Collections.synchronizedList(new ArrayList<>());
+    scheduler.add("a", () -> {
+      throw new IllegalStateException("copy failed");
+    });
+    scheduler.add("b", () -> done.add("b"), "a");
+    scheduler.add("c", () -> done.add("c"));
+    try {
+      scheduler.await();
+      fail("copy failure expected");
+    } catch (IllegalStateException e) {
+      assertEquals("copy failed", e.getMessage());
+    }
+    // dependents are skipped, all others still run
+    assertEquals(List.of("c"), done);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void duplicate() throws Exception {
+    CopyScheduler scheduler = new CopyScheduler(1, "test");
+    scheduler.add("a", () -> {});
+    try {
+      scheduler.add("a", () -> {});
+    } finally {
+      scheduler.await();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -3,6 +3,7 @@ package life.catalogue.release;
 import life.catalogue.api.model.SimpleNameWithNidx;
 import life.catalogue.api.vocab.MatchType;
 import life.catalogue.api.vocab.TaxonomicStatus;
+import org.apache.commons.lang3.time.StopWatch;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -26,11 +27,27 @@ public class ReleasedIdsTest {
   }
 
   @Test
-  @Ignore("manual test to check memory footprint")
+  @Ignore("manual benchmark to check the memory footprint, run with -Xmx4g or more")
   public void memory() throws InterruptedException {
-    init(1000000);
-    System.out.println("DONE");
-    TimeUnit.SECONDS.sleep(10);
+    final int size = 10_000_000;
+    long before = usedHeap();
+    StopWatch watch = StopWatch.createStarted();
+    init(size);
+    watch.stop();
+    long after = usedHeap();
+    System.out.printf("%,d ids loaded in %s using %,d MB heap, %d bytes per id%n",
+      ids.size(), watch, (after - before) / 1024 / 1024, (after - before) / size);
+    // make sure the ids are not garbage collected before measuring
+    assertEquals(size, ids.size());
+  }
+
+  static long usedHeap() throws InterruptedException {
+    Runtime rt = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      TimeUnit.MILLISECONDS.sleep(200);
+    }
+    return rt.totalMemory() - rt.freeMemory();
   }
 
   @Test
@@ -64,6 +81,56 @@ public class ReleasedIdsTest {
     assertEquals(8, ids.size());
   }
 
+  @Test
+  public void byNxId() throws InterruptedException {
+    ids = new ReleasedIds();
+    ids.add(new ReleasedId(10, 2, sn(7)));
+    ids.add(new ReleasedId(20, 2, sn(8)));
+    ids.add(new ReleasedId(30, 1, sn(7)));
+    ids.add(new ReleasedId(40, 1, sn(7)));
+    ReleasedId[] rids = ids.byNxId(7);
+    assertEquals(3, rids.length);
+    assertEquals(10, rids[0].id);
+    assertEquals(30, rids[1].id);
+    assertEquals(40, rids[2].id);
+    assertEquals(1, rids[1].attempt);
+    assertEquals(TaxonomicStatus.ACCEPTED, rids[1].status);
+    assertEquals(MatchType.EXACT, rids[1].matchType);
+    assertEquals("Mill.", rids[1].authorship);
+    assertNull(rids[1].phrase);
+    assertNull(rids[1].rank);
+    assertEquals(2, ids.getMaxAttempt());
+    assertEquals(2, ids.maxAttemptIdCount());
+
+    // remove from the middle
+    ids.remove(30);
+    rids = ids.byNxId(7);
+    assertEquals(2, rids.length);
+    assertEquals(10, rids[0].id);
+    assertEquals(40, rids[1].id);
+
+    // remove the last and add a new one which should be appended
+    ids.remove(40);
+    ids.add(new ReleasedId(50, 1, sn(7)));
+    rids = ids.byNxId(7);
+    assertEquals(2, rids.length);
+    assertEquals(10, rids[0].id);
+    assertEquals(50, rids[1].id);
+    assertEquals(50, ids.maxKey());
+
+    ids.remove(10);
+    ids.remove(50);
+    assertNull(ids.byNxId(7));
+    assertEquals(1, ids.byNxId(8).length);
+    assertEquals(1, ids.size());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void unsorted() throws InterruptedException {
+    init(10);
+    ids.add(new ReleasedId(3, 5, sn(3)));
+  }
+
   ReleasedId gen(){
     int id = counter++;
     int nxId;
@@ -75,12 +142,17 @@ public class ReleasedIdsTest {
       nxId = id % 1000;
     }
 
+    return new ReleasedId(id, counter < 100000 ? 1 : 2, sn(nxId));
+  }
+
+  static SimpleNameWithNidx sn(int nxId) {
     SimpleNameWithNidx sn = new SimpleNameWithNidx();
     sn.setCanonicalId(1);
     sn.setNamesIndexId(nxId);
     sn.setNamesIndexMatchType(MatchType.EXACT);
     sn.setStatus(TaxonomicStatus.ACCEPTED);
     sn.setName("Abies");
-    return new ReleasedId(id, counter < 100000 ? 1 : 2, sn);
+    sn.setAuthorship("Mill.");
+    return sn;
   }
 }
\ No newline at end of file
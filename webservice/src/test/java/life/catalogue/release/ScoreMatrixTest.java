@@ -112,6 +112,54 @@ public class ScoreMatrixTest {
     assertTrue(matches.isEmpty());
   }
 
+  @Test
+  public void blocking() {
+    List<SimpleNameWithNidx> names = new ArrayList<>();
+    for (int i = 1; i <= 6; i++) {
+      SimpleNameWithNidx sn = sn(i);
+      sn.setStatus(i % 2 == 0 ? TaxonomicStatus.SYNONYM : TaxonomicStatus.ACCEPTED);
+      names.add(sn);
+    }
+    ReleasedIds.ReleasedId[] rids = new ReleasedIds.ReleasedId[4];
+    rids[0] = rid(1, 1);
+    rids[1] = m(1, 2, TaxonomicStatus.SYNONYM, null).rid;
+    rids[2] = rid(3, 1);
+    rids[3] = m(1, 4, TaxonomicStatus.SYNONYM, null).rid;
+
+    AtomicInteger calls = new AtomicInteger();
+    var sm = new ScoreMatrix(names, rids, (sn, rid) -> {
+        calls.incrementAndGet();
+        return sn.getStatus() == rid.status ? 10 - Math.abs(Integer.parseInt(sn.getId()) - rid.id) : 0;
+      },
+      n -> n.getStatus().isSynonym(),
+      r -> r.status.isSynonym()
+    );
+    // only accepted x accepted and synonym x synonym pairs get scored
+    assertEquals(12, calls.get());
+
+    List<String> matched = new ArrayList<>();
+    var best = sm.highest();
+    while (!best.isEmpty()) {
+      for (var m : best) {
+        assertEquals(10, m.score);
+        matched.add(m.name.getId() + ":" + m.rid.id);
+        sm.remove(m);
+      }
+      best = sm.highest();
+    }
+    assertEquals(List.of("1:1", "2:2", "3:3", "4:4"), matched);
+  }
+
+  @Test
+  public void blockingKey() {
+    assertNull(IdProvider.blockingKey(null, "Abies"));
+    assertEquals(IdProvider.blockingKey(TaxonomicStatus.ACCEPTED, "Abies"), IdProvider.blockingKey(TaxonomicStatus.PROVISIONALLY_ACCEPTED, null));
+    assertEquals(IdProvider.blockingKey(TaxonomicStatus.SYNONYM, "Abies"), IdProvider.blockingKey(TaxonomicStatus.AMBIGUOUS_SYNONYM, "ABIES"));
+    assertNotEquals(IdProvider.blockingKey(TaxonomicStatus.SYNONYM, "Abies"), IdProvider.blockingKey(TaxonomicStatus.SYNONYM, "Pinus"));
+    assertNotEquals(IdProvider.blockingKey(TaxonomicStatus.SYNONYM, "Abies"), IdProvider.blockingKey(TaxonomicStatus.MISAPPLIED, "Abies"));
+    assertNotEquals(IdProvider.blockingKey(TaxonomicStatus.SYNONYM, "Abies"), IdProvider.blockingKey(TaxonomicStatus.ACCEPTED, "Abies"));
+  }
+
   static SimpleNameWithNidx sn(int id) {
     SimpleNameWithNidx sn = new SimpleNameWithNidx();
     sn.setId(String.valueOf(id));
@@ -1,16 +1,23 @@
 package life.catalogue.resources;
 
+import life.catalogue.api.model.IndexName;
 import life.catalogue.api.model.Name;
 import life.catalogue.api.model.NameMatch;
 import life.catalogue.api.vocab.MatchType;
+import life.catalogue.matching.NameIndex;
 import org.gbif.nameparser.api.NameType;
 import org.gbif.nameparser.api.Rank;
 import org.junit.Test;
 
+import java.util.List;
+
 import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.GenericType;
 
 import static life.catalogue.ApiUtils.userCreds;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 
 public class MatchingResourceTest extends ResourceTestBase {
@@ -42,4 +49,57 @@ public class MatchingResourceTest extends ResourceTestBase {
     assertNotNull(match);
     assertEquals(MatchType.NONE, match.getType());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void matchBatch() throws Exception {
+    RULE.startNamesIndex();
+    List<NameMatch> matches = userCreds(base)
+      .post(Entity.text("Abies alba Mill.\n\nAbies alba Mill.\nPicea abies"), new GenericType<List<NameMatch>>() {});
+
+    assertEquals(4, matches.size());
+    for (NameMatch m : matches) {
+      assertEquals(MatchType.NONE, m.getType());
+    }
+  }
+
+  @Test
+  public void matchBatchIndexed() throws Exception {
+    RULE.startNamesIndex();
+    NameIndex ni = RULE.getServer().getNamesIndex();
+    ni.add(indexName("Lepus", "europaeus", "Pallas"));
+    ni.add(indexName("Lynx", "lynx", "Linnaeus"));
+
+    List<NameMatch> matches = userCreds(base)
+      .post(Entity.text("Lynx lynx Linnaeus\nLepus europaeus Pallas\nLynx lynx Linnaeus\nUnknownia fictus\nLepus europaeus Pallas"),
+        new GenericType<List<NameMatch>>() {});
+
+    assertEquals(5, matches.size());
+    assertMatch("Lynx lynx", matches.get(0));
+    assertMatch("Lepus europaeus", matches.get(1));
+    assertMatch("Lynx lynx", matches.get(2));
+    assertEquals(MatchType.NONE, matches.get(3).getType());
+    assertMatch("Lepus europaeus", matches.get(4));
+    // duplicates are matched to the same index name
+    assertEquals(matches.get(0).getNameKey(), matches.get(2).getNameKey());
+    assertEquals(matches.get(1).getNameKey(), matches.get(4).getNameKey());
+    assertNotEquals(matches.get(0).getNameKey(), matches.get(1).getNameKey());
+  }
+
+  private static void assertMatch(String scientificName, NameMatch m) {
+    assertEquals(MatchType.EXACT, m.getType());
+    assertNotNull(m.getNameKey());
+    assertEquals(scientificName, m.getName().getScientificName());
+  }
+
+  private static IndexName indexName(String genus, String species, String author) {
+    Name n = new Name();
+    n.setGenus(genus);
+    n.setSpecificEpithet(species);
+    n.getCombinationAuthorship().getAuthors().add(author);
+    n.setType(NameType.SCIENTIFIC);
+    n.setRank(Rank.SPECIES);
+    n.rebuildScientificName();
+    n.rebuildAuthorship();
+    return new IndexName(n);
+  }
+}